@@ -1,5 +1,8 @@
 import core.Game;
 import manager.DisplayManager;
+import manager.HeadlessManager;
+import manager.ParallelManager;
+import setting.FlagSetting;
 
 /**
  * FightingICEのメインメソッドを持つクラス．
@@ -16,9 +19,17 @@ public class Main {
 	public static void main(String[] options) {
 		Game game = new Game();
 		game.setOptions(options);
-		DisplayManager displayManager = new DisplayManager();
 
 		// ゲームの開始
-		displayManager.start(game);
+		if (FlagSetting.parallelFlag) {
+			ParallelManager parallelManager = new ParallelManager();
+			parallelManager.start(game);
+		} else if (FlagSetting.headlessFlag) {
+			HeadlessManager headlessManager = new HeadlessManager();
+			headlessManager.start(game);
+		} else {
+			DisplayManager displayManager = new DisplayManager();
+			displayManager.start(game);
+		}
 	}
 }
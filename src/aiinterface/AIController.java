@@ -1,6 +1,9 @@
 package aiinterface;
 
+import java.lang.reflect.Method;
 import java.util.LinkedList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -12,9 +15,16 @@ import struct.Key;
 import struct.ScreenData;
 
 /**
- * AIのスレッドや処理を管理するクラス．
+ * AIのスレッドや処理を管理するクラス．<br>
+ * AIの処理は, 全てのAIControllerで共有するExecutor上で実行される．
+ * Java 21以降では仮想スレッドを, それ以前ではスレッドを再利用するスレッドプールを用いるため, 試合ごとにOSのスレッドを生成し直す必要は無い．
  */
-public class AIController extends Thread {
+public class AIController implements Runnable {
+
+	/**
+	 * AIの処理を実行するExecutor．
+	 */
+	private static Executor executor = createDefaultExecutor();
 
 	/**
 	 * AIに実装すべきメソッドを定義するインタフェース．
@@ -30,7 +40,7 @@ public class AIController extends Thread {
 	/**
 	 * 対戦が始まっているかどうかを表すフラグ．
 	 */
-	private boolean isFighting;
+	private volatile boolean isFighting;
 
 	/**
 	 * 入力されたキー．
@@ -53,9 +63,14 @@ public class AIController extends Thread {
 	private ScreenData screenData;
 
 	/**
-	 * 各AIの処理を同時に始めるための同期用オブジェクト．
+	 * AIが最後に処理を終えたフレームの番号．
+	 */
+	private long processedFrame;
+
+	/**
+	 * AIの思考時間と締め切りに間に合わなかった回数の記録．
 	 */
-	private Object waitObj;
+	private AIStatistics statistics;
 
 	/**
 	 * 引数に指定されたAIインタフェースをセットし，AIControllerを初期化するクラスコンストラクタ．
@@ -68,11 +83,16 @@ public class AIController extends Thread {
 		this.ai = ai;
 	}
 
+	/**
+	 * AIの処理が終わったことを通知するためのThreadControllerクラスのインスタンス．
+	 */
+	private ThreadController threadController;
+
 	/**
 	 * 引数で与えられたパラメータをセットし，初期化を行う．
 	 *
-	 * @param waitFrame
-	 *            各AIの処理を同時に始めるための同期用オブジェクト
+	 * @param threadController
+	 *            各AIの処理の開始及び終了のタイミングを管理するクラスのインスタンス
 	 * @param gameData
 	 *            ステージの画面幅や最大HPなどの，ゲーム内で不変の情報を格納したクラスのインスタンス
 	 * @param playerNumber
@@ -81,10 +101,13 @@ public class AIController extends Thread {
 	 *
 	 * @see GameData
 	 */
-	public void initialize(Object waitFrame, GameData gameData, boolean playerNumber) throws Py4JException{
+	public void initialize(ThreadController threadController, GameData gameData, boolean playerNumber) throws Py4JException{
 		this.playerNumber = playerNumber;
-		this.waitObj = waitFrame;
+		this.threadController = threadController;
+		this.threadController.register(playerNumber);
+		this.processedFrame = threadController.getProcessedFrame(playerNumber);
 		this.key = new Key();
+		this.statistics = new AIStatistics();
 		this.framesData = new LinkedList<FrameData>();
 		this.clear();
 		this.isFighting = true;
@@ -99,27 +122,92 @@ public class AIController extends Thread {
 //		}
 	}
 
+	/**
+	 * AIの処理を実行するExecutorを変更する．<br>
+	 * 各AIは試合が終わるまでフレームの開始を待機し続けるため, 同時に動作する全てのAIを実行できるExecutorを指定する必要がある．
+	 *
+	 * @param executor
+	 *            AIの処理を実行するExecutor
+	 */
+	public static void setExecutor(Executor executor) {
+		AIController.executor = executor;
+	}
+
+	/**
+	 * デフォルトのExecutorを生成する．<br>
+	 * 仮想スレッドが利用できる場合は仮想スレッドを用い, 利用できない場合はデーモンスレッドを再利用するスレッドプールを用いる．
+	 *
+	 * @return AIの処理を実行するExecutor
+	 */
+	private static Executor createDefaultExecutor() {
+		try {
+			Method method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+			return (Executor) method.invoke(null);
+		} catch (ReflectiveOperationException e) {
+			return Executors.newCachedThreadPool(runnable -> {
+				Thread thread = new Thread(runnable, "AIController");
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+	}
+
+	/**
+	 * AIの処理をExecutor上で開始する．
+	 */
+	public void start() {
+		executor.execute(this);
+	}
+
 	@Override
 	public void run() {
 		Logger.getAnonymousLogger().log(Level.INFO, "Start to run");
 		while (isFighting) {
-			synchronized (this.waitObj) {
-				try {
-					this.waitObj.wait();
-				} catch (InterruptedException e) {
-					e.printStackTrace();
-				}
+			long frame;
+			try {
+				// まだ処理していないフレームの開始が通知されるまで待機する
+				frame = this.threadController.awaitFrameStart(this.playerNumber, this.processedFrame);
+			} catch (InterruptedException e) {
+				e.printStackTrace();
+				continue;
+			}
+			if (frame < 0 || !this.isFighting) {
+				break;
 			}
 
-			this.ai.getInformation(!this.framesData.isEmpty() ? this.framesData.removeFirst() : new FrameData());
-			this.ai.getScreenData(this.screenData);
-			this.ai.processing();
-			setInput(this.ai.input());
-			ThreadController.getInstance().notifyEndProcess(this.playerNumber);
+			processFrame();
+			this.processedFrame = frame;
+			this.threadController.notifyEndProcess(this.playerNumber, frame);
 		}
 
 	}
 
+	/**
+	 * 1フレーム分のAIの処理を行う．<br>
+	 * 最も古いフレームデータと画面情報をAIに渡して処理を行わせ, その入力情報をセットする．<br>
+	 * AIの処理を同期して行う場合は, スレッドを開始せずにゲームのスレッドからこのメソッドを直接呼び出す．
+	 */
+	public void processFrame() {
+		long startNanos = System.nanoTime();
+
+		this.ai.getInformation(!this.framesData.isEmpty() ? this.framesData.removeFirst() : new FrameData());
+		this.ai.getScreenData(this.screenData);
+		this.ai.processing();
+		setInput(this.ai.input());
+
+		this.statistics.recordThinkTime(System.nanoTime() - startNanos);
+	}
+
+	/**
+	 * AIの思考時間と締め切りに間に合わなかった回数の記録を返す．
+	 *
+	 * @return AIの思考時間と締め切りに間に合わなかった回数の記録
+	 * @see AIStatistics
+	 */
+	public AIStatistics getStatistics() {
+		return this.statistics;
+	}
+
 	/**
 	 * AIからの入力情報を返す．<br>
 	 * 入力情報が無ければ空のキーを返す．
@@ -207,9 +295,7 @@ public class AIController extends Thread {
 	 */
 	public synchronized void gameEnd() {
 		this.isFighting = false;
-		synchronized (this.waitObj) {
-			this.ai.close();
-			this.waitObj.notifyAll();
-		}
+		this.ai.close();
+		this.threadController.unregister(this.playerNumber);
 	}
 }
@@ -0,0 +1,141 @@
+package aiinterface;
+
+import java.util.Arrays;
+
+/**
+ * 1試合分のAIの思考時間と, フレームごとの締め切りに間に合わなかった回数を記録するクラス．<br>
+ * 締め切りに間に合わなかったフレームでは, ゲームはAIの前回の入力を用いて処理を進める．
+ */
+public class AIStatistics {
+
+	/**
+	 * 1フレーム分のAIの処理の締め切り(ナノ秒)．<br>
+	 * 締め切りを設けない場合は0．
+	 */
+	private long deadlineNanos;
+
+	/**
+	 * 記録した各フレームの思考時間(ナノ秒)を格納する配列．
+	 */
+	private long[] thinkTimes;
+
+	/**
+	 * 記録した思考時間の数．
+	 */
+	private int thinkTimeCount;
+
+	/**
+	 * ゲームが締め切りまでにAIの処理の終了を待てず, 前回の入力を用いたフレームの数．
+	 */
+	private int missedDeadlines;
+
+	/**
+	 * 思考時間が締め切りを超えたフレームの数．
+	 */
+	private int lateFrames;
+
+	/**
+	 * 締め切りを設けずに記録を行うインスタンスを生成するクラスコンストラクタ．
+	 */
+	public AIStatistics() {
+		this.deadlineNanos = 0;
+		this.thinkTimes = new long[1024];
+		this.thinkTimeCount = 0;
+		this.missedDeadlines = 0;
+		this.lateFrames = 0;
+	}
+
+	/**
+	 * 1フレーム分のAIの処理の締め切りをセットする．
+	 *
+	 * @param deadline
+	 *            締め切り(ミリ秒). 締め切りを設けない場合は0
+	 */
+	public synchronized void setDeadline(long deadline) {
+		this.deadlineNanos = deadline * 1_000_000L;
+	}
+
+	/**
+	 * 1フレーム分の思考時間を記録する．<br>
+	 * 締め切りが設けられている場合は, 思考時間が締め切りを超えたかどうかも記録する．
+	 *
+	 * @param nanos
+	 *            思考時間(ナノ秒)
+	 */
+	public synchronized void recordThinkTime(long nanos) {
+		if (this.thinkTimeCount == this.thinkTimes.length) {
+			this.thinkTimes = Arrays.copyOf(this.thinkTimes, this.thinkTimes.length * 2);
+		}
+		this.thinkTimes[this.thinkTimeCount++] = nanos;
+
+		if (this.deadlineNanos > 0 && nanos > this.deadlineNanos) {
+			this.lateFrames++;
+		}
+	}
+
+	/**
+	 * ゲームが締め切りまでにAIの処理の終了を待てなかったことを記録する．
+	 */
+	public synchronized void recordMissedDeadline() {
+		this.missedDeadlines++;
+	}
+
+	/**
+	 * ゲームが締め切りまでにAIの処理の終了を待てず, 前回の入力を用いたフレームの数を返す．
+	 *
+	 * @return 締め切りに間に合わなかったフレームの数
+	 */
+	public synchronized int getMissedDeadlines() {
+		return this.missedDeadlines;
+	}
+
+	/**
+	 * 思考時間が締め切りを超えたフレームの数を返す．
+	 *
+	 * @return 思考時間が締め切りを超えたフレームの数
+	 */
+	public synchronized int getLateFrames() {
+		return this.lateFrames;
+	}
+
+	/**
+	 * 記録した思考時間の数を返す．
+	 *
+	 * @return 記録した思考時間の数
+	 */
+	public synchronized int getThinkTimeCount() {
+		return this.thinkTimeCount;
+	}
+
+	/**
+	 * 記録した思考時間の, 指定したパーセンタイルの値を返す．
+	 *
+	 * @param percentile
+	 *            パーセンタイル(0から100)
+	 * @return 思考時間(ナノ秒). 思考時間が記録されていない場合は0
+	 */
+	public synchronized long getThinkTimePercentile(double percentile) {
+		if (this.thinkTimeCount == 0) {
+			return 0;
+		}
+
+		long[] sorted = Arrays.copyOf(this.thinkTimes, this.thinkTimeCount);
+		Arrays.sort(sorted);
+
+		int index = (int) Math.ceil(percentile / 100.0 * sorted.length) - 1;
+		return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+	}
+
+	/**
+	 * 記録した内容を1行の文字列で返す．
+	 *
+	 * @return 記録した内容を表す文字列
+	 */
+	@Override
+	public synchronized String toString() {
+		return String.format("frames %d, missed deadlines %d, late frames %d, think time p50 %.2f ms, "
+				+ "p90 %.2f ms, p99 %.2f ms, max %.2f ms", this.thinkTimeCount, this.missedDeadlines, this.lateFrames,
+				getThinkTimePercentile(50) / 1e6, getThinkTimePercentile(90) / 1e6,
+				getThinkTimePercentile(99) / 1e6, getThinkTimePercentile(100) / 1e6);
+	}
+}
@@ -1,8 +1,11 @@
 package aiinterface;
 
+import java.util.Arrays;
 import java.util.Deque;
-import java.util.LinkedList;
+import java.util.HashMap;
 
+import enumerate.Action;
+import input.KeyQueue;
 import struct.FrameData;
 import struct.Key;
 
@@ -13,9 +16,36 @@ import struct.Key;
 public class CommandCenter {
 
 	/**
-	 * The list storing the converted keys.
+	 * All actions, indexed by their ordinals.
 	 */
-	private LinkedList<Key> skillKey;
+	private static final Action[] ACTIONS = Action.values();
+
+	/**
+	 * The map from action names to actions, used to look up the action names
+	 * passed to {@link #commandCall(String)}.
+	 */
+	private static final HashMap<String, Action> ACTION_NAMES = new HashMap<String, Action>();
+
+	/**
+	 * The key sequences of all actions, packed by {@link Key#pack()}.<br>
+	 * The first index is 0 if the character is facing right, or 1 if facing
+	 * left, and the second index is the ordinal of the action. The sequences
+	 * are built once when this class is loaded and never modified.
+	 */
+	private static final byte[][][] ACTION_KEYS = new byte[2][ACTIONS.length][];
+
+	static {
+		for (Action action : ACTIONS) {
+			ACTION_NAMES.put(action.name(), action);
+			ACTION_KEYS[0][action.ordinal()] = createKeys(actionToCommand(action), true);
+			ACTION_KEYS[1][action.ordinal()] = createKeys(actionToCommand(action), false);
+		}
+	}
+
+	/**
+	 * The queue storing the converted keys, packed by {@link Key#pack()}.
+	 */
+	private KeyQueue skillKey;
 
 	/**
 	 * The frame data storing the information from the game status.
@@ -32,13 +62,14 @@ public class CommandCenter {
 	 * Class constructor.
 	 */
 	public CommandCenter() {
-		this.skillKey = new LinkedList<Key>();
+		this.skillKey = new KeyQueue();
 		this.frameData = new FrameData();
 		this.playerNumber = true;
 	}
 
 	/**
 	 * Converts the action name entered by AI into Key and stores it in the list of keys waiting to be executed.<br>
+	 * If the name is not an action name, it is treated as a command such as {@code "2 3 6 _ A"}.<br>
 	 * If there are unexecuted keys in the list, this method does nothing.
 	 *
 	 * @param str
@@ -47,164 +78,166 @@ public class CommandCenter {
 	public void commandCall(String str) {
 		// If there is no unexecuted key in the list
 		if (this.skillKey.isEmpty()) {
-			actionToCommand(str);
+			Action action = ACTION_NAMES.get(str);
+			if (action != null) {
+				addKeys(ACTION_KEYS[isFront() ? 0 : 1][action.ordinal()]);
+			} else {
+				addKeys(createKeys(str, isFront()));
+			}
 		}
 	}
 
 	/**
-	 * Converts the action name to a command and creates a key corresponding to the command.
+	 * Stores the keys of the given action in the list of keys waiting to be executed.<br>
+	 * The keys are taken from the sequences built in advance, so no key is created by this method.<br>
+	 * If there are unexecuted keys in the list, this method does nothing.
 	 *
-	 * @param str
-	 *            an action name
+	 * @param action
+	 *            the action to execute
 	 */
-	private void actionToCommand(String str) {
-		switch (str) {
-		case "FORWARD_WALK":
-			createKeys("6");
-			break;
-		case "DASH":
-			createKeys("6 5 6");
-			break;
-		case "BACK_STEP":
-			createKeys("4 5 4");
-			break;
-		case "CROUCH":
-			createKeys("2");
-			break;
-		case "JUMP":
-			createKeys("8");
-			break;
-		case "FOR_JUMP":
-			createKeys("9");
-			break;
-		case "BACK_JUMP":
-			createKeys("7");
-			break;
-		case "STAND_GUARD":
-			createKeys("4");
-			break;
-		case "CROUCH_GUARD":
-			createKeys("1");
-			break;
-		case "AIR_GUARD":
-			createKeys("7");
-			break;
-		case "THROW_A":
-			createKeys("4 _ A");
-			break;
-		case "THROW_B":
-			createKeys("4 _ B");
-			break;
-		case "STAND_A":
-			createKeys("A");
-			break;
-		case "STAND_B":
-			createKeys("B");
-			break;
-		case "CROUCH_A":
-			createKeys("2 _ A");
-			break;
-		case "CROUCH_B":
-			createKeys("2 _ B");
-			break;
-		case "AIR_A":
-			createKeys("A");
-			break;
-		case "AIR_B":
-			createKeys("B");
-			break;
-		case "AIR_DA":
-			createKeys("2 _ A");
-			break;
-		case "AIR_DB":
-			createKeys("2 _ B");
-			break;
-		case "STAND_FA":
-			createKeys("6 _ A");
-			break;
-		case "STAND_FB":
-			createKeys("6 _ B");
-			break;
-		case "CROUCH_FA":
-			createKeys("3 _ A");
-			break;
-		case "CROUCH_FB":
-			createKeys("3 _ B");
-			break;
-		case "AIR_FA":
-			createKeys("9 _ A");
-			break;
-		case "AIR_FB":
-			createKeys("9 _ B");
-			break;
-		case "AIR_UA":
-			createKeys("8 _ A");
-			break;
-		case "AIR_UB":
-			createKeys("8 _ B");
-			break;
-		case "STAND_D_DF_FA":
-			createKeys("2 3 6 _ A");
-			break;
-		case "STAND_D_DF_FB":
-			createKeys("2 3 6 _ B");
-			break;
-		case "STAND_F_D_DFA":
-			createKeys("6 2 3 _ A");
-			break;
-		case "STAND_F_D_DFB":
-			createKeys("6 2 3 _ B");
-			break;
-		case "STAND_D_DB_BA":
-			createKeys("2 1 4 _ A");
-			break;
-		case "STAND_D_DB_BB":
-			createKeys("2 1 4 _ B");
-			break;
-		case "AIR_D_DF_FA":
-			createKeys("2 3 6 _ A");
-			break;
-		case "AIR_D_DF_FB":
-			createKeys("2 3 6 _ B");
-			break;
-		case "AIR_F_D_DFA":
-			createKeys("6 2 3 _ A");
-			break;
-		case "AIR_F_D_DFB":
-			createKeys("6 2 3 _ B");
-			break;
-		case "AIR_D_DB_BA":
-			createKeys("2 1 4 _ A");
-			break;
-		case "AIR_D_DB_BB":
-			createKeys("2 1 4 _ B");
-			break;
-		case "STAND_D_DF_FC":
-			createKeys("2 3 6 _ C");
-			break;
-		default:
-			createKeys(str);
-			break;
+	public void commandCall(Action action) {
+		// If there is no unexecuted key in the list
+		if (this.skillKey.isEmpty()) {
+			addKeys(ACTION_KEYS[isFront() ? 0 : 1][action.ordinal()]);
+		}
+	}
+
+	/**
+	 * Stores the keys of the action with the given ordinal in the list of keys waiting to be executed.<br>
+	 * This method is intended for AIs that cannot pass {@link Action} constants directly, such as Python AIs.<br>
+	 * If there are unexecuted keys in the list, this method does nothing.
+	 *
+	 * @param actionOrdinal
+	 *            the ordinal of the action to execute
+	 * @throws IndexOutOfBoundsException
+	 *             if the ordinal is out of range
+	 * @see Action#ordinal()
+	 */
+	public void commandCall(int actionOrdinal) {
+		if (actionOrdinal < 0 || actionOrdinal >= ACTIONS.length) {
+			throw new IndexOutOfBoundsException("Action ordinal " + actionOrdinal + " is out of range");
 		}
 
+		commandCall(ACTIONS[actionOrdinal]);
+	}
+
+	/**
+	 * Converts the action to a command.
+	 *
+	 * @param action
+	 *            an action
+	 * @return the command corresponding to the action
+	 */
+	private static String actionToCommand(Action action) {
+		switch (action) {
+		case FORWARD_WALK:
+			return "6";
+		case DASH:
+			return "6 5 6";
+		case BACK_STEP:
+			return "4 5 4";
+		case CROUCH:
+			return "2";
+		case JUMP:
+			return "8";
+		case FOR_JUMP:
+			return "9";
+		case BACK_JUMP:
+			return "7";
+		case STAND_GUARD:
+			return "4";
+		case CROUCH_GUARD:
+			return "1";
+		case AIR_GUARD:
+			return "7";
+		case THROW_A:
+			return "4 _ A";
+		case THROW_B:
+			return "4 _ B";
+		case STAND_A:
+			return "A";
+		case STAND_B:
+			return "B";
+		case CROUCH_A:
+			return "2 _ A";
+		case CROUCH_B:
+			return "2 _ B";
+		case AIR_A:
+			return "A";
+		case AIR_B:
+			return "B";
+		case AIR_DA:
+			return "2 _ A";
+		case AIR_DB:
+			return "2 _ B";
+		case STAND_FA:
+			return "6 _ A";
+		case STAND_FB:
+			return "6 _ B";
+		case CROUCH_FA:
+			return "3 _ A";
+		case CROUCH_FB:
+			return "3 _ B";
+		case AIR_FA:
+			return "9 _ A";
+		case AIR_FB:
+			return "9 _ B";
+		case AIR_UA:
+			return "8 _ A";
+		case AIR_UB:
+			return "8 _ B";
+		case STAND_D_DF_FA:
+			return "2 3 6 _ A";
+		case STAND_D_DF_FB:
+			return "2 3 6 _ B";
+		case STAND_F_D_DFA:
+			return "6 2 3 _ A";
+		case STAND_F_D_DFB:
+			return "6 2 3 _ B";
+		case STAND_D_DB_BA:
+			return "2 1 4 _ A";
+		case STAND_D_DB_BB:
+			return "2 1 4 _ B";
+		case AIR_D_DF_FA:
+			return "2 3 6 _ A";
+		case AIR_D_DF_FB:
+			return "2 3 6 _ B";
+		case AIR_F_D_DFA:
+			return "6 2 3 _ A";
+		case AIR_F_D_DFB:
+			return "6 2 3 _ B";
+		case AIR_D_DB_BA:
+			return "2 1 4 _ A";
+		case AIR_D_DB_BB:
+			return "2 1 4 _ B";
+		case STAND_D_DF_FC:
+			return "2 3 6 _ C";
+		default:
+			return action.name();
+		}
 	}
 
 	/**
-	 * Creates a key corresponding to a command name.
+	 * Creates the keys corresponding to a command.
 	 *
 	 * @param str
-	 *            a command name
+	 *            a command
+	 * @param isFront
+	 *            {@code true} if the character is facing right, {@code false} otherwise
+	 * @return the keys packed by {@link Key#pack()}
 	 */
-	private void createKeys(String str) {
-		Key buf;
+	private static byte[] createKeys(String str, boolean isFront) {
+		Key buf = new Key();
 		String[] commands = str.split(" ");
-		if (!this.frameData.getCharacter(playerNumber).isFront()) {
+		if (!isFront) {
 			commands = reverseKey(commands);
 		}
 
+		byte[] keys = new byte[commands.length];
+		int count = 0;
 		int index = 0;
 		while (index < commands.length) {
-			buf = new Key();
+			buf.empty();
 			if (commands[index].equals("L") || commands[index].equals("4")) {
 				buf.L = true;
 			} else if (commands[index].equals("R") || commands[index].equals("6")) {
@@ -237,9 +270,32 @@ public class CommandCenter {
 			} else if (commands[index].equals("C")) {
 				buf.C = true;
 			}
-			skillKey.add(buf);
+			keys[count++] = (byte) buf.pack();
 			index++;
 		}
+
+		return Arrays.copyOf(keys, count);
+	}
+
+	/**
+	 * Adds the packed keys to the list of keys waiting to be executed.
+	 *
+	 * @param keys
+	 *            the keys packed by {@link Key#pack()}
+	 */
+	private void addKeys(byte[] keys) {
+		for (byte key : keys) {
+			this.skillKey.addLast(key);
+		}
+	}
+
+	/**
+	 * Returns whether the character is facing right in the current frame data.
+	 *
+	 * @return {@code true} if the character is facing right, {@code false} otherwise
+	 */
+	private boolean isFront() {
+		return this.frameData.getCharacterView(this.playerNumber).isFront();
 	}
 
 	/**
@@ -272,10 +328,20 @@ public class CommandCenter {
 	 * @return the next key to be executed
 	 */
 	public Key getSkillKey() {
+		return new Key(getPackedSkillKey());
+	}
+
+	/**
+	 * Returns the first element from the list of keys waiting to be executed, packed by {@link Key#pack()}.<br>
+	 * The returned element is deleted from the CommandCenter. Unlike {@link #getSkillKey()}, this method creates no key.
+	 *
+	 * @return the next key to be executed, or 0 (no key pressed) if the list is empty
+	 */
+	public int getPackedSkillKey() {
 		if (!this.skillKey.isEmpty()) {
-			return this.skillKey.pollFirst();
+			return this.skillKey.removeFirst();
 		} else {
-			return new Key();
+			return 0;
 		}
 	}
 
@@ -285,7 +351,21 @@ public class CommandCenter {
 	 * @return the list of keys waiting to be executed
 	 */
 	public Deque<Key> getSkillKeys() {
-		return new LinkedList<Key>(this.skillKey);
+		return this.skillKey.toDeque();
+	}
+
+	/**
+	 * Replaces the list of keys waiting to be executed with the given keys.<br>
+	 * This method is used to restore the state of the simulator.
+	 *
+	 * @param keys
+	 *            the keys waiting to be executed
+	 */
+	public void setSkillKeys(Deque<Key> keys) {
+		this.skillKey.clear();
+		for (Key key : keys) {
+			this.skillKey.addLast(key.pack());
+		}
 	}
 
 	/**
@@ -312,7 +392,7 @@ public class CommandCenter {
 	 *
 	 * @return an array that contains the command after processing
 	 */
-	private String[] reverseKey(String[] commands) {
+	private static String[] reverseKey(String[] commands) {
 		String[] buffer = new String[commands.length];
 		for (int i = 0; i < commands.length; i++) {
 			if (commands[i].equals("L") || commands[i].equals("4")) {
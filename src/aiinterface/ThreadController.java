@@ -1,7 +1,13 @@
 package aiinterface;
 
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
 /**
- * AIの実行のタイミングなどのスレッド関連の処理を扱うクラス．
+ * AIの実行のタイミングなどのスレッド関連の処理を扱うクラス．<br>
+ * ゲームのスレッドが通知したフレームの番号と, 各AIが処理を終えたフレームの番号を管理することで, フレーム単位の同期を行う．<br>
+ * 待機は全て番号の比較による条件を満たすまで繰り返されるため, 通知が待機より先に行われた場合や, スプリアスウェイクアップが起きた場合でも同期が崩れない．
  */
 public class ThreadController {
 
@@ -11,41 +17,51 @@ public class ThreadController {
 	private static ThreadController threadController = new ThreadController();
 
 	/**
-	 * P1のAIの処理の開始のタイミングを管理するオブジェクト．
+	 * フレームの番号及び各AIの状態を保護するロック．
 	 */
-	private Object AI1;
+	private final ReentrantLock lock;
 
 	/**
-	 * P2のAIの処理の開始のタイミングを管理するオブジェクト．
+	 * 新しいフレームの処理の開始が通知されたことを表す条件．
 	 */
-	private Object AI2;
+	private final Condition frameStarted;
 
 	/**
-	 * P1のAIの処理が終わったかどうかを表すフラグ．<br>
-	 * Fastmodeのときのみ使用される．
+	 * いずれかのAIが1フレーム分の処理を終えたことを表す条件．
 	 */
-	private boolean processedAI1;
+	private final Condition frameEnded;
 
 	/**
-	 * P2のAIの処理が終わったかどうかを表すフラグ．<br>
-	 * Fastmodeのときのみ使用される．
+	 * 最後に処理の開始を通知したフレームの番号．
 	 */
-	private boolean processedAI2;
+	private long startedFrame;
 
 	/**
-	 * 各AIの処理を同時に始めるための同期用オブジェクト
+	 * P1, P2のAIが処理を終えた最新のフレームの番号．<br>
+	 * Index 0 is P1, index 1 is P2.
 	 */
-	private Object endFrame;
+	private long[] processedFrames;
 
 	/**
-	 * フィールド変数を初期化するクラスコンストラクタ
+	 * P1, P2のAIが登録されているかどうかを表すフラグ．<br>
+	 * 登録されていないAIの処理の終了は待機しない．
 	 */
-	private ThreadController() {
-		this.AI1 = new Object();
-		this.AI2 = new Object();
-		this.endFrame = new Object();
+	private boolean[] registered;
 
-		resetProcessedFlag();
+	/**
+	 * フィールド変数を初期化するクラスコンストラクタ．<br>
+	 * 1つのプロセス内で複数の試合を行う場合は, 試合ごとにインスタンスを生成して用いる．
+	 *
+	 * @see setting.GameContext
+	 */
+	public ThreadController() {
+		this.lock = new ReentrantLock();
+		this.frameStarted = this.lock.newCondition();
+		this.frameEnded = this.lock.newCondition();
+
+		this.startedFrame = 0;
+		this.processedFrames = new long[2];
+		this.registered = new boolean[2];
 	}
 
 	/**
@@ -58,82 +74,174 @@ public class ThreadController {
 	}
 
 	/**
-	 * 各AIの処理を再開させる．
+	 * 引数に指定したキャラクターのAIを登録する．<br>
+	 * 登録したAIは, 次に開始が通知されたフレームから処理を行う．
+	 *
+	 * @param playerNumber
+	 *            The character's side flag.<br>
+	 *            {@code true} if the character is P1, or {@code false} if P2.
 	 */
-	public void resetAllAIsObj() {
-		synchronized (this.AI1) {
-			this.AI1.notifyAll();
-		}
-		synchronized (this.AI2) {
-			this.AI2.notifyAll();
+	public void register(boolean playerNumber) {
+		int index = playerNumber ? 0 : 1;
+
+		this.lock.lock();
+		try {
+			this.registered[index] = true;
+			this.processedFrames[index] = this.startedFrame;
+		} finally {
+			this.lock.unlock();
 		}
 	}
 
 	/**
-	 * 引数に指定したキャラクターの同期用オブジェクトを返す．
+	 * 引数に指定したキャラクターのAIの登録を解除する．<br>
+	 * フレームの開始を待機しているAIのスレッドと, AIの処理の終了を待機しているゲームのスレッドを再開させる．
 	 *
 	 * @param playerNumber
 	 *            The character's side flag.<br>
 	 *            {@code true} if the character is P1, or {@code false} if P2.
+	 */
+	public void unregister(boolean playerNumber) {
+		this.lock.lock();
+		try {
+			this.registered[playerNumber ? 0 : 1] = false;
+			this.frameStarted.signalAll();
+			this.frameEnded.signalAll();
+		} finally {
+			this.lock.unlock();
+		}
+	}
+
+	/**
+	 * 新しいフレームの処理の開始を各AIに通知する．<br>
+	 * AIが前のフレームの処理中であった場合は, 処理を終えた後にすぐに最新のフレームの処理を開始する．
+	 *
+	 * @return 開始を通知したフレームの番号
+	 */
+	public long startFrame() {
+		this.lock.lock();
+		try {
+			this.startedFrame++;
+			this.frameStarted.signalAll();
+
+			return this.startedFrame;
+		} finally {
+			this.lock.unlock();
+		}
+	}
+
+	/**
+	 * 引数に指定したキャラクターのAIが, まだ処理していないフレームの開始が通知されるまで待機する．
 	 *
-	 * @return 引数に指定したキャラクターの同期用オブジェクト
+	 * @param playerNumber
+	 *            The character's side flag.<br>
+	 *            {@code true} if the character is P1, or {@code false} if P2.
+	 * @param processedFrame
+	 *            AIが最後に処理を終えたフレームの番号
+	 * @return 処理を開始するフレームの番号. AIの登録が解除された場合は-1
+	 * @throws InterruptedException
+	 *             待機中に割り込みが発生した場合
 	 */
-	public Object getAIsObject(boolean playerNumber) {
-		if (playerNumber)
-			return this.AI1;
-		else
-			return this.AI2;
+	public long awaitFrameStart(boolean playerNumber, long processedFrame) throws InterruptedException {
+		int index = playerNumber ? 0 : 1;
+
+		this.lock.lock();
+		try {
+			while (this.registered[index] && this.startedFrame <= processedFrame) {
+				this.frameStarted.await();
+			}
+			return this.registered[index] ? this.startedFrame : -1;
+		} finally {
+			this.lock.unlock();
+		}
 	}
 
 	/**
-	 * 1フレーム分のゲームの処理が終わったことを示すオブジェクトを返す．
+	 * 引数に指定したキャラクターのAIが, 指定したフレームの処理を終えたことをセットする．<br>
+	 * その後, AIの処理の終了を待機しているゲームのスレッドを再開させる．
 	 *
-	 * @return 1フレーム分のゲームの処理が終わったことを示すオブジェクト．
+	 * @param playerNumber
+	 *            The character's side flag.<br>
+	 *            {@code true} if the character is P1, or {@code false} if P2.
+	 * @param frame
+	 *            処理を終えたフレームの番号
 	 */
-	public Object getEndFrame() {
-		return this.endFrame;
+	public void notifyEndProcess(boolean playerNumber, long frame) {
+		int index = playerNumber ? 0 : 1;
+
+		this.lock.lock();
+		try {
+			this.processedFrames[index] = Math.max(this.processedFrames[index], frame);
+			this.frameEnded.signalAll();
+		} finally {
+			this.lock.unlock();
+		}
 	}
 
 	/**
-	 * 各AIの処理が終わったかどうかを表すフラグを{@code false}にする．<br>
-	 * Fastmodeのときのみ使用される．
+	 * 登録されている全てのAIが指定したフレームの処理を終えるまで, 最大で指定した時間だけ待機する．
+	 *
+	 * @param frame
+	 *            処理の終了を待つフレームの番号
+	 * @param timeout
+	 *            待機する最大の時間
+	 * @param unit
+	 *            timeoutの単位
+	 * @return {@code true} if all registered AIs have finished the frame,
+	 *         {@code false} if the timeout elapsed
+	 * @throws InterruptedException
+	 *             待機中に割り込みが発生した場合
 	 */
-	private void resetProcessedFlag() {
-		this.processedAI1 = false;
-		this.processedAI2 = false;
+	public boolean awaitEndFrame(long frame, long timeout, TimeUnit unit) throws InterruptedException {
+		long nanos = unit.toNanos(timeout);
+
+		this.lock.lock();
+		try {
+			while (!isFrameProcessed(frame)) {
+				if (nanos <= 0) {
+					return false;
+				}
+				nanos = this.frameEnded.awaitNanos(nanos);
+			}
+			return true;
+		} finally {
+			this.lock.unlock();
+		}
 	}
 
 	/**
-	 * 引数に指定したキャラクターの1フレーム分の処理が終わったことをセットする．<br>
-	 * セット後に，両方のAIが処理を終えているかどうかをチェックする．<br>
-	 * Fastmodeのときのみ使用される．
+	 * 引数に指定したキャラクターのAIが処理を終えた最新のフレームの番号を返す．
 	 *
 	 * @param playerNumber
 	 *            The character's side flag.<br>
 	 *            {@code true} if the character is P1, or {@code false} if P2.
+	 * @return AIが処理を終えた最新のフレームの番号
 	 */
-	synchronized public void notifyEndProcess(boolean playerNumber) {
-		if (playerNumber) {
-			this.processedAI1 = true;
-		} else {
-			this.processedAI2 = true;
+	public long getProcessedFrame(boolean playerNumber) {
+		this.lock.lock();
+		try {
+			return this.processedFrames[playerNumber ? 0 : 1];
+		} finally {
+			this.lock.unlock();
 		}
-		this.checkEndFrame();
 	}
 
 	/**
-	 * 現在のフレームにおいて，両AIが処理を終えているかどうかをチェックする．<br>
-	 * 終えている場合は，次のフレームの処理を開始させる．<br>
-	 * Fastmodeのときのみ使用される．
+	 * 登録されている全てのAIが, 指定したフレームの処理を終えているかどうかを返す．<br>
+	 * ロックを取得した状態で呼び出す．
+	 *
+	 * @param frame
+	 *            フレームの番号
+	 * @return {@code true} if all registered AIs have finished the frame,
+	 *         {@code false} otherwise
 	 */
-	private void checkEndFrame() {
-		if (this.processedAI1 && this.processedAI2) {
-			synchronized (this.endFrame) {
-				this.endFrame.notifyAll();
+	private boolean isFrameProcessed(long frame) {
+		for (int i = 0; i < this.registered.length; i++) {
+			if (this.registered[i] && this.processedFrames[i] < frame) {
+				return false;
 			}
-			this.processedAI1 = false;
-			this.processedAI2 = false;
 		}
+		return true;
 	}
 
 }
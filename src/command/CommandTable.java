@@ -7,13 +7,58 @@ import enumerate.Action;
 import enumerate.State;
 import fighting.Character;
 import input.KeyData;
+import input.KeyQueue;
 import struct.Key;
 
 /**
- * キー入力データをそれに対応するアクションに変換する処理を行うクラス．
+ * キー入力データをそれに対応するアクションに変換する処理を行うクラス．<br>
+ * アクションは{@link #convertKeyToAction(boolean, boolean, boolean, int, int[], State)}の規則で決まるが,
+ * 規則の分岐を毎フレーム辿らないよう, クラスの読み込み時に規則から表を生成し, 実行時には表を引く．<br>
+ * 規則が参照するのは, 最新のキー入力で押されたボタン, 最新の方向キー入力, 直近4つの方向キー入力が表すコマンド(236, 623, 214)の種類,
+ * 直近2つ目の方向キー入力が最新の方向キー入力と等しいか(66, 44)どうか, 及び空中にいるかどうかのみであるため,
+ * これらの組み合わせごとに規則を1度評価すれば全ての入力に対するアクションが求まる．
  */
 public class CommandTable {
 
+	/**
+	 * コマンドを含まない方向キー入力の列を表す値．
+	 */
+	private static final int MOTION_NONE = 0;
+
+	/**
+	 * 方向キー入力の列の種類の数．<br>
+	 * コマンドを含まない列と, 236, 623, 214の3種類のコマンド．
+	 */
+	private static final int MOTION_COUNT = 4;
+
+	/**
+	 * 4ビットずつ並べた直近4つの方向キー入力を添字として, その列が表すコマンドの種類を格納した表．<br>
+	 * 添字の下位4ビットが最も新しい方向キー入力である．
+	 */
+	private static final byte[] MOTIONS = new byte[1 << 16];
+
+	/**
+	 * 入力の組み合わせを添字として, 対応するアクションを格納した表．
+	 *
+	 * @see #index(boolean, int, int, int, boolean)
+	 */
+	private static final Action[] ACTIONS = new Action[2 * 8 * MOTION_COUNT * 9 * 2];
+
+	/**
+	 * 右向きのときの方向キー入力を, 左向きのときの方向キー入力に変換する表．
+	 */
+	private static final int[] MIRROR = { 0, 3, 2, 1, 6, 5, 4, 9, 8, 7 };
+
+	/**
+	 * {@link #addLever(int, int)}で扱う状態の初期値．<br>
+	 * 直近4つの方向キー入力は全てニュートラル(5)であり, 加えている位置は0である．
+	 */
+	private static final int INITIAL_COMMANDS = 0x5555;
+
+	static {
+		compile();
+	}
+
 	/**
 	 * クラスコンストラクタ．
 	 */
@@ -35,48 +80,26 @@ public class CommandTable {
 	 * @see KeyData
 	 */
 	public Action interpretationCommandFromKeyData(Character character, Deque<KeyData> input) {
-		Key nowKeyData;
-		boolean pushA = false;
-		boolean pushB = false;
-		boolean pushC = false;
-		int charIndex = character.isPlayerNumber() ? 0 : 1;
-
-		KeyData temp;
-
-		// get current key state
-		temp = input.removeLast();
-		nowKeyData = temp.getKeys()[charIndex];
-
-		// The decision as input only at the moment you press the button. Press
-		// keeps flick.
-		if (!input.isEmpty()) {
-			pushA = nowKeyData.A && !input.getLast().getKeys()[charIndex].A;
-			pushB = nowKeyData.B && !input.getLast().getKeys()[charIndex].B;
-			pushC = nowKeyData.C && !input.getLast().getKeys()[charIndex].C;
-		} else {
-			pushA = nowKeyData.A;
-			pushB = nowKeyData.B;
-			pushC = nowKeyData.C;
-		}
-
-		input.addLast(temp);
-
-		int lever;
-		int[] commandList = { 5, 5, 5, 5 };
-		int commandLength = 0;
-		for (Iterator<KeyData> i = input.descendingIterator(); i.hasNext() && commandLength < 3;) {
-
-			lever = i.next().getKeys()[charIndex].getLever(character.isFront());
-
-			if (lever != commandList[commandLength]) {
-				if (commandList[commandLength] != 5)
-					commandLength++;
-				commandList[commandLength] = lever;
+		boolean playerNumber = character.isPlayerNumber();
+
+		int nowKey = 0;
+		int preKey = 0;
+		int commands = INITIAL_COMMANDS;
+		int count = 0;
+		for (Iterator<KeyData> i = input.descendingIterator(); i.hasNext() && (commands >>> 16 < 3 || count < 2);) {
+			int key = i.next().getPackedKey(playerNumber);
+			if (count == 0) {
+				nowKey = key;
+			} else if (count == 1) {
+				preKey = key;
 			}
+			if (commands >>> 16 < 3) {
+				commands = addLever(commands, Key.getLever(key, character.isFront()));
+			}
+			count++;
 		}
 
-		return convertKeyToAction(pushA, pushB, pushC, nowKeyData, commandList, character.getState(),
-				character.isFront());
+		return lookup(nowKey, preKey, commands, character.getState(), character.isFront());
 	}
 
 	/**
@@ -93,60 +116,233 @@ public class CommandTable {
 	 * @see Key
 	 */
 	public Action interpretationCommandFromKey(Character character, Deque<Key> input) {
-		boolean pushA = false;
-		boolean pushB = false;
-		boolean pushC = false;
+		int nowKey = 0;
+		int preKey = 0;
+		int commands = INITIAL_COMMANDS;
+		int count = 0;
+		for (Iterator<Key> i = input.descendingIterator(); i.hasNext() && (commands >>> 16 < 3 || count < 2);) {
+			int key = i.next().pack();
+			if (count == 0) {
+				nowKey = key;
+			} else if (count == 1) {
+				preKey = key;
+			}
+			if (commands >>> 16 < 3) {
+				commands = addLever(commands, Key.getLever(key, character.isFront()));
+			}
+			count++;
+		}
 
-		// get current key state
-		Key nowKey = new Key(input.removeLast());
+		return lookup(nowKey, preKey, commands, character.getState(), character.isFront());
+	}
 
-		// The decision as input only at the moment you press the button. Press
-		// keeps flick.
-		if (!input.isEmpty()) {
-			pushA = nowKey.A && !input.getLast().A;
-			pushB = nowKey.B && !input.getLast().B;
-			pushC = nowKey.C && !input.getLast().C;
-		} else {
-			pushA = nowKey.A;
-			pushB = nowKey.B;
-			pushC = nowKey.C;
+	/**
+	 * P1またはP2の圧縮したキー入力を対応するアクションに変換する処理を行い，そのアクションを返す．<br>
+	 * キューの末尾を最新のキー入力として扱う．{@link #interpretationCommandFromKey(Character, Deque)}と同じ結果を返すが,
+	 * キューが更新時にまとめている方向キー入力の連を用いるため, キー入力の数によらず高々数個の連を調べるだけで済み, インスタンスも生成しない．
+	 *
+	 * @param character
+	 *            キャラクターデータ
+	 * @param input
+	 *            P1またはP2の圧縮したキー入力が格納されたキュー
+	 *
+	 * @return キー入力データに対応するアクション
+	 *
+	 * @see KeyQueue#getLeverRun(int)
+	 */
+	public Action interpretationCommandFromKeyQueue(Character character, KeyQueue input) {
+		int size = input.size();
+		int nowKey = input.getLast();
+		int preKey = size > 1 ? input.get(size - 2) : 0;
+
+		// 連の中では方向キー入力が変わらないため, キー入力を1つずつ加えた場合と結果は等しい
+		int commands = INITIAL_COMMANDS;
+		int runCount = input.getLeverRunCount();
+		for (int i = 0; i < runCount && commands >>> 16 < 3; i++) {
+			int lever = input.getLeverRun(i);
+			commands = addLever(commands, character.isFront() ? lever : MIRROR[lever]);
 		}
 
-		input.addLast(nowKey);
+		return lookup(nowKey, preKey, commands, character.getState(), character.isFront());
+	}
+
+	/**
+	 * P1またはP2の圧縮したキー入力を, 表を用いずに{@link #convertKeyToAction(boolean, boolean, boolean, int, int[], State)}の規則を直接評価してアクションに変換する．<br>
+	 * キー入力を新しいものから1つずつ調べて直近4つの方向キー入力を求める, 表を導入する前の処理である．
+	 * 表を引く{@link #interpretationCommandFromKeyQueue(Character, KeyQueue)}と同じ結果を返すことを{@link CommandTableChecker}で確かめるためにのみ用いる．
+	 *
+	 * @param character
+	 *            キャラクターデータ
+	 * @param input
+	 *            P1またはP2の圧縮したキー入力が格納されたキュー
+	 *
+	 * @return キー入力データに対応するアクション
+	 */
+	static Action interpretationCommandByRules(Character character, KeyQueue input) {
+		int size = input.size();
+		int nowKey = input.getLast();
+		int preKey = size > 1 ? input.get(size - 2) : 0;
 
-		int lever;
 		int[] commandList = { 5, 5, 5, 5 };
 		int commandLength = 0;
-		for (Iterator<Key> i = input.descendingIterator(); i.hasNext() && commandLength < 3;) {
-			lever = i.next().getLever(character.isFront());
-
+		for (int i = size - 1; i >= 0 && commandLength < 3; i--) {
+			int lever = Key.getLever(input.get(i), character.isFront());
 			if (lever != commandList[commandLength]) {
-				if (commandList[commandLength] != 5)
+				if (commandList[commandLength] != 5) {
 					commandLength++;
+				}
 				commandList[commandLength] = lever;
 			}
 		}
 
-		return convertKeyToAction(pushA, pushB, pushC, nowKey, commandList, character.getState(), character.isFront());
+		// The decision as input only at the moment you press the button. Press
+		// keeps flick.
+		int pushed = nowKey & ~preKey;
+		return convertKeyToAction((pushed & Key.MASK_A) != 0, (pushed & Key.MASK_B) != 0, (pushed & Key.MASK_C) != 0,
+				Key.getLever(nowKey, character.isFront()), commandList, character.getState());
+	}
+
+	/**
+	 * 新しいものから順に方向キー入力を1つ加え, 直近4つの方向キー入力を更新する．<br>
+	 * 直前の方向キー入力と同じ場合は加えず, ニュートラル(5)の後は上書きする．<br>
+	 * 状態は, 下位16ビットに4ビットずつ直近4つの方向キー入力(下位ほど新しい)を, その上に現在加えている位置を並べた値で表す．
+	 * 位置が3に達した後は加えてはならない．
+	 *
+	 * @param commands
+	 *            現在の状態
+	 * @param lever
+	 *            加える方向キー入力
+	 * @return 更新後の状態
+	 */
+	private static int addLever(int commands, int lever) {
+		int length = commands >>> 16;
+		int current = (commands >>> (length * 4)) & 0xF;
+
+		if (lever != current) {
+			if (current != 5) {
+				length++;
+			}
+			int shift = length * 4;
+			commands = (commands & 0xFFFF & ~(0xF << shift)) | (lever << shift) | (length << 16);
+		}
+
+		return commands;
+	}
+
+	/**
+	 * 最新と1つ前のキー入力, 及び直近4つの方向キー入力に対応するアクションを表から求める．
+	 *
+	 * @param nowKey
+	 *            最新のキー入力を{@link Key#pack()}で圧縮した値
+	 * @param preKey
+	 *            1つ前のキー入力を圧縮した値. 1つ前のキー入力が無い場合は0
+	 * @param commands
+	 *            {@link #addLever(int, int)}で求めた直近4つの方向キー入力
+	 * @param state
+	 *            キャラクターの現在の状態
+	 * @param isFront
+	 *            キャラクターが向いている方向(右向きはtrue;左向きはfalse)
+	 * @return 入力に対応するアクション
+	 */
+	private static Action lookup(int nowKey, int preKey, int commands, State state, boolean isFront) {
+		// The decision as input only at the moment you press the button. Press
+		// keeps flick.
+		int pushed = nowKey & ~preKey & (Key.MASK_A | Key.MASK_B | Key.MASK_C);
+		int nowLever = Key.getLever(nowKey, isFront);
+		boolean repeated = ((commands >>> 4) & 0xF) == nowLever;
+
+		return ACTIONS[index(state == State.AIR, pushed, MOTIONS[commands & 0xFFFF], nowLever, repeated)];
+	}
+
+	/**
+	 * アクションの表の添字を返す．
+	 *
+	 * @param air
+	 *            空中にいるかどうか
+	 * @param pushed
+	 *            最新のキー入力で押されたボタンのビット
+	 * @param motion
+	 *            直近4つの方向キー入力が表すコマンドの種類
+	 * @param nowLever
+	 *            最新の方向キー入力
+	 * @param repeated
+	 *            直近2つ目の方向キー入力が最新の方向キー入力と等しいかどうか
+	 * @return アクションの表の添字
+	 */
+	private static int index(boolean air, int pushed, int motion, int nowLever, boolean repeated) {
+		return ((((air ? 1 : 0) * 8 + pushed) * MOTION_COUNT + motion) * 9 + nowLever - 1) * 2 + (repeated ? 1 : 0);
+	}
+
+	/**
+	 * {@link #convertKeyToAction(boolean, boolean, boolean, int, int[], State)}の規則からコマンドの種類の表とアクションの表を生成する．<br>
+	 * コマンドの種類は, 地上でBボタンを押したときの必殺技によって分類する．
+	 * 各組み合わせのアクションは, その組み合わせを満たす方向キー入力の列を1つ選んで規則を評価して求める．
+	 */
+	private static void compile() {
+		Action[] motionActions = { null, Action.STAND_D_DF_FB, Action.STAND_F_D_DFB, Action.STAND_D_DB_BB };
+		int[][] samples = new int[MOTION_COUNT][];
+
+		int[] commandList = new int[4];
+		for (int commands = 0; commands < MOTIONS.length; commands++) {
+			boolean valid = true;
+			for (int i = 0; i < 4; i++) {
+				commandList[i] = (commands >>> (i * 4)) & 0xF;
+				valid &= commandList[i] >= 1 && commandList[i] <= 9;
+			}
+			if (!valid) {
+				continue;
+			}
+
+			Action action = convertKeyToAction(false, true, false, 5, commandList, State.STAND);
+			int motion = MOTION_NONE;
+			for (int i = 1; i < MOTION_COUNT; i++) {
+				if (action == motionActions[i]) {
+					motion = i;
+				}
+			}
+			MOTIONS[commands] = (byte) motion;
+			if (motion != MOTION_NONE && samples[motion] == null) {
+				samples[motion] = commandList.clone();
+			}
+		}
+
+		for (int air = 0; air < 2; air++) {
+			State state = air == 1 ? State.AIR : State.STAND;
+			for (int pushed = 0; pushed < 8; pushed++) {
+				boolean pushA = (pushed & Key.MASK_A) != 0;
+				boolean pushB = (pushed & Key.MASK_B) != 0;
+				boolean pushC = (pushed & Key.MASK_C) != 0;
+				for (int motion = 0; motion < MOTION_COUNT; motion++) {
+					for (int nowLever = 1; nowLever <= 9; nowLever++) {
+						for (int repeated = 0; repeated < 2; repeated++) {
+							// コマンドを含まない列は, 2つ目の方向キー入力のみを条件に合わせて並べる
+							int[] sample = motion != MOTION_NONE ? samples[motion]
+									: new int[] { nowLever, repeated == 1 ? nowLever : 5, 5, 5 };
+							ACTIONS[index(air == 1, pushed, motion, nowLever, repeated == 1)] = convertKeyToAction(pushA,
+									pushB, pushC, nowLever, sample, state);
+						}
+					}
+				}
+			}
+		}
 	}
 
 	/**
 	 * 引数として渡されたキー入力情報とキャラクター情報を基に, それに対応するアクションを返す.<br>
+	 * このメソッドはクラスの読み込み時に表を生成するため, 及び{@link #interpretationCommandByRules(Character, KeyQueue)}でのみ呼び出される．
 	 *
 	 * @param pushA
-	 *            最新のキー入力でAキー(P1: Z, P2: T)が押されているかどうか
+	 *            最新のキー入力でAキー(P1: Z, P2: T)が押されたかどうか
 	 * @param pushB
-	 *            最新のキー入力でBキー(P1: X, P2: Y)が押されているかどうか
+	 *            最新のキー入力でBキー(P1: X, P2: Y)が押されたかどうか
 	 * @param pushC
-	 *            最新のキー入力でCキー(P1: C, P2: U)が押されているかどうか
-	 * @param nowKeyData
-	 *            最新のキー入力
+	 *            最新のキー入力でCキー(P1: C, P2: U)が押されたかどうか
+	 * @param nowLever
+	 *            最新の方向キー入力
 	 * @param commandList
 	 *            直近4つの方向キー入力を格納した配列(新しい入力ほどindexが小さい)
 	 * @param state
 	 *            キャラクターの現在の状態
-	 * @param isFront
-	 *            キャラクターが向いている方向(右向きはtrue;左向きはfalse)
 	 *
 	 * @return キー入力情報とキャラクター情報に対応するアクション
 	 *
@@ -154,8 +350,9 @@ public class CommandTable {
 	 * @see State
 	 * @see Action
 	 */
-	private Action convertKeyToAction(boolean pushA, boolean pushB, boolean pushC, Key nowKeyData, int[] commandList,
-			State state, boolean isFront) {
+	private static Action convertKeyToAction(boolean pushA, boolean pushB, boolean pushC, int nowLever,
+			int[] commandList, State state) {
+
 		// 789
 		// 456
 		// 123
@@ -174,13 +371,13 @@ public class CommandTable {
 				} else if (commandList[0] == 4 && commandList[1] == 1 && commandList[2] == 2) {
 					return Action.AIR_D_DB_BB;// AIR214B
 
-				} else if (nowKeyData.getLever(isFront) == 2) {
+				} else if (nowLever == 2) {
 					return Action.AIR_DB;// AIR2B
 
-				} else if (nowKeyData.getLever(isFront) == 8) {
+				} else if (nowLever == 8) {
 					return Action.AIR_UB;// AIR8B
 
-				} else if (nowKeyData.getLever(isFront) == 6) {
+				} else if (nowLever == 6) {
 					return Action.AIR_FB;// AIR6B
 
 				} else {
@@ -199,20 +396,20 @@ public class CommandTable {
 				} else if (commandList[0] == 4 && commandList[1] == 1 && commandList[2] == 2) {
 					return Action.AIR_D_DB_BA;// AIR214A
 
-				} else if (nowKeyData.getLever(isFront) == 2) {
+				} else if (nowLever == 2) {
 					return Action.AIR_DA;// AIR2A
 
-				} else if (nowKeyData.getLever(isFront) == 8) {
+				} else if (nowLever == 8) {
 					return Action.AIR_UA;// AIR8A
 
-				} else if (nowKeyData.getLever(isFront) == 6) {
+				} else if (nowLever == 6) {
 					return Action.AIR_FA;// AIR6A
 
 				} else {
 					return Action.AIR_A;// AIR5A
 				}
 
-			} else if (nowKeyData.getLever(isFront) == 4) {
+			} else if (nowLever == 4) {
 				return Action.AIR_GUARD;// AIR4
 
 			} else {
@@ -240,16 +437,16 @@ public class CommandTable {
 					return Action.STAND_D_DB_BB;// STAND214B
 
 					// normal move
-				} else if (nowKeyData.getLever(isFront) == 3) {
+				} else if (nowLever == 3) {
 					return Action.CROUCH_FB;// STAND3B
 
-				} else if (nowKeyData.getLever(isFront) == 2) {
+				} else if (nowLever == 2) {
 					return Action.CROUCH_B;// STAND2B
 
-				} else if (nowKeyData.getLever(isFront) == 4) {
+				} else if (nowLever == 4) {
 					return Action.THROW_B;// STAND4B
 
-				} else if (nowKeyData.getLever(isFront) == 6) {
+				} else if (nowLever == 6) {
 					return Action.STAND_FB;// STAND6B
 
 				} else {
@@ -269,23 +466,23 @@ public class CommandTable {
 					return Action.STAND_D_DB_BA;// STAND214A
 
 					// normal move
-				} else if (nowKeyData.getLever(isFront) == 3) {
+				} else if (nowLever == 3) {
 					return Action.CROUCH_FA;// CROUCH3A
 
-				} else if (nowKeyData.getLever(isFront) == 2) {
+				} else if (nowLever == 2) {
 					return Action.CROUCH_A;// CROUCH2A
 
-				} else if (nowKeyData.getLever(isFront) == 4) {
+				} else if (nowLever == 4) {
 					return Action.THROW_A;// THROW4A
 
-				} else if (nowKeyData.getLever(isFront) == 6) {
+				} else if (nowLever == 6) {
 					return Action.STAND_FA;// STAND6A
 
 				} else {
 					return Action.STAND_A;// STAND5A
 				}
 
-			} else if (nowKeyData.getLever(isFront) == 6) {
+			} else if (nowLever == 6) {
 				if (commandList[1] == 6) {
 					return Action.DASH;// STAND66
 
@@ -293,7 +490,7 @@ public class CommandTable {
 					return Action.FORWARD_WALK;// STAND6
 				}
 
-			} else if (nowKeyData.getLever(isFront) == 4) {
+			} else if (nowLever == 4) {
 				if (commandList[1] == 4) {
 					return Action.BACK_STEP;// STAND44
 
@@ -302,20 +499,20 @@ public class CommandTable {
 				}
 
 			} else {
-				if (nowKeyData.getLever(isFront) == 1) {
+				if (nowLever == 1) {
 					return Action.CROUCH_GUARD;// CROUCH1
 
-				} else if (nowKeyData.getLever(isFront) == 2) {
+				} else if (nowLever == 2) {
 					return Action.CROUCH;// CROUCH2
 
-				} else if (nowKeyData.getLever(isFront) == 7) {
+				} else if (nowLever == 7) {
 					return Action.BACK_JUMP;// STAND7
 
-				} else if (nowKeyData.getLever(isFront) == 9) {
+				} else if (nowLever == 9) {
 					return Action.FOR_JUMP;// STAND9
 				}
 
-				else if (nowKeyData.getLever(isFront) == 8) {
+				else if (nowLever == 8) {
 					return Action.JUMP;// STAND8
 
 				} else {
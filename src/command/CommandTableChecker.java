@@ -0,0 +1,150 @@
+package command;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedList;
+
+import enumerate.Action;
+import fighting.Character;
+import fighting.Fighting;
+import input.KeyData;
+import input.KeyQueue;
+import setting.FlagSetting;
+import setting.GameContext;
+import setting.GameSetting;
+import struct.FrameData;
+import util.EngineBenchmark;
+
+/**
+ * 表を引く{@link CommandTable}のコマンド解釈が, 表を導入する前の規則に基づく解釈と同じアクションを返すことを確かめるツール．<br>
+ * リプレイファイルに記録されたキー入力で対戦を再現し, 各フレームで両プレイヤーのキー入力を
+ * {@link CommandTable#interpretationCommandFromKeyQueue(Character, KeyQueue)},
+ * {@link CommandTable#interpretationCommandFromKeyData(Character, Deque)}及び
+ * {@link CommandTable#interpretationCommandByRules(Character, KeyQueue)}で解釈して比較する．最初に食い違ったフレームで比較を打ち切る．
+ *
+ * <pre>
+ * java command.CommandTableChecker file.dat [file.dat ...]
+ * </pre>
+ *
+ * @see util.StateHashComparator
+ */
+public final class CommandTableChecker {
+
+	/**
+	 * インスタンスを生成させないためのクラスコンストラクタ．
+	 */
+	private CommandTableChecker() {
+
+	}
+
+	/**
+	 * 指定されたリプレイファイルを順に再現し, コマンド解釈の結果を比較する．<br>
+	 * 全てのフレームでアクションが一致した場合は終了コード0, 食い違った場合は1, 引数やファイルに誤りがある場合は2で終了する．
+	 *
+	 * @param args
+	 *            リプレイファイルのパス
+	 */
+	public static void main(String[] args) {
+		if (args.length == 0) {
+			System.err.println("Usage: java command.CommandTableChecker file.dat [file.dat ...]");
+			System.exit(2);
+		}
+
+		long frames = 0;
+		for (String replayName : args) {
+			try {
+				long checked = check(replayName, EngineBenchmark.readReplay(replayName));
+				if (checked < 0) {
+					System.exit(1);
+				}
+				frames += checked;
+			} catch (IOException e) {
+				System.err.println("Cannot read replay file: " + e.getMessage());
+				System.exit(2);
+			}
+		}
+
+		System.out.println("Identical: " + frames + " frames in " + args.length + " replay files");
+		System.exit(0);
+	}
+
+	/**
+	 * キー入力で対戦を再現し, 各フレームのコマンド解釈の結果を比較する．<br>
+	 * 食い違った場合は, そのラウンド, フレーム, プレイヤー及びそれぞれの解釈で得られたアクションを出力する．
+	 * 対戦の設定は{@link EngineBenchmark#readReplay(String)}でリプレイファイルから読み込まれたものを用いる．
+	 *
+	 * @param replayName
+	 *            出力に用いるリプレイファイルの名前
+	 * @param inputs
+	 *            各フレームのキー入力
+	 * @return 比較したフレーム数. 食い違った場合は-1
+	 */
+	public static long check(String replayName, ArrayList<KeyData> inputs) {
+		FlagSetting.enableWindow = false;
+		FlagSetting.headlessFlag = true;
+		FlagSetting.muteFlag = true;
+
+		GameContext context = new GameContext();
+		Fighting fighting = new Fighting(context);
+		fighting.initialize();
+		fighting.initRound();
+
+		CommandTable commandTable = new CommandTable();
+		KeyQueue[] inputCommands = { new KeyQueue(), new KeyQueue() };
+		Deque<KeyData> keyData = new LinkedList<KeyData>();
+
+		int round = 1;
+		int nowFrame = 0;
+		long frames = 0;
+		for (KeyData input : inputs) {
+			// Fightingと同様に直近のキー入力を保持する
+			for (int i = 0; i < 2; i++) {
+				inputCommands[i].addLast(input.getPackedKey(i == 0));
+				if (inputCommands[i].size() > GameSetting.INPUT_LIMIT) {
+					inputCommands[i].removeFirst();
+				}
+			}
+			keyData.addLast(input);
+			if (keyData.size() > GameSetting.INPUT_LIMIT) {
+				keyData.removeFirst();
+			}
+
+			for (Character character : fighting.getCharacters()) {
+				KeyQueue inputCommand = inputCommands[character.isPlayerNumber() ? 0 : 1];
+				Action expected = CommandTable.interpretationCommandByRules(character, inputCommand);
+				Action fromKeyQueue = commandTable.interpretationCommandFromKeyQueue(character, inputCommand);
+				Action fromKeyData = commandTable.interpretationCommandFromKeyData(character, keyData);
+
+				if (fromKeyQueue != expected || fromKeyData != expected) {
+					System.out.println("First difference in " + replayName + " at round " + round + ", frame "
+							+ nowFrame + " (" + (character.isPlayerNumber() ? "P1" : "P2") + "): " + fromKeyQueue
+							+ " (KeyQueue table), " + fromKeyData + " (KeyData table) vs " + expected + " (rules)");
+					return -1;
+				}
+			}
+
+			fighting.processingFight(nowFrame, input);
+			FrameData frameData = fighting.createFrameData(nowFrame, round);
+			frames++;
+
+			boolean beaten = context.isLimitHpFlag() && (frameData.getCharacterView(true).getHp() <= 0
+					|| frameData.getCharacterView(false).getHp() <= 0);
+			if (beaten || nowFrame == GameSetting.ROUND_FRAME_NUMBER - 1) {
+				if (++round > GameSetting.ROUND_MAX) {
+					break;
+				}
+				fighting.initRound();
+				for (KeyQueue inputCommand : inputCommands) {
+					inputCommand.clear();
+				}
+				keyData.clear();
+				nowFrame = 0;
+			} else {
+				nowFrame++;
+			}
+		}
+
+		return frames;
+	}
+}
@@ -102,10 +102,41 @@ public class Game extends GameManager {
 				FlagSetting.muteFlag = true;
 				FlagSetting.automationFlag = true;
 				break;
+			case "--headless":
+				FlagSetting.headlessFlag = true;
+				FlagSetting.enableWindow = false;
+				FlagSetting.muteFlag = true;
+				FlagSetting.automationFlag = true;
+				break;
+			case "--parallel":
+				// 並列実行時はウィンドウを共有できないため, headlessモードで起動する
+				LaunchSetting.parallelNumber = Integer.parseInt(options[++i]);
+				FlagSetting.parallelFlag = true;
+				FlagSetting.headlessFlag = true;
+				FlagSetting.enableWindow = false;
+				FlagSetting.muteFlag = true;
+				FlagSetting.automationFlag = true;
+				break;
+			case "--tournament-file":
+				LaunchSetting.tournamentFileName = options[++i];
+				break;
+			case "--tournament-characters":
+				// --tournament-characters ZEN,GARNET または ALL
+				LaunchSetting.tournamentCharacters = getCharacterNames(options[++i]);
+				break;
 			case "--fastmode":
 				FlagSetting.fastModeFlag = true;
 				FlagSetting.automationFlag = true;
 				break;
+			case "--deadline":
+				LaunchSetting.aiDeadline = Long.parseLong(options[++i]);
+				break;
+			case "--sync-ai":
+				FlagSetting.synchronousAIFlag = true;
+				break;
+			case "--state-hash":
+				FlagSetting.stateHashFlag = true;
+				break;
 			case "--json":
 				FlagSetting.jsonFlag = true;
 				break;
@@ -124,16 +155,40 @@ public class Game extends GameManager {
 			}
 		}
 
+		// ウィンドウを用いない総当り対戦は, 結果ファイルを用いて再開できるように1スレッドの並列実行で行う
+		if (FlagSetting.allCombinationFlag && !FlagSetting.parallelFlag && !FlagSetting.enableWindow
+				&& !FlagSetting.py4j) {
+			FlagSetting.parallelFlag = true;
+			FlagSetting.headlessFlag = true;
+			LaunchSetting.parallelNumber = 1;
+		} else if (FlagSetting.allCombinationFlag && !FlagSetting.parallelFlag) {
+			Logger.getAnonymousLogger().log(Level.WARNING, "-a with a window does not record results in "
+					+ LaunchSetting.tournamentFileName + " and cannot be resumed. Use --headless or --parallel.");
+		}
+
+		// Pythonからの起動は並列実行に対応していないため, 1試合ずつ行う
+		if (FlagSetting.parallelFlag && FlagSetting.py4j) {
+			Logger.getAnonymousLogger().log(Level.WARNING,
+					"--parallel cannot be used with --py4j. Matches are played one by one.");
+			FlagSetting.parallelFlag = false;
+		}
 	}
 
 	@Override
 	public void initialize() {
-		// 使用フォントの初期化
-		Font awtFont = new Font("Times New Roman", Font.BOLD, 24);
-		GraphicManager.getInstance().setLetterFont(new LetterImage(awtFont, true));
+		// 使用フォントの初期化. OpenGLコンテキストが無い場合はテクスチャを生成できないので行わない
+		if (!FlagSetting.headlessFlag) {
+			Font awtFont = new Font("Times New Roman", Font.BOLD, 24);
+			GraphicManager.getInstance().setLetterFont(new LetterImage(awtFont, true));
+		}
 
 		createLogDirectories();
 
+		// 並列実行時は, 試合の進行をParallelManagerが行うためシーンを開始しない
+		if (FlagSetting.parallelFlag) {
+			return;
+		}
+
 		// -nまたは-aが指定されたときは, メニュー画面に行かず直接ゲームをLaunchする
 		if ((FlagSetting.automationFlag || FlagSetting.allCombinationFlag) && !FlagSetting.py4j) {
 			if (FlagSetting.allCombinationFlag) {
@@ -182,6 +237,27 @@ public class Game extends GameManager {
 		return "ZEN"; // Default character
 	}
 
+	/**
+	 * カンマ区切りで指定されたキャラクター名を, 使用可能キャラクター名の配列に変換する．<br>
+	 * ALLが指定された場合は, 全ての使用可能キャラクター名を返す．
+	 *
+	 * @param characterNames
+	 *            カンマ区切りのキャラクター名, またはALL
+	 *
+	 * @return 使用キャラクター名を格納した配列
+	 */
+	private String[] getCharacterNames(String characterNames) {
+		if (characterNames.equals("ALL")) {
+			return GameSetting.CHARACTERS.clone();
+		}
+
+		String[] names = characterNames.split(",");
+		for (int i = 0; i < names.length; i++) {
+			names[i] = getCharacterName(names[i]);
+		}
+		return names;
+	}
+
 	/**
 	 * Creates log directories if they do not exist.
 	 */
@@ -313,6 +313,78 @@ public class Attack {
 		this.downProp = downProp;
 	}
 
+	/**
+	 * 引数として渡されたインスタンスの値を, このインスタンスに上書きする．<br>
+	 * 新たなインスタンスを生成せずに攻撃の状態を保存及び復元するために用いる．
+	 *
+	 * @param attack
+	 *            値のコピー元となるAttackクラスのインスタンス
+	 * @see FightingSnapshot
+	 */
+	public void copyFrom(Attack attack) {
+		this.settingHitArea = attack.settingHitArea != null ? attack.settingHitArea : new HitArea();
+		this.settingSpeedX = attack.settingSpeedX;
+		this.settingSpeedY = attack.settingSpeedY;
+
+		this.currentHitArea = new HitArea(attack.currentHitArea);
+		this.currentFrame = attack.currentFrame;
+		this.playerNumber = attack.playerNumber;
+		this.speedX = attack.speedX;
+		this.speedY = attack.speedY;
+
+		this.startUp = attack.startUp;
+		this.active = attack.active;
+
+		this.hitDamage = attack.hitDamage;
+		this.guardDamage = attack.guardDamage;
+		this.startAddEnergy = attack.startAddEnergy;
+		this.hitAddEnergy = attack.hitAddEnergy;
+		this.guardAddEnergy = attack.guardAddEnergy;
+		this.giveEnergy = attack.giveEnergy;
+
+		this.impactX = attack.impactX;
+		this.impactY = attack.impactY;
+		this.giveGuardRecov = attack.giveGuardRecov;
+		this.attackType = attack.attackType;
+		this.downProp = attack.downProp;
+	}
+
+	/**
+	 * 引数として渡されたAttackDataクラスのインスタンスの値を, このインスタンスに上書きする．<br>
+	 * シミュレータでCharacterクラスのインスタンスを使い回す際に, 新たなAttackクラスのインスタンスを生成せずに攻撃の状態を復元するために用いる．
+	 *
+	 * @param attackData
+	 *            値のコピー元となるAttackDataクラスのインスタンス
+	 * @see #Attack(AttackData)
+	 */
+	public void copyFrom(AttackData attackData) {
+		this.settingHitArea = attackData.getSettingHitArea();
+		this.settingSpeedX = attackData.getSettingSpeedX();
+		this.settingSpeedY = attackData.getSettingSpeedY();
+
+		this.currentHitArea = attackData.getCurrentHitArea();
+		this.currentFrame = attackData.getCurrentFrame();
+		this.playerNumber = attackData.isPlayerNumber();
+		this.speedX = attackData.getSpeedX();
+		this.speedY = attackData.getSpeedY();
+
+		this.startUp = attackData.getStartUp();
+		this.active = attackData.getActive();
+
+		this.hitDamage = attackData.getHitDamage();
+		this.guardDamage = attackData.getGuardDamage();
+		this.startAddEnergy = attackData.getStartAddEnergy();
+		this.hitAddEnergy = attackData.getHitAddEnergy();
+		this.guardAddEnergy = attackData.getGuardAddEnergy();
+		this.giveEnergy = attackData.getGiveEnergy();
+
+		this.impactX = attackData.getImpactX();
+		this.impactY = attackData.getImpactY();
+		this.giveGuardRecov = attackData.getGiveGuardRecov();
+		this.attackType = attackData.getAttackType();
+		this.downProp = attackData.isDownProp();
+	}
+
 	/**
 	 * 引数として渡された値を用いて，インスタンス変数の初期化を行う．
 	 *
@@ -347,6 +419,23 @@ public class Attack {
 		return ++this.currentFrame <= this.active;
 	}
 
+	/**
+	 * 波動拳の当たり判定領域の座標と波動拳が使われてからの経過フレームを, 指定したフレーム数分まとめて更新し, まだ攻撃がアクティブかどうかを返す．<br>
+	 * 最後のフレームでアクティブである場合, {@link #updateProjectileAttack()}を指定した回数呼び出した場合と同じ結果になる．
+	 *
+	 * @param frames
+	 *            更新するフレーム数
+	 *
+	 * @return {@code true} if the projectile attack is active, {@code false}
+	 *         otherwise
+	 */
+	public boolean updateProjectileAttack(int frames) {
+		this.currentHitArea.move(speedX * frames, speedY * frames);
+		this.currentFrame += frames;
+
+		return this.currentFrame <= this.active;
+	}
+
 	/**
 	 * 波動拳以外の攻撃の当たり判定領域の座標と攻撃が使われてからの経過フレームを更新し, まだ攻撃がアクティブかどうかを返す．
 	 *
@@ -1,22 +1,22 @@
-dpackage fighting;
+package fighting;
 
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Deque;
-import java.util.LinkedList;
 
 import enumerate.Action;
 import enumerate.State;
 import image.Image;
+import input.KeyQueue;
 import loader.ResourceLoader;
 //import manager.SoundManager;
-import setting.FlagSetting;
+import setting.GameContext;
 import setting.GameSetting;
-import setting.LaunchSetting;
 import struct.CharacterData;
 import struct.HitArea;
 import struct.Key;
+import util.StateHash;
 
 /**
  * ゲームの進行に応じてキャラクターが持つ情報を更新する役割を持つクラス．
@@ -128,13 +128,13 @@ public class Character {
 	 * The list storing keys of the action that the character will be executing
 	 * in the simulator.
 	 */
-	private Deque<Key> inputCommands;
+	private KeyQueue inputCommands;
 
 	/**
 	 * The list storing up to 30 keys that the character executed in the
 	 * simulator.
 	 */
-	private Deque<Key> processedCommands;
+	private KeyQueue processedCommands;
 
 	/**
 	 * キャラクターの全モーションを格納するリスト．
@@ -156,11 +156,29 @@ public class Character {
 	private boolean isSimulateProcess;
 
 	/**
-	 * Class constructor．
+	 * 最大HPやトレーニングモードなど, 現在の試合の起動情報．
+	 */
+	private GameContext context;
+
+	/**
+	 * Class constructor．<br>
+	 * 現在のFlagSetting及びLaunchSettingの値を起動情報として用いる．
 	 */
 	public Character() {
+		this(new GameContext());
+	}
+
+	/**
+	 * 引数の起動情報を用いてインスタンスを生成するクラスコンストラクタ．
+	 *
+	 * @param context
+	 *            現在の試合の起動情報
+	 */
+	public Character(GameContext context) {
 		initializeList();
 
+		this.context = context;
+
 		this.playerNumber = true;
 		this.hp = 0;
 		this.energy = 0;
@@ -209,12 +227,13 @@ public class Character {
 		this.control = character.isControl();
 		this.attack = character.getAttack();
 		this.remainingFrame = character.getRemainingFrame();
-		this.inputCommands = character.getInputCommand();
-		this.processedCommands = character.getProcessedCommand();
+		this.inputCommands = new KeyQueue(character.inputCommands);
+		this.processedCommands = new KeyQueue(character.processedCommands);
 		this.motionList = character.getMotionList();
 		this.lastHitFrame = character.getLastHitFrame();
 		this.hitCount = character.getHitCount();
 		this.isSimulateProcess = character.isSimulateProcess();
+		this.context = character.context;
 	}
 
 	/**
@@ -225,13 +244,35 @@ public class Character {
 	 *            キャラクター情報を格納したCharacterDataクラスのインスタンス
 	 * @param motionList
 	 *            キャラクターの全モーションが格納されたリスト
+	 * @param context
+	 *            現在の試合の起動情報
 	 *
 	 * @see CharacterData
 	 * @see Motion
 	 */
-	public Character(CharacterData characterData, ArrayList<Motion> motionList) {
-		initializeList();
+	public Character(CharacterData characterData, ArrayList<Motion> motionList, GameContext context) {
+		this.isSimulateProcess = true;
+		this.context = context;
+		this.inputCommands = new KeyQueue();
+		this.processedCommands = new KeyQueue();
 
+		reset(characterData, motionList);
+	}
+
+	/**
+	 * 引数として渡されたデータを用いて, このインスタンスのキャラクター情報を上書きする．<br>
+	 * 起動情報はそのまま用いるため, シミュレータでインスタンスを使い回す際に呼び出される．<br>
+	 * このインスタンスが持つAttackクラスのインスタンスとキー入力のキューは使い回される．
+	 *
+	 * @param characterData
+	 *            キャラクター情報を格納したCharacterDataクラスのインスタンス
+	 * @param motionList
+	 *            キャラクターの全モーションが格納されたリスト．コピーせずにそのまま参照する
+	 *
+	 * @see CharacterData
+	 * @see Motion
+	 */
+	public void reset(CharacterData characterData, ArrayList<Motion> motionList) {
 		this.playerNumber = characterData.isPlayerNumber();
 		this.hp = characterData.getHp();
 		this.energy = characterData.getEnergy();
@@ -247,14 +288,61 @@ public class Character {
 		this.hitConfirm = characterData.isHitConfirm();
 		this.front = characterData.isFront();
 		this.control = characterData.isControl();
-		this.attack = new Attack(characterData.getAttack());
+		if (this.attack == null) {
+			this.attack = new Attack();
+		}
+		this.attack.copyFrom(characterData.getAttack());
 		this.remainingFrame = characterData.getRemainingFrame();
-		this.inputCommands = characterData.getInputCommand();
-		this.processedCommands = characterData.getProcessedCommand();
-		this.motionList = motionList;
+		characterData.copyInputCommandTo(this.inputCommands);
+		characterData.copyProcessedCommandTo(this.processedCommands);
 		this.lastHitFrame = characterData.getLastHitFrame();
 		this.hitCount = characterData.getHitCount();
-		this.isSimulateProcess = true;
+		this.motionList = motionList;
+	}
+
+	/**
+	 * 引数として渡されたインスタンスのキャラクター情報を, このインスタンスに上書きする．<br>
+	 * 攻撃とキー入力の履歴はコピーするため, 上書き後の2つのインスタンスは互いに影響しない．<br>
+	 * このインスタンスが持つAttackクラスのインスタンスとリストは可能な限り使い回される．
+	 *
+	 * @param character
+	 *            キャラクター情報のコピー元となるCharacterクラスのインスタンス
+	 * @see FightingSnapshot
+	 */
+	public void copyFrom(Character character) {
+		this.playerNumber = character.playerNumber;
+		this.hp = character.hp;
+		this.energy = character.energy;
+		this.x = character.x;
+		this.y = character.y;
+		this.graphicSizeX = character.graphicSizeX;
+		this.graphicSizeY = character.graphicSizeY;
+		this.graphicAdjustX = character.graphicAdjustX;
+		this.speedX = character.speedX;
+		this.speedY = character.speedY;
+		this.state = character.state;
+		this.action = character.action;
+		this.hitConfirm = character.hitConfirm;
+		this.front = character.front;
+		this.control = character.control;
+		this.remainingFrame = character.remainingFrame;
+		this.lastHitFrame = character.lastHitFrame;
+		this.hitCount = character.hitCount;
+		this.motionList = character.motionList;
+		this.isSimulateProcess = character.isSimulateProcess;
+		this.context = character.context;
+
+		if (character.attack == null) {
+			this.attack = null;
+		} else {
+			if (this.attack == null) {
+				this.attack = new Attack();
+			}
+			this.attack.copyFrom(character.attack);
+		}
+
+		this.inputCommands.copyFrom(character.inputCommands);
+		this.processedCommands.copyFrom(character.processedCommands);
 	}
 
 	/**
@@ -289,8 +377,8 @@ public class Character {
 	 * リストのデータを初期化する．
 	 */
 	public void initializeList() {
-		this.inputCommands = new LinkedList<Key>();
-		this.processedCommands = new LinkedList<Key>();
+		this.inputCommands = new KeyQueue();
+		this.processedCommands = new KeyQueue();
 		this.motionList = new ArrayList<Motion>();
 	}
 
@@ -298,15 +386,15 @@ public class Character {
 	 * 各ラウンドの開始時にキャラクター情報を初期化する．
 	 */
 	public void roundInit() {
-		if (FlagSetting.limitHpFlag) {
-			this.hp = LaunchSetting.maxHp[this.playerNumber ? 0 : 1];
+		if (this.context.isLimitHpFlag()) {
+			this.hp = this.context.getMaxHp(this.playerNumber);
 		} else {
 			this.hp = 0;
 		}
 
-		if (FlagSetting.trainingModeFlag) {
-			this.hp = LaunchSetting.maxHp[this.playerNumber ? 0 : 1];
-			this.energy = LaunchSetting.maxEnergy[this.playerNumber ? 0 : 1];
+		if (this.context.isTrainingModeFlag()) {
+			this.hp = this.context.getMaxHp(this.playerNumber);
+			this.energy = this.context.getMaxEnergy(this.playerNumber);
 		} else {
 			this.energy = 0;
 		}
@@ -377,13 +465,13 @@ public class Character {
 		frictionEffect();
 		gravityEffect();
 
-		if (FlagSetting.trainingModeFlag) {
-			this.energy = LaunchSetting.maxEnergy[this.playerNumber ? 0 : 1];
-			this.hp = LaunchSetting.maxHp[this.playerNumber ? 0 : 1];
+		if (this.context.isTrainingModeFlag()) {
+			this.energy = this.context.getMaxEnergy(this.playerNumber);
+			this.hp = this.context.getMaxHp(this.playerNumber);
 		}
 
-		if (this.energy > LaunchSetting.maxEnergy[this.playerNumber ? 0 : 1]) {
-			this.energy = LaunchSetting.maxEnergy[this.playerNumber ? 0 : 1];
+		if (this.energy > this.context.getMaxEnergy(this.playerNumber)) {
+			this.energy = this.context.getMaxEnergy(this.playerNumber);
 		}
 
 		if (getHitAreaBottom() >= GameSetting.STAGE_HEIGHT) {
@@ -391,7 +479,7 @@ public class Character {
 				runAction(Action.LANDING, true);
 				setSpeedY(0);
 
-				if (FlagSetting.enableWindow && !FlagSetting.muteFlag && !this.isSimulateProcess) {
+				if (this.context.isEnableWindow() && !this.context.isMuteFlag() && !this.isSimulateProcess) {
 					//SoundManager.getInstance().play(SoundManager.getInstance().getSoundEffect().get("Landing.wav"));
 				}
 			}
@@ -418,15 +506,174 @@ public class Character {
 		createAttackInstance();
 
 		if (!this.inputCommands.isEmpty()) {
-			this.processedCommands.addLast(new Key(this.inputCommands.pop()));
+			this.processedCommands.addLast(this.inputCommands.removeFirst());
 		} else {
-			this.processedCommands.addLast(new Key());
+			this.processedCommands.addLast(0);
 		}
 
 		if (this.processedCommands.size() > GameSetting.INPUT_LIMIT)
 			this.processedCommands.removeFirst();
 	}
 
+	/**
+	 * 指定したフレーム数分の{@link #update()}を, 1フレームずつ処理せずに閉じた式でまとめて行えるかどうかを返す．<br>
+	 * キー入力がなく攻撃も存在しない状態で, その間にアクションの切り替え, 攻撃の生成, 着地及び画面上端との接触が起こらず,
+	 * 摩擦によって水平方向の速度の向きが反転しない場合に成り立つ．相手キャラクターや画面の左右端との接触は判定しない．<br>
+	 * 成り立つフレーム数は単調であり, あるフレーム数で成り立つ場合はそれより少ないフレーム数でも成り立つ．
+	 *
+	 * @param frames
+	 *            まとめて処理するフレーム数
+	 *
+	 * @return {@code true} 閉じた式で処理できる場合，{@code false} otherwise
+	 * @see #skipFrames(int)
+	 */
+	public boolean canSkipFrames(int frames) {
+		// remainingFrameが0になるフレームでアクションが切り替わる
+		if (frames >= this.remainingFrame) {
+			return false;
+		}
+
+		// 攻撃の発生フレームを跨がない
+		Motion motion = this.motionList.get(this.action.ordinal());
+		int startActive = motion.getFrameNumber() - motion.getAttackStartUp();
+		if (startActive < this.remainingFrame && startActive >= this.remainingFrame - frames) {
+			return false;
+		}
+
+		if (isStandingOnGround()) {
+			// 着地するアクションは接地中に毎フレームLANDINGを実行する
+			if (motion.isLandingFlag()) {
+				return false;
+			}
+
+			// 速度が摩擦の倍数でない場合, 速度が0を跨ぐフレームで向きが反転する
+			int speed = Math.abs(this.speedX);
+			return speed % GameSetting.FRICTION == 0 || frames <= speed / GameSetting.FRICTION;
+		}
+
+		// 空中では全てのフレームで, 画面上端にも地面にも触れない
+		return getHitAreaTop() + getMinDisplacementY(frames) > 0
+				&& getHitAreaBottom() + getMaxDisplacementY(frames) < GameSetting.STAGE_HEIGHT;
+	}
+
+	/**
+	 * 指定したフレーム数分の{@link #update()}を閉じた式でまとめて行う．<br>
+	 * {@link #canSkipFrames(int)}が成り立つ場合, {@link #update()}を指定した回数呼び出した場合と同じ結果になる．
+	 *
+	 * @param frames
+	 *            まとめて処理するフレーム数
+	 */
+	public void skipFrames(int frames) {
+		boolean onGround = isStandingOnGround();
+		this.x += getDisplacementX(frames);
+
+		if (onGround) {
+			int speed = Math.max(Math.abs(this.speedX) - GameSetting.FRICTION * frames, 0);
+			this.speedX = this.speedX < 0 ? -speed : speed;
+		} else {
+			this.y += (int) getDisplacementY(frames);
+			this.speedY += GameSetting.GRAVITY * frames;
+		}
+
+		if (this.context.isTrainingModeFlag()) {
+			this.energy = this.context.getMaxEnergy(this.playerNumber);
+			this.hp = this.context.getMaxHp(this.playerNumber);
+		}
+
+		if (this.energy > this.context.getMaxEnergy(this.playerNumber)) {
+			this.energy = this.context.getMaxEnergy(this.playerNumber);
+		}
+
+		this.remainingFrame -= frames;
+
+		// 履歴が全て入力なしに置き換わった後は, それ以上処理しても変化しない
+		int repeat = Math.min(frames, Math.max(this.processedCommands.size(), GameSetting.INPUT_LIMIT) + 1);
+		for (int i = 0; i < repeat; i++) {
+			this.processedCommands.addLast(0);
+			if (this.processedCommands.size() > GameSetting.INPUT_LIMIT)
+				this.processedCommands.removeFirst();
+		}
+	}
+
+	/**
+	 * {@link #canSkipFrames(int)}が成り立つ場合に, 指定したフレーム数分の{@link #update()}による水平方向の移動量を返す．<br>
+	 * 移動量は単調に変化するため, 途中のフレームの位置は現在の位置とこの移動量の間にある．
+	 *
+	 * @param frames
+	 *            まとめて処理するフレーム数
+	 *
+	 * @return 水平方向の移動量
+	 */
+	public int getDisplacementX(int frames) {
+		if (!isStandingOnGround()) {
+			return frames * this.speedX;
+		}
+
+		// 摩擦によって速度が0になるまでのフレームだけ移動する
+		int speed = Math.abs(this.speedX);
+		int moving = Math.min(frames, (speed + GameSetting.FRICTION - 1) / GameSetting.FRICTION);
+		int distance = moving * speed - GameSetting.FRICTION * moving * (moving - 1) / 2;
+
+		return this.speedX < 0 ? -distance : distance;
+	}
+
+	/**
+	 * キャラクターが垂直方向の速度を持たずに地面に接しているかどうかを返す．<br>
+	 * このときupdate()は垂直方向の位置を変えず, 水平方向の速度に摩擦の影響を与える．
+	 *
+	 * @return {@code true} 地面に接して静止している場合，{@code false} otherwise
+	 */
+	private boolean isStandingOnGround() {
+		return this.speedY == 0 && getHitAreaBottom() == GameSetting.STAGE_HEIGHT;
+	}
+
+	/**
+	 * 空中にいる間の, 指定したフレーム数分の垂直方向の移動量を返す．<br>
+	 * 重力により, 速度は1フレームごとにGRAVITYずつ増加する．
+	 *
+	 * @param frames
+	 *            フレーム数
+	 *
+	 * @return 垂直方向の移動量
+	 */
+	private long getDisplacementY(int frames) {
+		return (long) frames * this.speedY + (long) GameSetting.GRAVITY * frames * (frames - 1) / 2;
+	}
+
+	/**
+	 * 空中にいる間の, 1から指定したフレーム数までの各フレームにおける垂直方向の移動量の最小値を返す．<br>
+	 * 移動量はフレーム数の下に凸な2次式であるため, 両端と頂点付近の値の最小値となる．
+	 *
+	 * @param frames
+	 *            フレーム数
+	 *
+	 * @return 垂直方向の移動量の最小値
+	 */
+	private long getMinDisplacementY(int frames) {
+		long min = Math.min(getDisplacementY(1), getDisplacementY(frames));
+		int vertex = (int) Math.floorDiv(GameSetting.GRAVITY - 2L * this.speedY, 2L * GameSetting.GRAVITY);
+		for (int i = vertex; i <= vertex + 1; i++) {
+			if (i >= 1 && i <= frames) {
+				min = Math.min(min, getDisplacementY(i));
+			}
+		}
+
+		return min;
+	}
+
+	/**
+	 * 空中にいる間の, 1から指定したフレーム数までの各フレームにおける垂直方向の移動量の最大値を返す．<br>
+	 * 移動量はフレーム数の下に凸な2次式であるため, 両端の値の最大値となる．
+	 *
+	 * @param frames
+	 *            フレーム数
+	 *
+	 * @return 垂直方向の移動量の最大値
+	 */
+	private long getMaxDisplacementY(int frames) {
+		return Math.max(getDisplacementY(1), getDisplacementY(frames));
+	}
+
 	/**
 	 * 攻撃がヒットしたときの処理を行う．
 	 *
@@ -450,7 +697,7 @@ public class Character {
 			setRemainingFrame(attack.getGiveGuardRecov());
 			opponent.setEnergy(opponent.getEnergy() + attack.getGuardAddEnergy());
 
-			if (FlagSetting.enableWindow && !FlagSetting.muteFlag && !this.isSimulateProcess) {
+			if (this.context.isEnableWindow() && !this.context.isMuteFlag() && !this.isSimulateProcess) {
 				//SoundManager.getInstance().play(SoundManager.getInstance().getSoundEffect().get("WeakGuard.wav"));
 			}
 		} else {
@@ -481,7 +728,7 @@ public class Character {
 					runAction(Action.CHANGE_DOWN, false);
 					setRemainingFrame(this.motionList.get(this.action.ordinal()).getFrameNumber());
 
-					if (FlagSetting.enableWindow && !FlagSetting.muteFlag && !this.isSimulateProcess) {
+					if (this.context.isEnableWindow() && !this.context.isMuteFlag() && !this.isSimulateProcess) {
 //						SoundManager.getInstance()
 //								.play(SoundManager.getInstance().getSoundEffect().get("StrongHit.wav"));
 					}
@@ -504,7 +751,7 @@ public class Character {
 						break;
 					}
 
-					if (FlagSetting.enableWindow && !FlagSetting.muteFlag && !this.isSimulateProcess) {
+					if (this.context.isEnableWindow() && !this.context.isMuteFlag() && !this.isSimulateProcess) {
 						//SoundManager.getInstance().play(SoundManager.getInstance().getSoundEffect().get("WeakHit.wav"));
 					}
 				}
@@ -927,6 +1174,18 @@ public class Character {
 		return temp;
 	}
 
+	/**
+	 * 引数のアクションに対応するモーションを返す．<br>
+	 * {@link #getMotionList()}と異なりリストのコピーを生成しないため, 毎フレーム呼び出される処理ではこちらを用いる．
+	 *
+	 * @param action
+	 *            アクション
+	 * @return 引数のアクションに対応するモーション
+	 */
+	public Motion getMotion(Action action) {
+		return this.motionList.get(action.ordinal());
+	}
+
 	/**
 	 * Returns a list storing keys of the action that the character will be
 	 * executing in the simulator
@@ -935,12 +1194,18 @@ public class Character {
 	 *         executing in the simulator
 	 */
 	public Deque<Key> getInputCommand() {
-		LinkedList<Key> temp = new LinkedList<Key>();
-		for (Key key : this.inputCommands) {
-			temp.add(key);
-		}
+		return this.inputCommands.toDeque();
+	}
 
-		return temp;
+	/**
+	 * Returns whether the list storing keys of the action that the character
+	 * will be executing in the simulator is empty.<br>
+	 * Unlike {@link #getInputCommand()}, this method does not copy the list.
+	 *
+	 * @return {@code true} if the list is empty, {@code false} otherwise
+	 */
+	public boolean isInputCommandEmpty() {
+		return this.inputCommands.isEmpty();
 	}
 
 	/**
@@ -951,12 +1216,34 @@ public class Character {
 	 *         simulator
 	 */
 	public Deque<Key> getProcessedCommand() {
-		LinkedList<Key> temp = new LinkedList<Key>();
-		for (Key key : this.processedCommands) {
-			temp.add(key);
-		}
+		return this.processedCommands.toDeque();
+	}
 
-		return temp;
+	/**
+	 * Returns the queue of the packed keys of the action that the character
+	 * will be executing in the simulator.<br>
+	 * Unlike {@link #getInputCommand()}, this method does not copy the queue,
+	 * so the returned queue must not be modified.
+	 *
+	 * @return the queue of the packed keys that the character will be
+	 *         executing
+	 * @see Key#pack()
+	 */
+	public KeyQueue getInputCommandQueue() {
+		return this.inputCommands;
+	}
+
+	/**
+	 * Returns the queue of up to 30 packed keys that the character executed in
+	 * the simulator.<br>
+	 * Unlike {@link #getProcessedCommand()}, this method does not copy the
+	 * queue, so the returned queue must not be modified.
+	 *
+	 * @return the queue of the packed keys that the character executed
+	 * @see Key#pack()
+	 */
+	public KeyQueue getProcessedCommandQueue() {
+		return this.processedCommands;
 	}
 
 	/**
@@ -990,6 +1277,48 @@ public class Character {
 		return this.lastHitFrame;
 	}
 
+	/**
+	 * 引数のハッシュ値に, キャラクターの全ての状態を混ぜ込んだハッシュ値を返す．<br>
+	 * 位置, 速度, HPなどのパラメータに加えて, 出している攻撃, コンボ数及び入力されたキーの履歴を用いる．
+	 *
+	 * @param hash
+	 *            現在のハッシュ値
+	 * @return キャラクターの状態を混ぜ込んだハッシュ値
+	 * @see StateHash
+	 */
+	public long updateStateHash(long hash) {
+		hash = StateHash.update(hash, this.playerNumber);
+		hash = StateHash.update(hash, this.hp);
+		hash = StateHash.update(hash, this.energy);
+		hash = StateHash.update(hash, this.x);
+		hash = StateHash.update(hash, this.y);
+		hash = StateHash.update(hash, this.speedX);
+		hash = StateHash.update(hash, this.speedY);
+		hash = StateHash.update(hash, this.state.ordinal());
+		hash = StateHash.update(hash, this.action.ordinal());
+		hash = StateHash.update(hash, this.front);
+		hash = StateHash.update(hash, this.control);
+		hash = StateHash.update(hash, this.attack);
+		hash = StateHash.update(hash, this.remainingFrame);
+		hash = StateHash.update(hash, this.hitConfirm);
+		hash = StateHash.update(hash, this.graphicSizeX);
+		hash = StateHash.update(hash, this.graphicSizeY);
+		hash = StateHash.update(hash, this.graphicAdjustX);
+		hash = StateHash.update(hash, this.lastHitFrame);
+		hash = StateHash.update(hash, this.hitCount);
+
+		hash = StateHash.update(hash, this.inputCommands.size());
+		for (int i = 0; i < this.inputCommands.size(); i++) {
+			hash = StateHash.update(hash, this.inputCommands.get(i));
+		}
+		hash = StateHash.update(hash, this.processedCommands.size());
+		for (int i = 0; i < this.processedCommands.size(); i++) {
+			hash = StateHash.update(hash, this.processedCommands.get(i));
+		}
+
+		return hash;
+	}
+
 	/**
 	 * 攻撃の連続ヒット数に応じたエクストラダメージを返す．<br>
 	 *
@@ -1165,29 +1494,23 @@ public class Character {
 	}
 
 	/**
-	 * Sets all of possible motions of the given character.
+	 * Sets all of possible motions of the given character.<br>
+	 * The motions are taken from the {@link MotionTable} shared by all
+	 * players. If the window is enabled, motions with the images of this
+	 * player are created from them.
 	 *
 	 * @param characterName
 	 *            the character's name
 	 */
 	private void setMotionList(String characterName) {
-		try {
-			BufferedReader br = ResourceLoader.getInstance()
-					.openReadFile("./data/characters/" + characterName + "/Motion.csv");
+		MotionTable table = MotionTable.get(characterName);
 
-			String line;
-			br.readLine(); // ignore header
-
-			while ((line = br.readLine()) != null) {
-				String[] st = line.split(",", 0);
-				Motion motion = new Motion(st, characterName, this.playerNumber ? 0 : 1);
-				this.motionList.add(motion);
+		if (this.context.isEnableWindow()) {
+			for (Motion motion : table.getMotions()) {
+				this.motionList.add(new Motion(motion, characterName, this.playerNumber ? 0 : 1, this.context));
 			}
-
-			br.close();
-
-		} catch (IOException e) {
-			e.printStackTrace();
+		} else {
+			this.motionList.addAll(table.getMotions());
 		}
 	}
 
@@ -1220,7 +1543,7 @@ public class Character {
 	 *            executing in the simulator
 	 */
 	public void setInputCommand(Deque<Key> inputCommands) {
-		this.inputCommands = inputCommands;
+		this.inputCommands = new KeyQueue(inputCommands);
 	}
 
 	/**
@@ -1232,7 +1555,7 @@ public class Character {
 	 *            the simulator
 	 */
 	public void setProcessedCommand(Deque<Key> inputCommands) {
-		this.processedCommands = inputCommands;
+		this.processedCommands = new KeyQueue(inputCommands);
 	}
 
 	/**
@@ -9,13 +9,14 @@ import enumerate.Action;
 import enumerate.State;
 import image.Image;
 import input.KeyData;
+import input.KeyQueue;
 import manager.GraphicManager;
-import setting.FlagSetting;
+import setting.GameContext;
 import setting.GameSetting;
-import setting.LaunchSetting;
 import struct.AttackData;
 import struct.CharacterData;
 import struct.FrameData;
+import util.StateHash;
 
 /**
  * 対戦処理及びそれに伴う攻撃やキャラクターのパラメータの更新処理を扱うクラス．
@@ -38,11 +39,13 @@ public class Fighting {
 	protected Deque<LoopEffect> projectileDeque;
 
 	/**
-	 * The list of the input information of both characters.
+	 * The list of the input information of both characters.<br>
+	 * Each queue stores the packed keys of a character. Index 0 is P1, index 1
+	 * is P2.
 	 *
-	 * @see KeyData
+	 * @see KeyQueue
 	 */
-	private Deque<KeyData> inputCommands;
+	private KeyQueue[] inputCommands;
 
 	/**
 	 * 攻撃が当たった時に表示するエフェクトや, アッパーのエフェクトの情報を格納するリスト．<br>
@@ -59,14 +62,38 @@ public class Fighting {
 	 */
 	protected CommandTable commandTable;
 
+	/**
+	 * キャラクター名やウィンドウの有無など, 現在の試合の起動情報．
+	 *
+	 * @see GameContext
+	 */
+	protected GameContext context;
+
+	/**
+	 * 最後に処理したフレームにおける対戦状態のハッシュ値．<br>
+	 * 対戦状態のハッシュ値を計算するモードのときのみ更新される．
+	 */
+	private long stateHash;
 
 	/**
-	 * Class constructor．
+	 * Class constructor．<br>
+	 * 現在のFlagSetting及びLaunchSettingの値を起動情報として用いる．
 	 */
 	public Fighting() {
+		this(new GameContext());
+	}
+
+	/**
+	 * 引数の起動情報を用いて対戦処理を行うインスタンスを生成するクラスコンストラクタ．
+	 *
+	 * @param context
+	 *            現在の試合の起動情報
+	 */
+	public Fighting(GameContext context) {
+		this.context = context;
 		this.playerCharacters = new Character[2];
 		this.projectileDeque = new LinkedList<LoopEffect>();
-		this.inputCommands = new LinkedList<KeyData>();
+		this.inputCommands = new KeyQueue[] { new KeyQueue(), new KeyQueue() };
 		this.commandTable = new CommandTable();
 		this.hitEffects = new LinkedList<LinkedList<HitEffect>>();
 
@@ -77,8 +104,8 @@ public class Fighting {
 	 */
 	public void initialize() {
 		for (int i = 0; i < 2; i++) {
-			this.playerCharacters[i] = new Character();
-			this.playerCharacters[i].initialize(LaunchSetting.characterNames[i], i == 0);
+			this.playerCharacters[i] = new Character(this.context);
+			this.playerCharacters[i].initialize(this.context.getCharacterName(i == 0), i == 0);
 			this.hitEffects.add(new LinkedList<HitEffect>());
 		}
 	}
@@ -109,6 +136,47 @@ public class Fighting {
 		// 4. キャラクターの状態の更新
 		updateCharacter();
 
+		if (this.context.isStateHashFlag()) {
+			this.stateHash = calculateStateHash();
+		}
+	}
+
+	/**
+	 * 現在の対戦状態の64ビットハッシュ値を計算する．<br>
+	 * P1, P2のキャラクターの状態, 画面上の波動拳及びキー入力の履歴を用いる．
+	 *
+	 * @return 現在の対戦状態のハッシュ値
+	 * @see StateHash
+	 */
+	public long calculateStateHash() {
+		long hash = StateHash.SEED;
+		for (int i = 0; i < 2; i++) {
+			hash = this.playerCharacters[i].updateStateHash(hash);
+		}
+
+		hash = StateHash.update(hash, this.projectileDeque.size());
+		for (LoopEffect projectile : this.projectileDeque) {
+			hash = StateHash.update(hash, projectile.getAttack());
+		}
+
+		hash = StateHash.update(hash, this.inputCommands[0].size());
+		for (int i = 0; i < this.inputCommands[0].size(); i++) {
+			for (KeyQueue keys : this.inputCommands) {
+				hash = StateHash.update(hash, keys.get(i));
+			}
+		}
+
+		return StateHash.finish(hash);
+	}
+
+	/**
+	 * 最後に処理したフレームにおける対戦状態のハッシュ値を返す．<br>
+	 * 対戦状態のハッシュ値を計算するモードでないときは0を返す．
+	 *
+	 * @return 最後に処理したフレームにおける対戦状態のハッシュ値
+	 */
+	public long getStateHash() {
+		return this.stateHash;
 	}
 
 	/**
@@ -121,18 +189,20 @@ public class Fighting {
 	 *            Index 0 is P1, index 1 is P2.
 	 */
 	protected void processingCommands(int currentFrame, KeyData keyData) {
-		this.inputCommands.addLast(keyData);
+		for (int i = 0; i < 2; i++) {
+			this.inputCommands[i].addLast(keyData.getPackedKey(i == 0));
 
-		// リストのサイズが上限(INPUT_LIMIT)を超えていたら, 最も古いデータを削除する
-		if (this.inputCommands.size() > GameSetting.INPUT_LIMIT) {
-			this.inputCommands.removeFirst();
+			// リストのサイズが上限(INPUT_LIMIT)を超えていたら, 最も古いデータを削除する
+			if (this.inputCommands[i].size() > GameSetting.INPUT_LIMIT) {
+				this.inputCommands[i].removeFirst();
+			}
 		}
 
 		// アクションの実行
 		for (int i = 0; i < 2; i++) {
-			if (!this.inputCommands.isEmpty()) {
-				Action executeAction = this.commandTable.interpretationCommandFromKeyData(this.playerCharacters[i],
-						this.inputCommands);
+			if (!this.inputCommands[i].isEmpty()) {
+				Action executeAction = this.commandTable.interpretationCommandFromKeyQueue(this.playerCharacters[i],
+						this.inputCommands[this.playerCharacters[i].isPlayerNumber() ? 0 : 1]);
 				if (ableAction(this.playerCharacters[i], executeAction)) {
 					this.playerCharacters[i].runAction(executeAction, true);
 				}
@@ -178,7 +248,7 @@ public class Fighting {
 
 		// エフェクト関係の処理. Windowが生成されているときのみ行う.
 		for (int i = 0; i < 2; i++) {
-			if (FlagSetting.enableWindow) {
+			if (this.context.isEnableWindow()) {
 				if (this.playerCharacters[i].getAttack() != null) {
 					// 現在のコンボに応じたエフェクトをセット
 					int comboState = Math.max(this.playerCharacters[i].getHitCount() - 1, 0);
@@ -191,7 +261,7 @@ public class Fighting {
 					// アッパーの処理
 					if (playerCharacters[i].getAction() == Action.STAND_F_D_DFB) {
 						Image[] upper = GraphicManager.getInstance().getUpperImageContainer()[i];
-						Motion motion = this.playerCharacters[i].getMotionList().get(Action.STAND_F_D_DFB.ordinal());
+						Motion motion = this.playerCharacters[i].getMotion(Action.STAND_F_D_DFB);
 
 						if (this.playerCharacters[i].startActive(motion)) {
 							this.hitEffects.get(i)
@@ -250,16 +320,16 @@ public class Fighting {
 				if (this.playerCharacters[i].getAttack().isProjectile()) {
 
 					Attack attack = this.playerCharacters[i].getAttack();
-					ArrayList<Image> projectileImage = FlagSetting.enableWindow
+					ArrayList<Image> projectileImage = this.context.isEnableWindow()
 							? GraphicManager.getInstance().getProjectileImageContainer() : null;
 
 					if (this.playerCharacters[i].getAction() == Action.STAND_D_DF_FC) {
-						projectileImage = FlagSetting.enableWindow
+						projectileImage = this.context.isEnableWindow()
 								? GraphicManager.getInstance().getUltimateAttackImageContainer() : null;
 					}
 
 					Image[] temp;
-					if (FlagSetting.enableWindow) {
+					if (this.context.isEnableWindow()) {
 						temp = new Image[projectileImage.size()];
 						for (int j = 0; j < temp.length; j++) {
 							temp[j] = projectileImage.get(j);
@@ -386,8 +456,8 @@ public class Fighting {
 	 * @see Action
 	 */
 	protected boolean ableAction(Character character, Action nextAction) {
-		Motion nextMotion = character.getMotionList().get(nextAction.ordinal());
-		Motion nowMotion = character.getMotionList().get(character.getAction().ordinal());
+		Motion nextMotion = character.getMotion(nextAction);
+		Motion nowMotion = character.getMotion(character.getAction());
 
 		if (character.getEnergy() < -nextMotion.getAttackStartAddEnergy()) {
 			return false;
@@ -459,7 +529,52 @@ public class Fighting {
 			newAttackDeque.addLast(new AttackData(loopEffect.getAttack()));
 		}
 
-		return new FrameData(characterData, nowFrame, round, newAttackDeque);
+		return FrameData.wrap(characterData, nowFrame, round, newAttackDeque, this.context.isTrainingModeFlag());
+	}
+
+	/**
+	 * 現在の対戦状態を保存した新しいインスタンスを返す．
+	 *
+	 * @return 現在の対戦状態を保存したインスタンス
+	 * @see FightingSnapshot
+	 */
+	public FightingSnapshot snapshot() {
+		FightingSnapshot snapshot = createSnapshot();
+		snapshot(snapshot);
+		return snapshot;
+	}
+
+	/**
+	 * 現在の対戦状態を引数のインスタンスに上書きして保存する．<br>
+	 * 同じインスタンスを使い回すことで, 状態の保存のたびにインスタンスを生成せずに済む．
+	 *
+	 * @param snapshot
+	 *            対戦状態を保存するインスタンス
+	 * @see FightingSnapshot
+	 */
+	public void snapshot(FightingSnapshot snapshot) {
+		snapshot.save(this.playerCharacters, this.projectileDeque, this.inputCommands, this.stateHash);
+	}
+
+	/**
+	 * 引数のインスタンスに保存した対戦状態を復元する．<br>
+	 * 同じインスタンスから何度でも復元することができる．攻撃が当たった時のエフェクトは復元しない．
+	 *
+	 * @param snapshot
+	 *            復元する対戦状態を保存したインスタンス
+	 * @see FightingSnapshot
+	 */
+	public void restore(FightingSnapshot snapshot) {
+		this.stateHash = snapshot.load(this.playerCharacters, this.projectileDeque, this.inputCommands);
+	}
+
+	/**
+	 * 対戦状態を保存するための空のインスタンスを生成する．
+	 *
+	 * @return 対戦状態を保存するための空のインスタンス
+	 */
+	protected FightingSnapshot createSnapshot() {
+		return new FightingSnapshot(this.context);
 	}
 
 	/**
@@ -472,7 +587,9 @@ public class Fighting {
 		}
 
 		this.projectileDeque.clear();
-		this.inputCommands.clear();
+		for (KeyQueue keys : this.inputCommands) {
+			keys.clear();
+		}
 	}
 
 	/**
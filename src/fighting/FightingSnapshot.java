@@ -0,0 +1,156 @@
+package fighting;
+
+import java.util.ArrayList;
+import java.util.Deque;
+
+import image.Image;
+import input.KeyQueue;
+import setting.GameContext;
+
+/**
+ * Fightingクラスの対戦状態を保存するクラス．<br>
+ * {@link Fighting#snapshot(FightingSnapshot)}で状態を上書きして使い回すことができ,
+ * 2回目以降の保存ではキャラクターや攻撃のインスタンスを新たに生成しない．<br>
+ * 攻撃が当たった時のエフェクトなど, 画面表示のみに用いる情報は保存しない．
+ *
+ * @see Fighting#snapshot()
+ * @see Fighting#restore(FightingSnapshot)
+ */
+public class FightingSnapshot {
+
+	/**
+	 * P1, P2のキャラクター情報のコピー．<br>
+	 * Index 0 is P1, index 1 is P2.
+	 */
+	private Character[] characters;
+
+	/**
+	 * 画面上の波動拳の攻撃情報のコピーを格納するリスト．<br>
+	 * 使い回すため, 実際の波動拳の数より多くの要素を持つことがある．
+	 */
+	private ArrayList<Attack> projectiles;
+
+	/**
+	 * 画面上の波動拳のエフェクト画像を格納するリスト．
+	 */
+	private ArrayList<Image[]> projectileImages;
+
+	/**
+	 * 保存した波動拳の数．
+	 */
+	private int projectileCount;
+
+	/**
+	 * P1, P2のキー入力の履歴．<br>
+	 * Index 0 is P1, index 1 is P2.
+	 */
+	private KeyQueue[] inputCommands;
+
+	/**
+	 * 保存したフレームにおける対戦状態のハッシュ値．
+	 */
+	private long stateHash;
+
+	/**
+	 * 空のインスタンスを生成するクラスコンストラクタ．<br>
+	 * 状態の保存には{@link Fighting#snapshot()}または{@link Fighting#snapshot(FightingSnapshot)}を用いる．
+	 *
+	 * @param context
+	 *            状態を保存する試合の起動情報
+	 */
+	public FightingSnapshot(GameContext context) {
+		this.characters = new Character[] { new Character(context), new Character(context) };
+		this.projectiles = new ArrayList<Attack>();
+		this.projectileImages = new ArrayList<Image[]>();
+		this.projectileCount = 0;
+		this.inputCommands = new KeyQueue[] { new KeyQueue(), new KeyQueue() };
+		this.stateHash = 0;
+	}
+
+	/**
+	 * 引数の対戦状態をこのインスタンスに保存する．
+	 *
+	 * @param playerCharacters
+	 *            P1, P2のキャラクター情報
+	 * @param projectileDeque
+	 *            画面上の波動拳を格納したリスト
+	 * @param inputCommands
+	 *            P1, P2のキー入力の履歴
+	 * @param stateHash
+	 *            対戦状態のハッシュ値
+	 */
+	void save(Character[] playerCharacters, Deque<LoopEffect> projectileDeque, KeyQueue[] inputCommands,
+			long stateHash) {
+		for (int i = 0; i < 2; i++) {
+			this.characters[i].copyFrom(playerCharacters[i]);
+		}
+
+		this.projectileCount = 0;
+		for (LoopEffect projectile : projectileDeque) {
+			if (this.projectileCount == this.projectiles.size()) {
+				this.projectiles.add(new Attack());
+				this.projectileImages.add(null);
+			}
+			this.projectiles.get(this.projectileCount).copyFrom(projectile.getAttack());
+			this.projectileImages.set(this.projectileCount, projectile.getImages());
+			this.projectileCount++;
+		}
+
+		for (int i = 0; i < 2; i++) {
+			this.inputCommands[i].copyFrom(inputCommands[i]);
+		}
+		this.stateHash = stateHash;
+	}
+
+	/**
+	 * このインスタンスに保存した対戦状態を引数の対戦状態に上書きする．<br>
+	 * キャラクターのインスタンスは使い回し, 波動拳は新たに生成する．
+	 *
+	 * @param playerCharacters
+	 *            P1, P2のキャラクター情報
+	 * @param projectileDeque
+	 *            画面上の波動拳を格納したリスト
+	 * @param inputCommands
+	 *            P1, P2のキー入力の履歴
+	 * @return 保存したフレームにおける対戦状態のハッシュ値
+	 */
+	long load(Character[] playerCharacters, Deque<LoopEffect> projectileDeque, KeyQueue[] inputCommands) {
+		for (int i = 0; i < 2; i++) {
+			playerCharacters[i].copyFrom(this.characters[i]);
+		}
+
+		projectileDeque.clear();
+		for (int i = 0; i < this.projectileCount; i++) {
+			Attack attack = new Attack();
+			attack.copyFrom(this.projectiles.get(i));
+			projectileDeque.addLast(new LoopEffect(attack, this.projectileImages.get(i)));
+		}
+
+		for (int i = 0; i < 2; i++) {
+			inputCommands[i].copyFrom(this.inputCommands[i]);
+		}
+		return this.stateHash;
+	}
+
+	/**
+	 * 保存したキャラクター情報を返す．<br>
+	 * 返り値はこのインスタンスが保持するインスタンスであるため, 変更してはならない．
+	 *
+	 * @param playerNumber
+	 *            The character's side flag.<br>
+	 *            {@code true} if the character is P1, or {@code false} if P2.
+	 * @return 保存したキャラクター情報
+	 */
+	public Character getCharacter(boolean playerNumber) {
+		return this.characters[playerNumber ? 0 : 1];
+	}
+
+	/**
+	 * 保存した波動拳の数を返す．
+	 *
+	 * @return 保存した波動拳の数
+	 */
+	public int getProjectileCount() {
+		return this.projectileCount;
+	}
+}
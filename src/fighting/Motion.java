@@ -11,8 +11,7 @@ import enumerate.State;
 import image.CharacterActionImage;
 import image.Image;
 import manager.GraphicManager;
-import setting.FlagSetting;
-import setting.LaunchSetting;
+import setting.GameContext;
 import struct.HitArea;
 import struct.MotionData;
 
@@ -194,8 +193,25 @@ public class Motion {
 	 *            キャラクターの名前
 	 * @param playerIndex
 	 *            プレイヤー番号(0:P1 1:P2)
+	 * @param context
+	 *            現在の試合の起動情報
 	 */
-	public Motion(String[] data, String characterName, int playerIndex) {
+	public Motion(String[] data, String characterName, int playerIndex, GameContext context) {
+		this(data);
+
+		if (context.isEnableWindow()) {
+			setMotionImage(characterName, playerIndex, context);
+		}
+	}
+
+	/**
+	 * 指定されたデータで画像を持たないMotionクラスのインスタンスを生成するクラスコンストラクタ．<br>
+	 * {@link MotionTable}が全てのプレイヤーで共有するモーションを生成する際に用いる．
+	 *
+	 * @param data
+	 *            Motion.csvから読み込んだキャラクターのパラメータ
+	 */
+	Motion(String[] data) {
 		this.actionName = data[0];
 		this.frameNumber = Integer.valueOf(data[1]);
 		this.speedX = Integer.valueOf(data[2]);
@@ -226,9 +242,52 @@ public class Motion {
 		this.control = Boolean.valueOf(data[31]);
 		this.landingFlag = Boolean.valueOf(data[32]);
 		// data[33]は読み込む画像が入ったディレクトリ名
-		//
-		if (FlagSetting.enableWindow) {
-			setMotionImage(characterName, playerIndex);
+	}
+
+	/**
+	 * 引数のモーションのパラメータをコピーし, 指定されたプレイヤーの画像を設定したインスタンスを生成するクラスコンストラクタ．<br>
+	 * 画像はプレイヤーごとに異なるため, 画面表示を行う場合は{@link MotionTable}の共有のモーションからこのコンストラクタで生成する．
+	 *
+	 * @param motion
+	 *            パラメータのコピー元のモーション
+	 * @param characterName
+	 *            キャラクターの名前
+	 * @param playerIndex
+	 *            プレイヤー番号(0:P1 1:P2)
+	 * @param context
+	 *            現在の試合の起動情報
+	 */
+	public Motion(Motion motion, String characterName, int playerIndex, GameContext context) {
+		this.actionName = motion.actionName;
+		this.frameNumber = motion.frameNumber;
+		this.speedX = motion.speedX;
+		this.speedY = motion.speedY;
+		this.characterHitArea = motion.characterHitArea;
+		this.state = motion.state;
+		this.attackHitArea = motion.attackHitArea;
+		this.attackSpeedX = motion.attackSpeedX;
+		this.attackSpeedY = motion.attackSpeedY;
+		this.attackStartUp = motion.attackStartUp;
+		this.attackActive = motion.attackActive;
+		this.attackHitDamage = motion.attackHitDamage;
+		this.attackGuardDamage = motion.attackGuardDamage;
+		this.attackStartAddEnergy = motion.attackStartAddEnergy;
+		this.attackHitAddEnergy = motion.attackHitAddEnergy;
+		this.attackGuardAddEnergy = motion.attackGuardAddEnergy;
+		this.attackGiveEnergy = motion.attackGiveEnergy;
+		this.attackImpactX = motion.attackImpactX;
+		this.attackImpactY = motion.attackImpactY;
+		this.attackGiveGuardRecov = motion.attackGiveGuardRecov;
+		this.attackType = motion.attackType;
+		this.attackDownProp = motion.attackDownProp;
+		this.cancelAbleFrame = motion.cancelAbleFrame;
+		this.cancelAbleMotionLevel = motion.cancelAbleMotionLevel;
+		this.motionLevel = motion.motionLevel;
+		this.control = motion.control;
+		this.landingFlag = motion.landingFlag;
+
+		if (context.isEnableWindow()) {
+			setMotionImage(characterName, playerIndex, context);
 		}
 	}
 
@@ -279,8 +338,10 @@ public class Motion {
 	 *            キャラクターの名前
 	 * @param playerIndex
 	 *            プレイヤー番号(0:P1 1:P2)
+	 * @param context
+	 *            現在の試合の起動情報
 	 */
-	private void setMotionImage(String characterName, int playerIndex) {
+	private void setMotionImage(String characterName, int playerIndex, GameContext context) {
 		this.imageList = new ArrayList<Image>();
 		ArrayList<CharacterActionImage> temp = GraphicManager.getInstance().getCharacterImageContainer();
 		int index = temp.indexOf(new CharacterActionImage(characterName, this.actionName));
@@ -293,9 +354,9 @@ public class Motion {
 			Image[] image = temp.get(index).getActionImage();
 
 			for (Image img : image) {
-				if (LaunchSetting.characterNames[0].equals(LaunchSetting.characterNames[1])) {
+				if (context.getCharacterName(true).equals(context.getCharacterName(false))) {
 					// 画素の反転
-					if (LaunchSetting.invertedPlayer == playerIndex + 1) {
+					if (context.getInvertedPlayer() == playerIndex + 1) {
 						Logger.getAnonymousLogger().log(Level.INFO,
 								"Inverting all character images of P" + playerIndex + 1);
 						img = invert(img);
@@ -0,0 +1,122 @@
+package fighting;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+
+import enumerate.Action;
+import loader.ResourceLoader;
+
+/**
+ * キャラクターごとのモーションのパラメータを保持するクラス．<br>
+ * Motion.csvはキャラクターごとにプロセス中で1度だけ読み込まれ, 生成されたモーションは両プレイヤー, シミュレータ及び以降の試合で共有される．<br>
+ * 共有されるモーションは画像を持たず, リストと各モーションの内容は変更してはならない．
+ */
+public final class MotionTable {
+
+	/**
+	 * 読み込み済みのモーションテーブルを格納するマップ．<br>
+	 * キーはキャラクターの名前．
+	 */
+	private static final HashMap<String, MotionTable> tables = new HashMap<String, MotionTable>();
+
+	/**
+	 * キャラクターの名前．
+	 */
+	private final String characterName;
+
+	/**
+	 * キャラクターの全モーションを格納したリスト．<br>
+	 * {@link Action#ordinal()}をインデックスとする．
+	 */
+	private final List<Motion> motions;
+
+	/**
+	 * 指定されたキャラクターのMotion.csvを読み込み, モーションテーブルを生成するクラスコンストラクタ．
+	 *
+	 * @param characterName
+	 *            キャラクターの名前
+	 */
+	private MotionTable(String characterName) {
+		this.characterName = characterName;
+
+		ArrayList<Motion> motions = new ArrayList<Motion>(Action.values().length);
+		try {
+			BufferedReader br = ResourceLoader.getInstance()
+					.openReadFile("./data/characters/" + characterName + "/Motion.csv");
+
+			String line;
+			br.readLine(); // ignore header
+
+			while ((line = br.readLine()) != null) {
+				motions.add(new Motion(line.split(",", 0)));
+			}
+
+			br.close();
+
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+
+		this.motions = Collections.unmodifiableList(motions);
+	}
+
+	/**
+	 * 指定されたキャラクターのモーションテーブルを返す．<br>
+	 * 初めて呼び出された場合のみMotion.csvを読み込む．
+	 *
+	 * @param characterName
+	 *            キャラクターの名前
+	 * @return 指定されたキャラクターのモーションテーブル
+	 */
+	public static synchronized MotionTable get(String characterName) {
+		MotionTable table = tables.get(characterName);
+		if (table == null) {
+			table = new MotionTable(characterName);
+			tables.put(characterName, table);
+		}
+
+		return table;
+	}
+
+	/**
+	 * キャラクターの名前を返す．
+	 *
+	 * @return キャラクターの名前
+	 */
+	public String getCharacterName() {
+		return this.characterName;
+	}
+
+	/**
+	 * キャラクターの全モーションを格納した変更不可能なリストを返す．
+	 *
+	 * @return キャラクターの全モーションを格納したリスト
+	 */
+	public List<Motion> getMotions() {
+		return this.motions;
+	}
+
+	/**
+	 * 引数のアクションに対応するモーションを返す．
+	 *
+	 * @param action
+	 *            アクション
+	 * @return 引数のアクションに対応するモーション
+	 */
+	public Motion getMotion(Action action) {
+		return this.motions.get(action.ordinal());
+	}
+
+	/**
+	 * モーションの数を返す．
+	 *
+	 * @return モーションの数
+	 */
+	public int size() {
+		return this.motions.size();
+	}
+}
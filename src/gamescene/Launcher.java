@@ -4,11 +4,14 @@ import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import enumerate.GameSceneName;
+import informationcontainer.AIContainer;
 import loader.ResourceLoader;
 import manager.GraphicManager;
 import manager.InputManager;
 import setting.FlagSetting;
+import setting.GameContext;
 import setting.GameSetting;
+import util.LogWriter;
 
 /**
  * 起動情報を基に次のゲームシーンを初期化し, 必要なリソースを読み込むクラス．
@@ -68,7 +71,7 @@ public class Launcher extends GameScene {
 			switch (this.nextGameSceneName.name()) {
 			case "PLAY":
 				Logger.getAnonymousLogger().log(Level.INFO, "Transition to PLAY");
-				Play play = new Play();
+				Play play = new Play(createGameContext());
 				this.setTransitionFlag(true);
 				this.setNextGameScene(play);
 				break;
@@ -91,6 +94,28 @@ public class Launcher extends GameScene {
 		}
 	}
 
+	/**
+	 * 現在のFlagSetting及びLaunchSettingの値を基に, 次の試合の起動情報を生成する．<br>
+	 * 総当り対戦のときは, AIContainerのインデックスが指すAIをP1, P2のAIとする．<br>
+	 * ログは生成した起動情報を用いて出力する．
+	 *
+	 * @return 次の試合の起動情報
+	 */
+	private GameContext createGameContext() {
+		GameContext context = new GameContext();
+
+		if (FlagSetting.allCombinationFlag) {
+			if (AIContainer.p1Index == AIContainer.p2Index) {
+				AIContainer.p1Index++;
+			}
+			context.setAiNames(new String[] { AIContainer.allAINameList.get(AIContainer.p1Index),
+					AIContainer.allAINameList.get(AIContainer.p2Index) });
+		}
+		context.setLogWriter(new LogWriter(context));
+
+		return context;
+	}
+
 	@Override
 	public void close() {
 
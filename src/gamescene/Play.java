@@ -18,16 +18,15 @@ import input.KeyData;
 import input.Keyboard;
 import loader.ResourceLoader;
 import manager.GraphicManager;
-import manager.InputManager;
 //import manager.SoundManager;
 import py4j.Py4JException;
 import setting.FlagSetting;
+import setting.GameContext;
 import setting.GameSetting;
 import struct.FrameData;
 import struct.GameData;
 import struct.ScreenData;
 import util.DebugActionData;
-import util.LogWriter;
 import util.ResourceDrawer;
 
 /**
@@ -85,15 +84,36 @@ public class Play extends GameScene {
 	 */
 	private DataOutputStream dos;
 
+	/**
+	 * 対戦状態のハッシュ値をファイルに出力するための出力ストリーム．
+	 */
+	private DataOutputStream hashDos;
+
 	/**
 	 * 現在の年月日, 時刻を表す文字列．
 	 */
 	private String timeInfo;
 
 	/**
-	 * クラスコンストラクタ．
+	 * 現在の試合の起動情報．
+	 */
+	private GameContext context;
+
+	/**
+	 * クラスコンストラクタ．<br>
+	 * 現在のFlagSetting及びLaunchSettingの値を起動情報として用いる．
 	 */
 	public Play() {
+		this(new GameContext());
+	}
+
+	/**
+	 * 引数の起動情報を用いて対戦シーンを初期化するクラスコンストラクタ．
+	 *
+	 * @param context
+	 *            現在の試合の起動情報
+	 */
+	public Play(GameContext context) {
 		// 以下4行の処理はgamesceneパッケージ内クラスのコンストラクタには必ず含める
 		this.gameSceneName = GameSceneName.PLAY;
 		this.isGameEndFlag = false;
@@ -101,13 +121,14 @@ public class Play extends GameScene {
 		this.nextGameScene = null;
 		//////////////////////////////////////
 
+		this.context = context;
 	}
 
 	@Override
 	public void initialize() {
-		InputManager.getInstance().setSceneName(GameSceneName.PLAY);
+		this.context.getInputManager().setSceneName(GameSceneName.PLAY);
 
-		this.fighting = new Fighting();
+		this.fighting = new Fighting(this.context);
 		this.fighting.initialize();
 
 		this.nowFrame = 0;
@@ -122,30 +143,30 @@ public class Play extends GameScene {
 
 		this.timeInfo = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy.MM.dd-HH.mm.ss", Locale.ENGLISH));
 
-		if (!FlagSetting.trainingModeFlag) {
+		if (!this.context.isTrainingModeFlag()) {
 			openReplayFile();
 		}
 
-		if (FlagSetting.debugActionFlag) {
+		if (this.context.isDebugActionFlag()) {
 			DebugActionData.getInstance().initialize();
 		}
-		if (FlagSetting.jsonFlag) {
-			String jsonName = LogWriter.getInstance().createOutputFileName("./log/replay/", this.timeInfo);
-			LogWriter.getInstance().initJson(jsonName + ".json");
+		if (this.context.isJsonFlag()) {
+			String jsonName = this.context.getLogWriter().createOutputFileName("./log/replay/", this.timeInfo);
+			this.context.getLogWriter().initJson(jsonName + ".json");
 		}
 
-		GameData gameData = new GameData(this.fighting.getCharacters());
+		GameData gameData = new GameData(this.fighting.getCharacters(), this.context);
 
 		try {
-			InputManager.getInstance().createAIcontroller();
-			InputManager.getInstance().startAI(gameData);
+			this.context.getInputManager().createAIcontroller(this.context);
+			this.context.getInputManager().startAI(gameData);
 		}catch (Py4JException e){
 			Logger.getAnonymousLogger().log(Level.SEVERE, "Fail to Initialize AI");
 			Launcher lunch = new Launcher(GameSceneName.PLAY);
 			this.setTransitionFlag(true);
 			this.setNextGameScene(lunch);
 		}
-		if (FlagSetting.enableWindow && !FlagSetting.muteFlag) {
+		if (this.context.isEnableWindow() && !this.context.isMuteFlag()) {
 			//SoundManager.getInstance().play(SoundManager.getInstance().getBackGroundMusic());
 		}
 
@@ -171,18 +192,18 @@ public class Play extends GameScene {
 
 		} else {
 			Logger.getAnonymousLogger().log(Level.INFO, "Game over");
-			if (FlagSetting.enableWindow && !FlagSetting.muteFlag) {
+			if (this.context.isEnableWindow() && !this.context.isMuteFlag()) {
 				// BGMを止める
 				//SoundManager.getInstance().stop(SoundManager.getInstance().getBackGroundMusic());
 			}
 
-			Result result = new Result(this.roundResults, this.timeInfo);
+			Result result = new Result(this.roundResults, this.timeInfo, this.context);
 			this.setTransitionFlag(true);
 			this.setNextGameScene(result);
 		}
 
-		if (Keyboard.getKeyDown(GLFW_KEY_ESCAPE)) {
-			if (FlagSetting.enableWindow && !FlagSetting.muteFlag) {
+		if (!FlagSetting.headlessFlag && Keyboard.getKeyDown(GLFW_KEY_ESCAPE)) {
+			if (this.context.isEnableWindow() && !this.context.isMuteFlag()) {
 				// BGMを止める
 				//SoundManager.getInstance().stop(SoundManager.getInstance().getBackGroundMusic());
 			}
@@ -203,7 +224,7 @@ public class Play extends GameScene {
 		this.roundStartFlag = false;
 		this.elapsedBreakTime = 0;
 
-		InputManager.getInstance().clear();
+		this.context.getInputManager().clear();
 	}
 
 	/**
@@ -211,9 +232,9 @@ public class Play extends GameScene {
 	 */
 	private void processingBreakTime() {
 		// ダミーフレームをAIにセット
-		InputManager.getInstance().setFrameData(new FrameData(), new ScreenData());
+		this.context.getInputManager().setFrameData(new FrameData(), new ScreenData());
 
-		if (FlagSetting.enableWindow) {
+		if (this.context.isEnableWindow()) {
 			GraphicManager.getInstance().drawQuad(0, 0, GameSetting.STAGE_WIDTH, GameSetting.STAGE_HEIGHT, 0, 0, 0, 0);
 			GraphicManager.getInstance().drawString("Waiting for Round Start", 350, 200);
 		}
@@ -233,34 +254,39 @@ public class Play extends GameScene {
 	 * 8. ラウンドが終了しているか判定する.<br>
 	 */
 	private void processingGame() {
-		this.keyData = new KeyData(InputManager.getInstance().getKeyData());
+		this.keyData = new KeyData(this.context.getInputManager().getKeyData());
 		this.fighting.processingFight(this.nowFrame, this.keyData);
 		this.frameData = this.fighting.createFrameData(this.nowFrame, this.currentRound);
 
+		if (this.hashDos != null) {
+			this.context.getLogWriter().outputStateHash(this.hashDos, this.currentRound, this.nowFrame,
+					this.fighting.getStateHash());
+		}
+
 		// リプレイログ吐き出し
-		if (!FlagSetting.trainingModeFlag) {
-			LogWriter.getInstance().outputLog(this.dos, this.keyData, this.fighting.getCharacters());
+		if (!this.context.isTrainingModeFlag()) {
+			this.context.getLogWriter().outputLog(this.dos, this.keyData, this.fighting.getCharacters());
 		}
 
-		if (FlagSetting.jsonFlag) {
-			LogWriter.getInstance().updateJson(this.frameData, this.keyData);
+		if (this.context.isJsonFlag()) {
+			this.context.getLogWriter().updateJson(this.frameData, this.keyData);
 		}
 
-		if (FlagSetting.enableWindow) {
+		if (this.context.isEnableWindow()) {
 			// 画面をDrawerクラスで描画
 			ResourceDrawer.getInstance().drawResource(this.fighting.getCharacters(), this.fighting.getProjectileDeque(),
 					this.fighting.getHitEffectList(), this.frameData.getRemainingTimeMilliseconds(), this.currentRound);
 		}
 
 		// P1とP2の行った各アクションの数を数える
-		if (FlagSetting.debugActionFlag) {
+		if (this.context.isDebugActionFlag()) {
 			DebugActionData.getInstance().countPlayerAction(this.fighting.getCharacters());
 		}
 
 		this.screenData = new ScreenData();
 
 		// AIにFrameDataをセット
-		InputManager.getInstance().setFrameData(this.frameData, this.screenData);
+		this.context.getInputManager().setFrameData(this.frameData, this.screenData);
 
 		// 体力が0orタイムオーバーならラウンド終了処理
 		if (isBeaten() || isTimeOver()) {
@@ -276,12 +302,12 @@ public class Play extends GameScene {
 		this.roundResults.add(roundResult);
 
 		// AIに結果を渡す
-		InputManager.getInstance().sendRoundResult(roundResult);
+		this.context.getInputManager().sendRoundResult(roundResult);
 		this.currentRound++;
 		this.roundStartFlag = true;
 
 		// P1とP2の行った各アクションの数のデータをCSVに出力する
-		if (FlagSetting.debugActionFlag) {
+		if (this.context.isDebugActionFlag()) {
 			DebugActionData.getInstance().outputActionCount();
 		}
 	}
@@ -292,8 +318,8 @@ public class Play extends GameScene {
 	 * @return {@code true}: P1 or P2が倒された，{@code false}: otherwise
 	 */
 	private boolean isBeaten() {
-		return FlagSetting.limitHpFlag
-				&& (this.frameData.getCharacter(true).getHp() <= 0 || this.frameData.getCharacter(false).getHp() <= 0);
+		return this.context.isLimitHpFlag()
+				&& (this.frameData.getCharacterView(true).getHp() <= 0 || this.frameData.getCharacterView(false).getHp() <= 0);
 	}
 
 	/**
@@ -303,7 +329,7 @@ public class Play extends GameScene {
 	 * @return {@code true}: 1ラウンドの制限時間が経過した， {@code false}: otherwise
 	 */
 	private boolean isTimeOver() {
-		if (FlagSetting.trainingModeFlag) {
+		if (this.context.isTrainingModeFlag()) {
 			return this.nowFrame == Integer.MAX_VALUE;
 		} else {
 			return this.nowFrame == GameSetting.ROUND_FRAME_NUMBER - 1;
@@ -312,13 +338,18 @@ public class Play extends GameScene {
 	}
 
 	/**
-	 * リプレイファイルを作成し, 使用キャラクターを表すインデックスなどのヘッダ情報を記述する.
+	 * リプレイファイルを作成し, 使用キャラクターを表すインデックスなどのヘッダ情報を記述する.<br>
+	 * 対戦状態のハッシュ値を出力する場合は, ハッシュ値のファイルも作成する．
 	 */
 	private void openReplayFile() {
-		String fileName = LogWriter.getInstance().createOutputFileName("./log/replay/", this.timeInfo);
+		String fileName = this.context.getLogWriter().createOutputFileName("./log/replay/", this.timeInfo);
 		this.dos = ResourceLoader.getInstance().openDataOutputStream(fileName + ".dat");
 
-		LogWriter.getInstance().writeHeader(this.dos);
+		this.context.getLogWriter().writeHeader(this.dos);
+
+		if (this.context.isStateHashFlag()) {
+			this.hashDos = ResourceLoader.getInstance().openDataOutputStream(fileName + ".hash");
+		}
 	}
 
 	@Override
@@ -328,10 +359,12 @@ public class Play extends GameScene {
 		this.screenData = null;
 		this.keyData = null;
 		// AIの実行を終了する
-		InputManager.getInstance().closeAI();
-		this.roundResults.clear();
+		this.context.getInputManager().closeAI();
+		if (this.roundResults != null) {
+			this.roundResults.clear();
+		}
 
-		if (FlagSetting.debugActionFlag) {
+		if (this.context.isDebugActionFlag()) {
 			DebugActionData.getInstance().closeAllWriters();
 		}
 
@@ -339,12 +372,15 @@ public class Play extends GameScene {
 			if (this.dos != null) {
 				this.dos.close();
 			}
+			if (this.hashDos != null) {
+				this.hashDos.close();
+			}
 		} catch (IOException e) {
 			e.printStackTrace();
 		}
 
-		if (FlagSetting.jsonFlag) {
-			LogWriter.getInstance().finalizeJson();
+		if (this.context.isJsonFlag()) {
+			this.context.getLogWriter().finalizeJson();
 		}
 	}
 }
@@ -3,6 +3,7 @@ package gamescene;
 import static org.lwjgl.glfw.GLFW.*;
 
 import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.EOFException;
 import java.io.File;
 import java.io.FileInputStream;
@@ -14,6 +15,7 @@ import enumerate.GameSceneName;
 import fighting.Fighting;
 import input.KeyData;
 import input.Keyboard;
+import loader.ResourceLoader;
 import manager.GraphicManager;
 import manager.InputManager;
 //import manager.SoundManager;
@@ -23,6 +25,7 @@ import setting.LaunchSetting;
 import struct.FrameData;
 import struct.Key;
 import struct.ScreenData;
+import util.LogWriter;
 import util.ResourceDrawer;
 
 /**
@@ -40,6 +43,12 @@ public class Replay extends GameScene {
 	 */
 	protected DataInputStream dis;
 
+	/**
+	 * 再生中の対戦状態のハッシュ値をファイルに出力するための出力ストリーム．<br>
+	 * 対局時に出力したハッシュ値と比較することで, 再生結果が対局時と食い違ったフレームを特定できる．
+	 */
+	private DataOutputStream hashDos;
+
 	/**
 	 * 現在のフレーム．
 	 */
@@ -130,6 +139,11 @@ public class Replay extends GameScene {
 		this.playSpeedArray = new int[] { 0, 1, 2, 4 };
 		this.isFinished = false;
 
+		if (FlagSetting.stateHashFlag) {
+			this.hashDos = ResourceLoader.getInstance()
+					.openDataOutputStream("./log/replay/" + LaunchSetting.replayName + "_replay.hash");
+		}
+
 		//SoundManager.getInstance().play(SoundManager.getInstance().getBackGroundMusic());
 	}
 
@@ -195,6 +209,9 @@ public class Replay extends GameScene {
 
 		try {
 			this.dis.close();
+			if (this.hashDos != null) {
+				this.hashDos.close();
+			}
 		} catch (IOException e) {
 			e.printStackTrace();
 		}
@@ -221,6 +238,11 @@ public class Replay extends GameScene {
 
 		this.fighting.processingFight(this.nowFrame, this.keyData);
 		this.frameData = this.fighting.createFrameData(this.nowFrame, this.currentRound);
+
+		if (this.hashDos != null) {
+			LogWriter.getInstance().outputStateHash(this.hashDos, this.currentRound, this.nowFrame,
+					this.fighting.getStateHash());
+		}
 	}
 
 	/**
@@ -239,7 +261,7 @@ public class Replay extends GameScene {
 	 */
 	private boolean isBeaten() {
 		return FlagSetting.limitHpFlag
-				&& (this.frameData.getCharacter(true).getHp() <= 0 || this.frameData.getCharacter(false).getHp() <= 0);
+				&& (this.frameData.getCharacterView(true).getHp() <= 0 || this.frameData.getCharacterView(false).getHp() <= 0);
 	}
 
 	/**
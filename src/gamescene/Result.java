@@ -9,9 +9,8 @@ import informationcontainer.AIContainer;
 import informationcontainer.RoundResult;
 import input.Keyboard;
 import manager.GraphicManager;
-import manager.InputManager;
 import python.PyManager;
-import setting.FlagSetting;
+import setting.GameContext;
 import setting.GameSetting;
 import setting.LaunchSetting;
 import util.LogWriter;
@@ -36,6 +35,11 @@ public class Result extends GameScene {
 	 */
 	private int displayedTime;
 
+	/**
+	 * 結果を出力する試合の起動情報．
+	 */
+	private GameContext context;
+
 	/**
 	 * クラスコンストラクタ．
 	 */
@@ -50,6 +54,7 @@ public class Result extends GameScene {
 		this.roundResults = new ArrayList<RoundResult>();
 		this.timeInfo = "0";
 		this.displayedTime = 0;
+		this.context = new GameContext();
 	}
 
 	/**
@@ -61,25 +66,40 @@ public class Result extends GameScene {
 	 *            現在の時間情報
 	 */
 	public Result(ArrayList<RoundResult> roundResults, String timeInfo) {
+		this(roundResults, timeInfo, new GameContext());
+	}
+
+	/**
+	 * 各ラウンドの結果を格納したリスト, 現在の時間情報及び試合の起動情報をセットし, リプレイシーンを初期化するクラスコンストラクタ．
+	 *
+	 * @param roundResults
+	 *            各ラウンドの結果を格納したリスト
+	 * @param timeInfo
+	 *            現在の時間情報
+	 * @param context
+	 *            結果を出力する試合の起動情報
+	 */
+	public Result(ArrayList<RoundResult> roundResults, String timeInfo, GameContext context) {
 		super();
 
 		this.roundResults = new ArrayList<RoundResult>(roundResults);
 		this.timeInfo = timeInfo;
 		this.displayedTime = 0;
+		this.context = context;
 		roundResults.clear();
 	}
 
 	@Override
 	public void initialize() {
-		InputManager.getInstance().setSceneName(GameSceneName.RESULT);
+		this.context.getInputManager().setSceneName(GameSceneName.RESULT);
 
 		// pointファイルの書き出し
-		LogWriter.getInstance().outputResult(this.roundResults, LogWriter.CSV, this.timeInfo);
+		this.context.getLogWriter().outputResult(this.roundResults, LogWriter.CSV, this.timeInfo);
 	}
 
 	@Override
 	public void update() {
-		if (FlagSetting.enableWindow) {
+		if (this.context.isEnableWindow()) {
 			int[] positionX = new int[] { GameSetting.STAGE_WIDTH / 2 - 70, GameSetting.STAGE_WIDTH / 2 + 10 };
 
 			for (int i = 0; i < this.roundResults.size(); i++) {
@@ -115,6 +135,15 @@ public class Result extends GameScene {
 		this.displayedTime = 0;
 	}
 
+	/**
+	 * 各ラウンドの結果を格納したリストを返す．
+	 *
+	 * @return 各ラウンドの結果を格納したリスト
+	 */
+	public ArrayList<RoundResult> getRoundResults() {
+		return new ArrayList<RoundResult>(this.roundResults);
+	}
+
 	/**
 	 * P1, P2のどちらがそのラウンドで勝ったかを返す．
 	 *
@@ -149,18 +178,21 @@ public class Result extends GameScene {
 	 */
 	private void endProcess() {
 		// -aや-nを引数にして起動 or Repeat Countを2以上にして起動した場合の処理
-		if (FlagSetting.automationFlag || FlagSetting.allCombinationFlag || FlagSetting.py4j) {
-			if (++this.displayedTime > 300) {
+		if (this.context.isAutomationFlag() || this.context.isAllCombinationFlag() || this.context.isPy4j()) {
+			// ウィンドウが無い場合は結果を表示しないため, すぐに次の試合に移る
+			if (++this.displayedTime > 300 || !this.context.isEnableWindow()) {
 				// まだ繰り返し回数が残っている場合
-				if (FlagSetting.automationFlag && LaunchSetting.repeatedCount + 1 < LaunchSetting.repeatNumber) {
-					LaunchSetting.repeatedCount++;
+				if (this.context.isAutomationFlag()
+						&& this.context.getRepeatedCount() + 1 < this.context.getRepeatNumber()) {
+					// 次の試合の起動情報はLauncherがLaunchSettingから生成するため, カウンタを進めておく
+					LaunchSetting.repeatedCount = this.context.getRepeatedCount() + 1;
 
 					Launcher launcher = new Launcher(GameSceneName.PLAY);
 					this.setTransitionFlag(true);
 					this.setNextGameScene(launcher);
 
 					// まだ全AIの総当り対戦が終わっていない場合
-				} else if (FlagSetting.allCombinationFlag) {
+				} else if (this.context.isAllCombinationFlag()) {
 					if (++AIContainer.p1Index == AIContainer.allAINameList.size()) {
 						AIContainer.p1Index = 0;
 						AIContainer.p2Index++;
@@ -175,7 +207,7 @@ public class Result extends GameScene {
 						this.setGameEndFlag(true);
 					}
 
-				} else if (FlagSetting.py4j) {
+				} else if (this.context.isPy4j()) {
 					synchronized (PyManager.python.getCurrentGame().end) {
 						PyManager.python.getCurrentGame().end.notifyAll();
 					}
@@ -57,7 +57,7 @@ public class RoundResult {
 	public RoundResult(FrameData frameData) {
 		this.currentRound = frameData.getRound();
 		this.elapsedFrame = frameData.getFramesNumber() + 1;
-		this.remainingHPs = new int[] { frameData.getCharacter(true).getHp(), frameData.getCharacter(false).getHp() };
+		this.remainingHPs = new int[] { frameData.getCharacterView(true).getHp(), frameData.getCharacterView(false).getHp() };
 
 		if (FlagSetting.limitHpFlag) {
 			this.remainingHPs[0] = Math.max(this.remainingHPs[0], 0);
@@ -3,24 +3,22 @@ package input;
 import struct.Key;
 
 /**
- * 同一フレーム内で各プレイヤーが入力したKeyを管理するクラス．
+ * 同一フレーム内で各プレイヤーが入力したKeyを管理するクラス．<br>
+ * 各プレイヤーのキー入力は{@link Key#pack()}で圧縮した値として保持し, インスタンスの生成後は変更されない．
  */
 public class KeyData {
 
 	/**
-	 * P1, P2の入力キーを格納した配列<br>
+	 * P1, P2の圧縮した入力キーを格納した配列<br>
 	 * Index 0 is P1, index 1 is P2.
 	 */
-	private Key[] keys;
+	private byte[] keys;
 
 	/**
 	 * クラスコンストラクタ．
 	 */
 	public KeyData() {
-		this.keys = new Key[2];
-		for (int i = 0; i < this.keys.length; i++) {
-			this.keys[i] = new Key();
-		}
+		this.keys = new byte[2];
 	}
 
 	/**
@@ -31,9 +29,9 @@ public class KeyData {
 	 *            Index 0 is P1, index 1 is P2.
 	 */
 	public KeyData(Key[] keys) {
-		this.keys = new Key[keys.length];
+		this.keys = new byte[keys.length];
 		for (int i = 0; i < keys.length; i++) {
-			this.keys[i] = new Key(keys[i]);
+			this.keys[i] = keys[i] == null ? 0 : (byte) keys[i].pack();
 		}
 	}
 
@@ -47,25 +45,39 @@ public class KeyData {
 	 */
 	public KeyData(KeyData keyData) {
 		if (keyData != null) {
-			this.keys = new Key[keyData.getKeys().length];
-			for (int i = 0; i < keyData.getKeys().length; i++) {
-				this.keys[i] = new Key(keyData.getKeys()[i]);
-			}
+			// インスタンスの生成後は変更されないため, 配列を共有する
+			this.keys = keyData.keys;
 		} else {
-			this.keys = new Key[2];
-			for (int i = 0; i < this.keys.length; i++) {
-				this.keys[i] = new Key();
-			}
+			this.keys = new byte[2];
 		}
 	}
 
 	/**
-	 * P1, P2の入力キーを格納した配列を返す．
+	 * P1, P2の入力キーを格納した配列を返す．<br>
+	 * 配列の要素は新たに生成したインスタンスであり, 変更してもこのインスタンスには影響しない．
 	 *
 	 * @return P1, P2の入力キーを格納した配列.<br>
 	 *         Index 0 is P1, index 1 is P2.
 	 */
 	public Key[] getKeys() {
-		return this.keys.clone();
+		Key[] temp = new Key[this.keys.length];
+		for (int i = 0; i < this.keys.length; i++) {
+			temp[i] = new Key(this.keys[i]);
+		}
+
+		return temp;
+	}
+
+	/**
+	 * 指定したプレイヤーの圧縮した入力キーを返す．<br>
+	 * {@link #getKeys()}と異なり, インスタンスを生成しない．
+	 *
+	 * @param playerNumber
+	 *            the character's side flag．{@code true} if the player is P1, or
+	 *            {@code false} if P2.
+	 * @return {@link Key#pack()}で圧縮した入力キー
+	 */
+	public int getPackedKey(boolean playerNumber) {
+		return this.keys[playerNumber ? 0 : 1];
 	}
 }
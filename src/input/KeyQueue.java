@@ -0,0 +1,405 @@
+package input;
+
+import java.util.Deque;
+import java.util.LinkedList;
+import java.util.NoSuchElementException;
+
+import struct.Key;
+
+/**
+ * {@link Key#pack()}で圧縮したキー入力を格納するリングバッファ．<br>
+ * キー入力の履歴やこれから実行するキー入力のキューとして用いる．
+ * キーをKeyクラスのインスタンスではなく1要素1バイトの配列に格納するため, 要素の追加と削除でインスタンスを生成しない．
+ * 配列の容量が不足した場合のみ, 容量を2倍に拡張する．<br>
+ * コマンドの解釈のために, 右向きのときの方向キー入力({@link Key#getLever(int, boolean)})が等しい連続したキー入力を1つの連としてまとめた列も,
+ * 要素の追加と削除に合わせて更新する．
+ */
+public class KeyQueue {
+
+	/**
+	 * 配列の初期容量．<br>
+	 * キー入力の履歴の上限(INPUT_LIMIT)に追加される1要素を加えても拡張が起きない大きさとする．
+	 */
+	private static final int INITIAL_CAPACITY = 32;
+
+	/**
+	 * 圧縮したキー入力を格納する配列．
+	 */
+	private byte[] keys;
+
+	/**
+	 * 最も古いキー入力が格納されている配列のインデックス．
+	 */
+	private int head;
+
+	/**
+	 * 格納されているキー入力の数．
+	 */
+	private int size;
+
+	/**
+	 * 各連の右向きのときの方向キー入力を格納する配列．<br>
+	 * 連の数はキー入力の数を超えないため, キー入力の配列と同じ容量を持つ．
+	 */
+	private byte[] runLevers;
+
+	/**
+	 * 各連に含まれるキー入力の数を格納する配列．
+	 */
+	private int[] runLengths;
+
+	/**
+	 * 最も古い連が格納されている配列のインデックス．
+	 */
+	private int runHead;
+
+	/**
+	 * 連の数．
+	 */
+	private int runCount;
+
+	/**
+	 * 空のキューを生成するクラスコンストラクタ．
+	 */
+	public KeyQueue() {
+		this(INITIAL_CAPACITY);
+	}
+
+	/**
+	 * 指定した容量の空のキューを生成するクラスコンストラクタ．
+	 *
+	 * @param capacity
+	 *            配列の容量
+	 */
+	private KeyQueue(int capacity) {
+		this.keys = new byte[capacity];
+		this.runLevers = new byte[capacity];
+		this.runLengths = new int[capacity];
+		clear();
+	}
+
+	/**
+	 * 引数のキューのコピーを生成するクラスコンストラクタ．
+	 *
+	 * @param keyQueue
+	 *            コピー元のキュー
+	 */
+	public KeyQueue(KeyQueue keyQueue) {
+		this();
+		copyFrom(keyQueue);
+	}
+
+	/**
+	 * 引数のリストのキー入力を順に格納したキューを生成するクラスコンストラクタ．
+	 *
+	 * @param keys
+	 *            キー入力のリスト
+	 */
+	public KeyQueue(Deque<Key> keys) {
+		this();
+		for (Key key : keys) {
+			addLast(key.pack());
+		}
+	}
+
+	/**
+	 * 圧縮したキー入力の配列の要素を順に格納したキューを生成するクラスコンストラクタ．
+	 *
+	 * @param packedKeys
+	 *            圧縮したキー入力の配列
+	 * @see #toByteArray()
+	 */
+	public KeyQueue(byte[] packedKeys) {
+		this(Math.max(INITIAL_CAPACITY, packedKeys.length));
+		for (byte packedKey : packedKeys) {
+			addLast(packedKey);
+		}
+	}
+
+	/**
+	 * 格納されているキー入力の数を返す．
+	 *
+	 * @return 格納されているキー入力の数
+	 */
+	public int size() {
+		return this.size;
+	}
+
+	/**
+	 * キューが空かどうかを返す．
+	 *
+	 * @return {@code true} キューが空の場合，{@code false} otherwise
+	 */
+	public boolean isEmpty() {
+		return this.size == 0;
+	}
+
+	/**
+	 * 全てのキー入力を削除する．
+	 */
+	public void clear() {
+		this.head = 0;
+		this.size = 0;
+		this.runHead = 0;
+		this.runCount = 0;
+	}
+
+	/**
+	 * 圧縮したキー入力を末尾に追加する．
+	 *
+	 * @param packedKey
+	 *            {@link Key#pack()}で圧縮したキー入力
+	 */
+	public void addLast(int packedKey) {
+		if (this.size == this.keys.length) {
+			grow();
+		}
+
+		this.keys[index(this.size)] = (byte) packedKey;
+		this.size++;
+
+		int lever = Key.getLever(packedKey, true);
+		if (this.runCount > 0 && this.runLevers[runIndex(this.runCount - 1)] == lever) {
+			this.runLengths[runIndex(this.runCount - 1)]++;
+		} else {
+			int index = runIndex(this.runCount);
+			this.runLevers[index] = (byte) lever;
+			this.runLengths[index] = 1;
+			this.runCount++;
+		}
+	}
+
+	/**
+	 * 先頭の最も古いキー入力を削除し, その値を返す．
+	 *
+	 * @return 削除した圧縮したキー入力
+	 * @throws NoSuchElementException
+	 *             キューが空の場合
+	 */
+	public int removeFirst() {
+		int packedKey = getFirst();
+		this.head = index(1);
+		this.size--;
+
+		if (--this.runLengths[this.runHead] == 0) {
+			this.runHead = runIndex(1);
+			this.runCount--;
+		}
+
+		return packedKey;
+	}
+
+	/**
+	 * 末尾の最も新しいキー入力を削除し, その値を返す．
+	 *
+	 * @return 削除した圧縮したキー入力
+	 * @throws NoSuchElementException
+	 *             キューが空の場合
+	 */
+	public int removeLast() {
+		int packedKey = getLast();
+		this.size--;
+
+		if (--this.runLengths[runIndex(this.runCount - 1)] == 0) {
+			this.runCount--;
+		}
+
+		return packedKey;
+	}
+
+	/**
+	 * 先頭の最も古いキー入力を返す．
+	 *
+	 * @return 圧縮したキー入力
+	 * @throws NoSuchElementException
+	 *             キューが空の場合
+	 */
+	public int getFirst() {
+		if (this.size == 0) {
+			throw new NoSuchElementException();
+		}
+
+		return this.keys[this.head];
+	}
+
+	/**
+	 * 末尾の最も新しいキー入力を返す．
+	 *
+	 * @return 圧縮したキー入力
+	 * @throws NoSuchElementException
+	 *             キューが空の場合
+	 */
+	public int getLast() {
+		if (this.size == 0) {
+			throw new NoSuchElementException();
+		}
+
+		return this.keys[index(this.size - 1)];
+	}
+
+	/**
+	 * 指定した位置のキー入力を返す．<br>
+	 * 位置は先頭の最も古いキー入力を0として数える．
+	 *
+	 * @param position
+	 *            キー入力の位置
+	 * @return 圧縮したキー入力
+	 * @throws IndexOutOfBoundsException
+	 *             位置が範囲外の場合
+	 */
+	public int get(int position) {
+		if (position < 0 || position >= this.size) {
+			throw new IndexOutOfBoundsException("Position " + position + " is out of range");
+		}
+
+		return this.keys[index(position)];
+	}
+
+	/**
+	 * 引数のキューのキー入力を, 中身を空にしたこのキューに順に格納する．<br>
+	 * このキューの配列は容量が足りる限り使い回される．
+	 *
+	 * @param keyQueue
+	 *            コピー元のキュー
+	 */
+	public void copyFrom(KeyQueue keyQueue) {
+		if (this.keys.length < keyQueue.size) {
+			this.keys = new byte[keyQueue.keys.length];
+			this.runLevers = new byte[keyQueue.keys.length];
+			this.runLengths = new int[keyQueue.keys.length];
+		}
+
+		for (int i = 0; i < keyQueue.size; i++) {
+			this.keys[i] = keyQueue.keys[keyQueue.index(i)];
+		}
+		this.head = 0;
+		this.size = keyQueue.size;
+
+		for (int i = 0; i < keyQueue.runCount; i++) {
+			int index = keyQueue.runIndex(i);
+			this.runLevers[i] = keyQueue.runLevers[index];
+			this.runLengths[i] = keyQueue.runLengths[index];
+		}
+		this.runHead = 0;
+		this.runCount = keyQueue.runCount;
+	}
+
+	/**
+	 * 圧縮したキー入力の配列の要素を, 中身を空にしたこのキューに順に格納する．<br>
+	 * このキューの配列は容量が足りる限り使い回される．
+	 *
+	 * @param packedKeys
+	 *            圧縮したキー入力の配列
+	 * @see #toByteArray()
+	 */
+	public void copyFrom(byte[] packedKeys) {
+		clear();
+		for (byte packedKey : packedKeys) {
+			addLast(packedKey);
+		}
+	}
+
+	/**
+	 * 方向キー入力の連の数を返す．
+	 *
+	 * @return 方向キー入力の連の数
+	 */
+	public int getLeverRunCount() {
+		return this.runCount;
+	}
+
+	/**
+	 * 指定した方向キー入力の連の, 右向きのときの方向キー入力を返す．<br>
+	 * 位置は末尾の最も新しい連を0として数える．隣り合う連の方向キー入力は必ず異なる．
+	 *
+	 * @param position
+	 *            末尾からの連の位置
+	 * @return 右向きのときの方向キー入力
+	 * @throws IndexOutOfBoundsException
+	 *             位置が範囲外の場合
+	 * @see Key#getLever(int, boolean)
+	 */
+	public int getLeverRun(int position) {
+		if (position < 0 || position >= this.runCount) {
+			throw new IndexOutOfBoundsException("Position " + position + " is out of range");
+		}
+
+		return this.runLevers[runIndex(this.runCount - 1 - position)];
+	}
+
+	/**
+	 * 格納されているキー入力を古い順に並べた配列を返す．
+	 *
+	 * @return 圧縮したキー入力の配列
+	 */
+	public byte[] toByteArray() {
+		byte[] packedKeys = new byte[this.size];
+		for (int i = 0; i < this.size; i++) {
+			packedKeys[i] = this.keys[index(i)];
+		}
+
+		return packedKeys;
+	}
+
+	/**
+	 * 格納されているキー入力を古い順に並べたKeyクラスのインスタンスのリストを返す．
+	 *
+	 * @return 新たに生成したキー入力のリスト
+	 */
+	public Deque<Key> toDeque() {
+		LinkedList<Key> temp = new LinkedList<Key>();
+		for (int i = 0; i < this.size; i++) {
+			temp.add(new Key(this.keys[index(i)]));
+		}
+
+		return temp;
+	}
+
+	/**
+	 * 先頭からの位置に対応する配列のインデックスを返す．
+	 *
+	 * @param position
+	 *            先頭からの位置
+	 * @return 配列のインデックス
+	 */
+	private int index(int position) {
+		int index = this.head + position;
+		return index < this.keys.length ? index : index - this.keys.length;
+	}
+
+	/**
+	 * 先頭の最も古い連からの位置に対応する連の配列のインデックスを返す．
+	 *
+	 * @param position
+	 *            先頭からの連の位置
+	 * @return 連の配列のインデックス
+	 */
+	private int runIndex(int position) {
+		int index = this.runHead + position;
+		return index < this.runLevers.length ? index : index - this.runLevers.length;
+	}
+
+	/**
+	 * 配列の容量を2倍に拡張する．格納されているキー入力と連は配列の先頭から並べ直す．
+	 */
+	private void grow() {
+		int capacity = this.keys.length * 2;
+
+		byte[] newKeys = new byte[capacity];
+		for (int i = 0; i < this.size; i++) {
+			newKeys[i] = this.keys[index(i)];
+		}
+		this.keys = newKeys;
+		this.head = 0;
+
+		byte[] newRunLevers = new byte[capacity];
+		int[] newRunLengths = new int[capacity];
+		for (int i = 0; i < this.runCount; i++) {
+			newRunLevers[i] = this.runLevers[runIndex(i)];
+			newRunLengths[i] = this.runLengths[runIndex(i)];
+		}
+		this.runLevers = newRunLevers;
+		this.runLengths = newRunLengths;
+		this.runHead = 0;
+	}
+}
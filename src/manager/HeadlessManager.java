@@ -0,0 +1,95 @@
+package manager;
+
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import setting.FlagSetting;
+import setting.GameSetting;
+
+/**
+ * ウィンドウ及びOpenGLコンテキストを生成せずにゲームの進行管理を行うマネージャクラス．<br>
+ * --headlessを指定して起動した場合に, DisplayManagerの代わりに用いられる．
+ *
+ * @see DisplayManager
+ */
+public class HeadlessManager {
+
+	/**
+	 * クラスコンストラクタ．
+	 */
+	public HeadlessManager() {
+
+	}
+
+	/**
+	 * ゲームをスタートさせる．<br>
+	 * 1. ゲームマネージャの初期化を行う．<br>
+	 * 2. ゲームの終了処理命令が来るまで，描画処理を行わずにゲーム状態の更新のみを繰り返す．<br>
+	 * 3. ゲームの終了処理を行う．<br>
+	 *
+	 * @param game
+	 *            GameManagerクラスのインスタンス
+	 * @see GameManager
+	 */
+	public void start(GameManager game) {
+		Logger.getAnonymousLogger().log(Level.INFO, "Headless mode");
+
+		// ゲームマネージャ初期化
+		game.initialize();
+
+		// メインループ
+		gameLoop(game);
+
+		// ゲームの終了処理
+		close();
+	}
+
+	/**
+	 * ゲームのメインループの処理を行う．<br>
+	 * 描画及びバッファの入れ替えは行わない．FastModeのときはフレームレートの同期も行わない．
+	 *
+	 * @param gm
+	 *            GameManagerクラスのインスタンス
+	 */
+	private void gameLoop(GameManager gm) {
+		long lastNanos = System.nanoTime();
+		while (!gm.isExit()) {
+			// ゲーム状態の更新
+			gm.update();
+
+			if (!FlagSetting.fastModeFlag) {
+				syncFrameRate(GameSetting.FPS, lastNanos);
+				lastNanos = System.nanoTime();
+			}
+		}
+		gm.close();
+	}
+
+	/**
+	 * ゲームの終了処理を行う.
+	 */
+	private void close() {
+		GraphicManager.getInstance().close();
+
+		Logger.getAnonymousLogger().log(Level.INFO, "Close FightingICE");
+		System.exit(0);
+	}
+
+	/**
+	 * 前回のフレームの開始時刻から1フレーム分の時間が経過するまで待機する．
+	 *
+	 * @param fps
+	 *            目標とするフレームレート
+	 * @param lastNanos
+	 *            前回のフレームの開始時刻(ナノ秒)
+	 */
+	static void syncFrameRate(float fps, long lastNanos) {
+		long targetNanos = lastNanos + (long) (1_000_000_000.0f / fps) - 1_000_000L;
+		try {
+			while (System.nanoTime() < targetNanos) {
+				Thread.sleep(1);
+			}
+		} catch (InterruptedException ignore) {
+		}
+	}
+}
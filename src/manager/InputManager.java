@@ -3,6 +3,7 @@ package manager;
 import static org.lwjgl.glfw.GLFW.*;
 
 import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -10,14 +11,12 @@ import aiinterface.AIController;
 import aiinterface.AIInterface;
 import aiinterface.ThreadController;
 import enumerate.GameSceneName;
-import informationcontainer.AIContainer;
 import informationcontainer.RoundResult;
 import input.KeyData;
 import input.Keyboard;
 import loader.ResourceLoader;
 import py4j.Py4JException;
-import setting.FlagSetting;
-import setting.LaunchSetting;
+import setting.GameContext;
 import struct.FrameData;
 import struct.GameData;
 import struct.Key;
@@ -58,6 +57,11 @@ public class InputManager<Data> {
 	 */
 	private final static int DEFAULT_DEVICE_NUMBER = 2;
 
+	/**
+	 * 締め切りが設けられていない場合に, FastModeにおいて1フレーム分のAIの処理の終了を待機する最大の時間(ミリ秒)．
+	 */
+	private final static long FAST_MODE_TIMEOUT = 5000;
+
 	/**
 	 * デバイスタイプとしてキーボードを指定する場合の定数．
 	 */
@@ -74,18 +78,25 @@ public class InputManager<Data> {
 	private char[] deviceTypes;
 
 	/**
-	 * 1フレーム分のゲームの処理が終わったことを示すオブジェクト．
+	 * 現在の試合の起動情報．
 	 */
-	private Object endFrame;
+	private GameContext context;
+
+	/**
+	 * AIの同期用オブジェクトを管理するクラスのインスタンス．
+	 */
+	private ThreadController threadController;
 
 	/**
 	 * InputManagerクラスのクラスコンストラクタ．<br>
-	 * デバイスタイプはデフォルトでキーボードを指定する．
+	 * デバイスタイプはデフォルトでキーボードを指定する．<br>
+	 * 1つのプロセス内で複数の試合を行う場合は, 試合ごとにインスタンスを生成して用いる．
+	 *
+	 * @see GameContext
 	 */
-	private InputManager() {
+	public InputManager() {
 		Logger.getAnonymousLogger().log(Level.INFO, "Create instance: " + InputManager.class.getName());
 
-		keyboard = new Keyboard();
 		deviceTypes = new char[DEFAULT_DEVICE_NUMBER];
 		sceneName = GameSceneName.HOME_MENU;
 		this.predifinedAIs = new HashMap<String, AIInterface>();
@@ -94,7 +105,7 @@ public class InputManager<Data> {
 			this.deviceTypes[i] = DEVICE_TYPE_KEYBOARD;
 		}
 
-		this.endFrame = ThreadController.getInstance().getEndFrame();
+		this.threadController = ThreadController.getInstance();
 	}
 
 	/**
@@ -114,11 +125,15 @@ public class InputManager<Data> {
 	}
 
 	/**
-	 * InputManagerが持つKeyboardクラスのインスタンスを取得する．
+	 * InputManagerが持つKeyboardクラスのインスタンスを取得する．<br>
+	 * KeyboardはGLFWのコールバックであるため, ウィンドウを生成する際に初めてインスタンスを生成する．
 	 *
 	 * @return Keyboardクラスのインスタンス
 	 */
 	public Keyboard getKeyboard() {
+		if (this.keyboard == null) {
+			this.keyboard = new Keyboard();
+		}
 		return this.keyboard;
 	}
 
@@ -167,6 +182,11 @@ public class InputManager<Data> {
 	private Key getKeyFromKeyboard(boolean playerNumber) {
 		Key key = new Key();
 
+		// ウィンドウが無い場合はキーボード入力を受け付けない
+		if (this.keyboard == null) {
+			return key;
+		}
+
 		if (playerNumber) {
 			key.A = keyboard.getKeyDown(GLFW_KEY_Z);
 			key.B = keyboard.getKeyDown(GLFW_KEY_X);
@@ -189,20 +209,19 @@ public class InputManager<Data> {
 	}
 
 	/**
-	 * AIの情報を格納したコントローラをInputManagerクラスに取り込む．
+	 * 引数の起動情報を基に, AIの情報を格納したコントローラをInputManagerクラスに取り込む．
+	 *
+	 * @param context
+	 *            現在の試合の起動情報
+	 * @see GameContext
 	 */
-	public void createAIcontroller() {
-		String[] aiNames = LaunchSetting.aiNames.clone();
+	public void createAIcontroller(GameContext context) {
+		this.context = context;
+		this.threadController = context.getThreadController();
 
-		if (FlagSetting.allCombinationFlag) {
-			if (AIContainer.p1Index == AIContainer.p2Index) {
-				AIContainer.p1Index++;
-			}
-			aiNames[0] = AIContainer.allAINameList.get(AIContainer.p1Index);
-			aiNames[1] = AIContainer.allAINameList.get(AIContainer.p2Index);
-		}
+		String[] aiNames = context.getAiNames();
 
-		this.deviceTypes = LaunchSetting.deviceTypes.clone();
+		this.deviceTypes = context.getDeviceTypes();
 		this.ais = new AIController[DEFAULT_DEVICE_NUMBER];
 		for (int i = 0; i < this.deviceTypes.length; i++) {
 			if (this.deviceTypes[i] == DEVICE_TYPE_AI) {
@@ -219,7 +238,8 @@ public class InputManager<Data> {
 
 	/**
 	 * AIコントローラの動作を開始させる．<br>
-	 * 引数のGameDataクラスのインスタンスを用いてAIコントローラを初期化し，AIの動作を開始する．
+	 * 引数のGameDataクラスのインスタンスを用いてAIコントローラを初期化し，AIの動作を開始する．<br>
+	 * AIの処理を同期して行う場合は, AIのスレッドは開始しない．
 	 *
 	 * @param gameData
 	 *            GameDataクラスのインスタンス
@@ -228,21 +248,33 @@ public class InputManager<Data> {
 	public void startAI(GameData gameData) throws Py4JException{
 		for (int i = 0; i < this.deviceTypes.length; i++) {
 			if (this.ais[i] != null) {
-				this.ais[i].initialize(ThreadController.getInstance().getAIsObject(i == 0), gameData, i == 0);
-				this.ais[i].start();// start the thread
+				this.ais[i].initialize(this.threadController, gameData, i == 0);
+				this.ais[i].getStatistics().setDeadline(this.context.getAiDeadline());
+				if (!this.context.isSynchronousAIFlag()) {
+					this.ais[i].start();// start the thread
+				}
 			}
 		}
 	}
 
 	/**
-	 * AIの動作を停止させる．
+	 * AIの動作を停止させる．<br>
+	 * 停止する前に, 各AIの思考時間と締め切りに間に合わなかった回数をログに出力する．
 	 */
 	public void closeAI() {
 		this.buffer = new KeyData();
 
-		for (AIController ai : this.ais) {
-			if (ai != null)
-				ai.gameEnd();
+		if (this.ais == null) {
+			return;
+		}
+
+		String[] aiNames = this.context.getAiNames();
+		for (int i = 0; i < this.ais.length; i++) {
+			if (this.ais[i] != null) {
+				Logger.getAnonymousLogger().log(Level.INFO,
+						(i == 0 ? "P1 " : "P2 ") + aiNames[i] + ": " + this.ais[i].getStatistics());
+				this.ais[i].gameEnd();
+			}
 		}
 		this.deviceTypes = new char[DEFAULT_DEVICE_NUMBER];
 		this.ais = null;
@@ -261,11 +293,14 @@ public class InputManager<Data> {
 	private Key getKeyFromAI(AIController ai) {
 		if (ai == null)
 			return new Key();
-		return new Key(ai.getInput());
+		// KeyDataは生成時にキー入力を圧縮して保持するため, コピーしない
+		return ai.getInput();
 	}
 
 	/**
-	 * 引数のフレームデータ及びScreenDataを各AIコントローラにセットする．
+	 * 引数のフレームデータ及びScreenDataを各AIコントローラにセットする．<br>
+	 * フレームデータは不変であるため, コピーせずに同じインスタンスを全てのAIに渡す．<br>
+	 * AIの処理を同期して行う場合は, セットした後にこのスレッドで各AIの1フレーム分の処理を行う．
 	 *
 	 * @param frameData
 	 *            フレームデータ
@@ -279,7 +314,7 @@ public class InputManager<Data> {
 		for (int i = 0; i < this.ais.length; i++) {
 			if (this.ais[i] != null) {
 				if (!frameData.getEmptyFlag()) {
-					this.ais[i].setFrameData(new FrameData(frameData));
+					this.ais[i].setFrameData(frameData);
 				} else {
 					this.ais[i].setFrameData(new FrameData());
 				}
@@ -287,13 +322,28 @@ public class InputManager<Data> {
 			}
 		}
 
-		synchronized (this.endFrame) {
-			try {
-				ThreadController.getInstance().resetAllAIsObj();
-				if (FlagSetting.fastModeFlag) {
-					this.endFrame.wait();
-				} else {
+		if (this.context.isSynchronousAIFlag()) {
+			for (AIController ai : this.ais) {
+				if (ai != null) {
+					ai.processFrame();
+				}
+			}
+			return;
+		}
 
+		long frame = this.threadController.startFrame();
+		long deadline = this.context.getAiDeadline();
+		if (deadline > 0 || this.context.isFastModeFlag()) {
+			try {
+				// 全てのAIが処理を終えるまで待機する. 締め切りまでに終わらない場合は, 前回の入力のまま次のフレームに進む
+				long timeout = deadline > 0 ? deadline : FAST_MODE_TIMEOUT;
+				if (!this.threadController.awaitEndFrame(frame, timeout, TimeUnit.MILLISECONDS)) {
+					recordMissedDeadlines(frame);
+
+					if (deadline <= 0) {
+						Logger.getAnonymousLogger().log(Level.WARNING,
+								"AI did not finish frame " + frame + " within " + FAST_MODE_TIMEOUT + " ms");
+					}
 				}
 			} catch (InterruptedException e) {
 				e.printStackTrace();
@@ -301,6 +351,20 @@ public class InputManager<Data> {
 		}
 	}
 
+	/**
+	 * 指定したフレームの処理を終えていないAIについて, 締め切りに間に合わなかったことを記録する．
+	 *
+	 * @param frame
+	 *            フレームの番号
+	 */
+	private void recordMissedDeadlines(long frame) {
+		for (int i = 0; i < this.ais.length; i++) {
+			if (this.ais[i] != null && this.threadController.getProcessedFrame(i == 0) < frame) {
+				this.ais[i].getStatistics().recordMissedDeadline();
+			}
+		}
+	}
+
 	/**
 	 * AIコントローラに現在のラウンドの結果を送信する．
 	 *
@@ -0,0 +1,221 @@
+package manager;
+
+import java.util.ArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import aiinterface.ThreadController;
+import gamescene.GameScene;
+import gamescene.Play;
+import gamescene.Result;
+import informationcontainer.RoundResult;
+import loader.ResourceLoader;
+import setting.FlagSetting;
+import setting.GameContext;
+import setting.GameSetting;
+import setting.LaunchSetting;
+import util.LogWriter;
+
+/**
+ * 複数の試合をスレッドプールで並列に行うマネージャクラス．<br>
+ * --parallelを指定して起動した場合に, DisplayManager及びHeadlessManagerの代わりに用いられる．<br>
+ * -aも指定した場合は, 総当り対戦の全試合を並列に行う．ウィンドウを用いずに-aのみを指定した場合も, 1スレッドで総当り対戦を行うために用いられる．<br>
+ * 試合ごとにInputManager, ThreadController及びLogWriterのインスタンスを生成するため, 各試合のAIやログは互いに独立している．
+ *
+ * @see GameContext
+ * @see TournamentScheduler
+ */
+public class ParallelManager {
+
+	/**
+	 * 総当り対戦の組み合わせの生成と終了した試合の記録を行うクラスのインスタンス．<br>
+	 * 総当り対戦を行わない場合は{@code null}．
+	 */
+	private TournamentScheduler scheduler;
+
+	/**
+	 * クラスコンストラクタ．
+	 */
+	public ParallelManager() {
+
+	}
+
+	/**
+	 * ゲームをスタートさせる．<br>
+	 * 1. ゲームマネージャの初期化を行う．<br>
+	 * 2. -nで指定された数の試合, または総当り対戦の未終了の全試合を, --parallelで指定された数のスレッドで並列に行う．<br>
+	 * 3. ゲームの終了処理を行う．<br>
+	 *
+	 * @param game
+	 *            GameManagerクラスのインスタンス
+	 * @see GameManager
+	 */
+	public void start(GameManager game) {
+		Logger.getAnonymousLogger().log(Level.INFO, "Parallel mode: " + LaunchSetting.parallelNumber + " workers");
+
+		// ゲームマネージャ初期化
+		game.initialize();
+
+		// アクションの回数を記録するクラスは全試合で共有されているため, 並列実行時は用いない
+		if (FlagSetting.debugActionFlag) {
+			Logger.getAnonymousLogger().log(Level.WARNING, "-da is not supported in parallel mode.");
+			FlagSetting.debugActionFlag = false;
+		}
+
+		// 全試合の実行
+		runMatches(createMatches(), LaunchSetting.parallelNumber);
+		game.close();
+
+		// ゲームの終了処理
+		close();
+	}
+
+	/**
+	 * 起動時の引数を基に, 行う全ての試合の起動情報を生成する．<br>
+	 * 総当り対戦のときは, 結果ファイルに記録されていない組み合わせの試合のみを生成する．
+	 *
+	 * @return 行う全ての試合の起動情報を格納したリスト
+	 */
+	private ArrayList<GameContext> createMatches() {
+		ArrayList<GameContext> matches;
+
+		if (FlagSetting.allCombinationFlag) {
+			ArrayList<String> aiNames = ResourceLoader.getInstance().loadFileNames("./data/ai", ".jar");
+			if (aiNames.size() < 2) {
+				Logger.getAnonymousLogger().log(Level.INFO, "Cannot launch FightingICE with Round-robin mode.");
+				return new ArrayList<GameContext>();
+			}
+
+			this.scheduler = new TournamentScheduler(aiNames, LaunchSetting.tournamentCharacters,
+					LaunchSetting.repeatNumber, LaunchSetting.tournamentFileName);
+			matches = this.scheduler.createRemainingMatches();
+		} else {
+			matches = new ArrayList<GameContext>(LaunchSetting.repeatNumber);
+			for (int i = 0; i < LaunchSetting.repeatNumber; i++) {
+				GameContext context = new GameContext();
+				context.setRepeatedCount(i);
+				matches.add(context);
+			}
+		}
+
+		for (int i = 0; i < matches.size(); i++) {
+			initializeGameContext(matches.get(i), i);
+		}
+		return matches;
+	}
+
+	/**
+	 * 引数の起動情報の試合を, 指定された数のスレッドで並列に行う．<br>
+	 * 全ての試合の終了後に, 経過時間と1秒あたりの試合数をログに出力する．
+	 *
+	 * @param matches
+	 *            行う全ての試合の起動情報を格納したリスト
+	 * @param threadNumber
+	 *            試合を行うスレッドの数
+	 */
+	private void runMatches(ArrayList<GameContext> matches, int threadNumber) {
+		int matchNumber = matches.size();
+		ExecutorService executor = Executors.newFixedThreadPool(Math.max(threadNumber, 1));
+		ArrayList<Future<Boolean>> futures = new ArrayList<Future<Boolean>>(matchNumber);
+
+		long startNanos = System.nanoTime();
+		for (GameContext context : matches) {
+			futures.add(executor.submit(() -> playMatch(context)));
+		}
+
+		int completed = 0;
+		for (Future<Boolean> future : futures) {
+			try {
+				if (future.get()) {
+					completed++;
+				}
+			} catch (InterruptedException | ExecutionException e) {
+				Logger.getAnonymousLogger().log(Level.SEVERE, "Match failed", e);
+			}
+		}
+		executor.shutdown();
+
+		double elapsedSeconds = (System.nanoTime() - startNanos) / 1e9;
+		Logger.getAnonymousLogger().log(Level.INFO, String.format("Finished %d/%d games in %.1f s (%.3f games/sec)",
+				completed, matchNumber, elapsedSeconds, completed / elapsedSeconds));
+	}
+
+	/**
+	 * 引数の起動情報に試合番号をセットし, 入力元, スレッドの同期用オブジェクト及びログの出力先を試合ごとに新たに生成する．
+	 *
+	 * @param context
+	 *            1試合分の起動情報
+	 * @param matchNumber
+	 *            試合番号
+	 */
+	private void initializeGameContext(GameContext context, int matchNumber) {
+		context.setMatchNumber(matchNumber);
+		context.setInputManager(new InputManager<>());
+		context.setThreadController(new ThreadController());
+		context.setLogWriter(new LogWriter(context));
+	}
+
+	/**
+	 * 引数の起動情報を用いて1試合を行う．<br>
+	 * Playシーンを次のシーンへの遷移要求があるまで更新し, 遷移先がResultシーンであれば結果を出力する．<br>
+	 * 総当り対戦のときは, 試合の結果を結果ファイルにも記録する．<br>
+	 * 試合中に例外が発生した場合は, Playシーンの終了処理を行った上でその試合を失敗として扱う．
+	 *
+	 * @param context
+	 *            1試合分の起動情報
+	 * @return {@code true} if the match was finished, {@code false} otherwise
+	 */
+	private boolean playMatch(GameContext context) {
+		InputManager<?> inputManager = context.getInputManager();
+
+		Play play = new Play(context);
+		try {
+			play.initialize();
+
+			long lastNanos = System.nanoTime();
+			while (!play.isGameEnd() && !play.isTransition()) {
+				inputManager.update();
+				play.update();
+
+				if (!context.isFastModeFlag()) {
+					HeadlessManager.syncFrameRate(GameSetting.FPS, lastNanos);
+					lastNanos = System.nanoTime();
+				}
+			}
+		} catch (RuntimeException e) {
+			// 例外が起きた試合は失敗として扱い, 他の試合は続行する
+			Logger.getAnonymousLogger().log(Level.SEVERE, "Match " + context.getMatchNumber() + " failed", e);
+			return false;
+		} finally {
+			// 例外が起きた場合もAIのスレッドとリプレイ及びログのストリームを解放する
+			play.close();
+		}
+
+		GameScene next = play.getNextGameScene();
+		if (next instanceof Result) {
+			// pointファイルの書き出し
+			next.initialize();
+
+			if (this.scheduler != null) {
+				ArrayList<RoundResult> roundResults = ((Result) next).getRoundResults();
+				this.scheduler.recordResult(context, roundResults);
+			}
+			return true;
+		} else {
+			Logger.getAnonymousLogger().log(Level.SEVERE, "Match " + context.getMatchNumber() + " was aborted");
+			return false;
+		}
+	}
+
+	/**
+	 * ゲームの終了処理を行う.
+	 */
+	private void close() {
+		Logger.getAnonymousLogger().log(Level.INFO, "Close FightingICE");
+		System.exit(0);
+	}
+}
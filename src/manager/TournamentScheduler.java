@@ -0,0 +1,233 @@
+package manager;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import informationcontainer.RoundResult;
+import loader.ResourceLoader;
+import setting.GameContext;
+import setting.GameSetting;
+import setting.LaunchSetting;
+
+/**
+ * 並列に総当り対戦を行う際に, 全試合の組み合わせの生成と終了した試合の記録を行うクラス．<br>
+ * AIの組み合わせに加えて, キャラクターが指定された場合はキャラクターの組み合わせについても試合を行う．<br>
+ * 終了した試合は1試合につき1行で結果ファイルに追記されるため, 中断された総当り対戦を同じ結果ファイルで再開すると, 未終了の試合のみが行われる．<br>
+ * 結果ファイルの各行は "P1のAI名,P2のAI名,P1のキャラクター名,P2のキャラクター名,繰り返し回数" の後に, ラウンドごとの
+ * "ラウンド数,P1の残りHP,P2の残りHP,経過フレーム数" が続く．
+ */
+public class TournamentScheduler {
+
+	/**
+	 * 総当り対戦に参加する全AIの名前を格納するリスト．
+	 */
+	private ArrayList<String> aiNames;
+
+	/**
+	 * 総当り対戦で用いる全キャラクターの名前を格納する配列．<br>
+	 * {@code null}のときは, LaunchSettingのP1,P2のキャラクター名を固定して用いる．
+	 */
+	private String[] characterNames;
+
+	/**
+	 * 1つの組み合わせごとに試合を行う回数．
+	 */
+	private int repeatNumber;
+
+	/**
+	 * 終了した試合の結果を記録するファイルのパス．
+	 */
+	private String fileName;
+
+	/**
+	 * 結果ファイルに記録されている, 終了済みの試合を表すキーの集合．
+	 */
+	private HashSet<String> completedMatches;
+
+	/**
+	 * 結果ファイルが改行で終わっていないかどうかのフラグ．<br>
+	 * 書き込みの途中で中断された場合に立ち, 次の結果を追記する前に改行を書き込むことで, 途中までの行と次の結果が連結されるのを防ぐ．
+	 */
+	private boolean lineSeparatorMissing;
+
+	/**
+	 * 引数で与えられたAIの総当り対戦を行うインスタンスを生成するクラスコンストラクタ．<br>
+	 * 結果ファイルが既に存在する場合は, そこに記録されている試合を終了済みとして扱う．
+	 *
+	 * @param aiNames
+	 *            総当り対戦に参加する全AIの名前を格納するリスト
+	 * @param characterNames
+	 *            総当り対戦で用いる全キャラクターの名前を格納する配列. P1,P2のキャラクター名を固定する場合は{@code null}
+	 * @param repeatNumber
+	 *            1つの組み合わせごとに試合を行う回数
+	 * @param fileName
+	 *            終了した試合の結果を記録するファイルのパス
+	 */
+	public TournamentScheduler(ArrayList<String> aiNames, String[] characterNames, int repeatNumber,
+			String fileName) {
+		this.aiNames = new ArrayList<String>(aiNames);
+		this.characterNames = characterNames == null ? null : characterNames.clone();
+		this.repeatNumber = repeatNumber;
+		this.fileName = fileName;
+		this.completedMatches = loadCompletedMatches();
+	}
+
+	/**
+	 * 結果ファイルを読み込み, 終了済みの試合を表すキーの集合を返す．<br>
+	 * 書き込みの途中で中断されたなどの理由で, 全ラウンドの結果が揃っていない行と, 改行で終わっていない最後の行は無視する．
+	 *
+	 * @return 終了済みの試合を表すキーの集合
+	 */
+	private HashSet<String> loadCompletedMatches() {
+		HashSet<String> completed = new HashSet<String>();
+		File file = new File(this.fileName);
+		if (!file.exists()) {
+			return completed;
+		}
+
+		try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+			if (raf.length() > 0) {
+				raf.seek(raf.length() - 1);
+				this.lineSeparatorMissing = raf.read() != '\n';
+			}
+		} catch (IOException e) {
+			Logger.getAnonymousLogger().log(Level.SEVERE, "Cannot read " + this.fileName, e);
+		}
+
+		int fieldNumber = 5 + 4 * GameSetting.ROUND_MAX;
+		try (BufferedReader br = ResourceLoader.getInstance().openReadFile(this.fileName)) {
+			String line = br.readLine();
+			while (line != null) {
+				String next = br.readLine();
+				// 改行で終わっていない最後の行は書き込みの途中で中断されたものとみなす
+				if (next == null && this.lineSeparatorMissing) {
+					break;
+				}
+
+				String[] fields = line.split(",", -1);
+				if (fields.length == fieldNumber) {
+					completed.add(String.join(",", fields[0], fields[1], fields[2], fields[3], fields[4]));
+				}
+				line = next;
+			}
+		} catch (IOException e) {
+			Logger.getAnonymousLogger().log(Level.SEVERE, "Cannot read " + this.fileName, e);
+		}
+
+		return completed;
+	}
+
+	/**
+	 * 全てのAI及びキャラクターの組み合わせについて, P1とP2を入れ替えたものも含めて, まだ終了していない試合の起動情報を生成する．<br>
+	 * キャラクターが指定されていない場合のキャラクターや, 最大HPなどは, 現在のFlagSetting及びLaunchSettingの値を用いる．
+	 *
+	 * @return まだ終了していない試合の起動情報を格納したリスト
+	 */
+	public ArrayList<GameContext> createRemainingMatches() {
+		ArrayList<GameContext> matches = new ArrayList<GameContext>();
+		ArrayList<String[]> characterPairs = createCharacterPairs();
+		int skipped = 0;
+
+		for (int repeat = 0; repeat < this.repeatNumber; repeat++) {
+			for (String[] characters : characterPairs) {
+				for (String p2 : this.aiNames) {
+					for (String p1 : this.aiNames) {
+						if (p1.equals(p2)) {
+							continue;
+						}
+
+						GameContext context = new GameContext();
+						context.setAiNames(new String[] { p1, p2 });
+						context.setCharacterNames(characters.clone());
+						context.setDeviceTypes(
+								new char[] { InputManager.DEVICE_TYPE_AI, InputManager.DEVICE_TYPE_AI });
+						context.setRepeatedCount(repeat);
+
+						if (this.completedMatches.contains(createKey(context))) {
+							skipped++;
+						} else {
+							matches.add(context);
+						}
+					}
+				}
+			}
+		}
+
+		if (skipped > 0) {
+			Logger.getAnonymousLogger().log(Level.INFO,
+					"Resume round-robin: " + skipped + " matches are already finished in " + this.fileName);
+		}
+		return matches;
+	}
+
+	/**
+	 * 試合で用いるP1,P2のキャラクター名の全ての組み合わせを生成する．<br>
+	 * キャラクターが指定されていない場合は, LaunchSettingのP1,P2のキャラクター名のみを返す．
+	 *
+	 * @return P1,P2のキャラクター名を格納した配列のリスト
+	 */
+	private ArrayList<String[]> createCharacterPairs() {
+		ArrayList<String[]> pairs = new ArrayList<String[]>();
+		if (this.characterNames == null) {
+			pairs.add(LaunchSetting.characterNames.clone());
+			return pairs;
+		}
+
+		for (String c2 : this.characterNames) {
+			for (String c1 : this.characterNames) {
+				pairs.add(new String[] { c1, c2 });
+			}
+		}
+		return pairs;
+	}
+
+	/**
+	 * 終了した試合の結果を結果ファイルに1行で追記する．<br>
+	 * 複数のスレッドから呼び出されるため, 同期して書き込みを行う．
+	 *
+	 * @param context
+	 *            終了した試合の起動情報
+	 * @param roundResults
+	 *            各ラウンドの結果を格納したリスト
+	 */
+	public synchronized void recordResult(GameContext context, ArrayList<RoundResult> roundResults) {
+		StringBuilder sb = new StringBuilder(createKey(context));
+		for (RoundResult roundResult : roundResults) {
+			int[] score = roundResult.getRemainingHPs();
+			sb.append(',').append(roundResult.getRound()).append(',').append(score[0]).append(',').append(score[1])
+					.append(',').append(roundResult.getElapsedFrame());
+		}
+
+		PrintWriter pw = ResourceLoader.getInstance().openWriteFile(this.fileName, true);
+		if (this.lineSeparatorMissing) {
+			pw.println();
+			this.lineSeparatorMissing = false;
+		}
+		pw.println(sb.toString());
+		pw.close();
+
+		this.completedMatches.add(createKey(context));
+	}
+
+	/**
+	 * 試合を識別するためのキーを生成する．
+	 *
+	 * @param context
+	 *            試合の起動情報
+	 * @return 試合を識別するためのキー
+	 */
+	private String createKey(GameContext context) {
+		String[] aiNames = context.getAiNames();
+		String[] characterNames = context.getCharacterNames();
+
+		return String.join(",", aiNames[0], aiNames[1], characterNames[0], characterNames[1],
+				String.valueOf(context.getRepeatedCount()));
+	}
+}
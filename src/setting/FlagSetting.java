@@ -70,4 +70,24 @@ public class FlagSetting {
 	 */
 	public static boolean enableWindow = true;
 
+	/**
+	 * GLFWのウィンドウ及びOpenGLコンテキストを一切生成せずに起動するかどうかのフラグ．
+	 */
+	public static boolean headlessFlag = false;
+
+	/**
+	 * 複数の試合を並列に行うかどうかのフラグ．
+	 */
+	public static boolean parallelFlag = false;
+
+	/**
+	 * AIのスレッドを生成せずに, ゲームのスレッドでAIの処理を同期して行うかどうかのフラグ．
+	 */
+	public static boolean synchronousAIFlag = false;
+
+	/**
+	 * 毎フレームの対戦状態のハッシュ値をファイルに出力するかどうかのフラグ．
+	 */
+	public static boolean stateHashFlag = false;
+
 }
@@ -0,0 +1,524 @@
+package setting;
+
+import aiinterface.ThreadController;
+import manager.InputManager;
+import util.LogWriter;
+
+/**
+ * 1試合分の起動情報と, 試合で用いる入力元及びログの出力先を扱うクラス．<br>
+ * FlagSetting及びLaunchSettingの値を生成時にコピーして保持するため, 生成後にそれらの値が変更されても影響を受けない．<br>
+ * 試合ごとに別々のインスタンスを用いることで, 1つのプロセス内で複数の試合を独立して行うことができる．
+ *
+ * @see FlagSetting
+ * @see LaunchSetting
+ */
+public class GameContext {
+
+	/**
+	 * 繰り返し対戦を行うかどうかのフラグ．
+	 */
+	private boolean automationFlag;
+
+	/**
+	 * AIの全組み合わせの対戦を行うかどうかのフラグ．
+	 */
+	private boolean allCombinationFlag;
+
+	/**
+	 * Pythonを使用するかどうかのフラグ．
+	 */
+	private boolean py4j;
+
+	/**
+	 * P1,P2に最大HPを設定するかどうかのフラグ．
+	 */
+	private boolean limitHpFlag;
+
+	/**
+	 * トレーニングモードを使用するかどうかのフラグ．
+	 */
+	private boolean trainingModeFlag;
+
+	/**
+	 * ゲームウィンドウを生成するかどうかのフラグ．
+	 */
+	private boolean enableWindow;
+
+	/**
+	 * 音をミュートにするかどうかのフラグ．
+	 */
+	private boolean muteFlag;
+
+	/**
+	 * jsonファイルに試合データを出力するかどうかのフラグ．
+	 */
+	private boolean jsonFlag;
+
+	/**
+	 * アクションを行った回数をログに出力するかどうかのフラグ．
+	 */
+	private boolean debugActionFlag;
+
+	/**
+	 * FastModeで起動するかどうかのフラグ．
+	 */
+	private boolean fastModeFlag;
+
+	/**
+	 * AIのスレッドを生成せずに, ゲームのスレッドでAIの処理を同期して行うかどうかのフラグ．
+	 */
+	private boolean synchronousAIFlag;
+
+	/**
+	 * 毎フレームの対戦状態のハッシュ値をファイルに出力するかどうかのフラグ．
+	 */
+	private boolean stateHashFlag;
+
+	/**
+	 * P1,P2の最大HPを格納する配列．
+	 */
+	private int[] maxHp;
+
+	/**
+	 * P1,P2の最大エネルギーを格納する配列．
+	 */
+	private int[] maxEnergy;
+
+	/**
+	 * P1,P2のAI名を格納する配列．
+	 */
+	private String[] aiNames;
+
+	/**
+	 * P1,P2のキャラクター名．
+	 */
+	private String[] characterNames;
+
+	/**
+	 * 利用するデバイスタイプ．
+	 */
+	private char[] deviceTypes;
+
+	/**
+	 * 画素を反転させるプレイヤーの番号．
+	 */
+	private int invertedPlayer;
+
+	/**
+	 * 1フレーム分のAIの処理の締め切り(ミリ秒)．0のときは締め切りを設けない．
+	 */
+	private long aiDeadline;
+
+	/**
+	 * 複数の試合を並列に行う場合の試合番号．<br>
+	 * ログファイル名の重複を避けるために用いる．試合番号を用いない場合は-1．
+	 */
+	private int matchNumber;
+
+	/**
+	 * 同じ組み合わせの試合を繰り返して行う場合の, 何回目の試合かを表すカウンタ．
+	 */
+	private int repeatedCount;
+
+	/**
+	 * 試合を繰り返して行う回数．
+	 */
+	private int repeatNumber;
+
+	/**
+	 * 試合で用いるキー入力及びAIを管理するマネージャ．
+	 */
+	private InputManager<?> inputManager;
+
+	/**
+	 * 試合で用いるAIの同期用オブジェクトを管理するクラスのインスタンス．
+	 */
+	private ThreadController threadController;
+
+	/**
+	 * 試合のログを出力するクラスのインスタンス．
+	 */
+	private LogWriter logWriter;
+
+	/**
+	 * 現在のFlagSetting及びLaunchSettingの値をコピーして, インスタンスを生成するクラスコンストラクタ．<br>
+	 * 入力元及びログの出力先には, それぞれのクラスの唯一のインスタンスが設定される．
+	 */
+	public GameContext() {
+		this.automationFlag = FlagSetting.automationFlag;
+		this.allCombinationFlag = FlagSetting.allCombinationFlag;
+		this.py4j = FlagSetting.py4j;
+		this.limitHpFlag = FlagSetting.limitHpFlag;
+		this.trainingModeFlag = FlagSetting.trainingModeFlag;
+		this.enableWindow = FlagSetting.enableWindow;
+		this.muteFlag = FlagSetting.muteFlag;
+		this.jsonFlag = FlagSetting.jsonFlag;
+		this.debugActionFlag = FlagSetting.debugActionFlag;
+		this.fastModeFlag = FlagSetting.fastModeFlag;
+		this.synchronousAIFlag = FlagSetting.synchronousAIFlag;
+		this.stateHashFlag = FlagSetting.stateHashFlag;
+
+		this.maxHp = LaunchSetting.maxHp.clone();
+		this.maxEnergy = LaunchSetting.maxEnergy.clone();
+		this.aiNames = LaunchSetting.aiNames.clone();
+		this.characterNames = LaunchSetting.characterNames.clone();
+		this.deviceTypes = LaunchSetting.deviceTypes.clone();
+		this.invertedPlayer = LaunchSetting.invertedPlayer;
+		this.aiDeadline = LaunchSetting.aiDeadline;
+		this.matchNumber = -1;
+		this.repeatedCount = LaunchSetting.repeatedCount;
+		this.repeatNumber = LaunchSetting.repeatNumber;
+
+		this.inputManager = InputManager.getInstance();
+		this.threadController = ThreadController.getInstance();
+		this.logWriter = LogWriter.getInstance();
+	}
+
+	/**
+	 * 繰り返し対戦を行うかどうかのフラグを返す．
+	 *
+	 * @return 繰り返し対戦を行うかどうかのフラグ
+	 */
+	public boolean isAutomationFlag() {
+		return this.automationFlag;
+	}
+
+	/**
+	 * AIの全組み合わせの対戦を行うかどうかのフラグを返す．
+	 *
+	 * @return AIの全組み合わせの対戦を行うかどうかのフラグ
+	 */
+	public boolean isAllCombinationFlag() {
+		return this.allCombinationFlag;
+	}
+
+	/**
+	 * Pythonを使用するかどうかのフラグを返す．
+	 *
+	 * @return Pythonを使用するかどうかのフラグ
+	 */
+	public boolean isPy4j() {
+		return this.py4j;
+	}
+
+	/**
+	 * P1,P2に最大HPを設定するかどうかのフラグを返す．
+	 *
+	 * @return P1,P2に最大HPを設定するかどうかのフラグ
+	 */
+	public boolean isLimitHpFlag() {
+		return this.limitHpFlag;
+	}
+
+	/**
+	 * トレーニングモードを使用するかどうかのフラグを返す．
+	 *
+	 * @return トレーニングモードを使用するかどうかのフラグ
+	 */
+	public boolean isTrainingModeFlag() {
+		return this.trainingModeFlag;
+	}
+
+	/**
+	 * ゲームウィンドウを生成するかどうかのフラグを返す．
+	 *
+	 * @return ゲームウィンドウを生成するかどうかのフラグ
+	 */
+	public boolean isEnableWindow() {
+		return this.enableWindow;
+	}
+
+	/**
+	 * 音をミュートにするかどうかのフラグを返す．
+	 *
+	 * @return 音をミュートにするかどうかのフラグ
+	 */
+	public boolean isMuteFlag() {
+		return this.muteFlag;
+	}
+
+	/**
+	 * jsonファイルに試合データを出力するかどうかのフラグを返す．
+	 *
+	 * @return jsonファイルに試合データを出力するかどうかのフラグ
+	 */
+	public boolean isJsonFlag() {
+		return this.jsonFlag;
+	}
+
+	/**
+	 * アクションを行った回数をログに出力するかどうかのフラグを返す．
+	 *
+	 * @return アクションを行った回数をログに出力するかどうかのフラグ
+	 */
+	public boolean isDebugActionFlag() {
+		return this.debugActionFlag;
+	}
+
+	/**
+	 * FastModeで起動するかどうかのフラグを返す．
+	 *
+	 * @return FastModeで起動するかどうかのフラグ
+	 */
+	public boolean isFastModeFlag() {
+		return this.fastModeFlag;
+	}
+
+	/**
+	 * AIのスレッドを生成せずに, ゲームのスレッドでAIの処理を同期して行うかどうかのフラグを返す．
+	 *
+	 * @return AIの処理を同期して行うかどうかのフラグ
+	 */
+	public boolean isSynchronousAIFlag() {
+		return this.synchronousAIFlag;
+	}
+
+	/**
+	 * 毎フレームの対戦状態のハッシュ値をファイルに出力するかどうかのフラグを返す．
+	 *
+	 * @return 対戦状態のハッシュ値をファイルに出力するかどうかのフラグ
+	 */
+	public boolean isStateHashFlag() {
+		return this.stateHashFlag;
+	}
+
+	/**
+	 * 指定したプレイヤーの最大HPを返す．
+	 *
+	 * @param playerNumber
+	 *            プレイヤーがP1の場合は{@code true}, P2の場合は{@code false}
+	 * @return 指定したプレイヤーの最大HP
+	 */
+	public int getMaxHp(boolean playerNumber) {
+		return this.maxHp[playerNumber ? 0 : 1];
+	}
+
+	/**
+	 * 指定したプレイヤーの最大エネルギーを返す．
+	 *
+	 * @param playerNumber
+	 *            プレイヤーがP1の場合は{@code true}, P2の場合は{@code false}
+	 * @return 指定したプレイヤーの最大エネルギー
+	 */
+	public int getMaxEnergy(boolean playerNumber) {
+		return this.maxEnergy[playerNumber ? 0 : 1];
+	}
+
+	/**
+	 * P1,P2の最大HPを格納した配列を返す．
+	 *
+	 * @return P1,P2の最大HPを格納した配列
+	 */
+	public int[] getMaxHps() {
+		return this.maxHp.clone();
+	}
+
+	/**
+	 * P1,P2の最大エネルギーを格納した配列を返す．
+	 *
+	 * @return P1,P2の最大エネルギーを格納した配列
+	 */
+	public int[] getMaxEnergies() {
+		return this.maxEnergy.clone();
+	}
+
+	/**
+	 * P1,P2のAI名を格納した配列を返す．
+	 *
+	 * @return P1,P2のAI名を格納した配列
+	 */
+	public String[] getAiNames() {
+		return this.aiNames.clone();
+	}
+
+	/**
+	 * P1,P2のキャラクター名を格納した配列を返す．
+	 *
+	 * @return P1,P2のキャラクター名を格納した配列
+	 */
+	public String[] getCharacterNames() {
+		return this.characterNames.clone();
+	}
+
+	/**
+	 * 指定したプレイヤーのキャラクター名を返す．
+	 *
+	 * @param playerNumber
+	 *            プレイヤーがP1の場合は{@code true}, P2の場合は{@code false}
+	 * @return 指定したプレイヤーのキャラクター名
+	 */
+	public String getCharacterName(boolean playerNumber) {
+		return this.characterNames[playerNumber ? 0 : 1];
+	}
+
+	/**
+	 * P1,P2のデバイスタイプを格納した配列を返す．
+	 *
+	 * @return P1,P2のデバイスタイプを格納した配列
+	 */
+	public char[] getDeviceTypes() {
+		return this.deviceTypes.clone();
+	}
+
+	/**
+	 * 画素を反転させるプレイヤーの番号を返す．
+	 *
+	 * @return 画素を反転させるプレイヤーの番号
+	 */
+	public int getInvertedPlayer() {
+		return this.invertedPlayer;
+	}
+
+	/**
+	 * 1フレーム分のAIの処理の締め切りを返す．
+	 *
+	 * @return 締め切り(ミリ秒). 締め切りを設けない場合は0
+	 */
+	public long getAiDeadline() {
+		return this.aiDeadline;
+	}
+
+	/**
+	 * 複数の試合を並列に行う場合の試合番号を返す．
+	 *
+	 * @return 試合番号. 試合番号を用いない場合は-1
+	 */
+	public int getMatchNumber() {
+		return this.matchNumber;
+	}
+
+	/**
+	 * 同じ組み合わせの試合を繰り返して行う場合の, 何回目の試合かを表すカウンタを返す．
+	 *
+	 * @return 何回目の試合かを表すカウンタ
+	 */
+	public int getRepeatedCount() {
+		return this.repeatedCount;
+	}
+
+	/**
+	 * 試合を繰り返して行う回数を返す．
+	 *
+	 * @return 試合を繰り返して行う回数
+	 */
+	public int getRepeatNumber() {
+		return this.repeatNumber;
+	}
+
+	/**
+	 * 試合で用いるキー入力及びAIを管理するマネージャを返す．
+	 *
+	 * @return 試合で用いるキー入力及びAIを管理するマネージャ
+	 */
+	public InputManager<?> getInputManager() {
+		return this.inputManager;
+	}
+
+	/**
+	 * 試合で用いるAIの同期用オブジェクトを管理するクラスのインスタンスを返す．
+	 *
+	 * @return 試合で用いるAIの同期用オブジェクトを管理するクラスのインスタンス
+	 */
+	public ThreadController getThreadController() {
+		return this.threadController;
+	}
+
+	/**
+	 * 試合のログを出力するクラスのインスタンスを返す．
+	 *
+	 * @return 試合のログを出力するクラスのインスタンス
+	 */
+	public LogWriter getLogWriter() {
+		return this.logWriter;
+	}
+
+	/**
+	 * P1,P2のAI名をセットする．
+	 *
+	 * @param aiNames
+	 *            P1,P2のAI名を格納した配列
+	 */
+	public void setAiNames(String[] aiNames) {
+		this.aiNames = aiNames.clone();
+	}
+
+	/**
+	 * P1,P2のキャラクター名をセットする．
+	 *
+	 * @param characterNames
+	 *            P1,P2のキャラクター名を格納した配列
+	 */
+	public void setCharacterNames(String[] characterNames) {
+		this.characterNames = characterNames.clone();
+	}
+
+	/**
+	 * P1,P2のデバイスタイプをセットする．
+	 *
+	 * @param deviceTypes
+	 *            P1,P2のデバイスタイプを格納した配列
+	 */
+	public void setDeviceTypes(char[] deviceTypes) {
+		this.deviceTypes = deviceTypes.clone();
+	}
+
+	/**
+	 * FastModeで起動するかどうかのフラグをセットする．
+	 *
+	 * @param fastModeFlag
+	 *            FastModeで起動するかどうかのフラグ
+	 */
+	public void setFastModeFlag(boolean fastModeFlag) {
+		this.fastModeFlag = fastModeFlag;
+	}
+
+	/**
+	 * 複数の試合を並列に行う場合の試合番号をセットする．
+	 *
+	 * @param matchNumber
+	 *            試合番号
+	 */
+	public void setMatchNumber(int matchNumber) {
+		this.matchNumber = matchNumber;
+	}
+
+	/**
+	 * 同じ組み合わせの試合を繰り返して行う場合の, 何回目の試合かを表すカウンタをセットする．
+	 *
+	 * @param repeatedCount
+	 *            何回目の試合かを表すカウンタ
+	 */
+	public void setRepeatedCount(int repeatedCount) {
+		this.repeatedCount = repeatedCount;
+	}
+
+	/**
+	 * 試合で用いるキー入力及びAIを管理するマネージャをセットする．
+	 *
+	 * @param inputManager
+	 *            試合で用いるキー入力及びAIを管理するマネージャ
+	 */
+	public void setInputManager(InputManager<?> inputManager) {
+		this.inputManager = inputManager;
+	}
+
+	/**
+	 * 試合で用いるAIの同期用オブジェクトを管理するクラスのインスタンスをセットする．
+	 *
+	 * @param threadController
+	 *            試合で用いるAIの同期用オブジェクトを管理するクラスのインスタンス
+	 */
+	public void setThreadController(ThreadController threadController) {
+		this.threadController = threadController;
+	}
+
+	/**
+	 * 試合のログを出力するクラスのインスタンスをセットする．
+	 *
+	 * @param logWriter
+	 *            試合のログを出力するクラスのインスタンス
+	 */
+	public void setLogWriter(LogWriter logWriter) {
+		this.logWriter = logWriter;
+	}
+}
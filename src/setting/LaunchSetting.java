@@ -45,6 +45,29 @@ public final class LaunchSetting {
 	 */
 	public static int repeatNumber = 1;
 
+	/**
+	 * 並列に行う試合の最大数．
+	 */
+	public static int parallelNumber = 1;
+
+	/**
+	 * 1フレーム分のAIの処理の締め切り(ミリ秒)．<br>
+	 * 0のときは締め切りを設けない．
+	 */
+	public static long aiDeadline = 0;
+
+	/**
+	 * 並列に総当り対戦を行う場合に, 終了した試合の結果を記録するファイルのパス．<br>
+	 * 中断した総当り対戦を再開する際に, 終了済みの試合を判定するために用いる．
+	 */
+	public static String tournamentFileName = "./log/tournament.csv";
+
+	/**
+	 * 総当り対戦で用いるキャラクター名を格納する配列．<br>
+	 * 全てのキャラクターの組み合わせについて試合を行う．{@code null}のときは, P1,P2のキャラクター名を固定して用いる．
+	 */
+	public static String[] tournamentCharacters = null;
+
 	/**
 	 * 画素を反転させるプレイヤーの番号．
 	 */
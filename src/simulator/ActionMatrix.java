@@ -0,0 +1,295 @@
+package simulator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import enumerate.Action;
+import struct.FrameData;
+
+/**
+ * The result of
+ * {@link Simulator#simulateMatrix(FrameData, boolean, List, List, int)}.<br>
+ * For each pair of an action of the player and an action of the opponent, a
+ * matrix holds the changes of the HP and the energy of both characters from
+ * the root frame data to the end of the simulation of the pair. A row
+ * corresponds to an action of the player and a column to an action of the
+ * opponent, in the order of the given lists.
+ *
+ * @see Simulator#simulateMatrix(FrameData, boolean, List, List, int)
+ */
+public class ActionMatrix {
+
+	/**
+	 * The actions of the player, one for each row.
+	 */
+	private final Action[] myActions;
+
+	/**
+	 * The actions of the opponent, one for each column.
+	 */
+	private final Action[] oppActions;
+
+	/**
+	 * The changes of the player's HP, stored row by row.
+	 */
+	private final int[] myHpDeltas;
+
+	/**
+	 * The changes of the opponent's HP, stored row by row.
+	 */
+	private final int[] oppHpDeltas;
+
+	/**
+	 * The changes of the player's energy, stored row by row.
+	 */
+	private final int[] myEnergyDeltas;
+
+	/**
+	 * The changes of the opponent's energy, stored row by row.
+	 */
+	private final int[] oppEnergyDeltas;
+
+	/**
+	 * The number of frames actually simulated for each pair, stored row by
+	 * row.<br>
+	 * 0 if the pair was cut off without simulation.
+	 */
+	private final int[] simulatedFrames;
+
+	/**
+	 * The class constructor that creates an empty matrix.
+	 *
+	 * @param myActions
+	 *            the actions of the player
+	 * @param oppActions
+	 *            the actions of the opponent
+	 */
+	ActionMatrix(Action[] myActions, Action[] oppActions) {
+		int size = myActions.length * oppActions.length;
+
+		this.myActions = myActions;
+		this.oppActions = oppActions;
+		this.myHpDeltas = new int[size];
+		this.oppHpDeltas = new int[size];
+		this.myEnergyDeltas = new int[size];
+		this.oppEnergyDeltas = new int[size];
+		this.simulatedFrames = new int[size];
+	}
+
+	/**
+	 * Stores the result of a pair.
+	 *
+	 * @param index
+	 *            the index of the pair, that is
+	 *            {@code row * getColumnCount() + column}
+	 * @param myHpDelta
+	 *            the change of the player's HP
+	 * @param oppHpDelta
+	 *            the change of the opponent's HP
+	 * @param myEnergyDelta
+	 *            the change of the player's energy
+	 * @param oppEnergyDelta
+	 *            the change of the opponent's energy
+	 * @param frames
+	 *            the number of frames actually simulated
+	 */
+	void set(int index, int myHpDelta, int oppHpDelta, int myEnergyDelta, int oppEnergyDelta, int frames) {
+		this.myHpDeltas[index] = myHpDelta;
+		this.oppHpDeltas[index] = oppHpDelta;
+		this.myEnergyDeltas[index] = myEnergyDelta;
+		this.oppEnergyDeltas[index] = oppEnergyDelta;
+		this.simulatedFrames[index] = frames;
+	}
+
+	/**
+	 * Returns the number of rows, that is the number of the player's actions.
+	 *
+	 * @return the number of rows
+	 */
+	public int getRowCount() {
+		return this.myActions.length;
+	}
+
+	/**
+	 * Returns the number of columns, that is the number of the opponent's
+	 * actions.
+	 *
+	 * @return the number of columns
+	 */
+	public int getColumnCount() {
+		return this.oppActions.length;
+	}
+
+	/**
+	 * Returns the player's action of the specified row.
+	 *
+	 * @param row
+	 *            the index of the row
+	 * @return the player's action of the row
+	 */
+	public Action getMyAction(int row) {
+		return this.myActions[row];
+	}
+
+	/**
+	 * Returns the opponent's action of the specified column.
+	 *
+	 * @param column
+	 *            the index of the column
+	 * @return the opponent's action of the column
+	 */
+	public Action getOppAction(int column) {
+		return this.oppActions[column];
+	}
+
+	/**
+	 * Returns the list of the player's actions, one for each row.
+	 *
+	 * @return the list of the player's actions
+	 */
+	public List<Action> getMyActions() {
+		return new ArrayList<Action>(Arrays.asList(this.myActions));
+	}
+
+	/**
+	 * Returns the list of the opponent's actions, one for each column.
+	 *
+	 * @return the list of the opponent's actions
+	 */
+	public List<Action> getOppActions() {
+		return new ArrayList<Action>(Arrays.asList(this.oppActions));
+	}
+
+	/**
+	 * Returns the change of the player's HP in the specified pair.
+	 *
+	 * @param row
+	 *            the index of the player's action
+	 * @param column
+	 *            the index of the opponent's action
+	 * @return the change of the player's HP, which is negative if the player
+	 *         was damaged
+	 */
+	public int getMyHpDelta(int row, int column) {
+		return this.myHpDeltas[index(row, column)];
+	}
+
+	/**
+	 * Returns the change of the opponent's HP in the specified pair.
+	 *
+	 * @param row
+	 *            the index of the player's action
+	 * @param column
+	 *            the index of the opponent's action
+	 * @return the change of the opponent's HP, which is negative if the
+	 *         opponent was damaged
+	 */
+	public int getOppHpDelta(int row, int column) {
+		return this.oppHpDeltas[index(row, column)];
+	}
+
+	/**
+	 * Returns the change of the player's energy in the specified pair.
+	 *
+	 * @param row
+	 *            the index of the player's action
+	 * @param column
+	 *            the index of the opponent's action
+	 * @return the change of the player's energy
+	 */
+	public int getMyEnergyDelta(int row, int column) {
+		return this.myEnergyDeltas[index(row, column)];
+	}
+
+	/**
+	 * Returns the change of the opponent's energy in the specified pair.
+	 *
+	 * @param row
+	 *            the index of the player's action
+	 * @param column
+	 *            the index of the opponent's action
+	 * @return the change of the opponent's energy
+	 */
+	public int getOppEnergyDelta(int row, int column) {
+		return this.oppEnergyDeltas[index(row, column)];
+	}
+
+	/**
+	 * Returns the HP difference of the specified pair, that is the change of
+	 * the player's HP minus the change of the opponent's HP.
+	 *
+	 * @param row
+	 *            the index of the player's action
+	 * @param column
+	 *            the index of the opponent's action
+	 * @return the HP difference, which is positive if the pair is
+	 *         advantageous for the player
+	 */
+	public int getHpDifference(int row, int column) {
+		int index = index(row, column);
+		return this.myHpDeltas[index] - this.oppHpDeltas[index];
+	}
+
+	/**
+	 * Returns the number of frames actually simulated for the specified
+	 * pair.<br>
+	 * The simulation of a pair stops as soon as the HP and the energy of both
+	 * characters can no longer change, and a pair is not simulated at all if
+	 * neither action can change them from the root frame data. In both cases
+	 * the stored changes are the same as those of the full simulation.
+	 *
+	 * @param row
+	 *            the index of the player's action
+	 * @param column
+	 *            the index of the opponent's action
+	 * @return the number of simulated frames, or 0 if the pair was not
+	 *         simulated
+	 */
+	public int getSimulatedFrames(int row, int column) {
+		return this.simulatedFrames[index(row, column)];
+	}
+
+	/**
+	 * Returns the row whose worst HP difference over all columns is the
+	 * largest, that is the max-min choice of the player.
+	 *
+	 * @return the index of the row, or -1 if the matrix has no cell
+	 */
+	public int getMaxMinRow() {
+		int bestRow = -1;
+		int bestValue = Integer.MIN_VALUE;
+
+		for (int row = 0; row < getRowCount() && getColumnCount() > 0; row++) {
+			int worst = Integer.MAX_VALUE;
+			for (int column = 0; column < getColumnCount(); column++) {
+				worst = Math.min(worst, getHpDifference(row, column));
+			}
+
+			if (bestRow < 0 || worst > bestValue) {
+				bestRow = row;
+				bestValue = worst;
+			}
+		}
+
+		return bestRow;
+	}
+
+	/**
+	 * Returns the index of the specified pair in the arrays.
+	 *
+	 * @param row
+	 *            the index of the player's action
+	 * @param column
+	 *            the index of the opponent's action
+	 * @return the index of the pair
+	 * @throws IndexOutOfBoundsException
+	 *             if the row or the column is out of range
+	 */
+	private int index(int row, int column) {
+		if (row < 0 || row >= getRowCount() || column < 0 || column >= getColumnCount()) {
+			throw new IndexOutOfBoundsException("Row " + row + ", column " + column + " is out of range");
+		}
+		return row * getColumnCount() + column;
+	}
+}
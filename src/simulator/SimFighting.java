@@ -10,13 +10,16 @@ import enumerate.Action;
 import fighting.Attack;
 import fighting.Character;
 import fighting.Fighting;
+import fighting.FightingSnapshot;
 import fighting.LoopEffect;
 import fighting.Motion;
+import input.KeyQueue;
+import setting.GameContext;
 import setting.GameSetting;
 import struct.AttackData;
 import struct.CharacterData;
 import struct.FrameData;
-import struct.Key;
+import struct.HitArea;
 
 /**
  * シミュレーション中の対戦処理やキャラクター情報の更新を行うクラス．
@@ -24,9 +27,16 @@ import struct.Key;
 public class SimFighting extends Fighting {
 
 	/**
-	 * キー入力．
+	 * P1, P2の圧縮したキー入力．<br>
+	 * Index 0 is P1, index 1 is P2.
 	 */
-	private ArrayList<Deque<Key>> inputKeys;
+	private KeyQueue[] inputKeys;
+
+	/**
+	 * キャラクターが実行したキー入力の履歴に, これから実行するキー入力を加えたキュー．<br>
+	 * コマンドの解釈に用いる作業用のキューであり, 毎フレーム上書きされる．
+	 */
+	private KeyQueue commandKeys;
 
 	/**
 	 * 入力されたアクション．
@@ -38,21 +48,49 @@ public class SimFighting extends Fighting {
 	 */
 	private CommandCenter[] commandCenter;
 
+	/**
+	 * シミュレーション開始時のフレームデータ．<br>
+	 * CommandCenterがアクションをキー入力に変換する際に, キャラクターの向きを参照するために用いる．
+	 */
+	private FrameData frameData;
+
+	/**
+	 * 何も起こり得ないフレームを簡略化した処理で進めるかどうかを表すフラグ．<br>
+	 * {@code true}の場合は{@link #isQuietFrame()}が成り立つフレームを, {@link #processingFight(int, int)}では閉じた式でまとめて,
+	 * それができない場合は{@link #processingQuietFrame(int)}で1フレームずつ処理する．
+	 */
+	private boolean fastForward;
+
 	/**
 	 * クラスコンストラクタ．
 	 */
 	public SimFighting() {
+		this(new GameContext());
+	}
+
+	/**
+	 * 引数の起動情報を用いてシミュレーションを行うインスタンスを生成するクラスコンストラクタ．
+	 *
+	 * @param context
+	 *            シミュレーション対象の試合の起動情報
+	 */
+	public SimFighting(GameContext context) {
+		super(context);
 		this.playerCharacters = new Character[2];
 		this.projectileDeque = new LinkedList<LoopEffect>();
 		this.commandTable = new CommandTable();
 
-		this.inputKeys = new ArrayList<Deque<Key>>(2);
+		this.inputKeys = new KeyQueue[] { new KeyQueue(), new KeyQueue() };
+		this.commandKeys = new KeyQueue();
 		this.inputActions = new ArrayList<Deque<Action>>(2);
-		this.commandCenter = new CommandCenter[2];
+		this.commandCenter = new CommandCenter[] { new CommandCenter(), new CommandCenter() };
+		this.fastForward = true;
 	}
 
 	/**
-	 * 初期化処理を行う．
+	 * 初期化処理を行う．<br>
+	 * 同じインスタンスに対して繰り返し呼び出すことができ, 2回目以降はキャラクターなどのインスタンスを生成せずに状態を上書きする．<br>
+	 * 引数のリストは初期化後もそのまま参照されるため, シミュレーション中に変更してはならない．
 	 *
 	 * @param motionList
 	 *            P1とP2のモーションを格納したリスト
@@ -67,22 +105,44 @@ public class SimFighting extends Fighting {
 	public void initialize(ArrayList<ArrayList<Motion>> motionList, ArrayList<Deque<Action>> actionList,
 			FrameData frameData, boolean playerNumber) {
 
+		this.frameData = frameData;
+		this.inputActions.clear();
+
 		for (int i = 0; i < 2; i++) {
-			this.playerCharacters[i] = new Character(frameData.getCharacter(i == 0), motionList.get(i));
+			CharacterData characterData = frameData.getCharacterView(i == 0);
+			if (this.playerCharacters[i] == null) {
+				this.playerCharacters[i] = new Character(characterData, motionList.get(i), this.context);
+			} else {
+				this.playerCharacters[i].reset(characterData, motionList.get(i));
+			}
 
-			this.inputKeys.add(this.playerCharacters[i].getProcessedCommand());
+			this.inputKeys[i].copyFrom(this.playerCharacters[i].getProcessedCommandQueue());
 			this.inputActions.add(actionList.get(i));
 
-			this.commandCenter[i] = new CommandCenter();
+			this.commandCenter[i].skillCancel();
 			this.commandCenter[i].setFrameData(frameData, i == 0);
 		}
 
-		Deque<AttackData> projectiles = frameData.getProjectiles();
-		for (AttackData temp : projectiles) {
-			this.projectileDeque.addLast(new LoopEffect(new Attack(temp), null));
+		this.projectileDeque.clear();
+		for (int i = 0; i < frameData.getProjectileCount(); i++) {
+			this.projectileDeque.addLast(new LoopEffect(new Attack(frameData.getProjectile(i)), null));
 		}
 	}
 
+	/**
+	 * 引数のキャラクターがこれから実行するアクションのリストを差し替える．<br>
+	 * 差し替えたリストは初期化時に渡したリストと同様に, シミュレーションの進行に伴って先頭から取り出される．
+	 *
+	 * @param playerNumber
+	 *            boolean value which identifies P1/P2. {@code true} if the
+	 *            player is P1, or {@code false} if P2.
+	 * @param actions
+	 *            キャラクターがこれから実行するアクションのリスト
+	 */
+	public void setInputActions(boolean playerNumber, Deque<Action> actions) {
+		this.inputActions.set(playerNumber ? 0 : 1, actions);
+	}
+
 	/**
 	 * 1フレーム分の対戦処理を行う. <br>
 	 * 処理順序は以下の通りである．<br>
@@ -97,6 +157,11 @@ public class SimFighting extends Fighting {
 	 *            現在のフレーム
 	 */
 	public void processingFight(int currentFrame) {
+		if (this.fastForward && isQuietFrame() && this.projectileDeque.isEmpty()) {
+			processingQuietFrame(currentFrame);
+			return;
+		}
+
 		// 1. コマンドの実行・対戦処理
 		processingCommands();
 		// 2. 当たり判定の処理
@@ -107,26 +172,277 @@ public class SimFighting extends Fighting {
 		updateCharacter();
 	}
 
+	/**
+	 * 最大で指定したフレーム数分の対戦処理を行い, 処理したフレーム数を返す．<br>
+	 * 早送りが有効であり, 現在のフレームから{@link #canSkipFrames(int)}が成り立つ間は,
+	 * 次に何かが起こり得るフレームの直前までの位置, 速度及び残りフレーム数などを閉じた式でまとめて更新する．
+	 * 成り立たない場合は{@link #processingFight(int)}で1フレームだけ処理する．結果は1フレームずつ処理した場合と完全に一致する．
+	 *
+	 * @param currentFrame
+	 *            現在のフレーム
+	 * @param maxFrames
+	 *            処理する最大のフレーム数．1以上でなければならない
+	 *
+	 * @return 処理したフレーム数
+	 */
+	public int processingFight(int currentFrame, int maxFrames) {
+		if (this.fastForward && isQuietFrame()) {
+			int frames = getSkippableFrames(maxFrames);
+			if (frames > 0) {
+				skipFrames(currentFrame, frames);
+				return frames;
+			}
+		}
+
+		processingFight(currentFrame);
+		return 1;
+	}
+
+	/**
+	 * 現在のフレームが, どちらのキャラクターも行動できず攻撃も生成されていないフレームかどうかを返す．<br>
+	 * 両キャラクターが操作不能かつ攻撃が未ヒットであり, 攻撃も実行待ちのキー入力も持たない場合に成り立つ．<br>
+	 * このとき{@link #ableAction(Character, Action)}は常に{@code false}を返すため, コマンドの解釈はキャラクターの状態に影響しない．
+	 * さらに画面上に波動拳が存在しなければ, 当たり判定の結果も影響しない．
+	 *
+	 * @return {@code true} どちらのキャラクターも行動できないフレームである場合，{@code false} otherwise
+	 */
+	private boolean isQuietFrame() {
+		for (int i = 0; i < 2; i++) {
+			Character character = this.playerCharacters[i];
+			if (character.isControl() || character.isHitConfirm() || character.getAttack() != null
+					|| !character.isInputCommandEmpty() || this.commandCenter[i].getSkillFlag()) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * {@link #canSkipFrames(int)}が成り立つ最大のフレーム数を, 指定したフレーム数以下の範囲で返す．<br>
+	 * 成り立つフレーム数は単調であるため, 二分探索で求める．
+	 *
+	 * @param maxFrames
+	 *            フレーム数の上限
+	 *
+	 * @return まとめて処理できるフレーム数．まとめて処理できない場合は0
+	 */
+	private int getSkippableFrames(int maxFrames) {
+		int low = 0;
+		int high = maxFrames;
+		while (low < high) {
+			int middle = (low + high + 1) >>> 1;
+			if (canSkipFrames(middle)) {
+				low = middle;
+			} else {
+				high = middle - 1;
+			}
+		}
+
+		return low;
+	}
+
+	/**
+	 * {@link #isQuietFrame()}が成り立つ状態から, 指定したフレーム数分の対戦処理を閉じた式でまとめて行えるかどうかを返す．<br>
+	 * 両キャラクターについて{@link Character#canSkipFrames(int)}が成り立ち, その間に以下のいずれも起こり得ない場合に成り立つ．
+	 * <ul>
+	 * <li>キャラクター同士の押し合い及びめり込みの解消</li>
+	 * <li>画面の左右端による位置の補正</li>
+	 * <li>波動拳の消滅及び相手キャラクターへのヒット</li>
+	 * </ul>
+	 * 各キャラクターと波動拳の水平方向の位置は単調に変化するため, 期間中に通過する範囲の両端のみを判定する．
+	 *
+	 * @param frames
+	 *            まとめて処理するフレーム数
+	 *
+	 * @return {@code true} まとめて処理できる場合，{@code false} otherwise
+	 */
+	private boolean canSkipFrames(int frames) {
+		Character p1 = this.playerCharacters[0];
+		Character p2 = this.playerCharacters[1];
+		if (!p1.canSkipFrames(frames) || !p2.canSkipFrames(frames)) {
+			return false;
+		}
+
+		int p1Displacement = p1.getDisplacementX(frames);
+		int p2Displacement = p2.getDisplacementX(frames);
+		int p1Left = p1.getHitAreaLeft() + Math.min(p1Displacement, 0);
+		int p1Right = p1.getHitAreaRight() + Math.max(p1Displacement, 0);
+		int p2Left = p2.getHitAreaLeft() + Math.min(p2Displacement, 0);
+		int p2Right = p2.getHitAreaRight() + Math.max(p2Displacement, 0);
+
+		if (p1Left < 0 || p2Left < 0 || p1Right > GameSetting.STAGE_WIDTH || p2Right > GameSetting.STAGE_WIDTH) {
+			return false;
+		}
+		if (p1Left <= p2Right && p1Right >= p2Left) {
+			return false;
+		}
+
+		for (LoopEffect projectile : this.projectileDeque) {
+			Attack attack = projectile.getAttack();
+			if (attack.getCurrentFrame() + frames > attack.getActive()) {
+				return false;
+			}
+
+			// 当たり判定は各フレームの移動前の位置で行われる
+			HitArea area = attack.getCurrentHitArea();
+			int displacement = attack.getSpeedX() * (frames - 1);
+			int left = area.getLeft() + Math.min(displacement, 0);
+			int right = area.getRight() + Math.max(displacement, 0);
+			if (attack.isPlayerNumber() ? left <= p2Right && right >= p2Left : left <= p1Right && right >= p1Left) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * {@link #canSkipFrames(int)}が成り立つ指定したフレーム数分の対戦処理を, 閉じた式でまとめて行う．<br>
+	 * キー入力の履歴と連続ヒット数を更新し, 波動拳とキャラクターの状態をまとめて進める．
+	 *
+	 * @param currentFrame
+	 *            現在のフレーム
+	 * @param frames
+	 *            まとめて処理するフレーム数
+	 */
+	private void skipFrames(int currentFrame, int frames) {
+		for (int i = 0; i < 2; i++) {
+			// 入力なしのキーで埋まった後は, それ以上処理しても変化しない
+			if (this.inputActions.get(i) != null) {
+				KeyQueue keyList = this.inputKeys[i];
+				int repeat = Math.min(frames, GameSetting.INPUT_LIMIT + 2);
+				for (int j = 0; j < repeat; j++) {
+					if (keyList.size() > GameSetting.INPUT_LIMIT) {
+						keyList.removeLast();
+					}
+					keyList.addLast(0);
+				}
+			} else if (this.inputKeys[i].size() > GameSetting.INPUT_LIMIT) {
+				this.inputKeys[i].removeLast();
+			}
+
+			// 最後のフレームで連続ヒットが途切れていなければ, それ以前のフレームでも途切れていない
+			if (!this.playerCharacters[i].isComboValid(currentFrame + frames - 1)) {
+				this.playerCharacters[i].setHitCount(0);
+			}
+		}
+
+		for (LoopEffect projectile : this.projectileDeque) {
+			projectile.getAttack().updateProjectileAttack(frames);
+		}
+
+		for (int i = 0; i < 2; i++) {
+			this.playerCharacters[i].skipFrames(frames);
+		}
+	}
+
+	/**
+	 * {@link #isQuietFrame()}が成り立ち, 波動拳が存在しないフレームの対戦処理を行う．<br>
+	 * コマンドの解釈と当たり判定を省略し, キー入力の履歴, 連続ヒット数及びキャラクター情報のみを更新する．
+	 * 結果は{@link #processingFight(int)}の通常の処理と完全に一致する．
+	 *
+	 * @param currentFrame
+	 *            現在のフレーム
+	 */
+	private void processingQuietFrame(int currentFrame) {
+		for (int i = 0; i < 2; i++) {
+			KeyQueue keyList = this.inputKeys[i];
+			if (keyList.size() > GameSetting.INPUT_LIMIT) {
+				keyList.removeLast();
+			}
+			// アクションが与えられている場合は, 通常の処理と同様に空のキー入力を追加する
+			if (this.inputActions.get(i) != null) {
+				keyList.addLast(0);
+			}
+
+			if (!this.playerCharacters[i].isComboValid(currentFrame)) {
+				this.playerCharacters[i].setHitCount(0);
+			}
+		}
+
+		updateCharacter();
+	}
+
+	/**
+	 * これ以降のフレームで両キャラクターのHPとエネルギーが変化し得ないかどうかを返す．<br>
+	 * 波動拳が存在せず, 両キャラクターに未実行のアクションとキー入力がなく, 攻撃が存在せず,
+	 * 実行中のアクションがこれから攻撃を生成しない場合に成り立つ．
+	 * このときキー入力にボタンが含まれないため新たな攻撃は実行されず, 残りのフレームは位置などのみを変化させる．
+	 *
+	 * @return {@code true} HPとエネルギーが変化し得ない場合，{@code false} otherwise
+	 */
+	boolean isSettled() {
+		if (!this.projectileDeque.isEmpty() || this.context.isTrainingModeFlag()) {
+			return false;
+		}
+
+		for (int i = 0; i < 2; i++) {
+			Character character = this.playerCharacters[i];
+			Deque<Action> actions = this.inputActions.get(i);
+			if ((actions != null && !actions.isEmpty()) || !character.isInputCommandEmpty()
+					|| this.commandCenter[i].getSkillFlag()) {
+				return false;
+			}
+
+			// 攻撃のないフレームデータから復元した空の攻撃は当たらない
+			Attack attack = character.getAttack();
+			if (attack != null && attack.getActive() > 0) {
+				return false;
+			}
+
+			Motion motion = character.getMotion(character.getAction());
+			if (motion.getAttackHitArea().getRight() > motion.getAttackHitArea().getLeft()
+					&& character.getRemainingFrame() > motion.getFrameNumber() - motion.getAttackStartUp()) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * 何も起こり得ないフレームを簡略化した処理で進めるかどうかを設定する．<br>
+	 * 初期値は{@code true}である．どちらの設定でもシミュレーションの結果は変わらない．
+	 *
+	 * @param fastForward
+	 *            {@code true} 簡略化した処理で進める場合，{@code false} 全てのフレームを通常の処理で進める場合
+	 */
+	public void setFastForward(boolean fastForward) {
+		this.fastForward = fastForward;
+	}
+
+	/**
+	 * 何も起こり得ないフレームを簡略化した処理で進めるかどうかを返す．
+	 *
+	 * @return {@code true} 簡略化した処理で進める場合，{@code false} otherwise
+	 */
+	public boolean isFastForward() {
+		return this.fastForward;
+	}
+
 	/**
 	 * シミュレーション開始時に渡されたキー入力とアクションを基に，アクションを実行する．
 	 */
 	public void processingCommands() {
 
 		for (int i = 0; i < 2; i++) {
-			Deque<Key> keyList = this.inputKeys.get(i);
+			KeyQueue keyList = this.inputKeys[i];
 			Deque<Action> actList = this.inputActions.get(i);
 
 			if (keyList.size() > GameSetting.INPUT_LIMIT) {
 				keyList.removeLast();
 			}
 
-			if (!this.playerCharacters[i].getInputCommand().isEmpty() && !this.commandCenter[i].getSkillFlag()) {
-				Deque<Key> temp = this.playerCharacters[i].getProcessedCommand();
-				temp.addLast(this.playerCharacters[i].getInputCommand().getFirst());
+			if (!this.playerCharacters[i].isInputCommandEmpty() && !this.commandCenter[i].getSkillFlag()) {
+				int inputKey = this.playerCharacters[i].getInputCommandQueue().getFirst();
+				this.commandKeys.copyFrom(this.playerCharacters[i].getProcessedCommandQueue());
+				this.commandKeys.addLast(inputKey);
 
-				keyList.add(new Key(this.playerCharacters[i].getInputCommand().getFirst()));
+				keyList.addLast(inputKey);
 
-				Action act = this.commandTable.interpretationCommandFromKey(this.playerCharacters[i], temp);
+				Action act = this.commandTable.interpretationCommandFromKeyQueue(this.playerCharacters[i],
+						this.commandKeys);
 				if (ableAction(this.playerCharacters[i], act)) {
 					this.playerCharacters[i].runAction(act, true);
 				}
@@ -135,7 +451,7 @@ public class SimFighting extends Fighting {
 				if (!actList.isEmpty()) {
 
 					if (ableAction(this.playerCharacters[i], actList.getFirst()) && !commandCenter[i].getSkillFlag()) {
-						this.commandCenter[i].commandCall(actList.removeFirst().name());
+						this.commandCenter[i].commandCall(actList.removeFirst());
 						this.playerCharacters[i].setInputCommand(this.commandCenter[i].getSkillKeys());
 
 					} else if (this.playerCharacters[i].isControl() && !this.commandCenter[i].getSkillFlag()) {
@@ -143,8 +459,8 @@ public class SimFighting extends Fighting {
 					}
 				}
 
-				this.inputKeys.get(i).add(this.commandCenter[i].getSkillKey());
-				Action act = this.commandTable.interpretationCommandFromKey(this.playerCharacters[i], keyList);
+				keyList.addLast(this.commandCenter[i].getPackedSkillKey());
+				Action act = this.commandTable.interpretationCommandFromKeyQueue(this.playerCharacters[i], keyList);
 				if (ableAction(this.playerCharacters[i], act)) {
 					this.playerCharacters[i].runAction(act, true);
 				}
@@ -249,12 +565,61 @@ public class SimFighting extends Fighting {
 
 	}
 
+	/**
+	 * 現在の対戦状態を引数のインスタンスに上書きして保存する．<br>
+	 * キャラクターや波動拳に加えて, 未実行のアクションとアクションから変換されたキー入力も保存する．
+	 *
+	 * @param snapshot
+	 *            対戦状態を保存するインスタンス．{@link #snapshot()}で生成したものでなければならない
+	 * @see SimFightingSnapshot
+	 */
+	@Override
+	public void snapshot(FightingSnapshot snapshot) {
+		super.snapshot(snapshot);
+		toSimSnapshot(snapshot).save(this.inputKeys, this.inputActions, this.commandCenter, this.frameData);
+	}
+
+	/**
+	 * 引数のインスタンスに保存した対戦状態を復元する．<br>
+	 * 同じインスタンスから何度でも復元することができる．
+	 *
+	 * @param snapshot
+	 *            復元する対戦状態を保存したインスタンス．{@link #snapshot()}で生成したものでなければならない
+	 * @see SimFightingSnapshot
+	 */
+	@Override
+	public void restore(FightingSnapshot snapshot) {
+		super.restore(snapshot);
+		this.frameData = toSimSnapshot(snapshot).load(this.inputKeys, this.inputActions, this.commandCenter);
+	}
+
+	@Override
+	protected FightingSnapshot createSnapshot() {
+		return new SimFightingSnapshot(this.context);
+	}
+
+	/**
+	 * 引数のインスタンスをSimFightingSnapshotクラスのインスタンスとして返す．
+	 *
+	 * @param snapshot
+	 *            対戦状態を保存するインスタンス
+	 * @return SimFightingSnapshotクラスのインスタンス
+	 * @throws IllegalArgumentException
+	 *             引数がSimFightingSnapshotクラスのインスタンスでない場合
+	 */
+	private SimFightingSnapshot toSimSnapshot(FightingSnapshot snapshot) {
+		if (!(snapshot instanceof SimFightingSnapshot)) {
+			throw new IllegalArgumentException("The snapshot was not created by SimFighting");
+		}
+		return (SimFightingSnapshot) snapshot;
+	}
+
 	@Override
 	public FrameData createFrameData(int nowFrame, int round) {
 		CharacterData[] characterData = new CharacterData[2];
 		for (int i = 0; i < 2; i++) {
 			characterData[i] = new CharacterData(this.playerCharacters[i]);
-			characterData[i].setProcessedCommand(this.inputKeys.get(i));
+			characterData[i].setProcessedCommand(this.inputKeys[i]);
 		}
 
 		Deque<AttackData> newAttackDeque = new LinkedList<AttackData>();
@@ -262,7 +627,7 @@ public class SimFighting extends Fighting {
 			newAttackDeque.addLast(new AttackData(loopEffect.getAttack()));
 		}
 
-		return new FrameData(characterData, nowFrame, round, newAttackDeque);
+		return FrameData.wrap(characterData, nowFrame, round, newAttackDeque, this.context.isTrainingModeFlag());
 	}
 
 }
@@ -0,0 +1,146 @@
+package simulator;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+
+import aiinterface.CommandCenter;
+import enumerate.Action;
+import fighting.FightingSnapshot;
+import input.KeyQueue;
+import setting.GameContext;
+import struct.FrameData;
+import struct.Key;
+
+/**
+ * SimFightingクラスの対戦状態を保存するクラス．<br>
+ * FightingSnapshotクラスが保存する状態に加えて, シミュレーション開始時に渡されたアクションのうち未実行のものと,
+ * アクションから変換されたキー入力を保存する．
+ *
+ * @see SimFighting
+ */
+public class SimFightingSnapshot extends FightingSnapshot {
+
+	/**
+	 * P1, P2の圧縮したキー入力のコピー．<br>
+	 * Index 0 is P1, index 1 is P2.
+	 */
+	private KeyQueue[] inputKeys;
+
+	/**
+	 * P1, P2の未実行のアクションのコピー．
+	 */
+	private ArrayList<Deque<Action>> inputActions;
+
+	/**
+	 * P1, P2のアクションが与えられていたかどうかを表すフラグ．<br>
+	 * アクションが{@code null}の場合は{@code false}．
+	 */
+	private boolean[] hasActions;
+
+	/**
+	 * P1, P2のCommandCenterの実行待ちのキーのコピー．
+	 */
+	private ArrayList<Deque<Key>> skillKeys;
+
+	/**
+	 * シミュレーション開始時のフレームデータ．
+	 */
+	private FrameData frameData;
+
+	/**
+	 * 空のインスタンスを生成するクラスコンストラクタ．
+	 *
+	 * @param context
+	 *            状態を保存する試合の起動情報
+	 */
+	public SimFightingSnapshot(GameContext context) {
+		super(context);
+
+		this.inputKeys = new KeyQueue[] { new KeyQueue(), new KeyQueue() };
+		this.inputActions = new ArrayList<Deque<Action>>(2);
+		this.hasActions = new boolean[2];
+		this.skillKeys = new ArrayList<Deque<Key>>(2);
+		for (int i = 0; i < 2; i++) {
+			this.inputActions.add(new ArrayDeque<Action>());
+			this.skillKeys.add(new ArrayDeque<Key>());
+		}
+	}
+
+	/**
+	 * シミュレーション固有の状態をこのインスタンスに保存する．
+	 *
+	 * @param inputKeys
+	 *            P1, P2のキー入力
+	 * @param inputActions
+	 *            P1, P2の未実行のアクション
+	 * @param commandCenter
+	 *            P1, P2のCommandCenter
+	 * @param frameData
+	 *            シミュレーション開始時のフレームデータ
+	 */
+	void save(KeyQueue[] inputKeys, ArrayList<Deque<Action>> inputActions, CommandCenter[] commandCenter,
+			FrameData frameData) {
+		for (int i = 0; i < 2; i++) {
+			this.inputKeys[i].copyFrom(inputKeys[i]);
+
+			Deque<Action> actions = inputActions.get(i);
+			this.hasActions[i] = actions != null;
+			if (actions == null) {
+				this.inputActions.get(i).clear();
+			} else {
+				copy(actions, this.inputActions.get(i));
+			}
+
+			copy(commandCenter[i].getSkillKeys(), this.skillKeys.get(i));
+		}
+		this.frameData = frameData;
+	}
+
+	/**
+	 * このインスタンスに保存したシミュレーション固有の状態を引数の状態に上書きする．<br>
+	 * 未実行のアクションのリストが{@code null}でない場合は, そのリストの中身を上書きする．
+	 *
+	 * @param inputKeys
+	 *            P1, P2のキー入力
+	 * @param inputActions
+	 *            P1, P2の未実行のアクション
+	 * @param commandCenter
+	 *            P1, P2のCommandCenter
+	 * @return シミュレーション開始時のフレームデータ
+	 */
+	FrameData load(KeyQueue[] inputKeys, ArrayList<Deque<Action>> inputActions,
+			CommandCenter[] commandCenter) {
+		for (int i = 0; i < 2; i++) {
+			inputKeys[i].copyFrom(this.inputKeys[i]);
+
+			if (!this.hasActions[i]) {
+				inputActions.set(i, null);
+			} else {
+				if (inputActions.get(i) == null) {
+					inputActions.set(i, new ArrayDeque<Action>());
+				}
+				copy(this.inputActions.get(i), inputActions.get(i));
+			}
+
+			commandCenter[i].setSkillKeys(this.skillKeys.get(i));
+			commandCenter[i].setFrameData(this.frameData, i == 0);
+		}
+		return this.frameData;
+	}
+
+	/**
+	 * コピー元のリストの要素を, 中身を空にしたコピー先のリストに順に追加する．
+	 *
+	 * @param source
+	 *            コピー元のリスト
+	 * @param destination
+	 *            コピー先のリスト
+	 */
+	private static <E> void copy(Deque<E> source, Deque<E> destination) {
+		destination.clear();
+		for (E element : source) {
+			destination.addLast(element);
+		}
+	}
+}
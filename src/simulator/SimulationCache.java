@@ -0,0 +1,397 @@
+package simulator;
+
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import enumerate.Action;
+import struct.CharacterData;
+import struct.FrameData;
+import util.StateHash;
+
+/**
+ * A bounded cache of the results of the simulator.<br>
+ * A result is stored under the hash of the root frame data, the player side's
+ * flag, the actions of both players and the number of simulated frames, so
+ * simulating the same line of play from an equal state returns the stored
+ * result instead of running the simulator again. The root frame data is
+ * hashed without its frame number and with the last hits relative to it, so
+ * a root received in a later frame matches a result stored in an earlier
+ * frame. Such a result is moved onto the frame of the new root before it is
+ * returned. Each key is made of two independent 64-bit hash values.<br>
+ * The least recently used results are removed when the estimated memory
+ * usage exceeds the limit given to the constructor.<br>
+ * A cache is owned by one AI: create one instance for each AI and pass it to
+ * {@link Simulator#simulate(FrameData, boolean, Deque, Deque, int, SimulationCache)}.
+ * The simulator is shared by both AIs of a game, so a cache is never shared
+ * implicitly. The methods of this class are thread-safe. If the same
+ * simulation misses on two threads at the same time, both threads simulate
+ * it and the later result is stored.
+ *
+ * @see Simulator
+ */
+public class SimulationCache {
+
+	/**
+	 * The estimated number of bytes used by one result and its key in the
+	 * cache.<br>
+	 * It covers the frame data with both characters, their attacks and their
+	 * lists of keys, and the entry of the map.
+	 */
+	public static final int ESTIMATED_ENTRY_SIZE = 1024;
+
+	/**
+	 * The estimated number of bytes used by one projectile of a result.
+	 */
+	public static final int ESTIMATED_PROJECTILE_SIZE = 192;
+
+	/**
+	 * The seed of the second hash value of a key.
+	 */
+	private static final long CHECK_SEED = ~StateHash.SEED;
+
+	/**
+	 * The maximum estimated number of bytes used by this cache.
+	 */
+	private final long memoryLimit;
+
+	/**
+	 * The estimated number of bytes currently used by this cache.
+	 */
+	private long memoryUsage;
+
+	/**
+	 * The stored results in the order from the least recently used.
+	 */
+	private LinkedHashMap<Long, Entry> entries;
+
+	/**
+	 * The number of the simulations answered by a stored result.
+	 */
+	private long hitCount;
+
+	/**
+	 * The number of the simulations not answered by a stored result.
+	 */
+	private long missCount;
+
+	/**
+	 * The number of the results removed to keep the memory limit.
+	 */
+	private long evictionCount;
+
+	/**
+	 * The class constructor.
+	 *
+	 * @param memoryLimit
+	 *            the maximum estimated number of bytes used by this cache
+	 * @throws IllegalArgumentException
+	 *             if {@code memoryLimit} is negative
+	 */
+	public SimulationCache(long memoryLimit) {
+		if (memoryLimit < 0) {
+			throw new IllegalArgumentException("The memory limit must not be negative: " + memoryLimit);
+		}
+
+		this.memoryLimit = memoryLimit;
+		this.memoryUsage = 0;
+		this.entries = new LinkedHashMap<Long, Entry>(16, 0.75f, true);
+	}
+
+	/**
+	 * Returns the key of a simulation.<br>
+	 * The two hash values of the key are computed with different seeds. The
+	 * frame number of the root frame data is not a part of the key.
+	 *
+	 * @param seed
+	 *            the seed of the hash value
+	 * @param frameData
+	 *            frame data at the start of simulation
+	 * @param playerNumber
+	 *            the player side's flag
+	 * @param myAct
+	 *            actions to be performed by the player, or {@code null}
+	 * @param oppAct
+	 *            actions to be performed by the opponent, or {@code null}
+	 * @param simulationLimit
+	 *            the number of frames to be simulated
+	 * @return the hash value of the simulation
+	 */
+	private static long hash(long seed, FrameData frameData, boolean playerNumber, Deque<Action> myAct,
+			Deque<Action> oppAct, int simulationLimit) {
+		long hash = frameData.updateRelativeStateHash(seed);
+		hash = StateHash.update(hash, playerNumber);
+		hash = StateHash.update(hash, simulationLimit);
+		hash = updateActions(hash, myAct);
+		hash = updateActions(hash, oppAct);
+
+		return StateHash.finish(hash);
+	}
+
+	/**
+	 * Mixes a list of actions into the specified hash value.
+	 *
+	 * @param hash
+	 *            the current hash value
+	 * @param actions
+	 *            the actions, or {@code null}
+	 * @return the new hash value
+	 */
+	private static long updateActions(long hash, Deque<Action> actions) {
+		if (actions == null) {
+			return StateHash.update(hash, -1);
+		}
+
+		hash = StateHash.update(hash, actions.size());
+		for (Action action : actions) {
+			hash = StateHash.update(hash, action.ordinal());
+		}
+
+		return hash;
+	}
+
+	/**
+	 * Returns the stored result of a simulation, or simulates it by the given
+	 * session and stores the result.<br>
+	 * A result stored from a root in another frame is moved onto the frame of
+	 * the given root.
+	 *
+	 * @param session
+	 *            the session used if no result is stored
+	 * @param frameData
+	 *            frame data at the start of simulation
+	 * @param playerNumber
+	 *            the player side's flag
+	 * @param myAct
+	 *            actions to be performed by the player, or {@code null}
+	 * @param oppAct
+	 *            actions to be performed by the opponent, or {@code null}
+	 * @param simulationLimit
+	 *            the number of frames to be simulated
+	 * @return the frame data after the simulation
+	 */
+	FrameData simulate(SimulationSession session, FrameData frameData, boolean playerNumber, Deque<Action> myAct,
+			Deque<Action> oppAct, int simulationLimit) {
+		long key = hash(StateHash.SEED, frameData, playerNumber, myAct, oppAct, simulationLimit);
+		long check = hash(CHECK_SEED, frameData, playerNumber, myAct, oppAct, simulationLimit);
+
+		Entry entry = get(key, check);
+		if (entry != null) {
+			return move(entry, frameData);
+		}
+
+		FrameData result = session.simulate(frameData, playerNumber, myAct, oppAct, simulationLimit);
+		put(key, new Entry(check, frameData, result,
+				ESTIMATED_ENTRY_SIZE + ESTIMATED_PROJECTILE_SIZE * result.getProjectileCount()));
+
+		return result;
+	}
+
+	/**
+	 * Returns the stored result moved onto the frame of the specified root.
+	 * <br>
+	 * The frame number of the result is shifted by the difference of the frame
+	 * numbers of both roots. A last hit which the simulation did not change is
+	 * the one of the stored root, so it is replaced by the one of the given
+	 * root. Any other last hit happened during the simulation, so it is
+	 * shifted like the frame number.
+	 *
+	 * @param entry
+	 *            the stored result
+	 * @param frameData
+	 *            frame data at the start of simulation
+	 * @return the stored result in the frame of the given root, or the stored
+	 *         instance itself if nothing changes
+	 */
+	private static FrameData move(Entry entry, FrameData frameData) {
+		FrameData result = entry.frameData;
+		int offset = frameData.getFramesNumber() - entry.rootFrame;
+		boolean moved = offset != 0;
+
+		int[] lastHitFrames = new int[2];
+		for (int i = 0; i < 2; i++) {
+			CharacterData character = result.getCharacterView(i == 0);
+			if (character == null) {
+				continue;
+			}
+
+			CharacterData root = frameData.getCharacterView(i == 0);
+			int lastHitFrame = character.getLastHitFrame();
+			lastHitFrames[i] = root != null && lastHitFrame == entry.rootLastHitFrames[i] ? root.getLastHitFrame()
+					: lastHitFrame + offset;
+			moved |= lastHitFrames[i] != lastHitFrame;
+		}
+
+		return moved ? result.moveTo(result.getFramesNumber() + offset, lastHitFrames[0], lastHitFrames[1]) : result;
+	}
+
+	/**
+	 * Returns the stored result of the specified key and counts a hit or a
+	 * miss.
+	 *
+	 * @param key
+	 *            the first hash value of the key
+	 * @param check
+	 *            the second hash value of the key
+	 * @return the stored result, or {@code null} if no result is stored
+	 */
+	private synchronized Entry get(long key, long check) {
+		Entry entry = this.entries.get(key);
+		if (entry != null && entry.check == check) {
+			this.hitCount++;
+			return entry;
+		}
+
+		this.missCount++;
+		return null;
+	}
+
+	/**
+	 * Stores a result and removes the least recently used results until the
+	 * estimated memory usage is within the limit.
+	 *
+	 * @param key
+	 *            the first hash value of the key
+	 * @param entry
+	 *            the result of the simulation
+	 */
+	private synchronized void put(long key, Entry entry) {
+		if (entry.size > this.memoryLimit) {
+			return;
+		}
+
+		Entry previous = this.entries.put(key, entry);
+		if (previous != null) {
+			this.memoryUsage -= previous.size;
+		}
+		this.memoryUsage += entry.size;
+
+		Iterator<Map.Entry<Long, Entry>> iterator = this.entries.entrySet().iterator();
+		while (this.memoryUsage > this.memoryLimit && iterator.hasNext()) {
+			this.memoryUsage -= iterator.next().getValue().size;
+			iterator.remove();
+			this.evictionCount++;
+		}
+	}
+
+	/**
+	 * Removes all stored results.<br>
+	 * The counters are not reset.
+	 */
+	public synchronized void clear() {
+		this.entries.clear();
+		this.memoryUsage = 0;
+	}
+
+	/**
+	 * Returns the number of the simulations answered by a stored result.
+	 *
+	 * @return the number of hits
+	 */
+	public synchronized long getHitCount() {
+		return this.hitCount;
+	}
+
+	/**
+	 * Returns the number of the simulations not answered by a stored result.
+	 *
+	 * @return the number of misses
+	 */
+	public synchronized long getMissCount() {
+		return this.missCount;
+	}
+
+	/**
+	 * Returns the number of the results removed to keep the memory limit.
+	 *
+	 * @return the number of evictions
+	 */
+	public synchronized long getEvictionCount() {
+		return this.evictionCount;
+	}
+
+	/**
+	 * Returns the number of the stored results.
+	 *
+	 * @return the number of the stored results
+	 */
+	public synchronized int size() {
+		return this.entries.size();
+	}
+
+	/**
+	 * Returns the estimated number of bytes currently used by this cache.
+	 *
+	 * @return the estimated memory usage in bytes
+	 */
+	public synchronized long getMemoryUsage() {
+		return this.memoryUsage;
+	}
+
+	/**
+	 * Returns the maximum estimated number of bytes used by this cache.
+	 *
+	 * @return the memory limit in bytes
+	 */
+	public long getMemoryLimit() {
+		return this.memoryLimit;
+	}
+
+	/**
+	 * A stored result with the second hash value of its key and the frame of
+	 * its root.
+	 */
+	private static class Entry {
+
+		/**
+		 * The second hash value of the key.
+		 */
+		private final long check;
+
+		/**
+		 * The frame number of the root frame data.
+		 */
+		private final int rootFrame;
+
+		/**
+		 * The frame numbers of the last hits of P1 and P2 in the root frame
+		 * data.
+		 */
+		private final int[] rootLastHitFrames;
+
+		/**
+		 * The result of the simulation.
+		 */
+		private final FrameData frameData;
+
+		/**
+		 * The estimated number of bytes used by this entry.
+		 */
+		private final int size;
+
+		/**
+		 * The class constructor.
+		 *
+		 * @param check
+		 *            the second hash value of the key
+		 * @param root
+		 *            frame data at the start of the simulation
+		 * @param frameData
+		 *            the result of the simulation
+		 * @param size
+		 *            the estimated number of bytes used by this entry
+		 */
+		Entry(long check, FrameData root, FrameData frameData, int size) {
+			this.check = check;
+			this.rootFrame = root.getFramesNumber();
+			this.rootLastHitFrames = new int[2];
+			for (int i = 0; i < 2; i++) {
+				CharacterData character = root.getCharacterView(i == 0);
+				this.rootLastHitFrames[i] = character == null ? 0 : character.getLastHitFrame();
+			}
+			this.frameData = frameData;
+			this.size = size;
+		}
+	}
+}
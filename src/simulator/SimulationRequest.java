@@ -0,0 +1,73 @@
+package simulator;
+
+import java.util.Deque;
+
+import enumerate.Action;
+
+/**
+ * One line of play to be simulated by
+ * {@link Simulator#simulateBatch(struct.FrameData, boolean, java.util.List)}.<br>
+ * A request holds the actions of the player, the actions of the opponent and
+ * the number of frames to be simulated. The action lists are not copied, so
+ * they must not be modified until the batch finishes.
+ */
+public class SimulationRequest {
+
+	/**
+	 * The actions to be performed by the player.
+	 */
+	private Deque<Action> myActions;
+
+	/**
+	 * The actions to be performed by the opponent.
+	 */
+	private Deque<Action> oppActions;
+
+	/**
+	 * The number of frames to be simulated.
+	 */
+	private int simulationLimit;
+
+	/**
+	 * The class constructor.
+	 *
+	 * @param myActions
+	 *            actions to be performed by the player, or {@code null}
+	 * @param oppActions
+	 *            actions to be performed by the opponent, or {@code null}
+	 * @param simulationLimit
+	 *            the number of frames to be simulated
+	 */
+	public SimulationRequest(Deque<Action> myActions, Deque<Action> oppActions, int simulationLimit) {
+		this.myActions = myActions;
+		this.oppActions = oppActions;
+		this.simulationLimit = simulationLimit;
+	}
+
+	/**
+	 * Returns the actions to be performed by the player.
+	 *
+	 * @return the actions to be performed by the player, or {@code null}
+	 */
+	public Deque<Action> getMyActions() {
+		return this.myActions;
+	}
+
+	/**
+	 * Returns the actions to be performed by the opponent.
+	 *
+	 * @return the actions to be performed by the opponent, or {@code null}
+	 */
+	public Deque<Action> getOppActions() {
+		return this.oppActions;
+	}
+
+	/**
+	 * Returns the number of frames to be simulated.
+	 *
+	 * @return the number of frames to be simulated
+	 */
+	public int getSimulationLimit() {
+		return this.simulationLimit;
+	}
+}
@@ -0,0 +1,417 @@
+package simulator;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+
+import enumerate.Action;
+import fighting.FightingSnapshot;
+import fighting.Motion;
+import struct.FrameData;
+import struct.GameData;
+
+/**
+ * A reusable handle of the simulator.<br>
+ * A session keeps one {@link SimFighting} instance, the characters in it and
+ * the buffers for the actions, and resets them in place at the start of each
+ * simulation. The motions of both characters are shared with all other
+ * sessions of the same {@link GameData}. Hence, repeated simulations with a
+ * session create almost no garbage except the resulting {@link FrameData}.<br>
+ * Besides the one-shot {@link #simulate(FrameData, boolean, Deque, Deque, int)},
+ * a session can be advanced incrementally: {@link #start(FrameData)} sets the
+ * root state, {@link #enqueue(boolean, Action)} adds actions,
+ * {@link #step(int)} advances the fight, {@link #peek()} returns the current
+ * state and {@link #fork()} copies the session so that another line can be
+ * explored from the current state without simulating it again from the
+ * root.<br>
+ * A session is not thread-safe. An AI which simulates on several threads
+ * should create one session per thread by {@link Simulator#newSession()}.
+ *
+ * @see Simulator
+ */
+public class SimulationSession {
+
+	/**
+	 * The variable that holds invariant information in the game.
+	 */
+	private GameData gameData;
+
+	/**
+	 * The pooled instance that processes the fight in the simulation.
+	 */
+	private SimFighting simFighting;
+
+	/**
+	 * The list of the shared motions of both characters.<br>
+	 * Index 0 is P1, index 1 is P2.
+	 */
+	private ArrayList<ArrayList<Motion>> motionList;
+
+	/**
+	 * The list of the actions of both characters passed to
+	 * {@link SimFighting}.<br>
+	 * Index 0 is P1, index 1 is P2. An element is {@code null} if no actions
+	 * are given for the character.
+	 */
+	private ArrayList<Deque<Action>> actionList;
+
+	/**
+	 * The reusable buffers holding copies of the actions of both
+	 * characters.<br>
+	 * Index 0 is P1, index 1 is P2.
+	 */
+	private ArrayList<Deque<Action>> actionBuffers;
+
+	/**
+	 * The frame data at the start of the current simulation.
+	 */
+	private FrameData rootFrameData;
+
+	/**
+	 * The player side's flag passed to {@link SimFighting} at the start of the
+	 * current simulation.
+	 */
+	private boolean playerNumber;
+
+	/**
+	 * The number of the frame to be processed next.
+	 */
+	private int nowFrame;
+
+	/**
+	 * The reusable snapshot used by {@link #fork()}.<br>
+	 * It is created when {@link #fork()} is called for the first time.
+	 */
+	private FightingSnapshot forkSnapshot;
+
+	/**
+	 * The reusable snapshot of the state saved by {@link #mark()}.<br>
+	 * It is created when {@link #mark()} is called for the first time.
+	 */
+	private FightingSnapshot markSnapshot;
+
+	/**
+	 * The number of the frame to be processed next when {@link #mark()} was
+	 * called.
+	 */
+	private int markFrame;
+
+	/**
+	 * The class constructor that creates a session by using an instance of the
+	 * GameData class.<br>
+	 * Use {@link Simulator#newSession()} instead of calling this constructor
+	 * directly.
+	 *
+	 * @param gameData
+	 *            an instance of the GameData class
+	 */
+	SimulationSession(GameData gameData) {
+		this.gameData = gameData;
+		this.simFighting = new SimFighting(gameData.getGameContext());
+
+		this.motionList = new ArrayList<ArrayList<Motion>>(2);
+		this.actionList = new ArrayList<Deque<Action>>(2);
+		this.actionBuffers = new ArrayList<Deque<Action>>(2);
+		for (int i = 0; i < 2; i++) {
+			this.motionList.add(gameData.getSimulatorMotion(i == 0));
+			this.actionList.add(null);
+			this.actionBuffers.add(new ArrayDeque<Action>());
+		}
+	}
+
+	/**
+	 * Simulates the progression of a fight starting from a given
+	 * {@link FrameData} instance and executing specified actions for both
+	 * players, reusing the instances held by this session.<br>
+	 * The result is the same as that of
+	 * {@link Simulator#simulate(FrameData, boolean, Deque, Deque, int)}.
+	 *
+	 * @param frameData
+	 *            frame data at the start of simulation
+	 * @param playerNumber
+	 *            boolean value which identifies P1/P2. {@code true} if the
+	 *            player is P1, or {@code false} if P2.
+	 * @param myAct
+	 *            actions to be performed by the player identified by the
+	 *            parameter `player`
+	 * @param oppAct
+	 *            actions to be performed by the opponent of the player
+	 *            identified by the parameter `player`
+	 * @param simulationLimit
+	 *            the number of frames to be simulated
+	 *
+	 * @return the frame data after the simulation
+	 * @see Simulator#simulate(FrameData, boolean, Deque, Deque, int)
+	 */
+	public FrameData simulate(FrameData frameData, boolean playerNumber, Deque<Action> myAct, Deque<Action> oppAct,
+			int simulationLimit) {
+		// Copies each action's list into the reusable buffers
+		setActions(0, playerNumber ? myAct : oppAct);
+		setActions(1, playerNumber ? oppAct : myAct);
+
+		initialize(frameData, playerNumber);
+		step(simulationLimit);
+
+		return peek();
+	}
+
+	/**
+	 * Starts a new incremental simulation from a given {@link FrameData}
+	 * instance.<br>
+	 * Both players start with no actions. Add actions by
+	 * {@link #enqueue(boolean, Action)} and advance the fight by
+	 * {@link #step(int)}.
+	 *
+	 * @param frameData
+	 *            frame data at the start of simulation
+	 */
+	public void start(FrameData frameData) {
+		for (int i = 0; i < 2; i++) {
+			clearActions(i, true);
+		}
+		initialize(frameData, true);
+	}
+
+	/**
+	 * Adds an action to the end of the actions of the specified player.<br>
+	 * The action is performed after all actions added before have been
+	 * performed.
+	 *
+	 * @param playerNumber
+	 *            the player side's flag. {@code true} if the player is P1, or
+	 *            {@code false} if P2.
+	 * @param action
+	 *            the action to be performed by the player
+	 */
+	public void enqueue(boolean playerNumber, Action action) {
+		int index = playerNumber ? 0 : 1;
+		if (this.actionList.get(index) == null) {
+			clearActions(index, true);
+			this.simFighting.setInputActions(playerNumber, this.actionList.get(index));
+		}
+		this.actionList.get(index).addLast(action);
+	}
+
+	/**
+	 * Advances the current simulation by the specified number of frames.
+	 *
+	 * @param frames
+	 *            the number of frames to be simulated
+	 */
+	public void step(int frames) {
+		int endFrame = this.nowFrame + frames;
+		while (this.nowFrame < endFrame) {
+			this.nowFrame += this.simFighting.processingFight(this.nowFrame, endFrame - this.nowFrame);
+		}
+	}
+
+	/**
+	 * Returns the frame data of the current state of the simulation.<br>
+	 * The session is not changed by this method.
+	 *
+	 * @return the frame data of the current state
+	 */
+	public FrameData peek() {
+		return this.simFighting.createFrameData(this.nowFrame, this.rootFrameData.getRound());
+	}
+
+	/**
+	 * Creates a new session whose state is a copy of the current state of this
+	 * session, including the actions not yet performed.<br>
+	 * The two sessions do not affect each other afterwards, so the new session
+	 * can explore another line of play from the current state.
+	 *
+	 * @return a new session in the same state as this session
+	 */
+	public SimulationSession fork() {
+		if (this.forkSnapshot == null) {
+			this.forkSnapshot = this.simFighting.snapshot();
+		} else {
+			this.simFighting.snapshot(this.forkSnapshot);
+		}
+
+		SimulationSession session = new SimulationSession(this.gameData);
+		session.setFastForward(this.simFighting.isFastForward());
+		for (int i = 0; i < 2; i++) {
+			session.clearActions(i, this.actionList.get(i) != null);
+		}
+		session.initialize(this.rootFrameData, this.playerNumber);
+		session.simFighting.restore(this.forkSnapshot);
+		session.nowFrame = this.nowFrame;
+
+		return session;
+	}
+
+	/**
+	 * Saves the current state of this session, including the actions not yet
+	 * performed, so that it can be restored by {@link #reset()}.<br>
+	 * Restoring the saved state is cheaper than decoding the root frame data
+	 * again by {@link #start(FrameData)}.
+	 */
+	void mark() {
+		if (this.markSnapshot == null) {
+			this.markSnapshot = this.simFighting.snapshot();
+		} else {
+			this.simFighting.snapshot(this.markSnapshot);
+		}
+		this.markFrame = this.nowFrame;
+	}
+
+	/**
+	 * Restores the state saved by the last call of {@link #mark()}.<br>
+	 * The saved state is kept, so it can be restored any number of times.
+	 */
+	void reset() {
+		this.simFighting.restore(this.markSnapshot);
+		this.nowFrame = this.markFrame;
+	}
+
+	/**
+	 * Advances the current simulation by the specified number of frames, or
+	 * until the HP and the energy of both characters can no longer change.
+	 *
+	 * @param frames
+	 *            the maximum number of frames to be simulated
+	 * @return {@code true} if the simulation stopped before the specified
+	 *         number of frames, {@code false} otherwise
+	 */
+	boolean stepUntilSettled(int frames) {
+		// Frames advanced at once never change whether the simulation is
+		// settled, so checking it between the steps is enough
+		int endFrame = this.nowFrame + frames;
+		while (this.nowFrame < endFrame) {
+			if (this.simFighting.isSettled()) {
+				return true;
+			}
+			this.nowFrame += this.simFighting.processingFight(this.nowFrame, endFrame - this.nowFrame);
+		}
+		return false;
+	}
+
+	/**
+	 * Returns whether the HP and the energy of both characters can no longer
+	 * change in the current simulation.
+	 *
+	 * @return {@code true} if the HP and the energy can no longer change,
+	 *         {@code false} otherwise
+	 */
+	boolean isSettled() {
+		return this.simFighting.isSettled();
+	}
+
+	/**
+	 * Returns the current HP of the specified character in the simulation.
+	 *
+	 * @param playerNumber
+	 *            the player side's flag. {@code true} if the player is P1, or
+	 *            {@code false} if P2.
+	 * @return the current HP of the character
+	 */
+	int getHp(boolean playerNumber) {
+		return this.simFighting.getCharacters()[playerNumber ? 0 : 1].getHp();
+	}
+
+	/**
+	 * Returns the current energy of the specified character in the simulation.
+	 *
+	 * @param playerNumber
+	 *            the player side's flag. {@code true} if the player is P1, or
+	 *            {@code false} if P2.
+	 * @return the current energy of the character
+	 */
+	int getEnergy(boolean playerNumber) {
+		return this.simFighting.getCharacters()[playerNumber ? 0 : 1].getEnergy();
+	}
+
+	/**
+	 * Sets whether this session advances the frames in which nothing can
+	 * happen by a reduced process.<br>
+	 * While neither character can act, has a pending key or has an attack,
+	 * the session finds the next frame in which an action can change, an
+	 * attack can start, a character can land, touch the top or either end of
+	 * the stage, or reach the opponent, or a projectile can reach its target
+	 * or vanish. The frames before it are advanced at once by computing the
+	 * positions, the speeds under gravity and friction and the remaining
+	 * frames in closed form. Near such an event, the frames are processed one
+	 * by one, skipping only the command interpretation and the hit detection
+	 * when no projectile exists. The result is exactly the same as the normal
+	 * process. It is enabled by default; this method is mainly for checking
+	 * the equivalence.
+	 *
+	 * @param fastForward
+	 *            {@code true} to use the reduced process, {@code false} to
+	 *            process every frame normally
+	 */
+	public void setFastForward(boolean fastForward) {
+		this.simFighting.setFastForward(fastForward);
+	}
+
+	/**
+	 * Returns the number of the frame to be processed next.
+	 *
+	 * @return the number of the frame to be processed next
+	 */
+	public int getFramesNumber() {
+		return this.nowFrame;
+	}
+
+	/**
+	 * Initializes the pooled {@link SimFighting} with the current action
+	 * lists.
+	 *
+	 * @param frameData
+	 *            frame data at the start of simulation
+	 * @param playerNumber
+	 *            boolean value which identifies P1/P2
+	 */
+	private void initialize(FrameData frameData, boolean playerNumber) {
+		this.rootFrameData = frameData;
+		this.playerNumber = playerNumber;
+		this.nowFrame = frameData.getFramesNumber();
+		this.simFighting.initialize(this.motionList, this.actionList, frameData, playerNumber);
+	}
+
+	/**
+	 * Empties the actions of the specified character.
+	 *
+	 * @param index
+	 *            the index of the character. 0 is P1, 1 is P2.
+	 * @param enabled
+	 *            {@code true} if the character is given an empty buffer of
+	 *            actions, or {@code false} if the character is given no
+	 *            actions ({@code null})
+	 */
+	private void clearActions(int index, boolean enabled) {
+		Deque<Action> buffer = this.actionBuffers.get(index);
+		buffer.clear();
+		this.actionList.set(index, enabled ? buffer : null);
+	}
+
+	/**
+	 * Copies the given actions into the buffer of the specified character.
+	 *
+	 * @param index
+	 *            the index of the character. 0 is P1, 1 is P2.
+	 * @param actions
+	 *            the actions to be performed by the character, or {@code null}
+	 */
+	private void setActions(int index, Deque<Action> actions) {
+		if (actions == null) {
+			this.actionList.set(index, null);
+		} else {
+			Deque<Action> buffer = this.actionBuffers.get(index);
+			buffer.clear();
+			buffer.addAll(actions);
+			this.actionList.set(index, buffer);
+		}
+	}
+
+	/**
+	 * Returns the game data used by this session.
+	 *
+	 * @return the game data used by this session
+	 */
+	public GameData getGameData() {
+		return this.gameData;
+	}
+}
@@ -1,11 +1,15 @@
 package simulator;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Deque;
-import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 import enumerate.Action;
 import fighting.Motion;
+import struct.ActionFrameData;
 import struct.FrameData;
 import struct.GameData;
 
@@ -14,11 +18,40 @@ import struct.GameData;
  */
 public class Simulator {
 
+	/**
+	 * The maximum number of requests simulated by one task of
+	 * {@link #simulateBatch(FrameData, boolean, List)} without splitting it.
+	 */
+	private static final int BATCH_THRESHOLD = 4;
+
+	/**
+	 * The maximum number of pairs simulated by one task of
+	 * {@link #simulateMatrix(FrameData, boolean, List, List, int)} without
+	 * splitting it.<br>
+	 * Each task decodes the root frame data once, so a task holds more pairs
+	 * than a task of a batch.
+	 */
+	private static final int MATRIX_THRESHOLD = 16;
+
+	/**
+	 * The pool running the simulations of
+	 * {@link #simulateBatch(FrameData, boolean, List)}, shared by all
+	 * simulators.
+	 */
+	private static ForkJoinPool pool = ForkJoinPool.commonPool();
+
 	/**
 	 * The variable that holds invariant information in the game.
 	 */
 	private GameData gameData;
 
+	/**
+	 * The sessions used by {@link #simulate(FrameData, boolean, Deque, Deque, int)}.<br>
+	 * One session is created for each thread that calls the method, so the
+	 * method can be called by several threads at the same time.
+	 */
+	private ThreadLocal<SimulationSession> sessions;
+
 	/**
 	 * The class constructor that creates an instance of the Simulator class by
 	 * using an instance of the GameData class.
@@ -28,6 +61,7 @@ public class Simulator {
 	 */
 	public Simulator(GameData gameData) {
 		this.gameData = gameData;
+		this.sessions = ThreadLocal.withInitial(this::newSession);
 	}
 
 	/**
@@ -69,33 +103,467 @@ public class Simulator {
 	 */
 	public FrameData simulate(FrameData frameData, boolean playerNumber, Deque<Action> myAct, Deque<Action> oppAct,
 			int simulationLimit) {
+		return this.sessions.get().simulate(frameData, playerNumber, myAct, oppAct, simulationLimit);
+	}
 
-		// Creates deep copy of each action's list
-		ArrayList<Deque<Action>> tempActionList = new ArrayList<Deque<Action>>(2);
-		Deque<Action> tempP1Act = ((playerNumber ? myAct : oppAct) == null) ? null
-				: new LinkedList<Action>(playerNumber ? myAct : oppAct);
-		Deque<Action> tempP2Act = ((!playerNumber ? myAct : oppAct) == null) ? null
-				: new LinkedList<Action>(!playerNumber ? myAct : oppAct);
-		tempActionList.add(tempP1Act);
-		tempActionList.add(tempP2Act);
-
-		ArrayList<ArrayList<Motion>> tempMotionList = new ArrayList<ArrayList<Motion>>(2);
-		ArrayList<Motion> p1MotionData = this.gameData.getMotion(playerNumber ? true : false);
-		ArrayList<Motion> p2MotionData = this.gameData.getMotion(!playerNumber ? true : false);
-		tempMotionList.add(p1MotionData);
-		tempMotionList.add(p2MotionData);
-
-		int nowFrame = frameData.getFramesNumber();
-
-		SimFighting simFighting = new SimFighting();
-		simFighting.initialize(tempMotionList, tempActionList, new FrameData(frameData), playerNumber);
-
-		for (int i = 0; i < simulationLimit; i++) {
-			simFighting.processingFight(nowFrame);
-			nowFrame++;
+	/**
+	 * Simulates the progression of a fight in the same way as
+	 * {@link #simulate(FrameData, boolean, Deque, Deque, int)}, returning the
+	 * stored result if the same simulation is in the given cache.<br>
+	 * The result is stored in the cache after a simulation. A stored result is
+	 * returned as the same instance each time, so it must not be changed.
+	 *
+	 * @param frameData
+	 *            frame data at the start of simulation
+	 * @param playerNumber
+	 *            boolean value which identifies P1/P2. {@code true} if the
+	 *            player is P1, or {@code false} if P2.
+	 * @param myAct
+	 *            actions to be performed by the player identified by the
+	 *            parameter `player`
+	 * @param oppAct
+	 *            actions to be performed by the opponent of the player
+	 *            identified by the parameter `player`
+	 * @param simulationLimit
+	 *            the number of frames to be simulated
+	 * @param cache
+	 *            the cache owned by the calling AI, or {@code null} to simulate
+	 *            without a cache
+	 *
+	 * @return the frame data after the simulation
+	 * @see SimulationCache
+	 */
+	public FrameData simulate(FrameData frameData, boolean playerNumber, Deque<Action> myAct, Deque<Action> oppAct,
+			int simulationLimit, SimulationCache cache) {
+		if (cache == null) {
+			return simulate(frameData, playerNumber, myAct, oppAct, simulationLimit);
 		}
+		return cache.simulate(this.sessions.get(), frameData, playerNumber, myAct, oppAct, simulationLimit);
+	}
+
+	/**
+	 * Simulates several lines of play starting from the same
+	 * {@link FrameData} instance in parallel.<br>
+	 * The requests are split into tasks and run on a fork-join pool. Each
+	 * worker thread reuses its own {@link SimulationSession}, so a batch
+	 * creates almost no garbage except the resulting frame data. The root
+	 * frame data is only read and may be shared by all workers.<br>
+	 * The result of each request is the same as that of
+	 * {@link #simulate(FrameData, boolean, Deque, Deque, int)} called with the
+	 * same arguments.
+	 *
+	 * @param frameData
+	 *            frame data at the start of all simulations
+	 * @param playerNumber
+	 *            boolean value which identifies P1/P2. {@code true} if the
+	 *            player is P1, or {@code false} if P2.
+	 * @param requests
+	 *            the lines of play to be simulated
+	 *
+	 * @return the frame data after each simulation, in the same order as the
+	 *         requests
+	 * @see SimulationRequest
+	 */
+	public List<FrameData> simulateBatch(FrameData frameData, boolean playerNumber, List<SimulationRequest> requests) {
+		return simulateBatch(frameData, playerNumber, requests, null);
+	}
+
+	/**
+	 * Simulates several lines of play starting from the same
+	 * {@link FrameData} instance in parallel in the same way as
+	 * {@link #simulateBatch(FrameData, boolean, List)}, using the given cache
+	 * for each request.
+	 *
+	 * @param frameData
+	 *            frame data at the start of all simulations
+	 * @param playerNumber
+	 *            boolean value which identifies P1/P2. {@code true} if the
+	 *            player is P1, or {@code false} if P2.
+	 * @param requests
+	 *            the lines of play to be simulated
+	 * @param cache
+	 *            the cache owned by the calling AI, or {@code null} to simulate
+	 *            without a cache
+	 *
+	 * @return the frame data after each simulation, in the same order as the
+	 *         requests
+	 * @see SimulationCache
+	 */
+	public List<FrameData> simulateBatch(FrameData frameData, boolean playerNumber, List<SimulationRequest> requests,
+			SimulationCache cache) {
+		SimulationRequest[] requestArray = requests.toArray(new SimulationRequest[requests.size()]);
+		FrameData[] results = new FrameData[requestArray.length];
+
+		// Runs small batches, or all batches on a single-threaded pool, on the calling thread
+		if (requestArray.length <= BATCH_THRESHOLD || pool.getParallelism() <= 1) {
+			new BatchTask(frameData, playerNumber, requestArray, results, cache, 0, requestArray.length).compute();
+		} else {
+			pool.invoke(new BatchTask(frameData, playerNumber, requestArray, results, cache, 0, requestArray.length));
+		}
+
+		return new ArrayList<FrameData>(Arrays.asList(results));
+	}
+
+	/**
+	 * Simulates every pair of an action of the player and an action of the
+	 * opponent starting from the same {@link FrameData} instance, and returns
+	 * the changes of the HP and the energy of both characters for each
+	 * pair.<br>
+	 * The result of a pair is the same as that of
+	 * {@link #simulate(FrameData, boolean, Deque, Deque, int)} called with the
+	 * two actions as one-element lists, but the pairs are computed much faster
+	 * than by separate calls:
+	 * <ul>
+	 * <li>The pairs are split into tasks and run on the same fork-join pool as
+	 * {@link #simulateBatch(FrameData, boolean, List)}.</li>
+	 * <li>Each task decodes the root frame data once and restores the decoded
+	 * state for each of its pairs.</li>
+	 * <li>No frame data is created for a pair. Only the HP and the energy are
+	 * read at the end.</li>
+	 * <li>The simulation of a pair stops as soon as no projectile, attack,
+	 * pending action or pending key remains, because the HP and the energy can
+	 * no longer change after that.</li>
+	 * <li>A pair is not simulated at all if nothing can change the HP and the
+	 * energy at the root and neither action has an attack, unless the
+	 * character has an action without an attack which changes the energy.</li>
+	 * </ul>
+	 *
+	 * @param frameData
+	 *            frame data at the start of all simulations
+	 * @param playerNumber
+	 *            boolean value which identifies P1/P2. {@code true} if the
+	 *            player is P1, or {@code false} if P2.
+	 * @param myActions
+	 *            the actions of the player, one for each row of the matrix
+	 * @param oppActions
+	 *            the actions of the opponent, one for each column of the
+	 *            matrix
+	 * @param simulationLimit
+	 *            the number of frames to be simulated for each pair
+	 *
+	 * @return the changes of the HP and the energy for each pair
+	 * @see ActionMatrix
+	 */
+	public ActionMatrix simulateMatrix(FrameData frameData, boolean playerNumber, List<Action> myActions,
+			List<Action> oppActions, int simulationLimit) {
+		ActionMatrix matrix = new ActionMatrix(myActions.toArray(new Action[myActions.size()]),
+				oppActions.toArray(new Action[oppActions.size()]));
+		int size = matrix.getRowCount() * matrix.getColumnCount();
 
-		return simFighting.createFrameData(nowFrame, frameData.getRound());
+		SimulationSession session = this.sessions.get();
+		session.start(frameData);
+		boolean rootSettled = session.isSettled();
+
+		MatrixTask task = new MatrixTask(frameData, playerNumber, matrix, simulationLimit,
+				inertActions(playerNumber, myActions), inertActions(!playerNumber, oppActions), rootSettled, 0,
+				size);
+		// Runs small matrices, or all matrices on a single-threaded pool, on the calling thread
+		if (size <= MATRIX_THRESHOLD || pool.getParallelism() <= 1) {
+			task.compute();
+		} else {
+			pool.invoke(task);
+		}
+
+		return matrix;
+	}
+
+	/**
+	 * Returns for each action whether it can change neither the HP nor the
+	 * energy.<br>
+	 * An action without an attack is performed by keys without a button, which
+	 * may be interpreted as another action without an attack depending on the
+	 * state of the character. Hence, such an action is regarded as unable to
+	 * change them only if no action without an attack of the character changes
+	 * the energy when it starts.
+	 *
+	 * @param playerNumber
+	 *            the player side's flag of the character performing the
+	 *            actions
+	 * @param actions
+	 *            the actions
+	 * @return the flags of the actions in the same order
+	 * @see ActionFrameData
+	 */
+	private boolean[] inertActions(boolean playerNumber, List<Action> actions) {
+		boolean[] inert = new boolean[actions.size()];
+
+		ArrayList<Motion> motions = this.gameData.getSimulatorMotion(playerNumber);
+		for (int i = 0; i < motions.size(); i++) {
+			if (!this.gameData.getActionFrameData(playerNumber, Action.values()[i]).isAttack()
+					&& motions.get(i).getAttackStartAddEnergy() != 0) {
+				return inert;
+			}
+		}
+
+		for (int i = 0; i < inert.length; i++) {
+			inert[i] = !this.gameData.getActionFrameData(playerNumber, actions.get(i)).isAttack();
+		}
+		return inert;
+	}
+
+	/**
+	 * Sets the pool running the simulations of
+	 * {@link #simulateBatch(FrameData, boolean, List)}.<br>
+	 * The common pool is used by default.
+	 *
+	 * @param forkJoinPool
+	 *            the pool running the simulations
+	 */
+	public static void setForkJoinPool(ForkJoinPool forkJoinPool) {
+		pool = forkJoinPool;
+	}
+
+	/**
+	 * Creates a new reusable handle of the simulator.<br>
+	 * A session resets its pooled instances in place at the start of each
+	 * simulation and shares the motions of both characters, so repeated
+	 * simulations create almost no garbage. A session must be used by only one
+	 * thread at a time.
+	 *
+	 * @return a new session of the simulator
+	 * @see SimulationSession
+	 */
+	public SimulationSession newSession() {
+		return new SimulationSession(this.gameData);
+	}
+
+	/**
+	 * The task that simulates a range of the requests of a batch.<br>
+	 * A task larger than {@link Simulator#BATCH_THRESHOLD} is split into two
+	 * halves.
+	 */
+	private class BatchTask extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		/**
+		 * Frame data at the start of all simulations.
+		 */
+		private final FrameData frameData;
+
+		/**
+		 * The player side's flag of the requests.
+		 */
+		private final boolean playerNumber;
+
+		/**
+		 * All requests of the batch.
+		 */
+		private final SimulationRequest[] requests;
+
+		/**
+		 * The array storing the results of all requests of the batch.
+		 */
+		private final FrameData[] results;
+
+		/**
+		 * The cache used for the requests, or {@code null}.
+		 */
+		private final SimulationCache cache;
+
+		/**
+		 * The first index of the range simulated by this task.
+		 */
+		private final int from;
+
+		/**
+		 * The index after the last of the range simulated by this task.
+		 */
+		private final int to;
+
+		/**
+		 * The class constructor.
+		 *
+		 * @param frameData
+		 *            frame data at the start of all simulations
+		 * @param playerNumber
+		 *            the player side's flag of the requests
+		 * @param requests
+		 *            all requests of the batch
+		 * @param results
+		 *            the array storing the results of all requests
+		 * @param cache
+		 *            the cache used for the requests, or {@code null}
+		 * @param from
+		 *            the first index of the range simulated by this task
+		 * @param to
+		 *            the index after the last of the range simulated by this
+		 *            task
+		 */
+		BatchTask(FrameData frameData, boolean playerNumber, SimulationRequest[] requests, FrameData[] results,
+				SimulationCache cache, int from, int to) {
+			this.frameData = frameData;
+			this.playerNumber = playerNumber;
+			this.requests = requests;
+			this.results = results;
+			this.cache = cache;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if (this.to - this.from > BATCH_THRESHOLD) {
+				int middle = (this.from + this.to) >>> 1;
+				invokeAll(
+						new BatchTask(this.frameData, this.playerNumber, this.requests, this.results, this.cache,
+								this.from, middle),
+						new BatchTask(this.frameData, this.playerNumber, this.requests, this.results, this.cache,
+								middle, this.to));
+				return;
+			}
+
+			SimulationSession session = sessions.get();
+			for (int i = this.from; i < this.to; i++) {
+				SimulationRequest request = this.requests[i];
+				if (this.cache == null) {
+					this.results[i] = session.simulate(this.frameData, this.playerNumber, request.getMyActions(),
+							request.getOppActions(), request.getSimulationLimit());
+				} else {
+					this.results[i] = this.cache.simulate(session, this.frameData, this.playerNumber,
+							request.getMyActions(), request.getOppActions(), request.getSimulationLimit());
+				}
+			}
+		}
+	}
+
+	/**
+	 * The task that simulates a range of the pairs of an action matrix.<br>
+	 * A task larger than {@link Simulator#MATRIX_THRESHOLD} is split into two
+	 * halves.
+	 */
+	private class MatrixTask extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		/**
+		 * Frame data at the start of all simulations.
+		 */
+		private final FrameData frameData;
+
+		/**
+		 * The player side's flag of the rows.
+		 */
+		private final boolean playerNumber;
+
+		/**
+		 * The matrix storing the results of all pairs.
+		 */
+		private final ActionMatrix matrix;
+
+		/**
+		 * The number of frames to be simulated for each pair.
+		 */
+		private final int simulationLimit;
+
+		/**
+		 * The flags whether each action of the player can change neither the
+		 * HP nor the energy.
+		 */
+		private final boolean[] myInert;
+
+		/**
+		 * The flags whether each action of the opponent can change neither the
+		 * HP nor the energy.
+		 */
+		private final boolean[] oppInert;
+
+		/**
+		 * The flag whether nothing can change the HP and the energy at the root.
+		 */
+		private final boolean rootSettled;
+
+		/**
+		 * The first index of the range simulated by this task.
+		 */
+		private final int from;
+
+		/**
+		 * The index after the last of the range simulated by this task.
+		 */
+		private final int to;
+
+		/**
+		 * The class constructor.
+		 *
+		 * @param frameData
+		 *            frame data at the start of all simulations
+		 * @param playerNumber
+		 *            the player side's flag of the rows
+		 * @param matrix
+		 *            the matrix storing the results of all pairs
+		 * @param simulationLimit
+		 *            the number of frames to be simulated for each pair
+		 * @param myInert
+		 *            the flags of the player's actions which can change
+		 *            neither the HP nor the energy
+		 * @param oppInert
+		 *            the flags of the opponent's actions which can change
+		 *            neither the HP nor the energy
+		 * @param rootSettled
+		 *            the flag whether nothing can change the HP and the energy
+		 *            at the root
+		 * @param from
+		 *            the first index of the range simulated by this task
+		 * @param to
+		 *            the index after the last of the range simulated by this
+		 *            task
+		 */
+		MatrixTask(FrameData frameData, boolean playerNumber, ActionMatrix matrix, int simulationLimit,
+				boolean[] myInert, boolean[] oppInert, boolean rootSettled, int from, int to) {
+			this.frameData = frameData;
+			this.playerNumber = playerNumber;
+			this.matrix = matrix;
+			this.simulationLimit = simulationLimit;
+			this.myInert = myInert;
+			this.oppInert = oppInert;
+			this.rootSettled = rootSettled;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if (this.to - this.from > MATRIX_THRESHOLD) {
+				int middle = (this.from + this.to) >>> 1;
+				invokeAll(
+						new MatrixTask(this.frameData, this.playerNumber, this.matrix, this.simulationLimit,
+								this.myInert, this.oppInert, this.rootSettled, this.from, middle),
+						new MatrixTask(this.frameData, this.playerNumber, this.matrix, this.simulationLimit,
+								this.myInert, this.oppInert, this.rootSettled, middle, this.to));
+				return;
+			}
+
+			int myHp = this.frameData.getCharacterView(this.playerNumber).getHp();
+			int oppHp = this.frameData.getCharacterView(!this.playerNumber).getHp();
+			int myEnergy = this.frameData.getCharacterView(this.playerNumber).getEnergy();
+			int oppEnergy = this.frameData.getCharacterView(!this.playerNumber).getEnergy();
+			int columns = this.matrix.getColumnCount();
+
+			SimulationSession session = sessions.get();
+			session.start(this.frameData);
+			session.mark();
+
+			for (int i = this.from; i < this.to; i++) {
+				int row = i / columns;
+				int column = i % columns;
+				if (this.rootSettled && this.myInert[row] && this.oppInert[column]) {
+					this.matrix.set(i, 0, 0, 0, 0, 0);
+					continue;
+				}
+
+				session.reset();
+				session.enqueue(this.playerNumber, this.matrix.getMyAction(row));
+				session.enqueue(!this.playerNumber, this.matrix.getOppAction(column));
+
+				int startFrame = session.getFramesNumber();
+				session.stepUntilSettled(this.simulationLimit);
+
+				this.matrix.set(i, session.getHp(this.playerNumber) - myHp, session.getHp(!this.playerNumber) - oppHp,
+						session.getEnergy(this.playerNumber) - myEnergy,
+						session.getEnergy(!this.playerNumber) - oppEnergy, session.getFramesNumber() - startFrame);
+			}
+		}
 	}
 
 }
@@ -0,0 +1,404 @@
+package struct;
+
+import java.util.List;
+
+import enumerate.Action;
+import enumerate.State;
+import fighting.Motion;
+import setting.GameSetting;
+
+/**
+ * The class dealing with the frame data of an action precomputed from the
+ * motions of the characters, such as the startup, the active frames, the hit
+ * boxes of the attack in each frame and the frame advantage.<br>
+ * An instance is created for each action of each character when the game data
+ * is created, so an AI can look up these values without simulating the
+ * action.<br>
+ * The hit boxes are given in the coordinates relative to the character's
+ * graphic at the start of the action, when the character is facing right. For
+ * a character facing left, mirror them with the character's graphic width.
+ * The movement of the character is computed from the speeds of the motion
+ * with friction and gravity, assuming that the character starts the action at
+ * rest and does not land during it.<br>
+ * The frame advantages assume that the attack hits or is guarded by a
+ * standing opponent in its first active frame. A positive value means that the
+ * player recovers earlier than the opponent.
+ *
+ * @see GameData#getActionFrameData(boolean, Action)
+ */
+public class ActionFrameData {
+
+	/**
+	 * The action of this frame data.
+	 */
+	private final Action action;
+
+	/**
+	 * The number of frames in the motion of the action.
+	 */
+	private final int frameNumber;
+
+	/**
+	 * The number of startup frames of the attack.
+	 */
+	private final int startUp;
+
+	/**
+	 * The number of active frames of the attack.
+	 */
+	private final int active;
+
+	/**
+	 * The amount of energy consumed when the action starts.
+	 */
+	private final int energyCost;
+
+	/**
+	 * The damage given to the opponent when the attack hits.
+	 */
+	private final int hitDamage;
+
+	/**
+	 * The damage given to the opponent when the attack is guarded.
+	 */
+	private final int guardDamage;
+
+	/**
+	 * The attack type: 1 = high, 2 = middle, 3 = low, 4 = throw.<br>
+	 * 0 if the action has no attack.
+	 */
+	private final int attackType;
+
+	/**
+	 * The flag whether the attack is a projectile.
+	 */
+	private final boolean projectile;
+
+	/**
+	 * The frame advantage when the attack hits.
+	 */
+	private final int hitAdvantage;
+
+	/**
+	 * The frame advantage when the attack is guarded.
+	 */
+	private final int guardAdvantage;
+
+	/**
+	 * The smallest hit box containing the hit boxes of all active frames.<br>
+	 * The values are stored in the order of left, right, top and bottom.
+	 * {@code null} if the action has no attack.
+	 */
+	private final int[] unionHitArea;
+
+	/**
+	 * The hit boxes of the attack in each active frame.<br>
+	 * The four values of the i-th active frame, in the order of left, right,
+	 * top and bottom, start at the index {@code i * 4}.
+	 */
+	private final int[] hitAreas;
+
+	/**
+	 * The class constructor that precomputes the frame data of an action.
+	 *
+	 * @param action
+	 *            the action
+	 * @param motions
+	 *            the motions of the character, indexed by
+	 *            {@link Action#ordinal()}
+	 * @param opponentMotions
+	 *            the motions of the opponent, indexed by
+	 *            {@link Action#ordinal()}
+	 *
+	 * @see Motion
+	 */
+	public ActionFrameData(Action action, List<Motion> motions, List<Motion> opponentMotions) {
+		Motion motion = motions.get(action.ordinal());
+		HitArea area = motion.getAttackHitArea();
+
+		this.action = action;
+		this.frameNumber = motion.getFrameNumber();
+		this.energyCost = Math.max(0, -motion.getAttackStartAddEnergy());
+
+		if (area.getRight() <= area.getLeft() || motion.getAttackActive() <= 0) {
+			this.startUp = 0;
+			this.active = 0;
+			this.hitDamage = 0;
+			this.guardDamage = 0;
+			this.attackType = 0;
+			this.projectile = false;
+			this.hitAdvantage = 0;
+			this.guardAdvantage = 0;
+			this.unionHitArea = null;
+			this.hitAreas = new int[0];
+			return;
+		}
+
+		this.startUp = motion.getAttackStartUp();
+		this.active = motion.getAttackActive();
+		this.hitDamage = motion.getAttackHitDamage();
+		this.guardDamage = motion.getAttackGuardDamage();
+		this.attackType = motion.getAttackType();
+		this.projectile = (motion.getAttackSpeedX() + motion.getAttackSpeedY()) != 0;
+
+		// The remaining frames of the player when the attack hits in its first active frame
+		int remaining = this.frameNumber - this.startUp;
+		if (this.attackType == 4) {
+			this.hitAdvantage = opponentMotions.get(Action.THROW_SUFFER.ordinal()).getFrameNumber()
+					- motions.get(Action.THROW_HIT.ordinal()).getFrameNumber();
+		} else if (motion.isAttackDownProp()) {
+			this.hitAdvantage = opponentMotions.get(Action.CHANGE_DOWN.ordinal()).getFrameNumber()
+					+ opponentMotions.get(Action.DOWN.ordinal()).getFrameNumber()
+					+ opponentMotions.get(Action.RISE.ordinal()).getFrameNumber() - remaining;
+		} else {
+			this.hitAdvantage = opponentMotions.get(Action.STAND_RECOV.ordinal()).getFrameNumber() - remaining;
+		}
+		this.guardAdvantage = motion.getAttackGiveGuardRecov() - remaining;
+
+		this.hitAreas = new int[this.active * 4];
+		this.unionHitArea = new int[] { Integer.MAX_VALUE, Integer.MIN_VALUE, Integer.MAX_VALUE, Integer.MIN_VALUE };
+
+		boolean ground = motion.getState() != State.AIR;
+		int x = 0;
+		int y = 0;
+		int speedX = motion.getSpeedX();
+		int speedY = ground ? 0 : motion.getSpeedY();
+		int attackX = 0;
+		int attackY = 0;
+
+		for (int frame = 0; frame < this.startUp + this.active; frame++) {
+			if (frame > 0) {
+				x += speedX;
+				y += speedY;
+				if (ground) {
+					speedX -= Integer.signum(speedX) * GameSetting.FRICTION;
+				} else {
+					speedY += GameSetting.GRAVITY;
+				}
+			}
+
+			if (frame == this.startUp) {
+				attackX = x;
+				attackY = y;
+			} else if (frame > this.startUp) {
+				if (this.projectile) {
+					attackX += motion.getAttackSpeedX();
+					attackY += motion.getAttackSpeedY();
+				} else {
+					attackX = x;
+					attackY = y;
+				}
+			}
+
+			if (frame >= this.startUp) {
+				setHitArea(frame - this.startUp, area.getLeft() + attackX, area.getRight() + attackX,
+						area.getTop() + attackY, area.getBottom() + attackY);
+			}
+		}
+	}
+
+	/**
+	 * Stores the hit box of an active frame and extends the union hit box.
+	 *
+	 * @param index
+	 *            the index of the active frame
+	 * @param left
+	 *            the most left x coordinate of the hit box
+	 * @param right
+	 *            the most right x coordinate of the hit box
+	 * @param top
+	 *            the most top y coordinate of the hit box
+	 * @param bottom
+	 *            the most bottom y coordinate of the hit box
+	 */
+	private void setHitArea(int index, int left, int right, int top, int bottom) {
+		this.hitAreas[index * 4] = left;
+		this.hitAreas[index * 4 + 1] = right;
+		this.hitAreas[index * 4 + 2] = top;
+		this.hitAreas[index * 4 + 3] = bottom;
+
+		this.unionHitArea[0] = Math.min(this.unionHitArea[0], left);
+		this.unionHitArea[1] = Math.max(this.unionHitArea[1], right);
+		this.unionHitArea[2] = Math.min(this.unionHitArea[2], top);
+		this.unionHitArea[3] = Math.max(this.unionHitArea[3], bottom);
+	}
+
+	/**
+	 * Returns the action of this frame data.
+	 *
+	 * @return the action of this frame data
+	 */
+	public Action getAction() {
+		return this.action;
+	}
+
+	/**
+	 * Returns the number of frames in the motion of the action.
+	 *
+	 * @return the number of frames in the motion of the action
+	 */
+	public int getFrameNumber() {
+		return this.frameNumber;
+	}
+
+	/**
+	 * Returns whether the action has an attack.
+	 *
+	 * @return {@code true} if the action has an attack, {@code false}
+	 *         otherwise
+	 */
+	public boolean isAttack() {
+		return this.unionHitArea != null;
+	}
+
+	/**
+	 * Returns the number of startup frames of the attack.<br>
+	 * The attack becomes active when this number of frames has passed since
+	 * the start of the action.
+	 *
+	 * @return the number of startup frames, or 0 if the action has no attack
+	 */
+	public int getStartUp() {
+		return this.startUp;
+	}
+
+	/**
+	 * Returns the number of active frames of the attack.
+	 *
+	 * @return the number of active frames, or 0 if the action has no attack
+	 */
+	public int getActive() {
+		return this.active;
+	}
+
+	/**
+	 * Returns the number of frames of the motion after the active frames.
+	 *
+	 * @return the number of recovery frames, or 0 if the action has no attack
+	 *         or the attack stays active after the motion ends
+	 */
+	public int getRecovery() {
+		return isAttack() ? Math.max(0, this.frameNumber - this.startUp - this.active) : 0;
+	}
+
+	/**
+	 * Returns the amount of energy consumed when the action starts.<br>
+	 * The action can not be performed with less energy than this value.
+	 *
+	 * @return the amount of energy consumed
+	 */
+	public int getEnergyCost() {
+		return this.energyCost;
+	}
+
+	/**
+	 * Returns the damage given to the opponent when the attack hits.
+	 *
+	 * @return the damage on hit
+	 */
+	public int getHitDamage() {
+		return this.hitDamage;
+	}
+
+	/**
+	 * Returns the damage given to the opponent when the attack is guarded.
+	 *
+	 * @return the damage on guard
+	 */
+	public int getGuardDamage() {
+		return this.guardDamage;
+	}
+
+	/**
+	 * Returns the attack type.
+	 *
+	 * @return 1 = high, 2 = middle, 3 = low, 4 = throw, or 0 if the action
+	 *         has no attack
+	 */
+	public int getAttackType() {
+		return this.attackType;
+	}
+
+	/**
+	 * Returns whether the attack is a projectile.
+	 *
+	 * @return {@code true} if the attack is a projectile, {@code false}
+	 *         otherwise
+	 */
+	public boolean isProjectile() {
+		return this.projectile;
+	}
+
+	/**
+	 * Returns the frame advantage when the attack hits.
+	 *
+	 * @return the frame advantage on hit, or 0 if the action has no attack
+	 */
+	public int getHitAdvantage() {
+		return this.hitAdvantage;
+	}
+
+	/**
+	 * Returns the frame advantage when the attack is guarded.
+	 *
+	 * @return the frame advantage on guard, or 0 if the action has no attack
+	 */
+	public int getGuardAdvantage() {
+		return this.guardAdvantage;
+	}
+
+	/**
+	 * Returns the horizontal reach of the attack, that is the most right x
+	 * coordinate of the union hit box.
+	 *
+	 * @return the reach of the attack, or 0 if the action has no attack
+	 */
+	public int getReach() {
+		return isAttack() ? this.unionHitArea[1] : 0;
+	}
+
+	/**
+	 * Returns the smallest hit box containing the hit boxes of all active
+	 * frames.
+	 *
+	 * @return a new instance of the union hit box, or {@code null} if the
+	 *         action has no attack
+	 */
+	public HitArea getUnionHitArea() {
+		if (!isAttack()) {
+			return null;
+		}
+
+		return new HitArea(this.unionHitArea[0], this.unionHitArea[1], this.unionHitArea[2], this.unionHitArea[3]);
+	}
+
+	/**
+	 * Returns whether the attack is active in the specified frame.
+	 *
+	 * @param frame
+	 *            the number of frames since the start of the action
+	 * @return {@code true} if the attack is active in the frame, {@code false}
+	 *         otherwise
+	 */
+	public boolean isActive(int frame) {
+		return isAttack() && frame >= this.startUp && frame < this.startUp + this.active;
+	}
+
+	/**
+	 * Returns the hit box of the attack in the specified frame.
+	 *
+	 * @param frame
+	 *            the number of frames since the start of the action
+	 * @return a new instance of the hit box, or {@code null} if the attack is
+	 *         not active in the frame
+	 */
+	public HitArea getHitArea(int frame) {
+		if (!isActive(frame)) {
+			return null;
+		}
+
+		int index = (frame - this.startUp) * 4;
+		return new HitArea(this.hitAreas[index], this.hitAreas[index + 1], this.hitAreas[index + 2],
+				this.hitAreas[index + 3]);
+	}
+}
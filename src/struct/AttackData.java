@@ -1,6 +1,9 @@
 package struct;
 
+import java.util.Arrays;
+
 import fighting.Attack;
+import util.StateHash;
 
 /**
  * The class dealing with data on the attack such as damage amount and required
@@ -13,158 +16,159 @@ public class AttackData {
 	 *
 	 * @see HitArea
 	 */
-	private HitArea settingHitArea;
+	private static final int SETTING_HIT_AREA = 0;
 
 	/**
 	 * The absolute value of the horizontal speed of the attack hit box (zero
 	 * means the attack hit box will track the character).
 	 */
-	private int settingSpeedX;
+	private static final int SETTING_SPEED_X = 4;
 
 	/**
 	 * The absolute value of the vertical speed of the attack hit box (zero
 	 * means the attack hit box will track the character).
 	 */
-	private int settingSpeedY;
+	private static final int SETTING_SPEED_Y = 5;
 
 	/**
 	 * The HitArea's information of this attack hit box in the current frame.
 	 *
 	 * @see HitArea
 	 */
-	private HitArea currentHitArea;
+	private static final int CURRENT_HIT_AREA = 6;
 
 	/**
 	 * The number of frames since this attack was used.
 	 */
-	private int currentFrame;
+	private static final int CURRENT_FRAME = 10;
 
 	/**
 	 * The player side's flag.<br>
 	 * {@code True} if the character is P1, or {@code false} if P2.
 	 */
-	private boolean playerNumber;
+	private static final int PLAYER_NUMBER = 11;
 
 	/**
 	 * The horizontal speed of the attack hit box (minus when moving left and
 	 * plus when moving right).
 	 */
-	private int speedX;
+	private static final int SPEED_X = 12;
 
 	/**
 	 * The vertical speed of the attack hit box (minus when moving up and plus
 	 * when moving down).
 	 */
-	private int speedY;
+	private static final int SPEED_Y = 13;
 
 	/**
 	 * The number of frames in Startup.
 	 *
 	 * @see MotionData#attackStartUp
 	 */
-	private int startUp;
+	private static final int START_UP = 14;
 
 	/**
 	 * The number of frames in Active.
 	 *
 	 * @see MotionData#attackActive
 	 */
-	private int active;
+	private static final int ACTIVE = 15;
 
 	/**
 	 * The damage value to the unguarded opponent hit by this skill.
 	 */
-	private int hitDamage;
+	private static final int HIT_DAMAGE = 16;
 
 	/**
 	 * The damage value to the guarded opponent hit by this skill.
 	 */
-	private int guardDamage;
+	private static final int GUARD_DAMAGE = 17;
 
 	/**
 	 * The value of the energy added to the character when it uses this skill.
 	 */
-	private int startAddEnergy;
+	private static final int START_ADD_ENERGY = 18;
 
 	/**
 	 * The value of the energy added to the character when this skill hits the
 	 * opponent.
 	 */
-	private int hitAddEnergy;
+	private static final int HIT_ADD_ENERGY = 19;
 
 	/**
 	 * The value of the energy added to the character when this skill is blocked
 	 * by the opponent.
 	 */
-	private int guardAddEnergy;
+	private static final int GUARD_ADD_ENERGY = 20;
 
 	/**
 	 * The value of the energy added to the opponent when it is hit by this
 	 * skill.
 	 */
-	private int giveEnergy;
+	private static final int GIVE_ENERGY = 21;
 
 	/**
 	 * The change in the horizontal speed of the opponent when it is hit by this
 	 * skill.
 	 */
-	private int impactX;
+	private static final int IMPACT_X = 22;
 
 	/**
 	 * The change in the vertical speed of the opponent when it is hit by this
 	 * skill.
 	 */
-	private int impactY;
+	private static final int IMPACT_Y = 23;
 
 	/**
 	 * The number of frames that the guarded opponent needs to resume to his
 	 * normal status after being hit by this skill.
 	 */
-	private int giveGuardRecov;
+	private static final int GIVE_GUARD_RECOV = 24;
 
 	/**
 	 * The value of the attack type: 1 = high, 2 = middle, 3 = low, 4 = throw.
 	 */
-	private int attackType;
+	private static final int ATTACK_TYPE = 25;
 
 	/**
 	 * The flag whether this skill can push down the opponent when hit.<br>
 	 * {@code true} if this skill can push down, {@code false} otherwise.
 	 */
-	private boolean downProp;
+	private static final int DOWN_PROP = 26;
 
 	/**
 	 * The flag whether this skill is projectile or not.<br>
 	 * {@code true} if this skill is projectile, {@code false} otherwise.
 	 */
-	private boolean isProjectile;
+	private static final int IS_PROJECTILE = 27;
+
+	/**
+	 * The number of the elements of {@link #data}.
+	 */
+	private static final int DATA_LENGTH = 28;
+
+	/**
+	 * The values of this attack.<br>
+	 * Each value is stored at the index given by the constants above. A hit
+	 * box occupies four elements (left, right, top, bottom), and a flag is
+	 * stored as 1 ({@code true}) or 0 ({@code false}), so a copy of this
+	 * instance is a copy of one array.
+	 */
+	private int[] data;
+
+	/**
+	 * The flag whether this instance is shared by a frame data and can not be
+	 * modified.
+	 */
+	private boolean readOnly;
 
 	/**
 	 * The class constructor.
 	 */
 	public AttackData() {
-		this.settingHitArea = new HitArea();
-		this.settingSpeedX = 0;
-		this.settingSpeedY = 0;
-		this.currentHitArea = new HitArea();
-		this.currentFrame = -1;
-		this.playerNumber = true;
-		this.speedX = 0;
-		this.speedY = 0;
-		this.startUp = 0;
-		this.active = 0;
-		this.hitDamage = 0;
-		this.guardDamage = 0;
-		this.startAddEnergy = 0;
-		this.hitAddEnergy = 0;
-		this.guardAddEnergy = 0;
-		this.giveEnergy = 0;
-		this.impactX = 0;
-		this.impactY = 0;
-		this.giveGuardRecov = 0;
-		this.attackType = 0;
-		this.downProp = false;
-		this.isProjectile = false;
+		this.data = new int[DATA_LENGTH];
+		this.data[CURRENT_FRAME] = -1;
+		this.data[PLAYER_NUMBER] = 1;
 	}
 
 	/**
@@ -176,29 +180,30 @@ public class AttackData {
 	 *            an instance of the Attack class
 	 */
 	public AttackData(Attack attack) {
+		this.data = new int[DATA_LENGTH];
 		if (attack != null) {
-			this.settingHitArea = attack.getSettingHitArea();
-			this.settingSpeedX = attack.getSettingSpeedX();
-			this.settingSpeedY = attack.getSettingSpeedY();
-			this.currentHitArea = attack.getCurrentHitArea();
-			this.currentFrame = attack.getCurrentFrame();
-			this.playerNumber = attack.isPlayerNumber();
-			this.speedX = attack.getSpeedX();
-			this.speedY = attack.getSpeedY();
-			this.startUp = attack.getStartUp();
-			this.active = attack.getActive();
-			this.hitDamage = attack.getHitDamage();
-			this.guardDamage = attack.getGuardDamage();
-			this.startAddEnergy = attack.getStartAddEnergy();
-			this.hitAddEnergy = attack.getHitAddEnergy();
-			this.guardAddEnergy = attack.getGuardAddEnergy();
-			this.giveEnergy = attack.getGiveEnergy();
-			this.impactX = attack.getImpactX();
-			this.impactY = attack.getImpactY();
-			this.giveGuardRecov = attack.getGiveGuardRecov();
-			this.attackType = attack.getAttackType();
-			this.downProp = attack.isDownProp();
-			this.isProjectile = attack.isProjectile();
+			setHitArea(SETTING_HIT_AREA, attack.getSettingHitArea());
+			this.data[SETTING_SPEED_X] = attack.getSettingSpeedX();
+			this.data[SETTING_SPEED_Y] = attack.getSettingSpeedY();
+			setHitArea(CURRENT_HIT_AREA, attack.getCurrentHitArea());
+			this.data[CURRENT_FRAME] = attack.getCurrentFrame();
+			this.data[PLAYER_NUMBER] = attack.isPlayerNumber() ? 1 : 0;
+			this.data[SPEED_X] = attack.getSpeedX();
+			this.data[SPEED_Y] = attack.getSpeedY();
+			this.data[START_UP] = attack.getStartUp();
+			this.data[ACTIVE] = attack.getActive();
+			this.data[HIT_DAMAGE] = attack.getHitDamage();
+			this.data[GUARD_DAMAGE] = attack.getGuardDamage();
+			this.data[START_ADD_ENERGY] = attack.getStartAddEnergy();
+			this.data[HIT_ADD_ENERGY] = attack.getHitAddEnergy();
+			this.data[GUARD_ADD_ENERGY] = attack.getGuardAddEnergy();
+			this.data[GIVE_ENERGY] = attack.getGiveEnergy();
+			this.data[IMPACT_X] = attack.getImpactX();
+			this.data[IMPACT_Y] = attack.getImpactY();
+			this.data[GIVE_GUARD_RECOV] = attack.getGiveGuardRecov();
+			this.data[ATTACK_TYPE] = attack.getAttackType();
+			this.data[DOWN_PROP] = attack.isDownProp() ? 1 : 0;
+			this.data[IS_PROJECTILE] = attack.isProjectile() ? 1 : 0;
 		}
 	}
 
@@ -211,28 +216,9 @@ public class AttackData {
 	 */
 	public AttackData(AttackData attackData) {
 		if (attackData != null) {
-			this.settingHitArea = attackData.getSettingHitArea();
-			this.settingSpeedX = attackData.getSettingSpeedX();
-			this.settingSpeedY = attackData.getSettingSpeedY();
-			this.currentHitArea = attackData.getCurrentHitArea();
-			this.currentFrame = attackData.getCurrentFrame();
-			this.playerNumber = attackData.isPlayerNumber();
-			this.speedX = attackData.getSpeedX();
-			this.speedY = attackData.getSpeedY();
-			this.startUp = attackData.getStartUp();
-			this.active = attackData.getActive();
-			this.hitDamage = attackData.getHitDamage();
-			this.guardDamage = attackData.getGuardDamage();
-			this.startAddEnergy = attackData.getStartAddEnergy();
-			this.hitAddEnergy = attackData.getHitAddEnergy();
-			this.guardAddEnergy = attackData.getGuardAddEnergy();
-			this.giveEnergy = attackData.getGiveEnergy();
-			this.impactX = attackData.getImpactX();
-			this.impactY = attackData.getImpactY();
-			this.giveGuardRecov = attackData.getGiveGuardRecov();
-			this.attackType = attackData.getAttackType();
-			this.downProp = attackData.isDownProp();
-			this.isProjectile = attackData.isProjectile();
+			this.data = attackData.data.clone();
+		} else {
+			this.data = new int[DATA_LENGTH];
 		}
 	}
 
@@ -242,7 +228,7 @@ public class AttackData {
 	 * @return {@code true} if the player is P1, or {@code false} if P2
 	 */
 	public boolean isPlayerNumber() {
-		return this.playerNumber;
+		return this.data[PLAYER_NUMBER] != 0;
 	}
 
 	/**
@@ -252,7 +238,7 @@ public class AttackData {
 	 *         otherwise.
 	 */
 	public boolean isDownProp() {
-		return this.downProp;
+		return this.data[DOWN_PROP] != 0;
 	}
 
 	/**
@@ -261,7 +247,7 @@ public class AttackData {
 	 * @return {@code true} if this skill is projectile, {@code false} otherwise
 	 */
 	public boolean isProjectile() {
-		return this.isProjectile;
+		return this.data[IS_PROJECTILE] != 0;
 	}
 
 	/**
@@ -270,7 +256,7 @@ public class AttackData {
 	 * @return the number of frames since this attack was used
 	 */
 	public int getCurrentFrame() {
-		return this.currentFrame;
+		return this.data[CURRENT_FRAME];
 	}
 
 	/**
@@ -279,7 +265,7 @@ public class AttackData {
 	 * @return {@code 0} if the player is P1, or {@code 1} if P2
 	 */
 	public int getPlayerNumber() {
-		return this.playerNumber ? 0 : 1;
+		return this.data[PLAYER_NUMBER] != 0 ? 0 : 1;
 	}
 
 	/**
@@ -290,7 +276,7 @@ public class AttackData {
 	 *         left and plus when moving right)
 	 */
 	public int getSpeedX() {
-		return this.speedX;
+		return this.data[SPEED_X];
 	}
 
 	/**
@@ -301,7 +287,7 @@ public class AttackData {
 	 *         and plus when moving down)
 	 */
 	public int getSpeedY() {
-		return this.speedY;
+		return this.data[SPEED_Y];
 	}
 
 	/**
@@ -312,7 +298,7 @@ public class AttackData {
 	 * @return the number of frames in Startup
 	 */
 	public int getStartUp() {
-		return this.startUp;
+		return this.data[START_UP];
 	}
 
 	/**
@@ -323,7 +309,7 @@ public class AttackData {
 	 * @return the number of frames in Active
 	 */
 	public int getActive() {
-		return this.active;
+		return this.data[ACTIVE];
 	}
 
 	/**
@@ -332,7 +318,7 @@ public class AttackData {
 	 * @return the damage value to the unguarded opponent hit by this skill
 	 */
 	public int getHitDamage() {
-		return this.hitDamage;
+		return this.data[HIT_DAMAGE];
 	}
 
 	/**
@@ -341,7 +327,7 @@ public class AttackData {
 	 * @return the damage value to the guarded opponent hit by this skill
 	 */
 	public int getGuardDamage() {
-		return this.guardDamage;
+		return this.data[GUARD_DAMAGE];
 	}
 
 	/**
@@ -352,7 +338,7 @@ public class AttackData {
 	 *         skill
 	 */
 	public int getStartAddEnergy() {
-		return this.startAddEnergy;
+		return this.data[START_ADD_ENERGY];
 	}
 
 	/**
@@ -363,7 +349,7 @@ public class AttackData {
 	 *         hits the opponent
 	 */
 	public int getHitAddEnergy() {
-		return this.hitAddEnergy;
+		return this.data[HIT_ADD_ENERGY];
 	}
 
 	/**
@@ -374,7 +360,7 @@ public class AttackData {
 	 *         blocked by the opponent
 	 */
 	public int getGuardAddEnergy() {
-		return this.guardAddEnergy;
+		return this.data[GUARD_ADD_ENERGY];
 	}
 
 	/**
@@ -385,7 +371,7 @@ public class AttackData {
 	 *         this skill
 	 */
 	public int getGiveEnergy() {
-		return this.giveEnergy;
+		return this.data[GIVE_ENERGY];
 	}
 
 	/**
@@ -396,7 +382,7 @@ public class AttackData {
 	 *         by this skill
 	 */
 	public int getImpactX() {
-		return this.impactX;
+		return this.data[IMPACT_X];
 	}
 
 	/**
@@ -407,7 +393,7 @@ public class AttackData {
 	 *         by this skill
 	 */
 	public int getImpactY() {
-		return this.impactY;
+		return this.data[IMPACT_Y];
 	}
 
 	/**
@@ -418,7 +404,7 @@ public class AttackData {
 	 *         its normal status after being hit by this skill
 	 */
 	public int getGiveGuardRecov() {
-		return this.giveGuardRecov;
+		return this.data[GIVE_GUARD_RECOV];
 	}
 
 	/**
@@ -428,7 +414,7 @@ public class AttackData {
 	 * @return the value of the attack type
 	 */
 	public int getAttackType() {
-		return this.attackType;
+		return this.data[ATTACK_TYPE];
 	}
 
 	/**
@@ -440,7 +426,7 @@ public class AttackData {
 	 * @return HitArea's information of this attack hit box in the current frame
 	 */
 	public HitArea getCurrentHitArea() {
-		return new HitArea(this.currentHitArea);
+		return getHitArea(CURRENT_HIT_AREA);
 	}
 
 	/**
@@ -451,7 +437,7 @@ public class AttackData {
 	 *         (zero means the attack hit box will track the character)
 	 */
 	public int getSettingSpeedX() {
-		return this.settingSpeedX;
+		return this.data[SETTING_SPEED_X];
 	}
 
 	/**
@@ -462,7 +448,7 @@ public class AttackData {
 	 *         (zero means the attack hit box will track the character)
 	 */
 	public int getSettingSpeedY() {
-		return this.settingSpeedY;
+		return this.data[SETTING_SPEED_Y];
 	}
 
 	/**
@@ -472,7 +458,7 @@ public class AttackData {
 	 * @return HitArea's setting information
 	 */
 	public HitArea getSettingHitArea() {
-		return new HitArea(this.settingHitArea);
+		return getHitArea(SETTING_HIT_AREA);
 	}
 
 	////// Setter//////
@@ -484,7 +470,8 @@ public class AttackData {
 	 *            HitArea's setting information
 	 */
 	public void setSettingHitArea(HitArea settingHitArea) {
-		this.settingHitArea = settingHitArea;
+		checkWritable();
+		setHitArea(SETTING_HIT_AREA, settingHitArea);
 	}
 
 	/**
@@ -496,7 +483,8 @@ public class AttackData {
 	 *            box (zero means the attack hit box will track the character)
 	 */
 	public void setSettingSpeedX(int settingSpeedX) {
-		this.settingSpeedX = settingSpeedX;
+		checkWritable();
+		this.data[SETTING_SPEED_X] = settingSpeedX;
 	}
 
 	/**
@@ -508,7 +496,8 @@ public class AttackData {
 	 *            (zero means the attack hit box will track the character)
 	 */
 	public void setSettingSpeedY(int settingSpeedY) {
-		this.settingSpeedY = settingSpeedY;
+		checkWritable();
+		this.data[SETTING_SPEED_Y] = settingSpeedY;
 	}
 
 	/**
@@ -518,7 +507,8 @@ public class AttackData {
 	 *            the number of frames since this attack was used
 	 */
 	public void setCurrentFrame(int nowFrame) {
-		this.currentFrame = nowFrame;
+		checkWritable();
+		this.data[CURRENT_FRAME] = nowFrame;
 	}
 
 	/**
@@ -529,7 +519,8 @@ public class AttackData {
 	 *            {@code false} if P2.
 	 */
 	public void setPlayerNumber(boolean playerNumber) {
-		this.playerNumber = playerNumber;
+		checkWritable();
+		this.data[PLAYER_NUMBER] = playerNumber ? 1 : 0;
 	}
 
 	/**
@@ -541,7 +532,8 @@ public class AttackData {
 	 *            left and plus when moving right)
 	 */
 	public void setSpeedX(int speedX) {
-		this.speedX = speedX;
+		checkWritable();
+		this.data[SPEED_X] = speedX;
 	}
 
 	/**
@@ -553,7 +545,8 @@ public class AttackData {
 	 *            and plus when moving down)
 	 */
 	public void setSpeedY(int speedY) {
-		this.speedY = speedY;
+		checkWritable();
+		this.data[SPEED_Y] = speedY;
 	}
 
 	/**
@@ -565,7 +558,8 @@ public class AttackData {
 	 *            the number of frames in Startup
 	 */
 	public void setStartUp(int startUp) {
-		this.startUp = startUp;
+		checkWritable();
+		this.data[START_UP] = startUp;
 	}
 
 	/**
@@ -577,7 +571,8 @@ public class AttackData {
 	 *            the number of frames in Active
 	 */
 	public void setActive(int active) {
-		this.active = active;
+		checkWritable();
+		this.data[ACTIVE] = active;
 	}
 
 	/**
@@ -587,7 +582,8 @@ public class AttackData {
 	 *            the damage value to the unguarded opponent hit by this skill
 	 */
 	public void setHitDamage(int hitDamage) {
-		this.hitDamage = hitDamage;
+		checkWritable();
+		this.data[HIT_DAMAGE] = hitDamage;
 	}
 
 	/**
@@ -597,7 +593,8 @@ public class AttackData {
 	 *            the damage value to the guarded opponent hit by this skill
 	 */
 	public void setGuardDamage(int guardDamage) {
-		this.guardDamage = guardDamage;
+		checkWritable();
+		this.data[GUARD_DAMAGE] = guardDamage;
 	}
 
 	/**
@@ -608,7 +605,8 @@ public class AttackData {
 	 *            this skill
 	 */
 	public void setStartAddEnergy(int startAddEnergy) {
-		this.startAddEnergy = startAddEnergy;
+		checkWritable();
+		this.data[START_ADD_ENERGY] = startAddEnergy;
 	}
 
 	/**
@@ -620,7 +618,8 @@ public class AttackData {
 	 *            hits the opponent
 	 */
 	public void setHitAddEnergy(int hitAddEnergy) {
-		this.hitAddEnergy = hitAddEnergy;
+		checkWritable();
+		this.data[HIT_ADD_ENERGY] = hitAddEnergy;
 	}
 
 	/**
@@ -632,7 +631,8 @@ public class AttackData {
 	 *            is blocked by the opponent
 	 */
 	public void setGuardAddEnergy(int guardAddEnergy) {
-		this.guardAddEnergy = guardAddEnergy;
+		checkWritable();
+		this.data[GUARD_ADD_ENERGY] = guardAddEnergy;
 	}
 
 	/**
@@ -644,7 +644,8 @@ public class AttackData {
 	 *            by this skill
 	 */
 	public void setGiveEnergy(int giveEnergy) {
-		this.giveEnergy = giveEnergy;
+		checkWritable();
+		this.data[GIVE_ENERGY] = giveEnergy;
 	}
 
 	/**
@@ -656,7 +657,8 @@ public class AttackData {
 	 *            hit by this skill
 	 */
 	public void setImpactX(int impactX) {
-		this.impactX = impactX;
+		checkWritable();
+		this.data[IMPACT_X] = impactX;
 	}
 
 	/**
@@ -668,7 +670,8 @@ public class AttackData {
 	 *            hit by this skill
 	 */
 	public void setImpactY(int impactY) {
-		this.impactY = impactY;
+		checkWritable();
+		this.data[IMPACT_Y] = impactY;
 	}
 
 	/**
@@ -680,7 +683,8 @@ public class AttackData {
 	 *            to his normal status after being hit by this skill
 	 */
 	public void setGiveGuardRecov(int giveGuardRecov) {
-		this.giveGuardRecov = giveGuardRecov;
+		checkWritable();
+		this.data[GIVE_GUARD_RECOV] = giveGuardRecov;
 	}
 
 	/**
@@ -691,7 +695,8 @@ public class AttackData {
 	 *            the value of the attack type
 	 */
 	public void setAttackType(int attackType) {
-		this.attackType = attackType;
+		checkWritable();
+		this.data[ATTACK_TYPE] = attackType;
 	}
 
 	/**
@@ -703,7 +708,8 @@ public class AttackData {
 	 *            otherwise.
 	 */
 	public void setDownProp(boolean downProp) {
-		this.downProp = downProp;
+		checkWritable();
+		this.data[DOWN_PROP] = downProp ? 1 : 0;
 	}
 
 	/**
@@ -714,7 +720,89 @@ public class AttackData {
 	 *            if this skill is projectile, {@code false} otherwise.
 	 */
 	public void setIsProjectile(boolean isProjectile) {
-		this.isProjectile = isProjectile;
+		checkWritable();
+		this.data[IS_PROJECTILE] = isProjectile ? 1 : 0;
+	}
+
+	/**
+	 * Returns whether this instance is shared by a frame data and can not be
+	 * modified.<br>
+	 * All setters of a read-only instance throw an exception. Create a copy by
+	 * {@link #AttackData(AttackData)} to modify the values.
+	 *
+	 * @return {@code true} if this instance is read-only, {@code false}
+	 *         otherwise
+	 */
+	public boolean isReadOnly() {
+		return this.readOnly;
+	}
+
+	/**
+	 * Makes this instance read-only.<br>
+	 * It is called when a frame data starts to share this instance.
+	 */
+	void setReadOnly() {
+		this.readOnly = true;
+	}
+
+	/**
+	 * Throws an exception if this instance is read-only.
+	 *
+	 * @throws UnsupportedOperationException
+	 *             if this instance is shared by a frame data
+	 */
+	private void checkWritable() {
+		if (this.readOnly) {
+			throw new UnsupportedOperationException(
+					"This attack data is shared by a frame data. Modify a copy created by new AttackData(AttackData).");
+		}
+	}
+
+	/**
+	 * Mixes the values of this attack into the specified hash value.
+	 *
+	 * @param hash
+	 *            the current hash value
+	 * @return the hash value into which the values of this attack are mixed
+	 * @see StateHash
+	 */
+	public long updateStateHash(long hash) {
+		for (int value : this.data) {
+			hash = StateHash.update(hash, value);
+		}
+
+		return hash;
 	}
 
+	/**
+	 * Returns the hit box stored from the specified index of {@link #data}.
+	 *
+	 * @param index
+	 *            the index of the left x-coordinate of the hit box
+	 * @return a new instance of the hit box
+	 */
+	private HitArea getHitArea(int index) {
+		return new HitArea(this.data[index], this.data[index + 1], this.data[index + 2], this.data[index + 3]);
+	}
+
+	/**
+	 * Stores the hit box from the specified index of {@link #data}.<br>
+	 * A {@code null} hit box is stored as a hit box whose coordinates are all
+	 * zero.
+	 *
+	 * @param index
+	 *            the index of the left x-coordinate of the hit box
+	 * @param hitArea
+	 *            the hit box to be stored
+	 */
+	private void setHitArea(int index, HitArea hitArea) {
+		if (hitArea != null) {
+			this.data[index] = hitArea.getLeft();
+			this.data[index + 1] = hitArea.getRight();
+			this.data[index + 2] = hitArea.getTop();
+			this.data[index + 3] = hitArea.getBottom();
+		} else {
+			Arrays.fill(this.data, index, index + 4, 0);
+		}
+	}
 }
@@ -6,6 +6,9 @@ import java.util.LinkedList;
 import enumerate.Action;
 import enumerate.State;
 import fighting.Character;
+import input.KeyQueue;
+import setting.GameSetting;
+import util.StateHash;
 
 /**
  * The class dealing with data on the character such as the character's HP,
@@ -17,136 +20,165 @@ public class CharacterData {
 	 * The character's side flag.<br>
 	 * {@code true} if the character is P1, or {@code false} if P2.
 	 */
-	private boolean playerNumber;
+	private static final int PLAYER_NUMBER = 0;
 
 	/**
 	 * The character's HP.
 	 */
-	private int hp;
+	private static final int HP = 1;
 
 	/**
 	 * The character's energy.
 	 */
-	private int energy;
+	private static final int ENERGY = 2;
 
 	/**
 	 * The character graphic's most top-left x-coordinate.
 	 */
-	private int x;
+	private static final int X = 3;
 
 	/**
 	 * The character graphic's most top-left y-coordinate.
 	 */
-	private int y;
+	private static final int Y = 4;
 
 	/**
 	 * The character's hit box's most-left x-coordinate.
 	 */
-	private int left;
+	private static final int LEFT = 5;
 
 	/**
 	 * The character's hit box's most-right x-coordinate.
 	 */
-	private int right;
+	private static final int RIGHT = 6;
 
 	/**
 	 * The character's hit box's most-top y-coordinate.
 	 */
-	private int top;
+	private static final int TOP = 7;
 
 	/**
 	 * The character's hit box's most-bottom y-coordinate.
 	 */
-	private int bottom;
+	private static final int BOTTOM = 8;
 
 	/**
 	 * The character's horizontal speed.
 	 */
-	private int speedX;
+	private static final int SPEED_X = 9;
 
 	/**
 	 * The character's vertical speed.
 	 */
-	private int speedY;
+	private static final int SPEED_Y = 10;
 
 	/**
 	 * The character's state: STAND / CROUCH / AIR / DOWN.
 	 */
-	private State state;
+	private static final int STATE = 11;
 
 	/**
 	 * The character's action.
 	 */
-	private Action action;
+	private static final int ACTION = 12;
 
 	/**
 	 * The character's facing direction.<br>
 	 * {@code true} if the character is facing right, {@code false} otherwise.
 	 */
-	private boolean front;
+	private static final int FRONT = 13;
 
 	/**
 	 * The flag whether this character can run a new motion with the motion's
 	 * command.<br>
 	 * {@code true} if the character can run, {@code false} otherwise.
 	 */
-	private boolean control;
-
-	/**
-	 * The attack data that the character is using.
-	 */
-	private AttackData attackData;
+	private static final int CONTROL = 14;
 
 	/**
 	 * The number of frames that the character needs to resume to its normal
 	 * status.
 	 */
-	private int remainingFrame;
+	private static final int REMAINING_FRAME = 15;
 
 	/**
 	 * The flag whether the motion hits the opponent or not. {@code true} if the
 	 * motion hits the opponent, {@code false} otherwise.
 	 */
-	private boolean hitConfirm;
+	private static final int HIT_CONFIRM = 16;
 
 	/**
 	 * The character's graphic width.
 	 */
-	private int graphicSizeX;
+	private static final int GRAPHIC_SIZE_X = 17;
 
 	/**
 	 * The character's graphic height.
 	 */
-	private int graphicSizeY;
+	private static final int GRAPHIC_SIZE_Y = 18;
 
 	/**
 	 * The amount of movement in the horizontal direction used to adjust the x
 	 * coordinate when determining the direction of the character.
 	 */
-	private int graphicAdjustX;
+	private static final int GRAPHIC_ADJUST_X = 19;
 
 	/**
 	 * The continuous hit count of attacks used by this character.
 	 */
-	private int hitCount;
+	private static final int HIT_COUNT = 20;
 
 	/**
 	 * The frame number of the last frame that an attack used by this character
 	 * hit the opponent.
 	 */
-	private int lastHitFrame;
+	private static final int LAST_HIT_FRAME = 21;
+
+	/**
+	 * The number of the elements of {@link #data}.
+	 */
+	private static final int DATA_LENGTH = 22;
+
+	/**
+	 * All states of the character, indexed by their ordinals.
+	 */
+	private static final State[] STATES = State.values();
+
+	/**
+	 * All actions of the character, indexed by their ordinals.
+	 */
+	private static final Action[] ACTIONS = Action.values();
+
+	/**
+	 * The values of the character.<br>
+	 * Each value is stored at the index given by the constants above. A flag
+	 * is stored as 1 ({@code true}) or 0 ({@code false}), and the state and
+	 * the action are stored as their ordinals (-1 if {@code null}).
+	 */
+	private int[] data;
+
+	/**
+	 * The attack data that the character is using.
+	 */
+	private AttackData attackData;
 
 	/**
 	 * The list storing keys of the action that the character will be executing
 	 * in the simulator.
 	 */
-	private Deque<Key> inputCommands;
+	private byte[] inputCommands;
 
 	/**
 	 * The list storing up to 30 keys that the character executed in the
 	 * simulator.
 	 */
-	private Deque<Key> processedCommands;
+	private byte[] processedCommands;
+
+	/**
+	 * The flag whether this instance is shared by a frame data and can not be
+	 * modified.
+	 */
+	private boolean readOnly;
 
 	/**
 	 * The class constructor that acquires information on the character from an
@@ -157,31 +189,32 @@ public class CharacterData {
 	 *            an instance of Character class
 	 */
 	public CharacterData(Character character) {
-		this.playerNumber = character.isPlayerNumber();
-		this.hp = character.getHp();
-		this.energy = character.getEnergy();
-		this.x = character.getX();
-		this.y = character.getY();
-		this.graphicSizeX = character.getGraphicSizeX();
-		this.graphicSizeY = character.getGraphicSizeY();
-		this.graphicAdjustX = character.getGraphicAdjustX();
-		this.left = character.getHitAreaLeft();
-		this.right = character.getHitAreaRight();
-		this.top = character.getHitAreaTop();
-		this.bottom = character.getHitAreaBottom();
-		this.speedX = character.getSpeedX();
-		this.speedY = character.getSpeedY();
-		this.state = character.getState();
-		this.action = character.getAction();
-		this.front = character.isFront();
-		this.control = character.isControl();
+		this.data = new int[DATA_LENGTH];
+		this.data[PLAYER_NUMBER] = character.isPlayerNumber() ? 1 : 0;
+		this.data[HP] = character.getHp();
+		this.data[ENERGY] = character.getEnergy();
+		this.data[X] = character.getX();
+		this.data[Y] = character.getY();
+		this.data[GRAPHIC_SIZE_X] = character.getGraphicSizeX();
+		this.data[GRAPHIC_SIZE_Y] = character.getGraphicSizeY();
+		this.data[GRAPHIC_ADJUST_X] = character.getGraphicAdjustX();
+		this.data[LEFT] = character.getHitAreaLeft();
+		this.data[RIGHT] = character.getHitAreaRight();
+		this.data[TOP] = character.getHitAreaTop();
+		this.data[BOTTOM] = character.getHitAreaBottom();
+		this.data[SPEED_X] = character.getSpeedX();
+		this.data[SPEED_Y] = character.getSpeedY();
+		this.data[STATE] = ordinal(character.getState());
+		this.data[ACTION] = ordinal(character.getAction());
+		this.data[FRONT] = character.isFront() ? 1 : 0;
+		this.data[CONTROL] = character.isControl() ? 1 : 0;
 		this.attackData = new AttackData(character.getAttack());
-		this.remainingFrame = character.getRemainingFrame();
-		this.hitConfirm = character.isHitConfirm();
-		this.hitCount = character.getHitCount();
-		this.lastHitFrame = character.getLastHitFrame();
-		this.inputCommands = character.getInputCommand();
-		this.processedCommands = character.getProcessedCommand();
+		this.data[REMAINING_FRAME] = character.getRemainingFrame();
+		this.data[HIT_CONFIRM] = character.isHitConfirm() ? 1 : 0;
+		this.data[HIT_COUNT] = character.getHitCount();
+		this.data[LAST_HIT_FRAME] = character.getLastHitFrame();
+		this.inputCommands = character.getInputCommandQueue().toByteArray();
+		this.processedCommands = character.getProcessedCommandQueue().toByteArray();
 	}
 
 	/**
@@ -192,31 +225,11 @@ public class CharacterData {
 	 *            an instance of CharacterData class
 	 */
 	public CharacterData(CharacterData characterData) {
-		this.playerNumber = characterData.isPlayerNumber();
-		this.hp = characterData.getHp();
-		this.energy = characterData.getEnergy();
-		this.x = characterData.getX();
-		this.y = characterData.getY();
-		this.graphicSizeX = characterData.getGraphicSizeX();
-		this.graphicSizeY = characterData.getGraphicSizeY();
-		this.graphicAdjustX = characterData.getGraphicAdjustX();
-		this.left = characterData.getLeft();
-		this.right = characterData.getRight();
-		this.top = characterData.getTop();
-		this.bottom = characterData.getBottom();
-		this.speedX = characterData.getSpeedX();
-		this.speedY = characterData.getSpeedY();
-		this.state = characterData.getState();
-		this.action = characterData.getAction();
-		this.front = characterData.isFront();
-		this.control = characterData.isControl();
-		this.attackData = new AttackData(characterData.getAttack());
-		this.remainingFrame = characterData.getRemainingFrame();
-		this.hitConfirm = characterData.isHitConfirm();
-		this.hitCount = characterData.getHitCount();
-		this.lastHitFrame = characterData.getLastHitFrame();
-		this.inputCommands = characterData.getInputCommand();
-		this.processedCommands = characterData.getProcessedCommand();
+		this.data = characterData.data.clone();
+		this.attackData = new AttackData(characterData.attackData);
+		// The packed keys are never modified, so they are shared with the original
+		this.inputCommands = characterData.inputCommands;
+		this.processedCommands = characterData.processedCommands;
 	}
 
 	/**
@@ -225,7 +238,7 @@ public class CharacterData {
 	 * @return {@code true} if the character is P1, or {@code false} if P2
 	 */
 	public boolean isPlayerNumber() {
-		return this.playerNumber;
+		return this.data[PLAYER_NUMBER] != 0;
 	}
 
 	/**
@@ -235,7 +248,7 @@ public class CharacterData {
 	 *         otherwise
 	 */
 	public boolean isFront() {
-		return this.front;
+		return this.data[FRONT] != 0;
 	}
 
 	/**
@@ -245,7 +258,7 @@ public class CharacterData {
 	 * @return {@code true} if the character can run, {@code false} otherwise
 	 */
 	public boolean isControl() {
-		return this.control;
+		return this.data[CONTROL] != 0;
 	}
 
 	/**
@@ -254,7 +267,7 @@ public class CharacterData {
 	 * @return the character's HP
 	 */
 	public int getHp() {
-		return this.hp;
+		return this.data[HP];
 	}
 
 	/**
@@ -263,7 +276,7 @@ public class CharacterData {
 	 * @return the character's energy
 	 */
 	public int getEnergy() {
-		return this.energy;
+		return this.data[ENERGY];
 	}
 
 	/**
@@ -275,7 +288,7 @@ public class CharacterData {
 	 *
 	 */
 	public int getX() {
-		return this.x;
+		return this.data[X];
 	}
 
 	/**
@@ -287,7 +300,7 @@ public class CharacterData {
 	 *
 	 */
 	public int getY() {
-		return this.y;
+		return this.data[Y];
 	}
 
 	/**
@@ -296,7 +309,7 @@ public class CharacterData {
 	 * @return the character's hit box's most-left x-coordinate
 	 */
 	public int getLeft() {
-		return this.left;
+		return this.data[LEFT];
 	}
 
 	/**
@@ -305,7 +318,7 @@ public class CharacterData {
 	 * @return the character's hit box's most-right x-coordinate
 	 */
 	public int getRight() {
-		return this.right;
+		return this.data[RIGHT];
 	}
 
 	/**
@@ -314,7 +327,7 @@ public class CharacterData {
 	 * @return the character's hit box's most-top y-coordinate
 	 */
 	public int getTop() {
-		return this.top;
+		return this.data[TOP];
 	}
 
 	/**
@@ -323,7 +336,7 @@ public class CharacterData {
 	 * @return the character's hit box's most-bottom y-coordinate
 	 */
 	public int getBottom() {
-		return this.bottom;
+		return this.data[BOTTOM];
 	}
 
 	/**
@@ -350,7 +363,7 @@ public class CharacterData {
 	 * @return the character's horizontal speed
 	 */
 	public int getSpeedX() {
-		return this.speedX;
+		return this.data[SPEED_X];
 	}
 
 	/**
@@ -359,7 +372,7 @@ public class CharacterData {
 	 * @return the character's vertical speed
 	 */
 	public int getSpeedY() {
-		return this.speedY;
+		return this.data[SPEED_Y];
 	}
 
 	/**
@@ -370,7 +383,7 @@ public class CharacterData {
 	 * @see State
 	 */
 	public State getState() {
-		return this.state;
+		return this.data[STATE] < 0 ? null : STATES[this.data[STATE]];
 	}
 
 	/**
@@ -381,7 +394,7 @@ public class CharacterData {
 	 * @see Action
 	 */
 	public Action getAction() {
-		return this.action;
+		return this.data[ACTION] < 0 ? null : ACTIONS[this.data[ACTION]];
 	}
 
 	/**
@@ -392,17 +405,22 @@ public class CharacterData {
 	 *         normal status
 	 */
 	public int getRemainingFrame() {
-		return this.remainingFrame;
+		return this.data[REMAINING_FRAME];
 	}
 
 	/**
-	 * Returns the attack data that the character is using.
+	 * Returns the attack data that the character is using.<br>
+	 * If this instance is read-only, the attack data is shared and is also
+	 * read-only. Otherwise, a copy is returned.
 	 *
 	 * @return the attack data that the character is using
 	 *
 	 * @see AttackData
 	 */
 	public AttackData getAttack() {
+		if (this.readOnly && this.attackData != null) {
+			return this.attackData;
+		}
 		return new AttackData(this.attackData);
 	}
 
@@ -412,7 +430,7 @@ public class CharacterData {
 	 * @return the character's graphic width
 	 */
 	public int getGraphicSizeX() {
-		return this.graphicSizeX;
+		return this.data[GRAPHIC_SIZE_X];
 	}
 
 	/**
@@ -421,7 +439,7 @@ public class CharacterData {
 	 * @return the character's graphic height
 	 */
 	public int getGraphicSizeY() {
-		return this.graphicSizeY;
+		return this.data[GRAPHIC_SIZE_Y];
 	}
 
 	/**
@@ -432,7 +450,7 @@ public class CharacterData {
 	 *         the x coordinate
 	 */
 	public int getGraphicAdjustX() {
-		return this.graphicAdjustX;
+		return this.data[GRAPHIC_ADJUST_X];
 	}
 
 	/**
@@ -442,7 +460,7 @@ public class CharacterData {
 	 *         otherwise
 	 */
 	public boolean isHitConfirm() {
-		return this.hitConfirm;
+		return this.data[HIT_CONFIRM] != 0;
 	}
 
 	/**
@@ -452,7 +470,7 @@ public class CharacterData {
 	 *
 	 */
 	public int getHitCount() {
-		return this.hitCount;
+		return this.data[HIT_COUNT];
 	}
 
 	/**
@@ -463,7 +481,7 @@ public class CharacterData {
 	 *         character hit the opponent
 	 */
 	public int getLastHitFrame() {
-		return this.lastHitFrame;
+		return this.data[LAST_HIT_FRAME];
 	}
 
 	/**
@@ -477,12 +495,7 @@ public class CharacterData {
 	 *         executing in the simulator
 	 */
 	public Deque<Key> getInputCommand() {
-		LinkedList<Key> temp = new LinkedList<Key>();
-		for (Key key : this.inputCommands) {
-			temp.add(key);
-		}
-
-		return temp;
+		return unpackKeys(this.inputCommands);
 	}
 
 	/**
@@ -496,12 +509,58 @@ public class CharacterData {
 	 *         simulator
 	 */
 	public Deque<Key> getProcessedCommand() {
-		LinkedList<Key> temp = new LinkedList<Key>();
-		for (Key key : this.processedCommands) {
-			temp.add(key);
-		}
+		return unpackKeys(this.processedCommands);
+	}
+
+	/**
+	 * Returns an array of the packed keys of the action that the character
+	 * will be executing in the simulator.<br>
+	 * Each element is the value given by {@link Key#pack()}, and the oldest
+	 * key comes first.
+	 *
+	 * @return a new array of the packed keys that the character will be
+	 *         executing
+	 */
+	public byte[] getPackedInputCommand() {
+		return this.inputCommands.clone();
+	}
 
-		return temp;
+	/**
+	 * Returns an array of up to 30 packed keys that the character executed in
+	 * the simulator.<br>
+	 * Each element is the value given by {@link Key#pack()}, and the oldest
+	 * key comes first.
+	 *
+	 * @return a new array of the packed keys that the character executed
+	 */
+	public byte[] getPackedProcessedCommand() {
+		return this.processedCommands.clone();
+	}
+
+	/**
+	 * Copies the packed keys of the action that the character will be
+	 * executing in the simulator into the specified queue.<br>
+	 * The queue is cleared first, and no array is created as long as its
+	 * capacity is sufficient.
+	 *
+	 * @param keyQueue
+	 *            the queue to store the packed keys
+	 */
+	public void copyInputCommandTo(KeyQueue keyQueue) {
+		keyQueue.copyFrom(this.inputCommands);
+	}
+
+	/**
+	 * Copies up to 30 packed keys that the character executed in the
+	 * simulator into the specified queue.<br>
+	 * The queue is cleared first, and no array is created as long as its
+	 * capacity is sufficient.
+	 *
+	 * @param keyQueue
+	 *            the queue to store the packed keys
+	 */
+	public void copyProcessedCommandTo(KeyQueue keyQueue) {
+		keyQueue.copyFrom(this.processedCommands);
 	}
 
 	/**
@@ -511,7 +570,8 @@ public class CharacterData {
 	 *            the amount of HP
 	 */
 	public void setHp(int hp) {
-		this.hp = hp;
+		checkWritable();
+		this.data[HP] = hp;
 	}
 
 	/**
@@ -521,7 +581,8 @@ public class CharacterData {
 	 *            the amount of energy
 	 */
 	public void setEnergy(int energy) {
-		this.energy = energy;
+		checkWritable();
+		this.data[ENERGY] = energy;
 	}
 
 	/**
@@ -531,7 +592,8 @@ public class CharacterData {
 	 *            the character's horizontal position
 	 */
 	public void setX(int x) {
-		this.x = x;
+		checkWritable();
+		this.data[X] = x;
 	}
 
 	/**
@@ -541,7 +603,8 @@ public class CharacterData {
 	 *            the character's vertical position
 	 */
 	public void setY(int y) {
-		this.y = y;
+		checkWritable();
+		this.data[Y] = y;
 	}
 
 	/**
@@ -551,7 +614,8 @@ public class CharacterData {
 	 *            the character's horizontal speed
 	 */
 	public void setSpeedX(int speedX) {
-		this.speedX = speedX;
+		checkWritable();
+		this.data[SPEED_X] = speedX;
 	}
 
 	/**
@@ -561,7 +625,8 @@ public class CharacterData {
 	 *            the character's vertical speed
 	 */
 	public void setSpeedY(int speedY) {
-		this.speedY = speedY;
+		checkWritable();
+		this.data[SPEED_Y] = speedY;
 	}
 
 	/**
@@ -572,7 +637,8 @@ public class CharacterData {
 	 * @see State
 	 */
 	public void setState(State state) {
-		this.state = state;
+		checkWritable();
+		this.data[STATE] = ordinal(state);
 	}
 
 	/**
@@ -583,7 +649,8 @@ public class CharacterData {
 	 * @see Action
 	 */
 	public void setAction(Action action) {
-		this.action = action;
+		checkWritable();
+		this.data[ACTION] = ordinal(action);
 	}
 
 	/**
@@ -594,7 +661,8 @@ public class CharacterData {
 	 *            character is facing right, {@code false} otherwise.
 	 */
 	public void setFront(boolean front) {
-		this.front = front;
+		checkWritable();
+		this.data[FRONT] = front ? 1 : 0;
 	}
 
 	/**
@@ -607,7 +675,8 @@ public class CharacterData {
 	 *            {@code false} otherwise.
 	 */
 	public void setControl(boolean control) {
-		this.control = control;
+		checkWritable();
+		this.data[CONTROL] = control ? 1 : 0;
 	}
 
 	/**
@@ -619,7 +688,8 @@ public class CharacterData {
 	 *            normal status you want to set
 	 */
 	public void setRemainingFrame(int remainingFrame) {
-		this.remainingFrame = remainingFrame;
+		checkWritable();
+		this.data[REMAINING_FRAME] = remainingFrame;
 	}
 
 	/**
@@ -629,7 +699,8 @@ public class CharacterData {
 	 *            the integer value you want to set
 	 */
 	public void setTop(int top) {
-		this.top = top;
+		checkWritable();
+		this.data[TOP] = top;
 	}
 
 	/**
@@ -639,7 +710,8 @@ public class CharacterData {
 	 *            the integer value you want to set
 	 */
 	public void setBottom(int bottom) {
-		this.bottom = bottom;
+		checkWritable();
+		this.data[BOTTOM] = bottom;
 	}
 
 	/**
@@ -650,7 +722,8 @@ public class CharacterData {
 	 *            set
 	 */
 	public void setLeft(int left) {
-		this.left = left;
+		checkWritable();
+		this.data[LEFT] = left;
 	}
 
 	/**
@@ -661,7 +734,8 @@ public class CharacterData {
 	 *            set
 	 */
 	public void setRight(int right) {
-		this.right = right;
+		checkWritable();
+		this.data[RIGHT] = right;
 	}
 
 	/**
@@ -673,6 +747,7 @@ public class CharacterData {
 	 * @see AttackData
 	 */
 	public void setAttack(AttackData attack) {
+		checkWritable();
 		this.attackData = attack;
 	}
 
@@ -683,7 +758,8 @@ public class CharacterData {
 	 *            the continuous hit count of attacks used by this character
 	 */
 	public void setHitCount(int hitCount) {
-		this.hitCount = hitCount;
+		checkWritable();
+		this.data[HIT_COUNT] = hitCount;
 	}
 
 	/**
@@ -695,7 +771,8 @@ public class CharacterData {
 	 *            character hit the opponent
 	 */
 	public void setLastHitFrame(int lastHitFrame) {
-		this.lastHitFrame = lastHitFrame;
+		checkWritable();
+		this.data[LAST_HIT_FRAME] = lastHitFrame;
 	}
 
 	/**
@@ -707,7 +784,8 @@ public class CharacterData {
 	 *            otherwise.
 	 */
 	public void setHitConfirm(boolean hitConfirm) {
-		this.hitConfirm = hitConfirm;
+		checkWritable();
+		this.data[HIT_CONFIRM] = hitConfirm ? 1 : 0;
 	}
 
 	/**
@@ -722,7 +800,8 @@ public class CharacterData {
 	 *            executing in the simulator
 	 */
 	public void setInputCommand(Deque<Key> inputCommand) {
-		this.inputCommands = new LinkedList<Key>(inputCommand);
+		checkWritable();
+		this.inputCommands = packKeys(inputCommand);
 	}
 
 	/**
@@ -737,7 +816,176 @@ public class CharacterData {
 	 *            the simulator
 	 */
 	public void setProcessedCommand(Deque<Key> inputCommand) {
-		this.processedCommands = new LinkedList<Key>(inputCommand);
+		checkWritable();
+		this.processedCommands = packKeys(inputCommand);
+	}
+
+	/**
+	 * Sets up to 30 packed keys that the character executed in the simulator.<br>
+	 * Unlike {@link #setProcessedCommand(Deque)}, the keys are copied without
+	 * creating instances of the Key class.
+	 *
+	 * @param inputCommand
+	 *            a queue storing up to 30 packed keys that the character
+	 *            executed in the simulator
+	 */
+	public void setProcessedCommand(KeyQueue inputCommand) {
+		checkWritable();
+		this.processedCommands = inputCommand.toByteArray();
 	}
 
-}
\ No newline at end of file
+	/**
+	 * Returns whether this instance is shared by a frame data and can not be
+	 * modified.<br>
+	 * All setters of a read-only instance throw an exception. Create a copy by
+	 * {@link #CharacterData(CharacterData)} to modify the values.
+	 *
+	 * @return {@code true} if this instance is read-only, {@code false}
+	 *         otherwise
+	 */
+	public boolean isReadOnly() {
+		return this.readOnly;
+	}
+
+	/**
+	 * Makes this instance and its attack data read-only.<br>
+	 * It is called when a frame data starts to share this instance.
+	 */
+	void setReadOnly() {
+		this.readOnly = true;
+		if (this.attackData != null) {
+			this.attackData.setReadOnly();
+		}
+	}
+
+	/**
+	 * Throws an exception if this instance is read-only.
+	 *
+	 * @throws UnsupportedOperationException
+	 *             if this instance is shared by a frame data
+	 */
+	private void checkWritable() {
+		if (this.readOnly) {
+			throw new UnsupportedOperationException(
+					"This character data is shared by a frame data. Modify a copy created by new CharacterData(CharacterData).");
+		}
+	}
+
+	/**
+	 * Mixes the values of this character into the specified hash value.<br>
+	 * The values include the attack data and both lists of the keys.
+	 *
+	 * @param hash
+	 *            the current hash value
+	 * @return the hash value into which the values of this character are
+	 *         mixed
+	 * @see StateHash
+	 */
+	public long updateStateHash(long hash) {
+		for (int value : this.data) {
+			hash = StateHash.update(hash, value);
+		}
+
+		return updateReferencedStateHash(hash);
+	}
+
+	/**
+	 * Mixes the values of this character into the specified hash value in the
+	 * same way as {@link #updateStateHash(long)}, except that the frame number
+	 * of the last hit is replaced by the number of frames elapsed since it.
+	 * <br>
+	 * The elapsed frames are only needed to decide whether a combo continues,
+	 * so they are limited to {@code GameSetting.COMBO_LIMIT + 1}. Hence, two
+	 * characters in the same state give the same hash value even if they are
+	 * in different frames.
+	 *
+	 * @param hash
+	 *            the current hash value
+	 * @param currentFrame
+	 *            the frame number of the frame data holding this character
+	 * @return the hash value into which the values of this character are
+	 *         mixed
+	 * @see StateHash
+	 */
+	public long updateRelativeStateHash(long hash, int currentFrame) {
+		for (int i = 0; i < DATA_LENGTH; i++) {
+			if (i == LAST_HIT_FRAME) {
+				hash = StateHash.update(hash,
+						Math.min(currentFrame - this.data[i], GameSetting.COMBO_LIMIT + 1));
+			} else {
+				hash = StateHash.update(hash, this.data[i]);
+			}
+		}
+
+		return updateReferencedStateHash(hash);
+	}
+
+	/**
+	 * Mixes the attack data and both lists of the keys of this character into
+	 * the specified hash value.
+	 *
+	 * @param hash
+	 *            the current hash value
+	 * @return the new hash value
+	 */
+	private long updateReferencedStateHash(long hash) {
+		hash = this.attackData == null ? StateHash.update(hash, -1) : this.attackData.updateStateHash(hash);
+
+		hash = StateHash.update(hash, this.inputCommands.length);
+		for (byte packedKey : this.inputCommands) {
+			hash = StateHash.update(hash, packedKey);
+		}
+		hash = StateHash.update(hash, this.processedCommands.length);
+		for (byte packedKey : this.processedCommands) {
+			hash = StateHash.update(hash, packedKey);
+		}
+
+		return hash;
+	}
+
+	/**
+	 * Returns the ordinal of the specified constant.
+	 *
+	 * @param constant
+	 *            an enum constant, or {@code null}
+	 * @return the ordinal of the constant, or -1 if the constant is
+	 *         {@code null}
+	 */
+	private static int ordinal(Enum<?> constant) {
+		return constant == null ? -1 : constant.ordinal();
+	}
+
+	/**
+	 * Packs the keys of the specified list into an array.<br>
+	 * Each key is stored as one element given by {@link Key#pack()}.
+	 *
+	 * @param keys
+	 *            the list of the keys
+	 * @return the array of the packed keys
+	 */
+	private static byte[] packKeys(Deque<Key> keys) {
+		byte[] packedKeys = new byte[keys.size()];
+		int i = 0;
+		for (Key key : keys) {
+			packedKeys[i++] = (byte) key.pack();
+		}
+
+		return packedKeys;
+	}
+
+	/**
+	 * Creates a new list of the keys from an array of the packed keys.
+	 *
+	 * @param packedKeys
+	 *            the array of the packed keys
+	 * @return a new list of the keys
+	 */
+	private static Deque<Key> unpackKeys(byte[] packedKeys) {
+		LinkedList<Key> keys = new LinkedList<Key>();
+		for (byte packedKey : packedKeys) {
+			keys.add(new Key(packedKey));
+		}
+
+		return keys;
+	}
+}
@@ -6,10 +6,20 @@ import java.util.LinkedList;
 import input.KeyData;
 import setting.FlagSetting;
 import setting.GameSetting;
+import util.StateHash;
 
 /**
  * The class dealing with the information in the game such as the current frame
- * number, number of rounds and character information.
+ * number, number of rounds and character information.<br>
+ * An instance is immutable once created, so one instance created in a frame
+ * is handed to all AIs without copying it. The character data and the
+ * projectile data held by it are read-only and are shared with the copies of
+ * the instance.<br>
+ * {@link #getCharacter(boolean)} and the methods returning projectiles return
+ * copies which may be modified. {@link #getCharacterView(boolean)},
+ * {@link #getProjectile(int)} and {@link #getProjectile(boolean, int)} return
+ * the shared read-only instances without copying them, and should be used
+ * where the values are only read in every frame.
  */
 public class FrameData {
 
@@ -30,9 +40,23 @@ public class FrameData {
 	private int currentRound;
 
 	/**
-	 * The projectile data of both characters.
+	 * The projectile data of both characters, in the order in which they are
+	 * processed in the game.
 	 */
-	private Deque<AttackData> projectileData;
+	private AttackData[] projectileData;
+
+	/**
+	 * The projectile data of both characters, sorted by the owner.<br>
+	 * The projectiles of P1 come first, followed by those of P2, and the order
+	 * of the projectiles of each player is kept.
+	 */
+	private AttackData[] projectileDataByPlayer;
+
+	/**
+	 * The number of projectiles of P1, that is the index in
+	 * {@link #projectileDataByPlayer} of the first projectile of P2.
+	 */
+	private int projectileCountP1;
 
 	/**
 	 * If this value is true, no data are available or they are dummy data.
@@ -40,20 +64,35 @@ public class FrameData {
 	private boolean emptyFlag;
 
 	/**
-	 * The class constructor.
+	 * If this value is true, the match in which this frame data was created
+	 * is played in the training mode, and the round has no time limit.
+	 */
+	private boolean trainingModeFlag;
+
+	/**
+	 * The class constructor.<br>
+	 * The training mode is taken from the current value of
+	 * {@link FlagSetting#trainingModeFlag}.
 	 */
 	public FrameData() {
 		this.characterData = new CharacterData[] { null, null };
 		this.currentFrameNumber = -1;
 		this.currentRound = -1;
-		this.projectileData = new LinkedList<AttackData>();
+		this.projectileData = new AttackData[0];
+		this.projectileDataByPlayer = this.projectileData;
+		this.projectileCountP1 = 0;
 		this.emptyFlag = true;
+		this.trainingModeFlag = FlagSetting.trainingModeFlag;
 
 	}
 
 	/**
 	 * The class constructor that creates a new instance of the FrameData class
-	 * by copying the data passed as the arguments.
+	 * from the data passed as the arguments.<br>
+	 * The character data and the projectile data are copied, so the instances
+	 * passed as the arguments can still be modified afterwards. The training
+	 * mode is taken from the current value of
+	 * {@link FlagSetting#trainingModeFlag}.
 	 *
 	 * @param characterData
 	 *            an instance of the CharacterData class
@@ -69,48 +108,121 @@ public class FrameData {
 	 */
 	public FrameData(CharacterData[] characterData, int currentFrame, int currentRound,
 			Deque<AttackData> projectileData) {
-		this.characterData = new CharacterData[] { characterData[0], characterData[1] };
+		this(new CharacterData[] { copy(characterData[0]), copy(characterData[1]) }, currentFrame, currentRound,
+				copy(projectileData), FlagSetting.trainingModeFlag);
+	}
+
+	/**
+	 * The class constructor that holds the arrays passed as the arguments
+	 * without copying them, and makes their elements read-only.
+	 *
+	 * @param characterData
+	 *            the character data of P1 and P2
+	 * @param currentFrame
+	 *            the frame number of the current frame
+	 * @param currentRound
+	 *            the round number of the current round
+	 * @param projectileData
+	 *            the projectile data in the order in which they are processed
+	 *            in the game
+	 * @param trainingModeFlag
+	 *            {@code true} if the match is played in the training mode
+	 */
+	private FrameData(CharacterData[] characterData, int currentFrame, int currentRound,
+			AttackData[] projectileData, boolean trainingModeFlag) {
+		this.characterData = characterData;
+		for (CharacterData character : this.characterData) {
+			if (character != null) {
+				character.setReadOnly();
+			}
+		}
 		this.currentFrameNumber = currentFrame;
 		this.currentRound = currentRound;
 
-		// make deep copy of the attacks list
-		this.projectileData = new LinkedList<AttackData>();
-		for (AttackData attack : projectileData) {
-			this.projectileData.add(new AttackData(attack));
+		this.projectileData = projectileData;
+		this.projectileCountP1 = 0;
+		boolean foundP2 = false;
+		boolean sorted = true;
+		for (AttackData attack : this.projectileData) {
+			attack.setReadOnly();
+			if (attack.isPlayerNumber()) {
+				// The array is already sorted unless a projectile of P1 follows one of P2
+				sorted &= !foundP2;
+				this.projectileCountP1++;
+			} else {
+				foundP2 = true;
+			}
+		}
+
+		if (sorted) {
+			this.projectileDataByPlayer = this.projectileData;
+		} else {
+			this.projectileDataByPlayer = new AttackData[this.projectileData.length];
+			int p1 = 0;
+			int p2 = this.projectileCountP1;
+			for (AttackData attack : this.projectileData) {
+				this.projectileDataByPlayer[attack.isPlayerNumber() ? p1++ : p2++] = attack;
+			}
 		}
 
 		this.emptyFlag = false;
+		this.trainingModeFlag = trainingModeFlag;
+	}
+
+	/**
+	 * Creates a new instance of the FrameData class which holds the character
+	 * data and the projectile data passed as the arguments without copying
+	 * them.<br>
+	 * The passed instances are made read-only and shared by the new instance,
+	 * so they can not be modified afterwards. This method is used by the game
+	 * and the simulator, which create new instances for each frame data. Use
+	 * {@link #FrameData(CharacterData[], int, int, Deque)} to keep the passed
+	 * instances modifiable.
+	 *
+	 * @param characterData
+	 *            the character data of P1 and P2
+	 * @param currentFrame
+	 *            the frame number of the current frame
+	 * @param currentRound
+	 *            the round number of the current round
+	 * @param projectileData
+	 *            the queue that stores information on projectiles of P1 and P2
+	 * @param trainingModeFlag
+	 *            {@code true} if the match is played in the training mode
+	 * @return a new frame data holding the passed instances
+	 */
+	public static FrameData wrap(CharacterData[] characterData, int currentFrame, int currentRound,
+			Deque<AttackData> projectileData, boolean trainingModeFlag) {
+		return new FrameData(new CharacterData[] { characterData[0], characterData[1] }, currentFrame, currentRound,
+				projectileData.toArray(new AttackData[projectileData.size()]), trainingModeFlag);
 	}
 
 	/**
 	 * A copy constructor that creates a copy of an instance of the FrameData
-	 * class by copying the values of the variables from an instance of the
-	 * FrameData class passed as the argument.
+	 * class passed as the argument.<br>
+	 * The read-only character data and projectile data are shared with the
+	 * original instance instead of being copied.
 	 *
 	 * @param frameData
 	 *            an instance of the FrameData class
 	 */
 	public FrameData(FrameData frameData) {
-		this.characterData = new CharacterData[2];
-		this.characterData[0] = frameData.getCharacter(true);
-		this.characterData[1] = frameData.getCharacter(false);
+		this.characterData = frameData.characterData.clone();
 		this.currentFrameNumber = frameData.getFramesNumber();
 		this.currentRound = frameData.getRound();
-
-		// make deep copy of the attacks list
-		this.projectileData = new LinkedList<AttackData>();
-		Deque<AttackData> temp = frameData.getProjectiles();
-		for (AttackData attack : temp) {
-			this.projectileData.add(new AttackData(attack));
-		}
-
+		// The projectile data are never modified, so the arrays are shared with the original
+		this.projectileData = frameData.projectileData;
+		this.projectileDataByPlayer = frameData.projectileDataByPlayer;
+		this.projectileCountP1 = frameData.projectileCountP1;
 		this.emptyFlag = frameData.getEmptyFlag();
-
+		this.trainingModeFlag = frameData.trainingModeFlag;
 	}
 
 	/**
 	 * Returns an instance of the CharacterData class of the player specified by
-	 * an argument.
+	 * an argument.<br>
+	 * The returned instance is a copy, so modifying it does not affect this
+	 * frame data.
 	 *
 	 * @param playerNumber
 	 *            the number of the player. {@code true} if the player is P1, or
@@ -123,16 +235,32 @@ public class FrameData {
 		return temp == null ? null : new CharacterData(temp);
 	}
 
+	/**
+	 * Returns the read-only instance of the CharacterData class of the player
+	 * specified by an argument, which is held by this frame data.<br>
+	 * Unlike {@link #getCharacter(boolean)}, this method does not copy the
+	 * character data. The setters of the returned instance throw an exception.
+	 *
+	 * @param playerNumber
+	 *            the number of the player. {@code true} if the player is P1, or
+	 *            {@code false} if P2.
+	 * @return the read-only instance of the CharacterData class of the player
+	 * @see CharacterData#isReadOnly()
+	 */
+	public CharacterData getCharacterView(boolean playerNumber) {
+		return this.characterData[playerNumber ? 0 : 1];
+	}
+
 	/**
 	 * Returns the expected remaining time in milliseconds of the current round.
 	 * <br>
-	 * When FightingICE was launched with the training mode, this method returns
-	 * the max value of integer.
+	 * When the match is played in the training mode, this method returns the
+	 * max value of integer.
 	 *
 	 * @return the expected remaining time in milliseconds of the current round
 	 */
 	public int getRemainingTimeMilliseconds() {
-		if (FlagSetting.trainingModeFlag) {
+		if (this.trainingModeFlag) {
 			return Integer.MAX_VALUE;
 		} else {
 			return GameSetting.ROUND_TIME - (int) (((float) this.currentFrameNumber / GameSetting.FPS) * 1000);
@@ -141,15 +269,15 @@ public class FrameData {
 
 	/**
 	 * Returns the expected remaining time in seconds of the current round.<br>
-	 * When FightingICE was launched with the training mode, this method returns
-	 * the max value of integer.
+	 * When the match is played in the training mode, this method returns the
+	 * max value of integer.
 	 *
 	 * @return the expected remaining time in seconds of the current round
 	 * @deprecated Use {@link #getRemainingTimeMilliseconds()} instead. This
 	 *             method has been renamed to more clearly reflect its purpose.
 	 */
 	public int getRemainingTime() {
-		if (FlagSetting.trainingModeFlag) {
+		if (this.trainingModeFlag) {
 			return Integer.MAX_VALUE;
 		} else {
 			return (int) Math.ceil((float) getRemainingTimeMilliseconds() / 1000);
@@ -158,19 +286,30 @@ public class FrameData {
 
 	/**
 	 * Returns the number of remaining frames of the round. <br>
-	 * When FightingICE was launched with the training mode, this method returns
-	 * the max value of integer.
+	 * When the match is played in the training mode, this method returns the
+	 * max value of integer.
 	 *
 	 * @return the number of remaining frames of the round
 	 */
 	public int getRemainingFramesNumber() {
-		if (FlagSetting.trainingModeFlag) {
+		if (this.trainingModeFlag) {
 			return Integer.MAX_VALUE;
 		} else {
 			return (GameSetting.ROUND_FRAME_NUMBER - currentFrameNumber);
 		}
 	}
 
+	/**
+	 * Returns true if the match in which this frame data was created is played
+	 * in the training mode, and false otherwise.
+	 *
+	 * @return {@code true} if the match is played in the training mode,
+	 *         {@code false} otherwise
+	 */
+	public boolean isTrainingMode() {
+		return this.trainingModeFlag;
+	}
+
 	/**
 	 * Returns the number of frames since the beginning of the round.
 	 *
@@ -190,7 +329,10 @@ public class FrameData {
 	}
 
 	/**
-	 * Returns the projectile data of both characters.
+	 * Returns the projectile data of both characters.<br>
+	 * The returned queue and its elements are copies, so modifying them does
+	 * not affect this frame data. Use {@link #getProjectileCount()} and
+	 * {@link #getProjectile(int)} to read the projectiles without copying them.
 	 *
 	 * @return the projectile data of both characters
 	 */
@@ -204,31 +346,111 @@ public class FrameData {
 	}
 
 	/**
-	 * Returns the projectile data of player 1.
+	 * Returns the projectile data of player 1.<br>
+	 * The returned queue and its elements are copies. Use
+	 * {@link #getProjectileCount(boolean)} and
+	 * {@link #getProjectile(boolean, int)} to read the projectiles without
+	 * copying them.
 	 *
 	 * @return the projectile data of player 1
 	 */
 	public Deque<AttackData> getProjectilesByP1() {
-		LinkedList<AttackData> attackList = new LinkedList<AttackData>();
-		for (AttackData attack : this.projectileData) {
-			if (attack.isPlayerNumber()) {
-				attackList.add(new AttackData(attack));
-			}
-		}
-		return attackList;
+		return copyProjectiles(0, this.projectileCountP1);
 	}
 
 	/**
-	 * Returns the projectile data of player 2.
+	 * Returns the projectile data of player 2.<br>
+	 * The returned queue and its elements are copies. Use
+	 * {@link #getProjectileCount(boolean)} and
+	 * {@link #getProjectile(boolean, int)} to read the projectiles without
+	 * copying them.
 	 *
 	 * @return the projectile data of player 2
 	 */
 	public Deque<AttackData> getProjectilesByP2() {
+		return copyProjectiles(this.projectileCountP1, this.projectileDataByPlayer.length);
+	}
+
+	/**
+	 * Returns the number of projectiles of both characters.
+	 *
+	 * @return the number of projectiles of both characters
+	 */
+	public int getProjectileCount() {
+		return this.projectileData.length;
+	}
+
+	/**
+	 * Returns the read-only projectile data at the specified index, which is
+	 * held by this frame data.<br>
+	 * The projectiles of both characters are indexed from 0 to
+	 * {@code getProjectileCount() - 1} in the same order as
+	 * {@link #getProjectiles()}. This method does not copy the projectile data.
+	 * The setters of the returned instance throw an exception.
+	 *
+	 * @param index
+	 *            the index of the projectile
+	 * @return the read-only projectile data at the index
+	 * @throws IndexOutOfBoundsException
+	 *             if the index is out of range
+	 * @see AttackData#isReadOnly()
+	 */
+	public AttackData getProjectile(int index) {
+		return this.projectileData[index];
+	}
+
+	/**
+	 * Returns the number of projectiles of the player specified by an argument.
+	 *
+	 * @param playerNumber
+	 *            the number of the player. {@code true} if the player is P1, or
+	 *            {@code false} if P2.
+	 * @return the number of projectiles of the player
+	 */
+	public int getProjectileCount(boolean playerNumber) {
+		return playerNumber ? this.projectileCountP1 : this.projectileDataByPlayer.length - this.projectileCountP1;
+	}
+
+	/**
+	 * Returns the read-only projectile data of the player specified by an
+	 * argument at the specified index, which is held by this frame data.<br>
+	 * The projectiles of each player are indexed from 0 to
+	 * {@code getProjectileCount(playerNumber) - 1} in the same order as
+	 * {@link #getProjectilesByP1()} and {@link #getProjectilesByP2()}. This
+	 * method does not copy the projectile data. The setters of the returned
+	 * instance throw an exception.
+	 *
+	 * @param playerNumber
+	 *            the number of the player. {@code true} if the player is P1, or
+	 *            {@code false} if P2.
+	 * @param index
+	 *            the index of the projectile of the player
+	 * @return the read-only projectile data of the player at the index
+	 * @throws IndexOutOfBoundsException
+	 *             if the index is out of range
+	 * @see AttackData#isReadOnly()
+	 */
+	public AttackData getProjectile(boolean playerNumber, int index) {
+		if (index < 0 || index >= getProjectileCount(playerNumber)) {
+			throw new IndexOutOfBoundsException("Projectile " + index + " is out of range");
+		}
+		return this.projectileDataByPlayer[playerNumber ? index : this.projectileCountP1 + index];
+	}
+
+	/**
+	 * Returns a deep copy of the projectile data sorted by the owner in the
+	 * specified range.
+	 *
+	 * @param from
+	 *            the first index of the range, inclusive
+	 * @param to
+	 *            the last index of the range, exclusive
+	 * @return a deep copy of the projectile data in the range
+	 */
+	private Deque<AttackData> copyProjectiles(int from, int to) {
 		LinkedList<AttackData> attackList = new LinkedList<AttackData>();
-		for (AttackData attack : this.projectileData) {
-			if (!attack.isPlayerNumber()) {
-				attackList.add(new AttackData(attack));
-			}
+		for (int i = from; i < to; i++) {
+			attackList.add(new AttackData(this.projectileDataByPlayer[i]));
 		}
 		return attackList;
 	}
@@ -262,4 +484,124 @@ public class FrameData {
 		return Math.abs((this.characterData[0].getCenterY() - this.characterData[1].getCenterY()));
 	}
 
+	/**
+	 * Mixes all values of this frame data into the specified hash value.<br>
+	 * Two instances holding the same values give the same hash value, even if
+	 * they were created at different times.
+	 *
+	 * @param hash
+	 *            the current hash value
+	 * @return the hash value into which the values of this frame data are
+	 *         mixed
+	 * @see StateHash
+	 */
+	public long updateStateHash(long hash) {
+		hash = StateHash.update(hash, this.currentFrameNumber);
+		hash = StateHash.update(hash, this.currentRound);
+		hash = StateHash.update(hash, this.emptyFlag);
+		for (CharacterData character : this.characterData) {
+			hash = character == null ? StateHash.update(hash, -1) : character.updateStateHash(hash);
+		}
+
+		hash = StateHash.update(hash, this.projectileData.length);
+		for (AttackData attack : this.projectileData) {
+			hash = attack.updateStateHash(hash);
+		}
+
+		return hash;
+	}
+
+	/**
+	 * Mixes the values of this frame data into the specified hash value in the
+	 * same way as {@link #updateStateHash(long)}, except that the frame number
+	 * is left out and the last hits of the characters are mixed relative to
+	 * it.<br>
+	 * Two instances holding the same state give the same hash value even if
+	 * they were created in different frames. The simulator does not depend on
+	 * the frame number except through the last hits, so this hash value
+	 * identifies the results of the simulator started from this frame data.
+	 *
+	 * @param hash
+	 *            the current hash value
+	 * @return the hash value into which the values of this frame data are
+	 *         mixed
+	 * @see CharacterData#updateRelativeStateHash(long, int)
+	 */
+	public long updateRelativeStateHash(long hash) {
+		hash = StateHash.update(hash, this.currentRound);
+		hash = StateHash.update(hash, this.emptyFlag);
+		for (CharacterData character : this.characterData) {
+			hash = character == null ? StateHash.update(hash, -1)
+					: character.updateRelativeStateHash(hash, this.currentFrameNumber);
+		}
+
+		hash = StateHash.update(hash, this.projectileData.length);
+		for (AttackData attack : this.projectileData) {
+			hash = attack.updateStateHash(hash);
+		}
+
+		return hash;
+	}
+
+	/**
+	 * Returns a frame data which holds the same values as this frame data
+	 * except for the frame number and the frame numbers of the last hits of
+	 * both characters.<br>
+	 * The projectile data are shared with this frame data, and the character
+	 * data are copied only if their last hit changes. The returned instance is
+	 * read-only like this frame data.
+	 *
+	 * @param currentFrame
+	 *            the frame number of the returned frame data
+	 * @param lastHitFrameP1
+	 *            the frame number of the last hit of P1
+	 * @param lastHitFrameP2
+	 *            the frame number of the last hit of P2
+	 * @return the frame data in the specified frame
+	 */
+	public FrameData moveTo(int currentFrame, int lastHitFrameP1, int lastHitFrameP2) {
+		FrameData frameData = new FrameData(this);
+		frameData.currentFrameNumber = currentFrame;
+
+		int[] lastHitFrames = { lastHitFrameP1, lastHitFrameP2 };
+		for (int i = 0; i < 2; i++) {
+			CharacterData character = this.characterData[i];
+			if (character != null && character.getLastHitFrame() != lastHitFrames[i]) {
+				CharacterData moved = new CharacterData(character);
+				moved.setLastHitFrame(lastHitFrames[i]);
+				moved.setReadOnly();
+				frameData.characterData[i] = moved;
+			}
+		}
+
+		return frameData;
+	}
+
+	/**
+	 * Returns a copy of the character data, or {@code null} if the argument
+	 * is {@code null}.
+	 *
+	 * @param characterData
+	 *            the character data to be copied
+	 * @return a copy of the character data
+	 */
+	private static CharacterData copy(CharacterData characterData) {
+		return characterData == null ? null : new CharacterData(characterData);
+	}
+
+	/**
+	 * Returns an array of the copies of the projectile data in the queue.
+	 *
+	 * @param projectileData
+	 *            the queue that stores information on projectiles
+	 * @return an array of the copies of the projectile data
+	 */
+	private static AttackData[] copy(Deque<AttackData> projectileData) {
+		AttackData[] copies = new AttackData[projectileData.size()];
+		int i = 0;
+		for (AttackData attack : projectileData) {
+			copies[i++] = new AttackData(attack);
+		}
+		return copies;
+	}
 }
@@ -2,10 +2,11 @@ package struct;
 
 import java.util.ArrayList;
 
+import enumerate.Action;
 import fighting.Character;
 import fighting.Motion;
+import setting.GameContext;
 import setting.GameSetting;
-import setting.LaunchSetting;
 import simulator.Simulator;
 
 /**
@@ -42,6 +43,24 @@ public class GameData {
 	 */
 	private ArrayList<ArrayList<MotionData>> characterMotions;
 
+	/**
+	 * The list of motions of both characters shared by all simulations.<br>
+	 * Index 0 is P1, index 1 is P2.<br>
+	 * Each list holds the motions of the character, which are shared through
+	 * the motion table of the character and are never modified, so it can be
+	 * read by several simulations at the same time.
+	 */
+	private ArrayList<ArrayList<Motion>> simulatorMotions;
+
+	/**
+	 * The precomputed frame data of all actions of both characters.<br>
+	 * Index 0 is P1, index 1 is P2. Each list is indexed by
+	 * {@link Action#ordinal()}.
+	 *
+	 * @see ActionFrameData
+	 */
+	private ArrayList<ArrayList<ActionFrameData>> actionFrameData;
+
 	/**
 	 * The both characters' names.<br>
 	 * Index 0 is P1, index 1 is P2.
@@ -63,6 +82,13 @@ public class GameData {
 	 */
 	private Simulator simulator;
 
+	/**
+	 * The launch settings of the match this game data belongs to.
+	 *
+	 * @see GameContext
+	 */
+	private GameContext context;
+
 	/**
 	 * The class constructor.
 	 */
@@ -70,6 +96,8 @@ public class GameData {
 		this.maxHPs = new int[2];
 		this.maxEnergies = new int[2];
 		this.characterMotions = new ArrayList<ArrayList<MotionData>>(2);
+		this.simulatorMotions = new ArrayList<ArrayList<Motion>>(2);
+		this.actionFrameData = new ArrayList<ArrayList<ActionFrameData>>(2);
 		this.characterNames = new String[2];
 		this.aiNames = new String[2];
 	}
@@ -84,7 +112,24 @@ public class GameData {
 	 * @see Character
 	 */
 	public GameData(Character[] players) {
+		this(players, new GameContext());
+	}
+
+	/**
+	 * The class constructor that creates an instance of the GameData class by
+	 * using character information and the launch settings of a match.
+	 *
+	 * @param players
+	 *            character information of P1 and P2
+	 * @param context
+	 *            the launch settings of the match
+	 *
+	 * @see Character
+	 * @see GameContext
+	 */
+	public GameData(Character[] players, GameContext context) {
 		this();
+		this.context = context;
 
 		for (int i = 0; i < 2; i++) {
 			ArrayList<MotionData> motionDataList = new ArrayList<MotionData>();
@@ -94,14 +139,26 @@ public class GameData {
 			}
 
 			this.characterMotions.add(motionDataList);
+			this.simulatorMotions.add(temp);
+		}
+
+		for (int i = 0; i < 2; i++) {
+			ArrayList<Motion> motions = this.simulatorMotions.get(i);
+			ArrayList<Motion> opponentMotions = this.simulatorMotions.get(1 - i);
+			ArrayList<ActionFrameData> frameDataList = new ArrayList<ActionFrameData>(motions.size());
+			for (int j = 0; j < motions.size(); j++) {
+				frameDataList.add(new ActionFrameData(Action.values()[j], motions, opponentMotions));
+			}
+
+			this.actionFrameData.add(frameDataList);
 		}
 
 		this.stageWidth = GameSetting.STAGE_WIDTH;
 		this.stageHeight = GameSetting.STAGE_HEIGHT;
-		this.maxHPs = LaunchSetting.maxHp.clone();
-		this.maxEnergies = LaunchSetting.maxEnergy.clone();
-		this.characterNames = LaunchSetting.characterNames.clone();
-		this.aiNames = LaunchSetting.aiNames.clone();
+		this.maxHPs = context.getMaxHps();
+		this.maxEnergies = context.getMaxEnergies();
+		this.characterNames = context.getCharacterNames();
+		this.aiNames = context.getAiNames();
 
 		this.simulator = new Simulator(this);
 	}
@@ -125,6 +182,40 @@ public class GameData {
 		return temp;
 	}
 
+	/**
+	 * Returns the precomputed frame data of the specified action of the player
+	 * specified by the argument.<br>
+	 * The frame data are computed once when this game data is created, so this
+	 * method can be called many times in each frame instead of simulating the
+	 * action.
+	 *
+	 * @param playerNumber
+	 *            the player side's flag. {@code true} if the player is P1, or
+	 *            {@code false} if P2.
+	 * @param action
+	 *            the action
+	 * @return the frame data of the action
+	 * @see ActionFrameData
+	 */
+	public ActionFrameData getActionFrameData(boolean playerNumber, Action action) {
+		return this.actionFrameData.get(playerNumber ? 0 : 1).get(action.ordinal());
+	}
+
+	/**
+	 * Returns the precomputed frame data of all actions of the player
+	 * specified by the argument.
+	 *
+	 * @param playerNumber
+	 *            the player side's flag. {@code true} if the player is P1, or
+	 *            {@code false} if P2.
+	 * @return the frame data of all actions, indexed by
+	 *         {@link Action#ordinal()}
+	 * @see ActionFrameData
+	 */
+	public ArrayList<ActionFrameData> getActionFrameData(boolean playerNumber) {
+		return new ArrayList<ActionFrameData>(this.actionFrameData.get(playerNumber ? 0 : 1));
+	}
+
 	/**
 	 * Returns the motion of the player specified by the argument.<br>
 	 *
@@ -148,6 +239,34 @@ public class GameData {
 		return temp;
 	}
 
+	/**
+	 * Returns the motion of the player specified by the argument, which is
+	 * shared by all simulations.<br>
+	 * Unlike {@link #getMotion(boolean)}, this method does not create new
+	 * motions, so the returned list and its elements must not be modified.<br>
+	 * This method is used by the simulator.
+	 *
+	 * @param playerNumber
+	 *            the player side's flag. {@code true} if the player is P1, or
+	 *            {@code false} if P2.
+	 * @return the shared motion of the player specified by the argument
+	 * @see Motion
+	 */
+	public ArrayList<Motion> getSimulatorMotion(boolean playerNumber) {
+		return this.simulatorMotions.get(playerNumber ? 0 : 1);
+	}
+
+	/**
+	 * Returns the launch settings of the match.<br>
+	 * This method is used by the simulator.
+	 *
+	 * @return the launch settings of the match
+	 * @see GameContext
+	 */
+	public GameContext getGameContext() {
+		return this.context;
+	}
+
 	/**
 	 * Returns the width of the game stage.
 	 *
@@ -1,9 +1,41 @@
 package struct;
 
 /**
- * The class dealing with all possible keys used in the game.
+ * The class dealing with all possible keys used in the game.<br>
+ * The engine stores keys in the packed form given by {@link #pack()}, in which
+ * each key is one bit of an integer. This class is the form used by AIs and
+ * can be converted to and from the packed form without loss.
  */
 public class Key {
+	/**
+	 * The bit of the "A" button in the packed form of a key.
+	 */
+	public static final int MASK_A = 1;
+	/**
+	 * The bit of the "B" button in the packed form of a key.
+	 */
+	public static final int MASK_B = 1 << 1;
+	/**
+	 * The bit of the "C" button in the packed form of a key.
+	 */
+	public static final int MASK_C = 1 << 2;
+	/**
+	 * The bit of the "Up" button in the packed form of a key.
+	 */
+	public static final int MASK_U = 1 << 3;
+	/**
+	 * The bit of the "Right" button in the packed form of a key.
+	 */
+	public static final int MASK_R = 1 << 4;
+	/**
+	 * The bit of the "Down" button in the packed form of a key.
+	 */
+	public static final int MASK_D = 1 << 5;
+	/**
+	 * The bit of the "Left" button in the packed form of a key.
+	 */
+	public static final int MASK_L = 1 << 6;
+
 	/**
 	 * If the value is set to true, then the "A" button will be pressed.
 	 */
@@ -60,6 +92,35 @@ public class Key {
 		}
 	}
 
+	/**
+	 * The class constructor that initializes the key with the value returned
+	 * by {@link #pack()}.
+	 *
+	 * @param packedKey
+	 *            the value representing the pressed keys, one bit per key
+	 */
+	public Key(int packedKey) {
+		this.A = (packedKey & MASK_A) != 0;
+		this.B = (packedKey & MASK_B) != 0;
+		this.C = (packedKey & MASK_C) != 0;
+		this.U = (packedKey & MASK_U) != 0;
+		this.R = (packedKey & MASK_R) != 0;
+		this.D = (packedKey & MASK_D) != 0;
+		this.L = (packedKey & MASK_L) != 0;
+	}
+
+	/**
+	 * Returns the value representing the pressed keys, one bit per key.<br>
+	 * The bits from the lowest are A, B, C, U, R, D and L, so the value fits
+	 * in 7 bits. The key can be restored by {@link #Key(int)}.
+	 *
+	 * @return the value representing the pressed keys
+	 */
+	public int pack() {
+		return (this.A ? MASK_A : 0) | (this.B ? MASK_B : 0) | (this.C ? MASK_C : 0) | (this.U ? MASK_U : 0)
+				| (this.R ? MASK_R : 0) | (this.D ? MASK_D : 0) | (this.L ? MASK_L : 0);
+	}
+
 	/**
 	 * Resets all keys to false, or not pressed.
 	 */
@@ -82,18 +143,35 @@ public class Key {
 	 * @return the direction value from the numeric keypad
 	 */
 	public int getLever(boolean isFront) {
+		return getLever(pack(), isFront);
+	}
+
+	/**
+	 * Returns the value indicating the direction key of the packed key using
+	 * the numeric keypad.<br>
+	 * The result is the same as {@link #getLever(boolean)} of the key restored
+	 * from the packed key.
+	 *
+	 * @param packedKey
+	 *            the value representing the pressed keys given by
+	 *            {@link #pack()}
+	 * @param isFront
+	 *            the boolean value representing the player's orientation
+	 * @return the direction value from the numeric keypad
+	 */
+	public static int getLever(int packedKey, boolean isFront) {
 		int lever = 5;
 
-		if (this.U) {
+		if ((packedKey & MASK_U) != 0) {
 			lever += 3;
 		}
-		if (this.D) {
+		if ((packedKey & MASK_D) != 0) {
 			lever -= 3;
 		}
-		if (this.L) {
+		if ((packedKey & MASK_L) != 0) {
 			lever += isFront ? -1 : 1;
 		}
-		if (this.R) {
+		if ((packedKey & MASK_R) != 0) {
 			lever += isFront ? 1 : -1;
 		}
 
@@ -13,6 +13,7 @@ import java.nio.ByteBuffer;
 import org.lwjgl.BufferUtils;
 
 import manager.GraphicManager;
+import setting.FlagSetting;
 import setting.GameSetting;
 
 /**
@@ -21,6 +22,12 @@ import setting.GameSetting;
  */
 public class ScreenData {
 
+	/**
+	 * The black pixel data shared by all instances created in headless mode,
+	 * where there is no OpenGL context to read the screen from.
+	 */
+	private static ByteBuffer headlessByteBuffer;
+
 	/**
 	 * The pixel data of the screen are saved in the form of ByteBuffer.
 	 */
@@ -154,6 +161,10 @@ public class ScreenData {
 	 * @return RGB data of the screen in the form of ByteBuffer
 	 */
 	private ByteBuffer createDisplayByteBuffer() {
+		if (FlagSetting.headlessFlag) {
+			return createHeadlessByteBuffer();
+		}
+
 		// Allocate memory for the RGB data of the screen
 		ByteBuffer pixels = BufferUtils.createByteBuffer(3 * GameSetting.STAGE_WIDTH * GameSetting.STAGE_HEIGHT);
 		pixels.clear();
@@ -166,6 +177,20 @@ public class ScreenData {
 		return pixels;
 	}
 
+	/**
+	 * Obtains a read-only view of the black buffer used in headless mode.<br>
+	 * The buffer is allocated only once and is shared by all instances.
+	 *
+	 * @return RGB data of a black screen in the form of ByteBuffer
+	 */
+	private static synchronized ByteBuffer createHeadlessByteBuffer() {
+		if (headlessByteBuffer == null) {
+			headlessByteBuffer = ByteBuffer.allocateDirect(3 * GameSetting.STAGE_WIDTH * GameSetting.STAGE_HEIGHT);
+		}
+
+		return headlessByteBuffer.asReadOnlyBuffer();
+	}
+
 //	private BufferedImage createDisplayBufferedImage(){
 //		int width = GameSetting.STAGE_WIDTH;
 //		int height = GameSetting.STAGE_HEIGHT;
@@ -0,0 +1,544 @@
+package util;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedList;
+import java.util.Random;
+
+import aiinterface.CommandCenter;
+import command.CommandTable;
+import enumerate.Action;
+import fighting.Character;
+import fighting.Fighting;
+import fighting.FightingSnapshot;
+import input.KeyData;
+import input.KeyQueue;
+import setting.FlagSetting;
+import setting.GameContext;
+import setting.GameSetting;
+import setting.LaunchSetting;
+import simulator.Simulator;
+import struct.FrameData;
+import struct.GameData;
+import struct.Key;
+import struct.ScreenData;
+
+/**
+ * ゲームエンジンの主要な処理の実行時間とメモリ割り当て量を計測するベンチマークツール．<br>
+ * リプレイファイルのキー入力(指定がない場合はシード付きの乱数で生成したキー入力)を用いて1ラウンド分の対戦を再現し,
+ * その各フレームを入力として各処理を繰り返し実行する．入力が固定されるため, 最適化の前後で同じ条件の計測結果を比較できる．<br>
+ * 各処理について, ウォームアップの後に指定した回数だけ計測を行い, 1回あたりの平均実行時間(ns/op)と
+ * 1回あたりのメモリ割り当て量(B/op)を標準出力に出力する．
+ *
+ * <pre>
+ * java util.EngineBenchmark [--replay file.dat] [--c1 ZEN] [--c2 GARNET] [--seed 0]
+ *                           [--warmup 3] [--iterations 5] [--time 1000] [--filter name]
+ * </pre>
+ *
+ * 計測対象の処理は以下の通りである．
+ * <ul>
+ * <li>Fighting.processingFight</li>
+ * <li>Simulator.simulate (15, 60, 180フレーム)</li>
+ * <li>CommandTable.interpretationCommandFromKeyQueue</li>
+ * <li>FrameData(FrameData)</li>
+ * <li>FrameData.getProjectilesByP1, FrameData.getProjectile</li>
+ * <li>LogWriter.outputLog, LogWriter.updateJson</li>
+ * <li>ScreenData.getDisplayByteBufferAsBytes</li>
+ * </ul>
+ */
+public final class EngineBenchmark {
+
+	/**
+	 * シミュレータの計測に用いるシミュレーションのフレーム数．
+	 */
+	private static final int[] SIMULATION_LIMITS = { 15, 60, 180 };
+
+	/**
+	 * シミュレータの計測でキャラクターに実行させるアクションの候補．
+	 */
+	private static final Action[] SIMULATION_ACTIONS = { Action.FORWARD_WALK, Action.DASH, Action.BACK_STEP,
+			Action.JUMP, Action.FOR_JUMP, Action.CROUCH_GUARD, Action.STAND_A, Action.STAND_B, Action.CROUCH_A,
+			Action.CROUCH_B, Action.CROUCH_FB, Action.STAND_FA, Action.STAND_D_DF_FA, Action.STAND_D_DB_BA,
+			Action.AIR_A, Action.AIR_B };
+
+	/**
+	 * 計測結果が最適化によって取り除かれないように, 各処理の結果を混ぜ込む変数．
+	 */
+	private static volatile long sink;
+
+	/**
+	 * ウォームアップの回数．
+	 */
+	private int warmup = 3;
+
+	/**
+	 * 計測の回数．
+	 */
+	private int iterations = 5;
+
+	/**
+	 * 1回のウォームアップ及び計測の時間(ミリ秒)．
+	 */
+	private long time = 1000;
+
+	/**
+	 * 計測する処理の名前に含まれる文字列．{@code null}の場合は全ての処理を計測する．
+	 */
+	private String filter;
+
+	/**
+	 * 対戦の起動情報．
+	 */
+	private GameContext context;
+
+	/**
+	 * 計測に用いる対戦処理のインスタンス．
+	 */
+	private Fighting fighting;
+
+	/**
+	 * ラウンド開始時の対戦状態．
+	 */
+	private FightingSnapshot roundStart;
+
+	/**
+	 * 各フレームのキー入力．
+	 */
+	private ArrayList<KeyData> inputs;
+
+	/**
+	 * 各フレームの処理後のフレームデータ．
+	 */
+	private ArrayList<FrameData> frames;
+
+	/**
+	 * 各フレームまでのP1, P2のキー入力の履歴．<br>
+	 * Index 0 is P1, index 1 is P2.
+	 */
+	private ArrayList<KeyQueue[]> inputHistories;
+
+	/**
+	 * 計測を行う処理の1回分を表すインタフェース．
+	 */
+	private interface Operation {
+
+		/**
+		 * 処理を1回実行する．
+		 *
+		 * @param index
+		 *            実行回数. 入力のフレームを選ぶために用いる
+		 * @return 処理の結果から計算した値
+		 */
+		long run(int index);
+	}
+
+	/**
+	 * インスタンスを外部から生成させないためのクラスコンストラクタ．
+	 */
+	private EngineBenchmark() {
+
+	}
+
+	/**
+	 * 引数に従って入力を準備し, 全ての処理を計測する．
+	 *
+	 * @param args
+	 *            オプション. 書式はクラスの説明を参照
+	 */
+	public static void main(String[] args) {
+		EngineBenchmark benchmark = new EngineBenchmark();
+		String replayName = null;
+		long seed = 0;
+
+		try {
+			for (int i = 0; i < args.length; i++) {
+				switch (args[i]) {
+				case "--replay":
+					replayName = args[++i];
+					break;
+				case "--c1":
+					LaunchSetting.characterNames[0] = args[++i];
+					break;
+				case "--c2":
+					LaunchSetting.characterNames[1] = args[++i];
+					break;
+				case "--seed":
+					seed = Long.parseLong(args[++i]);
+					break;
+				case "--warmup":
+					benchmark.warmup = Integer.parseInt(args[++i]);
+					break;
+				case "--iterations":
+					benchmark.iterations = Integer.parseInt(args[++i]);
+					break;
+				case "--time":
+					benchmark.time = Long.parseLong(args[++i]);
+					break;
+				case "--filter":
+					benchmark.filter = args[++i];
+					break;
+				default:
+					throw new IllegalArgumentException("Unknown option: " + args[i]);
+				}
+			}
+		} catch (RuntimeException e) {
+			System.err.println(e.getMessage());
+			System.err.println("Usage: java util.EngineBenchmark [--replay file.dat] [--c1 name] [--c2 name]"
+					+ " [--seed n] [--warmup n] [--iterations n] [--time ms] [--filter name]");
+			System.exit(2);
+		}
+
+		try {
+			benchmark.prepare(replayName, seed);
+			benchmark.runAll();
+		} catch (IOException e) {
+			System.err.println("Cannot read replay file: " + e.getMessage());
+			System.exit(2);
+		}
+	}
+
+	/**
+	 * キー入力を読み込み, 1ラウンド分の対戦を再現して各フレームの入力を準備する．
+	 *
+	 * @param replayName
+	 *            リプレイファイルのパス. {@code null}の場合は乱数でキー入力を生成する
+	 * @param seed
+	 *            キー入力の生成に用いる乱数のシード
+	 * @throws IOException
+	 *             リプレイファイルの読み込みに失敗した場合
+	 */
+	private void prepare(String replayName, long seed) throws IOException {
+		FlagSetting.enableWindow = false;
+		FlagSetting.headlessFlag = true;
+		FlagSetting.muteFlag = true;
+
+		this.inputs = replayName == null ? createInputs(seed) : readReplay(replayName);
+
+		this.context = new GameContext();
+		this.fighting = new Fighting(this.context);
+		this.fighting.initialize();
+		this.fighting.initRound();
+		this.roundStart = this.fighting.snapshot();
+
+		// ラウンドが終了するまでの入力のみを用いる
+		this.frames = new ArrayList<FrameData>();
+		this.inputHistories = new ArrayList<KeyQueue[]>();
+		KeyQueue[] history = { new KeyQueue(), new KeyQueue() };
+		for (int i = 0; i < this.inputs.size() && i < GameSetting.ROUND_FRAME_NUMBER; i++) {
+			this.fighting.processingFight(i, this.inputs.get(i));
+			FrameData frameData = this.fighting.createFrameData(i, 1);
+			this.frames.add(frameData);
+
+			for (int j = 0; j < 2; j++) {
+				history[j].addLast(this.inputs.get(i).getPackedKey(j == 0));
+				if (history[j].size() > GameSetting.INPUT_LIMIT) {
+					history[j].removeFirst();
+				}
+			}
+			this.inputHistories.add(new KeyQueue[] { new KeyQueue(history[0]), new KeyQueue(history[1]) });
+
+			if (FlagSetting.limitHpFlag && (frameData.getCharacterView(true).getHp() <= 0
+					|| frameData.getCharacterView(false).getHp() <= 0)) {
+				break;
+			}
+		}
+		while (this.inputs.size() > this.frames.size()) {
+			this.inputs.remove(this.inputs.size() - 1);
+		}
+
+		System.out.println("Characters: " + this.context.getCharacterName(true) + " vs "
+				+ this.context.getCharacterName(false) + ", input: "
+				+ (replayName == null ? "random (seed " + seed + ")" : replayName) + ", frames: " + this.frames.size());
+	}
+
+	/**
+	 * シード付きの乱数で1ラウンド分のキー入力を生成する．
+	 *
+	 * @param seed
+	 *            乱数のシード
+	 * @return 各フレームのキー入力
+	 */
+	static ArrayList<KeyData> createInputs(long seed) {
+		Random random = new Random(seed);
+		ArrayList<KeyData> keyData = new ArrayList<KeyData>();
+		Key[] keys = { new Key(), new Key() };
+
+		for (int i = 0; i < GameSetting.ROUND_FRAME_NUMBER; i++) {
+			for (int j = 0; j < 2; j++) {
+				// 人間の入力に近づけるため, 一定の確率でのみ入力を変える
+				if (random.nextInt(6) == 0) {
+					keys[j] = new Key(random.nextInt(128));
+				}
+			}
+			keyData.add(new KeyData(new Key[] { new Key(keys[0]), new Key(keys[1]) }));
+		}
+
+		return keyData;
+	}
+
+	/**
+	 * リプレイファイルからキャラクター, 最大HP及び各フレームのキー入力を読み込む．<br>
+	 * ファイルの形式は{@link LogWriter#writeHeader(DataOutputStream)}及び
+	 * {@link LogWriter#outputLog(DataOutputStream, KeyData, Character[])}で出力されるものである．
+	 *
+	 * @param replayName
+	 *            リプレイファイルのパス
+	 * @return 各フレームのキー入力
+	 * @throws IOException
+	 *             リプレイファイルの読み込みに失敗した場合
+	 */
+	public static ArrayList<KeyData> readReplay(String replayName) throws IOException {
+		ArrayList<KeyData> keyData = new ArrayList<KeyData>();
+
+		try (DataInputStream dis = new DataInputStream(
+				new BufferedInputStream(new FileInputStream(new File(replayName))))) {
+			for (int i = 0; i < 2; i++) {
+				int checkMode = dis.readInt();
+				if (checkMode < 0) {
+					LaunchSetting.maxHp[i] = dis.readInt();
+					LaunchSetting.characterNames[i] = GameSetting.CHARACTERS[dis.readInt()];
+					FlagSetting.limitHpFlag = true;
+				} else {
+					LaunchSetting.characterNames[i] = GameSetting.CHARACTERS[checkMode];
+					FlagSetting.limitHpFlag = false;
+				}
+			}
+
+			try {
+				while (true) {
+					Key[] keys = new Key[2];
+					for (int i = 0; i < 2; i++) {
+						dis.readBoolean(); // front
+						dis.readByte(); // remainingFrame
+						dis.readByte(); // actionOrdinal
+						dis.readInt(); // hp
+						dis.readInt(); // energy
+						dis.readInt(); // x
+						dis.readInt(); // y
+						keys[i] = decodeKey(dis.readByte());
+					}
+					keyData.add(new KeyData(keys));
+				}
+			} catch (EOFException e) {
+				// ファイルの終端に達した
+			}
+		}
+
+		return keyData;
+	}
+
+	/**
+	 * リプレイファイルに記録されたキー入力の値をキー入力に変換する．
+	 *
+	 * @param keyByte
+	 *            キー入力の値
+	 * @return キー入力
+	 */
+	private static Key decodeKey(byte keyByte) {
+		Key key = new Key();
+		key.A = (keyByte & 1) != 0;
+		key.B = (keyByte & 2) != 0;
+		key.C = (keyByte & 4) != 0;
+		key.D = (keyByte & 8) != 0;
+		key.L = (keyByte & 16) != 0;
+		key.R = (keyByte & 32) != 0;
+		key.U = (keyByte & 64) != 0;
+
+		return key;
+	}
+
+	/**
+	 * 全ての処理を計測する．
+	 *
+	 * @throws IOException
+	 *             一時ファイルの作成に失敗した場合
+	 */
+	private void runAll() throws IOException {
+		final int frameCount = this.frames.size();
+
+		run("Fighting.processingFight", index -> {
+			int frame = index % frameCount;
+			if (frame == 0) {
+				this.fighting.restore(this.roundStart);
+			}
+			this.fighting.processingFight(frame, this.inputs.get(frame));
+			return this.fighting.getCharacters()[0].getHp();
+		});
+
+		GameData gameData = new GameData(this.fighting.getCharacters(), this.context);
+		Simulator simulator = gameData.getSimulator();
+		ArrayList<Deque<Action>> actions = createActions(frameCount * 2);
+		for (int limit : SIMULATION_LIMITS) {
+			run("Simulator.simulate(" + limit + ")", index -> {
+				int frame = index % frameCount;
+				FrameData result = simulator.simulate(this.frames.get(frame), true, actions.get(frame * 2),
+						actions.get(frame * 2 + 1), limit);
+				return result.getCharacterView(false).getHp();
+			});
+		}
+
+		CommandTable commandTable = new CommandTable();
+		Character[] characters = this.fighting.getCharacters();
+		run("CommandTable.interpretationCommandFromKeyQueue", index -> {
+			int frame = index % frameCount;
+			return commandTable
+					.interpretationCommandFromKeyQueue(characters[index & 1], this.inputHistories.get(frame)[index & 1])
+					.ordinal();
+		});
+
+		CommandCenter commandCenter = new CommandCenter();
+		run("CommandCenter.commandCall", index -> {
+			commandCenter.setFrameData(this.frames.get(index % frameCount), (index & 1) == 0);
+			commandCenter.commandCall(SIMULATION_ACTIONS[index % SIMULATION_ACTIONS.length]);
+			int sum = 0;
+			while (commandCenter.getSkillFlag()) {
+				sum += commandCenter.getPackedSkillKey();
+			}
+			return sum;
+		});
+
+		run("FrameData(FrameData)", index -> {
+			FrameData frameData = new FrameData(this.frames.get(index % frameCount));
+			return frameData.getFramesNumber();
+		});
+
+		run("FrameData.getProjectilesByP1", index -> {
+			return this.frames.get(index % frameCount).getProjectilesByP1().size();
+		});
+
+		run("FrameData.getProjectile", index -> {
+			FrameData frameData = this.frames.get(index % frameCount);
+			int sum = 0;
+			for (int i = 0; i < frameData.getProjectileCount(true); i++) {
+				sum += frameData.getProjectile(true, i).getCurrentFrame();
+			}
+			return sum;
+		});
+
+		LogWriter logWriter = new LogWriter(this.context);
+		DataOutputStream dos = new DataOutputStream(OutputStream.nullOutputStream());
+		run("LogWriter.outputLog", index -> {
+			logWriter.outputLog(dos, this.inputs.get(index % frameCount), characters);
+			return dos.size();
+		});
+
+		File json = File.createTempFile("benchmark", ".json");
+		json.deleteOnExit();
+		logWriter.initJson(json.getPath());
+		run("LogWriter.updateJson", index -> {
+			int frame = index % frameCount;
+			logWriter.updateJson(this.frames.get(frame), this.inputs.get(frame));
+			return frame;
+		});
+		logWriter.finalizeJson();
+		json.delete();
+
+		run("ScreenData.getDisplayByteBufferAsBytes", index -> {
+			return new ScreenData().getDisplayByteBufferAsBytes().length;
+		});
+	}
+
+	/**
+	 * シミュレータの計測に用いるアクションのリストをシード付きの乱数で生成する．
+	 *
+	 * @param count
+	 *            生成するリストの数
+	 * @return 1個から3個のアクションからなるリスト
+	 */
+	private static ArrayList<Deque<Action>> createActions(int count) {
+		Random random = new Random(count);
+		ArrayList<Deque<Action>> actions = new ArrayList<Deque<Action>>(count);
+
+		for (int i = 0; i < count; i++) {
+			Deque<Action> deque = new LinkedList<Action>();
+			for (int j = random.nextInt(3); j >= 0; j--) {
+				deque.add(SIMULATION_ACTIONS[random.nextInt(SIMULATION_ACTIONS.length)]);
+			}
+			actions.add(deque);
+		}
+
+		return actions;
+	}
+
+	/**
+	 * 処理のウォームアップと計測を行い, 結果を標準出力に出力する．
+	 *
+	 * @param name
+	 *            処理の名前
+	 * @param operation
+	 *            処理の1回分
+	 */
+	private void run(String name, Operation operation) {
+		if (this.filter != null && !name.contains(this.filter)) {
+			return;
+		}
+
+		for (int i = 0; i < this.warmup; i++) {
+			measure(operation);
+		}
+
+		double[] nanos = new double[this.iterations];
+		double bytes = 0;
+		for (int i = 0; i < this.iterations; i++) {
+			double[] result = measure(operation);
+			nanos[i] = result[0];
+			bytes += result[1];
+		}
+
+		double mean = 0;
+		for (double value : nanos) {
+			mean += value;
+		}
+		mean /= nanos.length;
+
+		double variance = 0;
+		for (double value : nanos) {
+			variance += (value - mean) * (value - mean);
+		}
+		double deviation = nanos.length > 1 ? Math.sqrt(variance / (nanos.length - 1)) : 0;
+
+		System.out.println(String.format("%-48s %12.1f +- %8.1f ns/op %12.1f B/op", name, mean, deviation,
+				bytes / this.iterations));
+	}
+
+	/**
+	 * 処理を指定した時間だけ繰り返し実行し, 1回あたりの実行時間とメモリ割り当て量を返す．
+	 *
+	 * @param operation
+	 *            処理の1回分
+	 * @return 1回あたりの実行時間(ナノ秒)とメモリ割り当て量(バイト)を格納した配列
+	 */
+	private double[] measure(Operation operation) {
+		com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) ManagementFactory
+				.getThreadMXBean();
+		long threadId = Thread.currentThread().getId();
+
+		long deadline = System.nanoTime() + this.time * 1000000L;
+		long result = 0;
+		int count = 0;
+
+		long startBytes = threadBean.getThreadAllocatedBytes(threadId);
+		long start = System.nanoTime();
+		long end;
+		do {
+			// 時刻の取得の負荷を抑えるため, 一定回数ごとに終了を判定する
+			for (int i = 0; i < 64; i++) {
+				result += operation.run(count++);
+			}
+			end = System.nanoTime();
+		} while (end < deadline);
+		long endBytes = threadBean.getThreadAllocatedBytes(threadId);
+
+		sink += result;
+		return new double[] { (double) (end - start) / count, (double) (endBytes - startBytes) / count };
+	}
+}
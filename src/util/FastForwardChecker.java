@@ -0,0 +1,194 @@
+package util;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Random;
+
+import enumerate.Action;
+import fighting.Fighting;
+import input.KeyData;
+import setting.FlagSetting;
+import setting.GameContext;
+import setting.GameSetting;
+import setting.LaunchSetting;
+import simulator.SimulationSession;
+import struct.FrameData;
+import struct.GameData;
+
+/**
+ * シミュレータの早送り({@link SimulationSession#setFastForward(boolean)})が, 1フレームずつの通常の処理と同じ結果を返すことを確かめるツール．<br>
+ * リプレイファイルのキー入力(指定がない場合はシード付きの乱数で生成したキー入力)で1ラウンド分の対戦を再現し, その各フレームから無作為に選んだ状態を起点とする．
+ * 起点ごとに乱数で生成したアクションの列を, 早送りを有効にしたセッションと無効にしたセッションの両方で実行し,
+ * 乱数で決めたフレーム数だけ進めるたびに{@link FrameData#updateStateHash(long)}のハッシュ値を比較する．
+ * 複数フレームをまとめて進めることで, 閉じた式による早送りも比較の対象とする．最初に食い違ったフレームで比較を打ち切る．
+ *
+ * <pre>
+ * java util.FastForwardChecker [--replay file.dat] [--c1 ZEN] [--c2 GARNET] [--seed 0]
+ *                              [--lines 2000] [--frames 180]
+ * </pre>
+ *
+ * @see SimulationSession#setFastForward(boolean)
+ * @see StateHashComparator
+ */
+public final class FastForwardChecker {
+
+	/**
+	 * 1つの起点で各プレイヤーに実行させるアクションの最大数．
+	 */
+	private static final int MAX_ACTIONS = 6;
+
+	/**
+	 * ハッシュ値を比較するまでに進める最大のフレーム数．
+	 */
+	private static final int MAX_STEP = 60;
+
+	/**
+	 * インスタンスを生成させないためのクラスコンストラクタ．
+	 */
+	private FastForwardChecker() {
+
+	}
+
+	/**
+	 * 引数に従って起点の状態を準備し, 早送りの有無による結果を比較する．<br>
+	 * 全てのフレームのハッシュ値が一致した場合は終了コード0, 食い違った場合は1, 引数やファイルに誤りがある場合は2で終了する．
+	 *
+	 * @param args
+	 *            オプション. 書式はクラスの説明を参照
+	 */
+	public static void main(String[] args) {
+		String replayName = null;
+		long seed = 0;
+		int lines = 2000;
+		int frames = 180;
+
+		try {
+			for (int i = 0; i < args.length; i++) {
+				switch (args[i]) {
+				case "--replay":
+					replayName = args[++i];
+					break;
+				case "--c1":
+					LaunchSetting.characterNames[0] = args[++i];
+					break;
+				case "--c2":
+					LaunchSetting.characterNames[1] = args[++i];
+					break;
+				case "--seed":
+					seed = Long.parseLong(args[++i]);
+					break;
+				case "--lines":
+					lines = Integer.parseInt(args[++i]);
+					break;
+				case "--frames":
+					frames = Integer.parseInt(args[++i]);
+					break;
+				default:
+					throw new IllegalArgumentException("Unknown option: " + args[i]);
+				}
+			}
+		} catch (RuntimeException e) {
+			System.err.println(e.getMessage());
+			System.err.println("Usage: java util.FastForwardChecker [--replay file.dat] [--c1 name] [--c2 name]"
+					+ " [--seed n] [--lines n] [--frames n]");
+			System.exit(2);
+		}
+
+		try {
+			ArrayList<KeyData> inputs = replayName == null ? EngineBenchmark.createInputs(seed)
+					: EngineBenchmark.readReplay(replayName);
+			System.exit(check(inputs, seed, lines, frames) ? 0 : 1);
+		} catch (IOException e) {
+			System.err.println("Cannot read replay file: " + e.getMessage());
+			System.exit(2);
+		}
+	}
+
+	/**
+	 * キー入力で再現した対戦の各フレームを起点として, 早送りを有効にしたセッションと無効にしたセッションの結果を比較する．<br>
+	 * 食い違った場合は, その起点, フレーム数, 両プレイヤーのアクションの列及びハッシュ値を出力する．
+	 *
+	 * @param inputs
+	 *            各フレームのキー入力
+	 * @param seed
+	 *            起点とアクションの列の選択に用いる乱数のシード
+	 * @param lines
+	 *            比較するアクションの列の数
+	 * @param frames
+	 *            1つのアクションの列で比較するフレーム数
+	 * @return {@code true} if both sessions gave the same hashes in every
+	 *         frame, {@code false} otherwise
+	 */
+	public static boolean check(ArrayList<KeyData> inputs, long seed, int lines, int frames) {
+		FlagSetting.enableWindow = false;
+		FlagSetting.headlessFlag = true;
+		FlagSetting.muteFlag = true;
+
+		GameContext context = new GameContext();
+		Fighting fighting = new Fighting(context);
+		fighting.initialize();
+		fighting.initRound();
+
+		// ラウンドが終了するまでの各フレームを起点の候補とする
+		ArrayList<FrameData> roots = new ArrayList<FrameData>();
+		for (int i = 0; i < inputs.size() && i < GameSetting.ROUND_FRAME_NUMBER; i++) {
+			fighting.processingFight(i, inputs.get(i));
+			FrameData frameData = fighting.createFrameData(i, 1);
+			roots.add(frameData);
+
+			if (context.isLimitHpFlag() && (frameData.getCharacterView(true).getHp() <= 0
+					|| frameData.getCharacterView(false).getHp() <= 0)) {
+				break;
+			}
+		}
+
+		GameData gameData = new GameData(fighting.getCharacters(), context);
+		SimulationSession fast = gameData.getSimulator().newSession();
+		SimulationSession normal = gameData.getSimulator().newSession();
+		fast.setFastForward(true);
+		normal.setFastForward(false);
+
+		Random random = new Random(seed);
+		Action[] allActions = Action.values();
+		for (int line = 0; line < lines; line++) {
+			int rootIndex = random.nextInt(roots.size());
+			FrameData root = roots.get(rootIndex);
+			fast.start(root);
+			normal.start(root);
+
+			StringBuilder description = new StringBuilder();
+			for (int i = 0; i < 2; i++) {
+				boolean playerNumber = i == 0;
+				description.append(playerNumber ? " P1:" : " P2:");
+				for (int j = random.nextInt(MAX_ACTIONS + 1); j > 0; j--) {
+					Action action = allActions[random.nextInt(allActions.length)];
+					fast.enqueue(playerNumber, action);
+					normal.enqueue(playerNumber, action);
+					description.append(' ').append(action.name());
+				}
+			}
+
+			for (int frame = 0; frame < frames;) {
+				// 1フレームずつ進める場合も含める
+				int step = Math.min(1 + random.nextInt(MAX_STEP), frames - frame);
+				fast.step(step);
+				normal.step(step);
+				frame += step;
+
+				long fastHash = StateHash.finish(fast.peek().updateStateHash(StateHash.SEED));
+				long normalHash = StateHash.finish(normal.peek().updateStateHash(StateHash.SEED));
+				if (fastHash != normalHash) {
+					System.out.println("First divergence at line " + line + " (root frame " + rootIndex + "), frame "
+							+ frame + ": " + String.format("%016x", fastHash) + " (fast-forward) vs "
+							+ String.format("%016x", normalHash) + " (normal)");
+					System.out.println("Actions:" + description);
+					return false;
+				}
+			}
+		}
+
+		System.out.println("Identical: " + lines + " lines, " + frames + " frames each, from " + roots.size()
+				+ " root frames");
+		return true;
+	}
+}
@@ -7,7 +7,6 @@ import java.io.IOException;
 import java.io.PrintWriter;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Deque;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -18,9 +17,8 @@ import fighting.Character;
 import informationcontainer.RoundResult;
 import input.KeyData;
 import loader.ResourceLoader;
-import setting.FlagSetting;
+import setting.GameContext;
 import setting.GameSetting;
-import setting.LaunchSetting;
 import struct.AttackData;
 import struct.CharacterData;
 import struct.FrameData;
@@ -60,6 +58,12 @@ public class LogWriter {
 	 */
 	boolean disableDisplayDataInFrameData;
 
+	/**
+	 * ログの出力に用いる試合の起動情報．<br>
+	 * 唯一のインスタンスでは, 初めて参照したときにFlagSetting及びLaunchSettingの値から生成する．
+	 */
+	private GameContext context;
+
 	/**
 	 * クラスコンストラクタ．
 	 */
@@ -67,6 +71,18 @@ public class LogWriter {
 		Logger.getAnonymousLogger().log(Level.INFO, "Create instance: " + LogWriter.class.getName());
 	}
 
+	/**
+	 * 引数の起動情報を用いてログを出力するインスタンスを生成するクラスコンストラクタ．<br>
+	 * 1つのプロセス内で複数の試合を行う場合は, 試合ごとにインスタンスを生成して用いる．
+	 *
+	 * @param context
+	 *            ログの出力に用いる試合の起動情報
+	 */
+	public LogWriter(GameContext context) {
+		this();
+		this.context = context;
+	}
+
 	/**
 	 * getInstance()が呼ばれたときに初めてインスタンスを生成するホルダークラス．
 	 */
@@ -143,10 +159,10 @@ public class LogWriter {
 				dos.writeInt(playerCharacters[i].getX());
 				dos.writeInt(playerCharacters[i].getY());
 
-				byte input = (byte) (convertBtoI(keyData.getKeys()[i].A) + convertBtoI(keyData.getKeys()[i].B) * 2
-						+ convertBtoI(keyData.getKeys()[i].C) * 4 + convertBtoI(keyData.getKeys()[i].D) * 8
-						+ convertBtoI(keyData.getKeys()[i].L) * 16 + convertBtoI(keyData.getKeys()[i].R) * 32
-						+ convertBtoI(keyData.getKeys()[i].U) * 64);
+				Key key = new Key(keyData.getPackedKey(i == 0));
+				byte input = (byte) (convertBtoI(key.A) + convertBtoI(key.B) * 2 + convertBtoI(key.C) * 4
+						+ convertBtoI(key.D) * 8 + convertBtoI(key.L) * 16 + convertBtoI(key.R) * 32
+						+ convertBtoI(key.U) * 64);
 
 				dos.writeByte(input);
 			}
@@ -158,6 +174,31 @@ public class LogWriter {
 
 	}
 
+	/**
+	 * 対戦状態のハッシュ値をファイルに出力する．<br>
+	 * 1フレームにつき, ラウンド数, フレーム数及びハッシュ値の16バイトが書き込まれる．
+	 *
+	 * @param dos
+	 *            ハッシュ値のファイルに書き込みを行うためのデータ出力ストリーム
+	 * @param round
+	 *            現在のラウンド
+	 * @param frame
+	 *            現在のフレーム
+	 * @param stateHash
+	 *            現在のフレームにおける対戦状態のハッシュ値
+	 *
+	 * @see StateHashComparator
+	 */
+	public void outputStateHash(DataOutputStream dos, int round, int frame, long stateHash) {
+		try {
+			dos.writeInt(round);
+			dos.writeInt(frame);
+			dos.writeLong(stateHash);
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+
 	/**
 	 * リプレイファイルにゲームモード(HP mode or Time mode)や使用キャラといったヘッダ情報を記述する．
 	 *
@@ -165,14 +206,16 @@ public class LogWriter {
 	 *            リプレイファイルに書き込みを行うためのデータ出力ストリーム
 	 */
 	public void writeHeader(DataOutputStream dos) {
+		GameContext context = getGameContext();
+
 		try {
 			for (int i = 0; i < 2; i++) {
-				if (FlagSetting.limitHpFlag) {
+				if (context.isLimitHpFlag()) {
 					dos.writeInt(-1);
-					dos.writeInt(LaunchSetting.maxHp[i]);
+					dos.writeInt(context.getMaxHp(i == 0));
 				}
 
-				dos.writeInt(Arrays.asList(GameSetting.CHARACTERS).indexOf(LaunchSetting.characterNames[i]));
+				dos.writeInt(Arrays.asList(GameSetting.CHARACTERS).indexOf(context.getCharacterName(i == 0)));
 			}
 		} catch (IOException e) {
 			e.printStackTrace();
@@ -191,9 +234,30 @@ public class LogWriter {
 	 * @return 出力ファイル名
 	 */
 	public String createOutputFileName(String path, String timeInfo) {
-		String mode = FlagSetting.limitHpFlag ? "HPMode" : "TimeMode";
+		GameContext context = getGameContext();
+		String mode = context.isLimitHpFlag() ? "HPMode" : "TimeMode";
+		String[] aiNames = context.getAiNames();
+
+		String fileName = path + mode + "_" + aiNames[0] + "_" + aiNames[1] + "_" + timeInfo;
+
+		// 並列に行う試合同士で同じファイル名にならないように, 試合番号を付加する
+		if (context.getMatchNumber() >= 0) {
+			fileName += "_" + context.getMatchNumber();
+		}
 
-		return path + mode + "_" + LaunchSetting.aiNames[0] + "_" + LaunchSetting.aiNames[1] + "_" + timeInfo;
+		return fileName;
+	}
+
+	/**
+	 * ログの出力に用いる試合の起動情報を返す．
+	 *
+	 * @return ログの出力に用いる試合の起動情報
+	 */
+	private GameContext getGameContext() {
+		if (this.context == null) {
+			this.context = new GameContext();
+		}
+		return this.context;
 	}
 
 	/**
@@ -284,6 +348,7 @@ public class LogWriter {
 	 *            file name for the JSON file
 	 */
 	public void initJson(String jsonName) {
+		GameContext context = getGameContext();
 		File file = new File(jsonName);
 
 		try {
@@ -295,14 +360,14 @@ public class LogWriter {
 
 			// Write max HP
 			this.generator.writeStartObject("max_hp");
-			this.generator.write("P1", LaunchSetting.maxHp[0]);
-			this.generator.write("P2", LaunchSetting.maxHp[1]);
+			this.generator.write("P1", context.getMaxHp(true));
+			this.generator.write("P2", context.getMaxHp(false));
 			this.generator.writeEnd();
 
 			// Write character names
 			this.generator.writeStartObject("character_names");
-			this.generator.write("P1", LaunchSetting.characterNames[0]);
-			this.generator.write("P2", LaunchSetting.characterNames[1]);
+			this.generator.write("P1", context.getCharacterName(true));
+			this.generator.write("P2", context.getCharacterName(false));
 			this.generator.writeEnd();
 
 			// Write stage details
@@ -350,14 +415,13 @@ public class LogWriter {
 
 		// Write P1 data
 		this.generator.writeStartObject("P1");
-		this.writeCharacterDataToJson(frameData.getCharacter(true), keyDataInput.getKeys()[0],
-				frameData.getProjectilesByP1());
+		this.writeCharacterDataToJson(frameData.getCharacterView(true), keyDataInput.getKeys()[0], frameData, true);
 		this.generator.writeEnd();
 
 		// Write P2 data
 		this.generator.writeStartObject("P2");
-		this.writeCharacterDataToJson(frameData.getCharacter(false), keyDataInput.getKeys()[1],
-				frameData.getProjectilesByP2());
+		this.writeCharacterDataToJson(frameData.getCharacterView(false), keyDataInput.getKeys()[1], frameData,
+				false);
 		this.generator.writeEnd();
 
 		// Close frame object
@@ -375,10 +439,12 @@ public class LogWriter {
 	 *            the data of the character
 	 * @param keys
 	 *            keys input by the character
-	 * @param projectiles
-	 *            projectiles currently active generated by this player
+	 * @param frameData
+	 *            frame data holding the projectiles currently active
+	 * @param playerNumber
+	 *            {@code true} if the character is P1, or {@code false} if P2
 	 */
-	private void writeCharacterDataToJson(CharacterData cd, Key keys, Deque<AttackData> projectiles) {
+	private void writeCharacterDataToJson(CharacterData cd, Key keys, FrameData frameData, boolean playerNumber) {
 
 		// Character
 		this.generator.write("front", cd.isFront());
@@ -416,9 +482,9 @@ public class LogWriter {
 		}
 
 		this.generator.writeStartArray("projectiles"); // Projectiles
-		for (AttackData projectile : projectiles) {
+		for (int i = 0; i < frameData.getProjectileCount(playerNumber); i++) {
 			this.generator.writeStartObject(); // Projectile
-			this.writeAttackToJson(projectile);
+			this.writeAttackToJson(frameData.getProjectile(playerNumber, i));
 			this.generator.writeEnd(); // Projectile
 		}
 		this.generator.writeEnd(); // Projectiles
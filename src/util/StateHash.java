@@ -0,0 +1,146 @@
+package util;
+
+import fighting.Attack;
+import struct.HitArea;
+import struct.Key;
+
+/**
+ * 対戦状態の64ビットハッシュ値を計算するためのユーティリティクラス．<br>
+ * 同じ対戦状態からは常に同じハッシュ値が得られるため, 2つの実行結果を比較して最初に状態が食い違ったフレームを特定するために用いる．
+ *
+ * @see StateHashComparator
+ */
+public final class StateHash {
+
+	/**
+	 * ハッシュ値の初期値．
+	 */
+	public static final long SEED = 0x27D4EB2F165667C5L;
+
+	/**
+	 * 値を混ぜ込む際に用いる素数．
+	 */
+	private static final long PRIME1 = 0x9E3779B185EBCA87L;
+
+	/**
+	 * 値を混ぜ込む際に用いる素数．
+	 */
+	private static final long PRIME2 = 0xC2B2AE3D27D4EB4FL;
+
+	/**
+	 * インスタンスを生成させないためのクラスコンストラクタ．
+	 */
+	private StateHash() {
+
+	}
+
+	/**
+	 * ハッシュ値に整数値を混ぜ込む．
+	 *
+	 * @param hash
+	 *            現在のハッシュ値
+	 * @param value
+	 *            混ぜ込む値
+	 * @return 新しいハッシュ値
+	 */
+	public static long update(long hash, long value) {
+		return Long.rotateLeft(hash + value * PRIME2, 31) * PRIME1;
+	}
+
+	/**
+	 * ハッシュ値に真偽値を混ぜ込む．
+	 *
+	 * @param hash
+	 *            現在のハッシュ値
+	 * @param value
+	 *            混ぜ込む値
+	 * @return 新しいハッシュ値
+	 */
+	public static long update(long hash, boolean value) {
+		return update(hash, value ? 1 : 0);
+	}
+
+	/**
+	 * ハッシュ値にキー入力を混ぜ込む．<br>
+	 * 各キーが押されているかどうかを1ビットずつ表した値を用いる．
+	 *
+	 * @param hash
+	 *            現在のハッシュ値
+	 * @param key
+	 *            混ぜ込むキー入力
+	 * @return 新しいハッシュ値
+	 */
+	public static long update(long hash, Key key) {
+		if (key == null) {
+			return update(hash, -1);
+		}
+
+		return update(hash, key.pack());
+	}
+
+	/**
+	 * ハッシュ値に当たり判定の領域を混ぜ込む．
+	 *
+	 * @param hash
+	 *            現在のハッシュ値
+	 * @param hitArea
+	 *            混ぜ込む当たり判定の領域
+	 * @return 新しいハッシュ値
+	 */
+	public static long update(long hash, HitArea hitArea) {
+		if (hitArea == null) {
+			return update(hash, -1);
+		}
+
+		hash = update(hash, hitArea.getLeft());
+		hash = update(hash, hitArea.getRight());
+		hash = update(hash, hitArea.getTop());
+		return update(hash, hitArea.getBottom());
+	}
+
+	/**
+	 * ハッシュ値に攻撃の状態を混ぜ込む．<br>
+	 * 攻撃の種類によって決まる値に加えて, 現在の位置, 速度及び経過フレーム数を用いる．
+	 *
+	 * @param hash
+	 *            現在のハッシュ値
+	 * @param attack
+	 *            混ぜ込む攻撃
+	 * @return 新しいハッシュ値
+	 */
+	public static long update(long hash, Attack attack) {
+		if (attack == null) {
+			return update(hash, -1);
+		}
+
+		hash = update(hash, attack.isPlayerNumber());
+		hash = update(hash, attack.getCurrentHitArea());
+		hash = update(hash, attack.getSettingHitArea());
+		hash = update(hash, attack.getCurrentFrame());
+		hash = update(hash, attack.getSpeedX());
+		hash = update(hash, attack.getSpeedY());
+		hash = update(hash, attack.getStartUp());
+		hash = update(hash, attack.getActive());
+		hash = update(hash, attack.getHitDamage());
+		hash = update(hash, attack.getGuardDamage());
+		hash = update(hash, attack.getImpactX());
+		hash = update(hash, attack.getImpactY());
+		hash = update(hash, attack.getAttackType());
+		return update(hash, attack.isDownProp());
+	}
+
+	/**
+	 * ハッシュ値の最終的な攪拌を行う．
+	 *
+	 * @param hash
+	 *            現在のハッシュ値
+	 * @return 攪拌後のハッシュ値
+	 */
+	public static long finish(long hash) {
+		hash ^= hash >>> 33;
+		hash *= PRIME2;
+		hash ^= hash >>> 29;
+		hash *= PRIME1;
+		return hash ^ (hash >>> 32);
+	}
+}
@@ -0,0 +1,115 @@
+package util;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.FileInputStream;
+import java.io.IOException;
+
+/**
+ * 2つの実行で出力された対戦状態のハッシュ値のファイルを比較し, 最初に状態が食い違ったフレームを出力するツール．<br>
+ * ハッシュ値のファイルは, --state-hashを指定して対戦またはリプレイの再生を行った際に出力される．<br>
+ * ラウンドの開始時には対戦状態が初期化されて再び一致し得るため, 二分探索ではなく先頭から順に比較する．
+ *
+ * <pre>
+ * java util.StateHashComparator a.hash b.hash
+ * </pre>
+ *
+ * @see StateHash
+ * @see LogWriter#outputStateHash(java.io.DataOutputStream, int, int, long)
+ */
+public final class StateHashComparator {
+
+	/**
+	 * インスタンスを生成させないためのクラスコンストラクタ．
+	 */
+	private StateHashComparator() {
+
+	}
+
+	/**
+	 * 引数に指定した2つのハッシュ値のファイルを比較し, 結果を標準出力に出力する．<br>
+	 * 全てのフレームのハッシュ値が一致した場合は終了コード0, 食い違った場合は1, 引数やファイルに誤りがある場合は2で終了する．
+	 *
+	 * @param args
+	 *            比較する2つのハッシュ値のファイルのパス
+	 */
+	public static void main(String[] args) {
+		if (args.length != 2) {
+			System.err.println("Usage: java util.StateHashComparator <first.hash> <second.hash>");
+			System.exit(2);
+		}
+
+		try {
+			System.exit(compare(args[0], args[1]) ? 0 : 1);
+		} catch (IOException e) {
+			System.err.println("Cannot read hash file: " + e.getMessage());
+			System.exit(2);
+		}
+	}
+
+	/**
+	 * 2つのハッシュ値のファイルを先頭から比較し, 最初に食い違ったフレームのラウンド数, フレーム数及びハッシュ値を出力する．
+	 *
+	 * @param firstFileName
+	 *            1つ目のハッシュ値のファイルのパス
+	 * @param secondFileName
+	 *            2つ目のハッシュ値のファイルのパス
+	 * @return {@code true} if both files contain the same hashes,
+	 *         {@code false} otherwise
+	 * @throws IOException
+	 *             ファイルの読み込みに失敗した場合
+	 */
+	public static boolean compare(String firstFileName, String secondFileName) throws IOException {
+		try (DataInputStream first = new DataInputStream(new BufferedInputStream(new FileInputStream(firstFileName)));
+				DataInputStream second = new DataInputStream(
+						new BufferedInputStream(new FileInputStream(secondFileName)))) {
+			long[] a = new long[3];
+			long[] b = new long[3];
+
+			for (int record = 0;; record++) {
+				boolean hasFirst = readRecord(first, a);
+				boolean hasSecond = readRecord(second, b);
+
+				if (!hasFirst && !hasSecond) {
+					System.out.println("Identical: " + record + " frames");
+					return true;
+				} else if (!hasFirst || !hasSecond) {
+					String shorter = hasFirst ? secondFileName : firstFileName;
+					long[] last = hasFirst ? a : b;
+					System.out.println("Length mismatch after " + record + " frames: " + shorter + " ends before round "
+							+ last[0] + ", frame " + last[1]);
+					return false;
+				} else if (a[0] != b[0] || a[1] != b[1] || a[2] != b[2]) {
+					System.out.println("First divergence at record " + record + ": round " + a[0] + ", frame " + a[1]
+							+ " (" + String.format("%016x", a[2]) + ") vs round " + b[0] + ", frame " + b[1] + " ("
+							+ String.format("%016x", b[2]) + ")");
+					return false;
+				}
+			}
+		}
+	}
+
+	/**
+	 * ハッシュ値のファイルから1フレーム分の記録を読み込む．
+	 *
+	 * @param dis
+	 *            ハッシュ値のファイルの入力ストリーム
+	 * @param record
+	 *            読み込んだラウンド数, フレーム数及びハッシュ値を格納する配列
+	 * @return {@code true} if a whole record was read, {@code false} if the end
+	 *         of the file was reached
+	 * @throws IOException
+	 *             ファイルの読み込みに失敗した場合
+	 */
+	private static boolean readRecord(DataInputStream dis, long[] record) throws IOException {
+		try {
+			record[0] = dis.readInt();
+			record[1] = dis.readInt();
+			record[2] = dis.readLong();
+			return true;
+		} catch (EOFException e) {
+			return false;
+		}
+	}
+}